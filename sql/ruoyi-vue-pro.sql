@@ -42,8 +42,10 @@ CREATE TABLE `inf_api_access_log` (
   `updater` varchar(64) DEFAULT '' COMMENT '更新者',
   `update_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   `deleted` bit(1) NOT NULL DEFAULT b'0' COMMENT '是否删除',
-  PRIMARY KEY (`id`) USING BTREE
-) ENGINE=InnoDB AUTO_INCREMENT=2306 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='API 访问日志表';
+  PRIMARY KEY (`id`,`begin_time`) USING BTREE,
+  KEY `idx_begin_time` (`begin_time`,`id`) USING BTREE COMMENT '游标分页'
+) ENGINE=InnoDB AUTO_INCREMENT=2306 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='API 访问日志表'
+PARTITION BY RANGE (TO_DAYS(`begin_time`)) (PARTITION p_max VALUES LESS THAN MAXVALUE);
 
 -- ----------------------------
 -- Records of inf_api_access_log
@@ -75,6 +77,9 @@ CREATE TABLE `inf_api_error_log` (
   `exception_file_name` varchar(512) NOT NULL COMMENT '异常发生的类文件\n     *\n     * {@link StackTraceElement#getFileName()}',
   `exception_method_name` varchar(512) NOT NULL COMMENT '异常发生的方法名\n     *\n     * {@link StackTraceElement#getMethodName()}',
   `exception_line_number` int NOT NULL COMMENT '异常发生的方法所在行\n     *\n     * {@link StackTraceElement#getLineNumber()}',
+  `exception_fingerprint` varchar(32) DEFAULT NULL COMMENT '异常指纹',
+  `exception_count` int NOT NULL DEFAULT '1' COMMENT '异常次数',
+  `exception_window_time` datetime DEFAULT NULL COMMENT '聚合窗口的开始时间',
   `process_status` tinyint NOT NULL COMMENT '处理状态',
   `process_time` datetime DEFAULT NULL COMMENT '处理时间',
   `process_user_id` int DEFAULT '0' COMMENT '处理用户编号',
@@ -83,7 +88,9 @@ CREATE TABLE `inf_api_error_log` (
   `updater` varchar(64) DEFAULT '' COMMENT '更新者',
   `update_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   `deleted` bit(1) NOT NULL DEFAULT b'0' COMMENT '是否删除',
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  UNIQUE KEY `uk_exception_fingerprint` (`application_name`,`exception_fingerprint`,`exception_window_time`) USING BTREE COMMENT '异常指纹',
+  KEY `idx_exception_time` (`exception_time`,`id`) USING BTREE COMMENT '游标分页'
 ) ENGINE=InnoDB AUTO_INCREMENT=73 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='系统异常日志';
 
 -- ----------------------------
@@ -183,8 +190,8 @@ CREATE TABLE `inf_job` (
 BEGIN;
 INSERT INTO `inf_job` VALUES (2, '用户 Session 超时 Job', 3, 'sysUserSessionTimeoutJob', 'aoteman', '0/5 * * * * ? *', 0, 0, 10, '', '2021-02-07 10:15:09', '', '2021-02-07 12:57:44', b'1');
 INSERT INTO `inf_job` VALUES (3, '用户 Session 超时 Job', 1, 'sysUserSessionTimeoutJob', NULL, '0 * * * * ? *', 3, 2000, 0, '', '2021-02-07 13:07:32', '', '2021-02-08 04:44:58', b'0');
-INSERT INTO `inf_job` VALUES (4, 'payNotifyJob', 1, '支付通知 Job', NULL, '* * * * * ?', 0, 0, 0, '1', '2021-10-27 08:33:35', '1', '2021-10-27 00:34:14', b'1');
-INSERT INTO `inf_job` VALUES (5, '支付通知 Job', 1, 'payNotifyJob', NULL, '* * * * * ?', 0, 0, 0, '1', '2021-10-27 08:34:42', '1', '2021-10-27 08:34:42', b'0');
+INSERT INTO `inf_job` VALUES (4, 'payNotifyJob', 1, '支付通知 Job', NULL, '0 * * * * ?', 0, 0, 0, '1', '2021-10-27 08:33:35', '1', '2021-10-27 00:34:14', b'1');
+INSERT INTO `inf_job` VALUES (5, '支付通知 Job', 1, 'payNotifyJob', NULL, '0 * * * * ?', 0, 0, 0, '1', '2021-10-27 08:34:42', '1', '2021-10-27 08:34:42', b'0');
 COMMIT;
 
 -- ----------------------------
@@ -207,8 +214,10 @@ CREATE TABLE `inf_job_log` (
   `updater` varchar(64) DEFAULT '' COMMENT '更新者',
   `update_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   `deleted` bit(1) NOT NULL DEFAULT b'0' COMMENT '是否删除',
-  PRIMARY KEY (`id`) USING BTREE
-) ENGINE=InnoDB AUTO_INCREMENT=3067 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='定时任务日志表';
+  PRIMARY KEY (`id`,`begin_time`) USING BTREE,
+  KEY `idx_begin_time` (`begin_time`,`id`) USING BTREE COMMENT '游标分页'
+) ENGINE=InnoDB AUTO_INCREMENT=3067 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='定时任务日志表'
+PARTITION BY RANGE (TO_DAYS(`begin_time`)) (PARTITION p_max VALUES LESS THAN MAXVALUE);
 
 -- ----------------------------
 -- Records of inf_job_log
@@ -216,6 +225,27 @@ CREATE TABLE `inf_job_log` (
 BEGIN;
 COMMIT;
 
+-- ----------------------------
+-- Table structure for inf_mq_outbox
+-- ----------------------------
+DROP TABLE IF EXISTS `inf_mq_outbox`;
+CREATE TABLE `inf_mq_outbox` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '编号',
+  `message_id` varchar(32) NOT NULL COMMENT '消息编号',
+  `type` tinyint NOT NULL COMMENT '消息类型',
+  `destination` varchar(255) NOT NULL COMMENT '目的地',
+  `content` text NOT NULL COMMENT '消息内容',
+  `stream_max_length` bigint DEFAULT NULL COMMENT 'Stream 的最大长度',
+  `creator` varchar(64) DEFAULT '' COMMENT '创建者',
+  `create_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `updater` varchar(64) DEFAULT '' COMMENT '更新者',
+  `update_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  `deleted` bit(1) NOT NULL DEFAULT b'0' COMMENT '是否删除',
+  PRIMARY KEY (`id`) USING BTREE,
+  UNIQUE KEY `uk_message_id` (`message_id`) USING BTREE,
+  KEY `idx_create_time` (`create_time`) USING BTREE COMMENT '扫描超时未投递的消息'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='MQ Outbox 消息表';
+
 -- ----------------------------
 -- Table structure for mbr_user
 -- ----------------------------
@@ -372,8 +402,9 @@ CREATE TABLE `pay_notify_log` (
   `updater` varchar(64) DEFAULT '' COMMENT '更新者',
   `update_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   `deleted` bit(1) NOT NULL DEFAULT b'0' COMMENT '是否删除',
-  PRIMARY KEY (`id`) USING BTREE
-) ENGINE=InnoDB AUTO_INCREMENT=14301 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='支付通知 App 的日志';
+  PRIMARY KEY (`id`,`create_time`) USING BTREE
+) ENGINE=InnoDB AUTO_INCREMENT=14301 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='支付通知 App 的日志'
+PARTITION BY RANGE (TO_DAYS(`create_time`)) (PARTITION p_max VALUES LESS THAN MAXVALUE);
 
 -- ----------------------------
 -- Records of pay_notify_log
@@ -398,34 +429,38 @@ CREATE TABLE `pay_notify_task` (
   `notify_times` tinyint NOT NULL COMMENT '当前通知次数',
   `max_notify_times` tinyint NOT NULL COMMENT '最大可通知次数',
   `notify_url` varchar(1024) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL COMMENT '异步通知地址',
+  `claim_owner` varchar(64) DEFAULT NULL COMMENT '认领者',
+  `claim_expire_time` datetime DEFAULT NULL COMMENT '认领的租约到期时间',
   `creator` varchar(64) DEFAULT '' COMMENT '创建者',
   `create_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `updater` varchar(64) DEFAULT '' COMMENT '更新者',
   `update_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   `deleted` bit(1) NOT NULL DEFAULT b'0' COMMENT '是否删除',
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  KEY `idx_status_next_notify_time` (`status`,`next_notify_time`) USING BTREE COMMENT '扫描需要通知的任务',
+  KEY `idx_claim_owner` (`claim_owner`) USING BTREE COMMENT '获得认领成功的任务'
 ) ENGINE=InnoDB AUTO_INCREMENT=112 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='商户支付、退款等的通知\n';
 
 -- ----------------------------
 -- Records of pay_notify_task
 -- ----------------------------
 BEGIN;
-INSERT INTO `pay_notify_task` VALUES (96, 1, 6, 1, 105, 1, '1635295878514', '2021-10-27 08:51:33', '2021-10-27 00:51:32', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, '2021-10-27 08:51:33', NULL, '2021-10-27 08:51:33', b'0');
-INSERT INTO `pay_notify_task` VALUES (97, 1, 6, 1, 106, 1, '1635296883074', '2021-10-27 09:08:12', '2021-10-27 01:08:12', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, '2021-10-27 09:08:12', NULL, '2021-10-27 09:08:12', b'0');
-INSERT INTO `pay_notify_task` VALUES (98, 1, 6, 1, 107, 1, '1635297635297', '2021-10-27 09:20:59', '2021-10-27 01:20:58', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, '2021-10-27 09:20:59', NULL, '2021-10-27 09:20:59', b'0');
-INSERT INTO `pay_notify_task` VALUES (99, 1, 6, 1, 108, 1, '1635297700295', '2021-10-27 09:21:55', '2021-10-27 01:21:55', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, '2021-10-27 09:21:55', NULL, '2021-10-27 09:21:55', b'0');
-INSERT INTO `pay_notify_task` VALUES (100, 1, 6, 1, 109, 1, '1635298128448', '2021-10-27 09:28:57', '2021-10-27 01:28:56', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, '2021-10-27 09:28:57', NULL, '2021-10-27 09:28:57', b'0');
-INSERT INTO `pay_notify_task` VALUES (101, 1, 6, 1, 110, 1, '1635298196716', '2021-10-27 09:30:05', '2021-10-27 01:30:05', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, '2021-10-27 09:30:05', NULL, '2021-10-27 09:30:05', b'0');
-INSERT INTO `pay_notify_task` VALUES (102, 1, 6, 1, 111, 1, '1635298542165', '2021-10-27 09:35:49', '2021-10-27 01:35:49', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, '2021-10-27 09:35:49', NULL, '2021-10-27 09:35:49', b'0');
-INSERT INTO `pay_notify_task` VALUES (103, 1, 6, 1, 112, 1, '1635298736280', '2021-10-27 09:39:08', '2021-10-27 01:39:07', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, '2021-10-27 09:39:08', NULL, '2021-10-27 09:39:08', b'0');
-INSERT INTO `pay_notify_task` VALUES (104, 1, 6, 1, 113, 1, '1635298796688', '2021-10-27 09:40:21', '2021-10-27 01:40:20', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, '2021-10-27 09:40:21', NULL, '2021-10-27 09:40:21', b'0');
-INSERT INTO `pay_notify_task` VALUES (105, 1, 6, 1, 114, 1, '1635299148566', '2021-10-27 09:45:57', '2021-10-27 01:45:57', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, '2021-10-27 09:45:57', NULL, '2021-10-27 09:45:57', b'0');
-INSERT INTO `pay_notify_task` VALUES (106, 1, 6, 1, 115, 1, '1635300261266', '2021-10-27 10:04:29', '2021-10-27 02:04:28', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, '2021-10-27 10:04:29', NULL, '2021-10-27 10:04:29', b'0');
-INSERT INTO `pay_notify_task` VALUES (107, 1, 6, 1, 117, 1, '1635311468233', '2021-10-27 13:11:16', '2021-10-27 05:11:16', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, '2021-10-27 13:11:16', NULL, '2021-10-27 13:11:16', b'0');
-INSERT INTO `pay_notify_task` VALUES (108, 1, 6, 1, 118, 1, '1635311823086', '2021-10-27 13:17:09', '2021-10-27 05:17:08', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, '2021-10-27 13:17:09', NULL, '2021-10-27 13:17:09', b'0');
-INSERT INTO `pay_notify_task` VALUES (109, 1, 6, 1, 119, 1, '1635311881440', '2021-10-27 13:18:11', '2021-10-27 05:18:10', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, '2021-10-27 13:18:11', NULL, '2021-10-27 13:18:11', b'0');
-INSERT INTO `pay_notify_task` VALUES (110, 1, 6, 1, 120, 1, '1635311949168', '2021-10-27 13:19:15', '2021-10-27 05:19:15', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, '2021-10-27 13:19:15', NULL, '2021-10-27 13:19:15', b'0');
-INSERT INTO `pay_notify_task` VALUES (111, 1, 6, 1, 121, 1, '1635312124657', '2021-10-27 13:22:16', '2021-10-27 05:22:16', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, '2021-10-27 13:22:16', NULL, '2021-10-27 13:22:16', b'0');
+INSERT INTO `pay_notify_task` VALUES (96, 1, 6, 1, 105, 1, '1635295878514', '2021-10-27 08:51:33', '2021-10-27 00:51:32', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, NULL, NULL, '2021-10-27 08:51:33', NULL, '2021-10-27 08:51:33', b'0');
+INSERT INTO `pay_notify_task` VALUES (97, 1, 6, 1, 106, 1, '1635296883074', '2021-10-27 09:08:12', '2021-10-27 01:08:12', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, NULL, NULL, '2021-10-27 09:08:12', NULL, '2021-10-27 09:08:12', b'0');
+INSERT INTO `pay_notify_task` VALUES (98, 1, 6, 1, 107, 1, '1635297635297', '2021-10-27 09:20:59', '2021-10-27 01:20:58', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, NULL, NULL, '2021-10-27 09:20:59', NULL, '2021-10-27 09:20:59', b'0');
+INSERT INTO `pay_notify_task` VALUES (99, 1, 6, 1, 108, 1, '1635297700295', '2021-10-27 09:21:55', '2021-10-27 01:21:55', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, NULL, NULL, '2021-10-27 09:21:55', NULL, '2021-10-27 09:21:55', b'0');
+INSERT INTO `pay_notify_task` VALUES (100, 1, 6, 1, 109, 1, '1635298128448', '2021-10-27 09:28:57', '2021-10-27 01:28:56', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, NULL, NULL, '2021-10-27 09:28:57', NULL, '2021-10-27 09:28:57', b'0');
+INSERT INTO `pay_notify_task` VALUES (101, 1, 6, 1, 110, 1, '1635298196716', '2021-10-27 09:30:05', '2021-10-27 01:30:05', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, NULL, NULL, '2021-10-27 09:30:05', NULL, '2021-10-27 09:30:05', b'0');
+INSERT INTO `pay_notify_task` VALUES (102, 1, 6, 1, 111, 1, '1635298542165', '2021-10-27 09:35:49', '2021-10-27 01:35:49', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, NULL, NULL, '2021-10-27 09:35:49', NULL, '2021-10-27 09:35:49', b'0');
+INSERT INTO `pay_notify_task` VALUES (103, 1, 6, 1, 112, 1, '1635298736280', '2021-10-27 09:39:08', '2021-10-27 01:39:07', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, NULL, NULL, '2021-10-27 09:39:08', NULL, '2021-10-27 09:39:08', b'0');
+INSERT INTO `pay_notify_task` VALUES (104, 1, 6, 1, 113, 1, '1635298796688', '2021-10-27 09:40:21', '2021-10-27 01:40:20', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, NULL, NULL, '2021-10-27 09:40:21', NULL, '2021-10-27 09:40:21', b'0');
+INSERT INTO `pay_notify_task` VALUES (105, 1, 6, 1, 114, 1, '1635299148566', '2021-10-27 09:45:57', '2021-10-27 01:45:57', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, NULL, NULL, '2021-10-27 09:45:57', NULL, '2021-10-27 09:45:57', b'0');
+INSERT INTO `pay_notify_task` VALUES (106, 1, 6, 1, 115, 1, '1635300261266', '2021-10-27 10:04:29', '2021-10-27 02:04:28', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, NULL, NULL, '2021-10-27 10:04:29', NULL, '2021-10-27 10:04:29', b'0');
+INSERT INTO `pay_notify_task` VALUES (107, 1, 6, 1, 117, 1, '1635311468233', '2021-10-27 13:11:16', '2021-10-27 05:11:16', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, NULL, NULL, '2021-10-27 13:11:16', NULL, '2021-10-27 13:11:16', b'0');
+INSERT INTO `pay_notify_task` VALUES (108, 1, 6, 1, 118, 1, '1635311823086', '2021-10-27 13:17:09', '2021-10-27 05:17:08', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, NULL, NULL, '2021-10-27 13:17:09', NULL, '2021-10-27 13:17:09', b'0');
+INSERT INTO `pay_notify_task` VALUES (109, 1, 6, 1, 119, 1, '1635311881440', '2021-10-27 13:18:11', '2021-10-27 05:18:10', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, NULL, NULL, '2021-10-27 13:18:11', NULL, '2021-10-27 13:18:11', b'0');
+INSERT INTO `pay_notify_task` VALUES (110, 1, 6, 1, 120, 1, '1635311949168', '2021-10-27 13:19:15', '2021-10-27 05:19:15', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, NULL, NULL, '2021-10-27 13:19:15', NULL, '2021-10-27 13:19:15', b'0');
+INSERT INTO `pay_notify_task` VALUES (111, 1, 6, 1, 121, 1, '1635312124657', '2021-10-27 13:22:16', '2021-10-27 05:22:16', 0, 9, 'http://127.0.0.1:28080/api/shop/order/pay-notify', NULL, NULL, NULL, '2021-10-27 13:22:16', NULL, '2021-10-27 13:22:16', b'0');
 COMMIT;
 
 -- ----------------------------
@@ -462,7 +497,8 @@ CREATE TABLE `pay_order` (
   `updater` varchar(64) DEFAULT '' COMMENT '更新者',
   `update_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   `deleted` bit(1) NOT NULL DEFAULT b'0' COMMENT '是否删除',
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  KEY `idx_status_expire_time` (`status`,`expire_time`) USING BTREE COMMENT '扫描即将过期的订单'
 ) ENGINE=InnoDB AUTO_INCREMENT=122 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='支付订单\n';
 
 -- ----------------------------
@@ -602,7 +638,9 @@ CREATE TABLE `pay_order_extension` (
   `updater` varchar(64) DEFAULT '' COMMENT '更新者',
   `update_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   `deleted` bit(1) NOT NULL DEFAULT b'0' COMMENT '是否删除',
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  UNIQUE KEY `uk_no` (`no`) USING BTREE COMMENT '支付订单号',
+  KEY `idx_order_id` (`order_id`) USING BTREE COMMENT '支付订单编号'
 ) ENGINE=InnoDB AUTO_INCREMENT=101 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='支付订单\n';
 
 -- ----------------------------
@@ -1022,8 +1060,10 @@ CREATE TABLE `sys_login_log` (
   `updater` varchar(64) DEFAULT '' COMMENT '更新者',
   `update_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   `deleted` bit(1) NOT NULL DEFAULT b'0' COMMENT '是否删除',
-  PRIMARY KEY (`id`) USING BTREE
-) ENGINE=InnoDB AUTO_INCREMENT=167 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='系统访问记录';
+  PRIMARY KEY (`id`,`create_time`) USING BTREE,
+  KEY `idx_create_time` (`create_time`,`id`) USING BTREE COMMENT '游标分页'
+) ENGINE=InnoDB AUTO_INCREMENT=167 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='系统访问记录'
+PARTITION BY RANGE (TO_DAYS(`create_time`)) (PARTITION p_max VALUES LESS THAN MAXVALUE);
 
 -- ----------------------------
 -- Records of sys_login_log
@@ -1257,8 +1297,10 @@ CREATE TABLE `sys_operate_log` (
   `updater` varchar(64) DEFAULT '' COMMENT '更新者',
   `update_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   `deleted` bit(1) NOT NULL DEFAULT b'0' COMMENT '是否删除',
-  PRIMARY KEY (`id`) USING BTREE
-) ENGINE=InnoDB AUTO_INCREMENT=64 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='操作日志记录';
+  PRIMARY KEY (`id`,`start_time`) USING BTREE,
+  KEY `idx_start_time` (`start_time`,`id`) USING BTREE COMMENT '游标分页'
+) ENGINE=InnoDB AUTO_INCREMENT=64 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='操作日志记录'
+PARTITION BY RANGE (TO_DAYS(`start_time`)) (PARTITION p_max VALUES LESS THAN MAXVALUE);
 
 -- ----------------------------
 -- Records of sys_operate_log
@@ -1605,7 +1647,8 @@ CREATE TABLE `sys_sms_log` (
   `updater` varchar(64) DEFAULT '' COMMENT '更新者',
   `update_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   `deleted` bit(1) NOT NULL DEFAULT b'0' COMMENT '是否删除',
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  KEY `idx_create_time` (`create_time`,`id`) USING BTREE COMMENT '游标分页'
 ) ENGINE=InnoDB AUTO_INCREMENT=17 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='短信日志';
 
 -- ----------------------------
@@ -72,10 +72,10 @@ public class InfJobLogController {
     @OperateLog(type = EXPORT)
     public void exportJobLogExcel(@Valid InfJobLogExportReqVO exportReqVO,
                                   HttpServletResponse response) throws IOException {
-        List<InfJobLogDO> list = jobLogService.getJobLogList(exportReqVO);
-        // 导出 Excel
-        List<InfJobLogExcelVO> datas = InfJobLogConvert.INSTANCE.convertList02(list);
-        ExcelUtils.write(response, "任务日志.xls", "数据", InfJobLogExcelVO.class, datas);
+        // 分批导出 Excel，避免一次性加载全部数据
+        ExcelUtils.write(response, "任务日志.xls", "数据", InfJobLogExcelVO.class,
+                writer -> jobLogService.getJobLogListByBatch(exportReqVO,
+                        list -> writer.accept(InfJobLogConvert.INSTANCE.convertList02(list))));
     }
 
 }
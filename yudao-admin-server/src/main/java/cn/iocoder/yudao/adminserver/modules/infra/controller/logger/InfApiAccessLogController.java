@@ -23,7 +23,6 @@ import javax.annotation.Resource;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.io.IOException;
-import java.util.List;
 
 import static cn.iocoder.yudao.framework.common.pojo.CommonResult.success;
 import static cn.iocoder.yudao.framework.operatelog.core.enums.OperateTypeEnum.EXPORT;
@@ -51,10 +50,10 @@ public class InfApiAccessLogController {
     @OperateLog(type = EXPORT)
     public void exportApiAccessLogExcel(@Valid InfApiAccessLogExportReqVO exportReqVO,
                                         HttpServletResponse response) throws IOException {
-        List<InfApiAccessLogDO> list = apiAccessLogService.getApiAccessLogList(exportReqVO);
-        // 导出 Excel
-        List<InfApiAccessLogExcelVO> datas = InfApiAccessLogConvert.INSTANCE.convertList02(list);
-        ExcelUtils.write(response, "API 访问日志.xls", "数据", InfApiAccessLogExcelVO.class, datas);
+        // 分批导出 Excel，避免一次性加载全部数据
+        ExcelUtils.write(response, "API 访问日志.xls", "数据", InfApiAccessLogExcelVO.class,
+                writer -> apiAccessLogService.getApiAccessLogListByBatch(exportReqVO,
+                        list -> writer.accept(InfApiAccessLogConvert.INSTANCE.convertList02(list))));
     }
 
 }
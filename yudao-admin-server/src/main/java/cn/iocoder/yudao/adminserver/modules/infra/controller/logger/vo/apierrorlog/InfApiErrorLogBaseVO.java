@@ -89,6 +89,10 @@ public class InfApiErrorLogBaseVO {
     @NotNull(message = "异常发生的方法所在行不能为空")
     private Integer exceptionLineNumber;
 
+    @ApiModelProperty(value = "异常次数", required = true, example = "1", notes = "聚合窗口内，相同指纹的异常出现的次数")
+    @NotNull(message = "异常次数不能为空")
+    private Integer exceptionCount;
+
     @ApiModelProperty(value = "处理状态", required = true, example = "0")
     @NotNull(message = "处理状态不能为空")
     private Integer processStatus;
@@ -75,6 +75,9 @@ public class InfApiErrorLogExcelVO {
     @ExcelProperty("异常发生的方法所在行")
     private Integer exceptionLineNumber;
 
+    @ExcelProperty("异常次数")
+    private Integer exceptionCount;
+
     @ExcelProperty("创建时间")
     private Date createTime;
 
@@ -9,6 +9,7 @@ import cn.iocoder.yudao.adminserver.modules.infra.dal.dataobject.job.InfJobLogDO
 import org.apache.ibatis.annotations.Mapper;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 任务日志 Mapper
@@ -19,25 +20,22 @@ import java.util.List;
 public interface InfJobLogMapper extends BaseMapperX<InfJobLogDO> {
 
     default PageResult<InfJobLogDO> selectPage(InfJobLogPageReqVO reqVO) {
-        return selectPage(reqVO, new QueryWrapperX<InfJobLogDO>()
+        return selectCursorPage(reqVO, new QueryWrapperX<InfJobLogDO>()
                 .eqIfPresent("job_id", reqVO.getJobId())
                 .likeIfPresent("handler_name", reqVO.getHandlerName())
                 .geIfPresent("begin_time", reqVO.getBeginTime())
                 .leIfPresent("end_time", reqVO.getEndTime())
-                .eqIfPresent("status", reqVO.getStatus())
-                .orderByDesc("id") // ID 倒序
-        );
+                .eqIfPresent("status", reqVO.getStatus()),
+                "begin_time", InfJobLogDO::getBeginTime, InfJobLogDO::getId); // 按照 begin_time 分区，使用它作为游标
     }
 
-    default List<InfJobLogDO> selectList(InfJobLogExportReqVO reqVO) {
-        return selectList(new QueryWrapperX<InfJobLogDO>()
+    default void selectListByBatch(InfJobLogExportReqVO reqVO, Consumer<List<InfJobLogDO>> consumer) {
+        selectCursorBatch(() -> new QueryWrapperX<InfJobLogDO>()
                 .eqIfPresent("job_id", reqVO.getJobId())
                 .likeIfPresent("handler_name", reqVO.getHandlerName())
                 .geIfPresent("begin_time", reqVO.getBeginTime())
                 .leIfPresent("end_time", reqVO.getEndTime())
-                .eqIfPresent("status", reqVO.getStatus())
-                .orderByDesc("id") // ID 倒序
-        );
+                .eqIfPresent("status", reqVO.getStatus()),
+                "begin_time", InfJobLogDO::getBeginTime, InfJobLogDO::getId, consumer);
     }
-
 }
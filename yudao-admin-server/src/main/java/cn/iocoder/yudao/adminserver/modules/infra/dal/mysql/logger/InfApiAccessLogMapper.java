@@ -9,6 +9,7 @@ import cn.iocoder.yudao.framework.mybatis.core.query.QueryWrapperX;
 import org.apache.ibatis.annotations.Mapper;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * API 访问日志 Mapper
@@ -19,29 +20,26 @@ import java.util.List;
 public interface InfApiAccessLogMapper extends BaseMapperX<InfApiAccessLogDO> {
 
     default PageResult<InfApiAccessLogDO> selectPage(InfApiAccessLogPageReqVO reqVO) {
-        return selectPage(reqVO, new QueryWrapperX<InfApiAccessLogDO>()
+        return selectCursorPage(reqVO, new QueryWrapperX<InfApiAccessLogDO>()
                 .eqIfPresent("user_id", reqVO.getUserId())
                 .eqIfPresent("user_type", reqVO.getUserType())
                 .eqIfPresent("application_name", reqVO.getApplicationName())
                 .likeIfPresent("request_url", reqVO.getRequestUrl())
                 .betweenIfPresent("begin_time", reqVO.getBeginBeginTime(), reqVO.getEndBeginTime())
                 .geIfPresent("duration", reqVO.getDuration())
-                .eqIfPresent("result_code", reqVO.getResultCode())
-                .orderByDesc("id")
-        );
+                .eqIfPresent("result_code", reqVO.getResultCode()),
+                "begin_time", InfApiAccessLogDO::getBeginTime, InfApiAccessLogDO::getId); // 按照 begin_time 分区，使用它作为游标
     }
 
-    default List<InfApiAccessLogDO> selectList(InfApiAccessLogExportReqVO reqVO) {
-        return selectList(new QueryWrapperX<InfApiAccessLogDO>()
+    default void selectListByBatch(InfApiAccessLogExportReqVO reqVO, Consumer<List<InfApiAccessLogDO>> consumer) {
+        selectCursorBatch(() -> new QueryWrapperX<InfApiAccessLogDO>()
                 .eqIfPresent("user_id", reqVO.getUserId())
                 .eqIfPresent("user_type", reqVO.getUserType())
                 .eqIfPresent("application_name", reqVO.getApplicationName())
                 .likeIfPresent("request_url", reqVO.getRequestUrl())
                 .betweenIfPresent("begin_time", reqVO.getBeginBeginTime(), reqVO.getEndBeginTime())
                 .geIfPresent("duration", reqVO.getDuration())
-                .eqIfPresent("result_code", reqVO.getResultCode())
-                .orderByDesc("id")
-        );
+                .eqIfPresent("result_code", reqVO.getResultCode()),
+                "begin_time", InfApiAccessLogDO::getBeginTime, InfApiAccessLogDO::getId, consumer);
     }
-
 }
@@ -19,15 +19,14 @@ import java.util.List;
 public interface InfApiErrorLogMapper extends BaseMapperX<InfApiErrorLogDO> {
 
     default PageResult<InfApiErrorLogDO> selectPage(InfApiErrorLogPageReqVO reqVO) {
-        return selectPage(reqVO, new QueryWrapperX<InfApiErrorLogDO>()
+        return selectCursorPage(reqVO, new QueryWrapperX<InfApiErrorLogDO>()
                 .eqIfPresent("user_id", reqVO.getUserId())
                 .eqIfPresent("user_type", reqVO.getUserType())
                 .eqIfPresent("application_name", reqVO.getApplicationName())
                 .likeIfPresent("request_url", reqVO.getRequestUrl())
                 .betweenIfPresent("exception_time", reqVO.getBeginExceptionTime(), reqVO.getEndExceptionTime())
-                .eqIfPresent("process_status", reqVO.getProcessStatus())
-                .orderByDesc("id")
-        );
+                .eqIfPresent("process_status", reqVO.getProcessStatus()),
+                "exception_time", InfApiErrorLogDO::getExceptionTime, InfApiErrorLogDO::getId);
     }
 
     default List<InfApiErrorLogDO> selectList(InfApiErrorLogExportReqVO reqVO) {
@@ -0,0 +1,78 @@
+package cn.iocoder.yudao.adminserver.modules.infra.dal.mysql.logger;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 日志保留 Mapper，负责日志表的分区维护与过期清理
+ *
+ * 注意，表名、字段名、分区定义使用 ${} 拼接，只允许传入配置项或程序生成的值
+ *
+ * @author 芋道源码
+ */
+@Mapper
+public interface InfLogRetentionMapper {
+
+    /**
+     * 获得表的分区名数组，按照分区顺序排序
+     *
+     * @param tableName 表名
+     * @return 分区名数组。未分区时，返回空数组
+     */
+    @Select("SELECT PARTITION_NAME FROM information_schema.PARTITIONS WHERE TABLE_SCHEMA = DATABASE()" +
+            " AND TABLE_NAME = #{tableName} AND PARTITION_NAME IS NOT NULL ORDER BY PARTITION_ORDINAL_POSITION")
+    List<String> selectPartitionNameList(@Param("tableName") String tableName);
+
+    /**
+     * 获得表中最早的时间，用于首次拆分 MAXVALUE 分区时，为已有的历史数据创建分区
+     *
+     * @param tableName 表名
+     * @param timeColumn 时间字段
+     * @return 最早的时间。表为空时，返回 null
+     */
+    @Select("SELECT MIN(${timeColumn}) FROM ${tableName}")
+    Date selectMinTime(@Param("tableName") String tableName, @Param("timeColumn") String timeColumn);
+
+    /**
+     * 将 MAXVALUE 分区拆分成新的分区 + MAXVALUE 分区
+     *
+     * @param tableName 表名
+     * @param maxPartitionName MAXVALUE 分区名
+     * @param partitions 新的分区定义数组，例如说 PARTITION p20211001 VALUES LESS THAN (TO_DAYS('20211002'))
+     */
+    @Update("<script>ALTER TABLE ${tableName} REORGANIZE PARTITION ${maxPartitionName} INTO (" +
+            "<foreach collection='partitions' item='partition' separator=','>${partition}</foreach>" +
+            ", PARTITION ${maxPartitionName} VALUES LESS THAN MAXVALUE)</script>")
+    void reorganizeMaxPartition(@Param("tableName") String tableName, @Param("maxPartitionName") String maxPartitionName,
+                                @Param("partitions") List<String> partitions);
+
+    /**
+     * 删除分区，整个分区的数据会被一起删除，不需要逐行扫描
+     *
+     * @param tableName 表名
+     * @param partitionNames 分区名数组
+     */
+    @Update("<script>ALTER TABLE ${tableName} DROP PARTITION " +
+            "<foreach collection='partitionNames' item='partitionName' separator=','>${partitionName}</foreach></script>")
+    void dropPartitions(@Param("tableName") String tableName, @Param("partitionNames") List<String> partitionNames);
+
+    /**
+     * 删除指定时间之前的记录，用于未分区的表
+     *
+     * @param tableName 表名
+     * @param timeColumn 时间字段
+     * @param expireTime 过期时间
+     * @param limit 最多删除的记录数
+     * @return 删除的记录数
+     */
+    @Delete("DELETE FROM ${tableName} WHERE ${timeColumn} < #{expireTime} LIMIT #{limit}")
+    int deleteListByTimeBefore(@Param("tableName") String tableName, @Param("timeColumn") String timeColumn,
+                               @Param("expireTime") Date expireTime, @Param("limit") Integer limit);
+
+}
@@ -0,0 +1,9 @@
+package cn.iocoder.yudao.adminserver.modules.infra.framework.logretention.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(LogRetentionProperties.class)
+public class LogRetentionConfig {
+}
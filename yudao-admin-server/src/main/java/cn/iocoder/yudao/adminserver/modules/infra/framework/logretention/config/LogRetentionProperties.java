@@ -0,0 +1,64 @@
+package cn.iocoder.yudao.adminserver.modules.infra.framework.logretention.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "yudao.log-retention")
+@Validated
+@Data
+public class LogRetentionProperties {
+
+    /**
+     * 提前创建的分区天数，默认为 3 天
+     */
+    @NotNull(message = "提前创建的分区天数不能为空")
+    @Min(value = 1, message = "提前创建的分区天数不能小于 1")
+    private Integer futurePartitionDays = 3;
+    /**
+     * 未分区的表，每批删除的记录数，默认为 1000 条
+     */
+    @NotNull(message = "每批删除的记录数不能为空")
+    @Min(value = 1, message = "每批删除的记录数不能小于 1")
+    private Integer deleteBatchSize = 1000;
+    /**
+     * 需要清理的日志表
+     */
+    @Valid
+    private List<Table> tables = Collections.emptyList();
+
+    @Data
+    public static class Table {
+
+        /**
+         * 表名
+         */
+        @NotEmpty(message = "表名不能为空")
+        @Pattern(regexp = "^[a-z][a-z0-9_]*$", message = "表名格式不正确")
+        private String name;
+        /**
+         * 时间字段
+         *
+         * 对于分区的表，必须和分区键一致
+         */
+        @NotEmpty(message = "时间字段不能为空")
+        @Pattern(regexp = "^[a-z][a-z0-9_]*$", message = "时间字段格式不正确")
+        private String timeColumn = "create_time";
+        /**
+         * 保留时长
+         */
+        @NotNull(message = "保留时长不能为空")
+        private Duration retention;
+
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * 基于 MySQL 的 RANGE 分区，实现日志表的按天分区与过期清理
+ */
+package cn.iocoder.yudao.adminserver.modules.infra.framework.logretention;
@@ -0,0 +1,33 @@
+package cn.iocoder.yudao.adminserver.modules.infra.job.logger;
+
+import cn.iocoder.yudao.adminserver.modules.infra.service.logger.InfLogRetentionService;
+import cn.iocoder.yudao.framework.quartz.core.handler.JobHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 日志保留 Job
+ * 为按天分区的日志表提前创建分区，并删除过期的分区；未分区的日志表，分批删除过期的记录
+ *
+ * 建议每天执行一次，例如说 CRON 表达式为 0 0 1 * * ?
+ *
+ * @author 芋道源码
+ */
+@Component
+@Slf4j
+public class InfLogRetentionJob implements JobHandler {
+
+    @Resource
+    private InfLogRetentionService logRetentionService;
+
+    @Override
+    public String execute(String param) throws Exception {
+        int createCount = logRetentionService.createFuturePartitions();
+        int dropCount = logRetentionService.dropExpiredPartitions();
+        long deleteCount = logRetentionService.deleteExpiredLogs();
+        return String.format("创建分区 %s 个，删除过期分区 %s 个，删除过期日志 %s 条", createCount, dropCount, deleteCount);
+    }
+
+}
@@ -1,8 +1,7 @@
 package cn.iocoder.yudao.adminserver.modules.infra.mq.producer.config;
 
 import cn.iocoder.yudao.adminserver.modules.infra.mq.message.config.InfConfigRefreshMessage;
-import cn.iocoder.yudao.framework.mq.core.util.RedisMessageUtils;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import cn.iocoder.yudao.framework.mq.core.transport.MessageTransport;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
@@ -14,14 +13,14 @@ import javax.annotation.Resource;
 public class InfConfigProducer {
 
     @Resource
-    private StringRedisTemplate stringRedisTemplate;
+    private MessageTransport messageTransport;
 
     /**
      * 发送 {@link InfConfigRefreshMessage} 消息
      */
     public void sendConfigRefreshMessage() {
         InfConfigRefreshMessage message = new InfConfigRefreshMessage();
-        RedisMessageUtils.sendChannelMessage(stringRedisTemplate, message);
+        messageTransport.sendChannelMessage(message);
     }
 
 }
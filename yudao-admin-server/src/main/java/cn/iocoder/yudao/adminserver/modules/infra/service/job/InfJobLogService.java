@@ -8,6 +8,7 @@ import cn.iocoder.yudao.adminserver.modules.infra.dal.dataobject.job.InfJobLogDO
 
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Job 日志 Service 接口
@@ -41,11 +42,10 @@ public interface InfJobLogService extends JobLogFrameworkService {
     PageResult<InfJobLogDO> getJobLogPage(InfJobLogPageReqVO pageReqVO);
 
     /**
-     * 获得定时任务列表, 用于 Excel 导出
+     * 分批获得定时任务日志列表, 用于大数据量的 Excel 导出
      *
      * @param exportReqVO 查询条件
-     * @return 定时任务分页
+     * @param consumer 每一批定时任务日志的处理器
      */
-    List<InfJobLogDO> getJobLogList(InfJobLogExportReqVO exportReqVO);
-
+    void getJobLogListByBatch(InfJobLogExportReqVO exportReqVO, Consumer<List<InfJobLogDO>> consumer);
 }
@@ -16,6 +16,7 @@ import javax.annotation.Resource;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Job 日志 Service 实现类
@@ -67,8 +68,7 @@ public class InfJobLogServiceImpl implements InfJobLogService {
     }
 
     @Override
-    public List<InfJobLogDO> getJobLogList(InfJobLogExportReqVO exportReqVO) {
-        return jobLogMapper.selectList(exportReqVO);
+    public void getJobLogListByBatch(InfJobLogExportReqVO exportReqVO, Consumer<List<InfJobLogDO>> consumer) {
+        jobLogMapper.selectListByBatch(exportReqVO, consumer);
     }
-
 }
@@ -6,6 +6,7 @@ import cn.iocoder.yudao.coreservice.modules.infra.dal.dataobject.logger.InfApiAc
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * API 访问日志 Service 接口
@@ -23,11 +24,10 @@ public interface InfApiAccessLogService {
     PageResult<InfApiAccessLogDO> getApiAccessLogPage(InfApiAccessLogPageReqVO pageReqVO);
 
     /**
-     * 获得 API 访问日志列表, 用于 Excel 导出
+     * 分批获得API 访问日志列表, 用于大数据量的 Excel 导出
      *
      * @param exportReqVO 查询条件
-     * @return API 访问日志分页
+     * @param consumer 每一批API 访问日志的处理器
      */
-    List<InfApiAccessLogDO> getApiAccessLogList(InfApiAccessLogExportReqVO exportReqVO);
-
+    void getApiAccessLogListByBatch(InfApiAccessLogExportReqVO exportReqVO, Consumer<List<InfApiAccessLogDO>> consumer);
 }
@@ -0,0 +1,34 @@
+package cn.iocoder.yudao.adminserver.modules.infra.service.logger;
+
+/**
+ * 日志保留 Service 接口
+ *
+ * 对于按天分区的日志表，提前创建分区，并整体删除过期的分区；
+ * 对于未分区的日志表，分批删除过期的记录
+ *
+ * @author 芋道源码
+ */
+public interface InfLogRetentionService {
+
+    /**
+     * 提前创建未来的分区
+     *
+     * @return 创建的分区数量
+     */
+    int createFuturePartitions();
+
+    /**
+     * 删除过期的分区
+     *
+     * @return 删除的分区数量
+     */
+    int dropExpiredPartitions();
+
+    /**
+     * 删除未分区的表中，过期的记录
+     *
+     * @return 删除的记录数量
+     */
+    long deleteExpiredLogs();
+
+}
@@ -11,6 +11,7 @@ import org.springframework.validation.annotation.Validated;
 
 import javax.annotation.Resource;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * API 访问日志 Service 实现类
@@ -30,8 +31,7 @@ public class InfApiAccessLogServiceImpl implements InfApiAccessLogService {
     }
 
     @Override
-    public List<InfApiAccessLogDO> getApiAccessLogList(InfApiAccessLogExportReqVO exportReqVO) {
-        return apiAccessLogMapper.selectList(exportReqVO);
+    public void getApiAccessLogListByBatch(InfApiAccessLogExportReqVO exportReqVO, Consumer<List<InfApiAccessLogDO>> consumer) {
+        apiAccessLogMapper.selectListByBatch(exportReqVO, consumer);
     }
-
 }
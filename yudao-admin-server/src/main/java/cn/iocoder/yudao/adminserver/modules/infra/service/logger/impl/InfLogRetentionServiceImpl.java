@@ -0,0 +1,199 @@
+package cn.iocoder.yudao.adminserver.modules.infra.service.logger.impl;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.iocoder.yudao.adminserver.modules.infra.dal.mysql.logger.InfLogRetentionMapper;
+import cn.iocoder.yudao.adminserver.modules.infra.framework.logretention.config.LogRetentionProperties;
+import cn.iocoder.yudao.adminserver.modules.infra.service.logger.InfLogRetentionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 日志保留 Service 实现类
+ *
+ * 分区约定：按照时间字段的 TO_DAYS 进行 RANGE 分区，每天一个分区，命名为 p + yyyyMMdd，
+ * 最后一个分区为 {@link #MAX_PARTITION_NAME}，参见 sql/ruoyi-vue-pro.sql 中的日志表
+ *
+ * @author 芋道源码
+ */
+@Service
+@Slf4j
+public class InfLogRetentionServiceImpl implements InfLogRetentionService {
+
+    /**
+     * MAXVALUE 分区名
+     */
+    private static final String MAX_PARTITION_NAME = "p_max";
+    /**
+     * 按天分区的分区名前缀
+     */
+    private static final String DAY_PARTITION_PREFIX = "p";
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    @Resource
+    private LogRetentionProperties logRetentionProperties;
+
+    @Resource
+    private InfLogRetentionMapper logRetentionMapper;
+
+    @Override
+    public int createFuturePartitions() {
+        int count = 0;
+        LocalDate today = LocalDate.now();
+        LocalDate lastDay = today.plusDays(logRetentionProperties.getFuturePartitionDays());
+        for (LogRetentionProperties.Table table : logRetentionProperties.getTables()) {
+            List<String> partitionNames = logRetentionMapper.selectPartitionNameList(table.getName());
+            if (!partitionNames.contains(MAX_PARTITION_NAME)) { // 未分区，或者不符合分区约定
+                continue;
+            }
+            // 计算需要创建的分区，必须在已有分区之后
+            LocalDate day = today;
+            LocalDate maxDay = getMaxDay(partitionNames);
+            if (maxDay == null) {
+                // 首次拆分，例如说从未分区的旧表升级而来，历史数据都在 MAXVALUE 分区中，需要为它们创建分区，
+                // 否则历史数据会全部落入第一个分区，无法按天过期
+                day = getFirstDay(table, today);
+            } else if (!maxDay.isBefore(day)) {
+                day = maxDay.plusDays(1);
+            }
+            List<String> partitions = new ArrayList<>();
+            for (; !day.isAfter(lastDay); day = day.plusDays(1)) {
+                partitions.add(String.format("PARTITION %s VALUES LESS THAN (TO_DAYS('%s'))",
+                        buildPartitionName(day), day.plusDays(1).format(DAY_FORMATTER)));
+            }
+            if (partitions.isEmpty()) {
+                continue;
+            }
+            // 拆分 MAXVALUE 分区。MAXVALUE 分区中的数据，会被复制到新的分区中：
+            // 日常只会拆出未来的分区，MAXVALUE 分区为空，代价很小；
+            // 但是首次拆分时，历史数据都在 MAXVALUE 分区中，会复制整张表，需要在业务低峰期执行
+            if (maxDay == null) {
+                log.warn("[createFuturePartitions][表({}) 首次拆分 MAXVALUE 分区，将复制已有的全部数据，创建分区 {} 个]",
+                        table.getName(), partitions.size());
+            }
+            try {
+                logRetentionMapper.reorganizeMaxPartition(table.getName(), MAX_PARTITION_NAME, partitions);
+                count += partitions.size();
+                log.info("[createFuturePartitions][表({}) 创建分区 {} 个]", table.getName(), partitions.size());
+            } catch (Exception ex) {
+                log.error("[createFuturePartitions][表({}) 创建分区({}) 发生异常]", table.getName(), partitions, ex);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int dropExpiredPartitions() {
+        int count = 0;
+        for (LogRetentionProperties.Table table : logRetentionProperties.getTables()) {
+            List<String> partitionNames = logRetentionMapper.selectPartitionNameList(table.getName());
+            if (!partitionNames.contains(MAX_PARTITION_NAME)) { // 未分区，或者不符合分区约定
+                continue;
+            }
+            // 只删除整个分区都过期的，即分区的上界不晚于过期时间
+            LocalDateTime expireTime = LocalDateTime.now().minus(table.getRetention());
+            List<String> expiredPartitionNames = new ArrayList<>();
+            partitionNames.forEach(partitionName -> {
+                LocalDate day = parseDay(partitionName);
+                if (day != null && !day.plusDays(1).atStartOfDay().isAfter(expireTime)) {
+                    expiredPartitionNames.add(partitionName);
+                }
+            });
+            if (expiredPartitionNames.isEmpty()) {
+                continue;
+            }
+            try {
+                logRetentionMapper.dropPartitions(table.getName(), expiredPartitionNames);
+                count += expiredPartitionNames.size();
+                log.info("[dropExpiredPartitions][表({}) 删除分区({})]", table.getName(), expiredPartitionNames);
+            } catch (Exception ex) {
+                log.error("[dropExpiredPartitions][表({}) 删除分区({}) 发生异常]", table.getName(), expiredPartitionNames, ex);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long deleteExpiredLogs() {
+        long count = 0;
+        Integer batchSize = logRetentionProperties.getDeleteBatchSize();
+        for (LogRetentionProperties.Table table : logRetentionProperties.getTables()) {
+            List<String> partitionNames = logRetentionMapper.selectPartitionNameList(table.getName());
+            if (CollUtil.isNotEmpty(partitionNames)) { // 已分区，通过删除分区清理
+                continue;
+            }
+            // 分批删除，避免一次删除过多，长时间锁表
+            Date expireTime = Date.from(LocalDateTime.now().minus(table.getRetention())
+                    .atZone(ZoneId.systemDefault()).toInstant());
+            try {
+                int deleteCount;
+                do {
+                    deleteCount = logRetentionMapper.deleteListByTimeBefore(table.getName(), table.getTimeColumn(),
+                            expireTime, batchSize);
+                    count += deleteCount;
+                } while (deleteCount >= batchSize);
+            } catch (Exception ex) {
+                log.error("[deleteExpiredLogs][表({}) 删除过期记录发生异常]", table.getName(), ex);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 获得首次拆分时，第一个分区的日期
+     *
+     * 从表中最早的数据开始，但不早于保留时长。更早的数据，会落入第一个分区，随第一个分区一起过期删除
+     *
+     * @param table 表
+     * @param today 今天
+     * @return 日期
+     */
+    private LocalDate getFirstDay(LogRetentionProperties.Table table, LocalDate today) {
+        Date minTime = logRetentionMapper.selectMinTime(table.getName(), table.getTimeColumn());
+        if (minTime == null) {
+            return today;
+        }
+        LocalDate minDay = minTime.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        LocalDate expireDay = LocalDateTime.now().minus(table.getRetention()).toLocalDate();
+        if (minDay.isBefore(expireDay)) {
+            minDay = expireDay;
+        }
+        return minDay.isAfter(today) ? today : minDay;
+    }
+
+    private static LocalDate getMaxDay(List<String> partitionNames) {
+        LocalDate maxDay = null;
+        for (String partitionName : partitionNames) {
+            LocalDate day = parseDay(partitionName);
+            if (day != null && (maxDay == null || day.isAfter(maxDay))) {
+                maxDay = day;
+            }
+        }
+        return maxDay;
+    }
+
+    private static String buildPartitionName(LocalDate day) {
+        return DAY_PARTITION_PREFIX + day.format(DAY_FORMATTER);
+    }
+
+    private static LocalDate parseDay(String partitionName) {
+        if (MAX_PARTITION_NAME.equals(partitionName) || !partitionName.startsWith(DAY_PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partitionName.substring(DAY_PARTITION_PREFIX.length()), DAY_FORMATTER);
+        } catch (DateTimeParseException ex) {
+            return null;
+        }
+    }
+
+}
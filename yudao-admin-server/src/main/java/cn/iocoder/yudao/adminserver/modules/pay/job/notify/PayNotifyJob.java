@@ -9,7 +9,8 @@ import javax.annotation.Resource;
 
 /**
  * 支付通知 Job
- * 通过不断扫描待通知的 PayNotifyTaskDO 记录，回调业务线的回调接口
+ * 通知由内存的时间轮准时触发，该 Job 负责对账：扫描已经到期、但未被触发的 PayNotifyTaskDO 记录，回调业务线的回调接口，
+ * 并将即将到期的记录加载到时间轮中
  *
  * @author 芋道源码
  */
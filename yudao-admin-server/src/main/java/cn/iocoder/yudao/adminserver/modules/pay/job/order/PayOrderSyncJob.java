@@ -0,0 +1,30 @@
+package cn.iocoder.yudao.adminserver.modules.pay.job.order;
+
+import cn.iocoder.yudao.coreservice.modules.pay.service.order.PayOrderCoreService;
+import cn.iocoder.yudao.framework.quartz.core.handler.JobHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 支付订单对账 Job
+ * 支付渠道的回调可能丢失、延迟，该 Job 负责对账：扫描即将过期、仍在待支付的 PayOrderExtensionDO 记录，
+ * 主动调用支付渠道查询支付结果，已经支付成功的更新支付订单
+ *
+ * @author 芋道源码
+ */
+@Component
+@Slf4j
+public class PayOrderSyncJob implements JobHandler {
+
+    @Resource
+    private PayOrderCoreService payOrderCoreService;
+
+    @Override
+    public String execute(String param) throws Exception {
+        int paidCount = payOrderCoreService.syncPayOrder();
+        return String.format("对账支付成功 %s 个", paidCount);
+    }
+
+}
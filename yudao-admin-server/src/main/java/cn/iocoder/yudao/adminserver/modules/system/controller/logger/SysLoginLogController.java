@@ -23,7 +23,6 @@ import javax.annotation.Resource;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.io.IOException;
-import java.util.List;
 
 import static cn.iocoder.yudao.framework.operatelog.core.enums.OperateTypeEnum.EXPORT;
 
@@ -49,11 +48,10 @@ public class SysLoginLogController {
     @PreAuthorize("@ss.hasPermission('system:login-log:export')")
     @OperateLog(type = EXPORT)
     public void exportLoginLog(HttpServletResponse response, @Valid SysLoginLogExportReqVO reqVO) throws IOException {
-        List<SysLoginLogDO> list = loginLogService.getLoginLogList(reqVO);
-        // 拼接数据
-        List<SysLoginLogExcelVO> data = SysLoginLogConvert.INSTANCE.convertList(list);
-        // 输出
-        ExcelUtils.write(response, "登录日志.xls", "数据列表", SysLoginLogExcelVO.class, data);
+        // 分批输出，避免一次性加载全部数据
+        ExcelUtils.write(response, "登录日志.xls", "数据列表", SysLoginLogExcelVO.class,
+                writer -> loginLogService.getLoginLogListByBatch(reqVO,
+                        list -> writer.accept(SysLoginLogConvert.INSTANCE.convertList(list))));
     }
 
 }
@@ -71,15 +71,15 @@ public class SysOperateLogController {
     @PreAuthorize("@ss.hasPermission('system:operate-log:export')")
     @OperateLog(type = EXPORT)
     public void exportOperateLog(HttpServletResponse response, @Valid SysOperateLogExportReqVO reqVO) throws IOException {
-        List<SysOperateLogDO> list = operateLogService.getOperateLogs(reqVO);
-
-        // 获得拼接需要的数据
-        Collection<Long> userIds = CollectionUtils.convertList(list, SysOperateLogDO::getUserId);
-        Map<Long, SysUserDO> userMap = userService.getUserMap(userIds);
-        // 拼接数据
-        List<SysOperateLogExcelVO> excelDataList = SysOperateLogConvert.INSTANCE.convertList(list, userMap);
-        // 输出
-        ExcelUtils.write(response, "操作日志.xls", "数据列表", SysOperateLogExcelVO.class, excelDataList);
+        // 分批输出，避免一次性加载全部数据
+        ExcelUtils.write(response, "操作日志.xls", "数据列表", SysOperateLogExcelVO.class,
+                writer -> operateLogService.getOperateLogListByBatch(reqVO, list -> {
+                    // 获得拼接需要的数据
+                    Collection<Long> userIds = CollectionUtils.convertList(list, SysOperateLogDO::getUserId);
+                    Map<Long, SysUserDO> userMap = userService.getUserMap(userIds);
+                    // 拼接数据
+                    writer.accept(SysOperateLogConvert.INSTANCE.convertList(list, userMap));
+                }));
     }
 
 }
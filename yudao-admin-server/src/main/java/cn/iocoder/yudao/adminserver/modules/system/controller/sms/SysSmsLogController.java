@@ -23,7 +23,6 @@ import javax.annotation.Resource;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.io.IOException;
-import java.util.List;
 
 import static cn.iocoder.yudao.framework.common.pojo.CommonResult.success;
 import static cn.iocoder.yudao.framework.operatelog.core.enums.OperateTypeEnum.EXPORT;
@@ -51,10 +50,10 @@ public class SysSmsLogController {
     @OperateLog(type = EXPORT)
     public void exportSmsLogExcel(@Valid SysSmsLogExportReqVO exportReqVO,
                                   HttpServletResponse response) throws IOException {
-        List<SysSmsLogDO> list = smsLogService.getSmsLogList(exportReqVO);
-        // 导出 Excel
-        List<SysSmsLogExcelVO> datas = SysSmsLogConvert.INSTANCE.convertList02(list);
-        ExcelUtils.write(response, "短信日志.xls", "数据", SysSmsLogExcelVO.class, datas);
+        // 分批导出 Excel，避免一次性加载全部数据
+        ExcelUtils.write(response, "短信日志.xls", "数据", SysSmsLogExcelVO.class,
+                writer -> smsLogService.getSmsLogListByBatch(exportReqVO,
+                        list -> writer.accept(SysSmsLogConvert.INSTANCE.convertList02(list))));
     }
 
 }
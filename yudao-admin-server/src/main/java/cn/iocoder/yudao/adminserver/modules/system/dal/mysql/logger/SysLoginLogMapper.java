@@ -10,6 +10,7 @@ import cn.iocoder.yudao.adminserver.modules.system.enums.logger.SysLoginResultEn
 import org.apache.ibatis.annotations.Mapper;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 @Mapper
 public interface SysLoginLogMapper extends BaseMapperX<SysLoginLogDO> {
@@ -24,22 +25,22 @@ public interface SysLoginLogMapper extends BaseMapperX<SysLoginLogDO> {
         } else if (Boolean.FALSE.equals(reqVO.getStatus())) {
             query.gt("result", SysLoginResultEnum.SUCCESS.getResult());
         }
-        query.orderByDesc("id"); // 降序
-        return selectPage(reqVO, query);
+        // 按照 create_time 分区，使用它作为游标
+        return selectCursorPage(reqVO, query, "create_time", SysLoginLogDO::getCreateTime, SysLoginLogDO::getId);
     }
 
-    default List<SysLoginLogDO> selectList(SysLoginLogExportReqVO reqVO) {
-        QueryWrapperX<SysLoginLogDO> query = new QueryWrapperX<SysLoginLogDO>()
-                .likeIfPresent("user_ip", reqVO.getUserIp())
-                .likeIfPresent("username", reqVO.getUsername())
-                .betweenIfPresent("create_time", reqVO.getBeginTime(), reqVO.getEndTime());
-        if (Boolean.TRUE.equals(reqVO.getStatus())) {
-            query.eq("result", SysLoginResultEnum.SUCCESS.getResult());
-        } else if (Boolean.FALSE.equals(reqVO.getStatus())) {
-            query.gt("result", SysLoginResultEnum.SUCCESS.getResult());
-        }
-        query.orderByDesc("id"); // 降序
-        return selectList(query);
+    default void selectListByBatch(SysLoginLogExportReqVO reqVO, Consumer<List<SysLoginLogDO>> consumer) {
+        selectCursorBatch(() -> {
+            QueryWrapperX<SysLoginLogDO> query = new QueryWrapperX<SysLoginLogDO>()
+                    .likeIfPresent("user_ip", reqVO.getUserIp())
+                    .likeIfPresent("username", reqVO.getUsername())
+                    .betweenIfPresent("create_time", reqVO.getBeginTime(), reqVO.getEndTime());
+            if (Boolean.TRUE.equals(reqVO.getStatus())) {
+                query.eq("result", SysLoginResultEnum.SUCCESS.getResult());
+            } else if (Boolean.FALSE.equals(reqVO.getStatus())) {
+                query.gt("result", SysLoginResultEnum.SUCCESS.getResult());
+            }
+            return query;
+        }, "create_time", SysLoginLogDO::getCreateTime, SysLoginLogDO::getId, consumer);
     }
-
 }
@@ -11,6 +11,7 @@ import org.apache.ibatis.annotations.Mapper;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Mapper
 public interface SysOperateLogMapper extends BaseMapperX<SysOperateLogDO> {
@@ -26,23 +27,24 @@ public interface SysOperateLogMapper extends BaseMapperX<SysOperateLogDO> {
         } else if (Boolean.FALSE.equals(reqVO.getSuccess())) {
             query.gt("result_code", GlobalErrorCodeConstants.SUCCESS.getCode());
         }
-        query.orderByDesc("id"); // 降序
-        return selectPage(reqVO, query);
+        // 按照 start_time 分区，使用它作为游标
+        return selectCursorPage(reqVO, query, "start_time", SysOperateLogDO::getStartTime, SysOperateLogDO::getId);
     }
 
-    default List<SysOperateLogDO> selectList(SysOperateLogExportReqVO reqVO, Collection<Long> userIds) {
-        QueryWrapperX<SysOperateLogDO> query = new QueryWrapperX<SysOperateLogDO>()
-                .likeIfPresent("module", reqVO.getModule())
-                .inIfPresent("user_id", userIds)
-                .eqIfPresent("operate_type", reqVO.getType())
-                .betweenIfPresent("start_time", reqVO.getBeginTime(), reqVO.getEndTime());
-        if (Boolean.TRUE.equals(reqVO.getSuccess())) {
-            query.eq("result_code", GlobalErrorCodeConstants.SUCCESS.getCode());
-        } else if (Boolean.FALSE.equals(reqVO.getSuccess())) {
-            query.gt("result_code", GlobalErrorCodeConstants.SUCCESS.getCode());
-        }
-        query.orderByDesc("id"); // 降序
-        return selectList(query);
+    default void selectListByBatch(SysOperateLogExportReqVO reqVO, Collection<Long> userIds,
+                                   Consumer<List<SysOperateLogDO>> consumer) {
+        selectCursorBatch(() -> {
+            QueryWrapperX<SysOperateLogDO> query = new QueryWrapperX<SysOperateLogDO>()
+                    .likeIfPresent("module", reqVO.getModule())
+                    .inIfPresent("user_id", userIds)
+                    .eqIfPresent("operate_type", reqVO.getType())
+                    .betweenIfPresent("start_time", reqVO.getBeginTime(), reqVO.getEndTime());
+            if (Boolean.TRUE.equals(reqVO.getSuccess())) {
+                query.eq("result_code", GlobalErrorCodeConstants.SUCCESS.getCode());
+            } else if (Boolean.FALSE.equals(reqVO.getSuccess())) {
+                query.gt("result_code", GlobalErrorCodeConstants.SUCCESS.getCode());
+            }
+            return query;
+        }, "start_time", SysOperateLogDO::getStartTime, SysOperateLogDO::getId, consumer);
     }
-
 }
@@ -9,6 +9,7 @@ import cn.iocoder.yudao.framework.mybatis.core.query.QueryWrapperX;
 import org.apache.ibatis.annotations.Mapper;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 @Mapper
 public interface SysSmsLogMapper extends BaseMapperX<SysSmsLogDO> {
@@ -25,16 +26,15 @@ public interface SysSmsLogMapper extends BaseMapperX<SysSmsLogDO> {
                 .orderByDesc("id"));
     }
 
-    default List<SysSmsLogDO> selectList(SysSmsLogExportReqVO reqVO) {
-        return selectList(new QueryWrapperX<SysSmsLogDO>()
+    default void selectListByBatch(SysSmsLogExportReqVO reqVO, Consumer<List<SysSmsLogDO>> consumer) {
+        selectCursorBatch(() -> new QueryWrapperX<SysSmsLogDO>()
                 .eqIfPresent("channel_id", reqVO.getChannelId())
                 .eqIfPresent("template_id", reqVO.getTemplateId())
                 .likeIfPresent("mobile", reqVO.getMobile())
                 .eqIfPresent("send_status", reqVO.getSendStatus())
                 .betweenIfPresent("send_time", reqVO.getBeginSendTime(), reqVO.getEndSendTime())
                 .eqIfPresent("receive_status", reqVO.getReceiveStatus())
-                .betweenIfPresent("receive_time", reqVO.getBeginReceiveTime(), reqVO.getEndReceiveTime())
-                .orderByDesc("id"));
+                .betweenIfPresent("receive_time", reqVO.getBeginReceiveTime(), reqVO.getEndReceiveTime()),
+                "create_time", SysSmsLogDO::getCreateTime, SysSmsLogDO::getId, consumer);
     }
-
 }
@@ -1,8 +1,7 @@
 package cn.iocoder.yudao.adminserver.modules.system.mq.producer.dict;
 
-import cn.iocoder.yudao.framework.mq.core.util.RedisMessageUtils;
+import cn.iocoder.yudao.framework.mq.core.transport.MessageTransport;
 import cn.iocoder.yudao.adminserver.modules.system.mq.message.dict.SysDictDataRefreshMessage;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
@@ -14,14 +13,14 @@ import javax.annotation.Resource;
 public class SysDictDataProducer {
 
     @Resource
-    private StringRedisTemplate stringRedisTemplate;
+    private MessageTransport messageTransport;
 
     /**
      * 发送 {@link SysDictDataRefreshMessage} 消息
      */
     public void sendDictDataRefreshMessage() {
         SysDictDataRefreshMessage message = new SysDictDataRefreshMessage();
-        RedisMessageUtils.sendChannelMessage(stringRedisTemplate, message);
+        messageTransport.sendChannelMessage(message);
     }
 
 }
@@ -1,8 +1,7 @@
 package cn.iocoder.yudao.adminserver.modules.system.mq.producer.permission;
 
-import cn.iocoder.yudao.framework.mq.core.util.RedisMessageUtils;
+import cn.iocoder.yudao.framework.mq.core.outbox.MessageOutbox;
 import cn.iocoder.yudao.adminserver.modules.system.mq.message.permission.SysMenuRefreshMessage;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
@@ -14,14 +13,16 @@ import javax.annotation.Resource;
 public class SysMenuProducer {
 
     @Resource
-    private StringRedisTemplate stringRedisTemplate;
+    private MessageOutbox messageOutbox;
 
     /**
      * 发送 {@link SysMenuRefreshMessage} 消息
+     *
+     * 通过 {@link MessageOutbox} 发送，和调用方的事务一起提交
      */
     public void sendMenuRefreshMessage() {
         SysMenuRefreshMessage message = new SysMenuRefreshMessage();
-        RedisMessageUtils.sendChannelMessage(stringRedisTemplate, message);
+        messageOutbox.sendChannelMessage(message);
     }
 
 }
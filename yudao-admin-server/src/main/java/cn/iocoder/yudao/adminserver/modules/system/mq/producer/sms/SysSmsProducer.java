@@ -1,11 +1,10 @@
 package cn.iocoder.yudao.adminserver.modules.system.mq.producer.sms;
 
 import cn.iocoder.yudao.framework.common.core.KeyValue;
-import cn.iocoder.yudao.framework.mq.core.util.RedisMessageUtils;
+import cn.iocoder.yudao.framework.mq.core.transport.MessageTransport;
 import cn.iocoder.yudao.adminserver.modules.system.mq.message.sms.SysSmsChannelRefreshMessage;
 import cn.iocoder.yudao.adminserver.modules.system.mq.message.sms.SysSmsTemplateRefreshMessage;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
@@ -22,14 +21,14 @@ import java.util.List;
 public class SysSmsProducer {
 
     @Resource
-    private StringRedisTemplate stringRedisTemplate;
+    private MessageTransport messageTransport;
 
     /**
      * 发送 {@link SysSmsChannelRefreshMessage} 消息
      */
     public void sendSmsChannelRefreshMessage() {
         SysSmsChannelRefreshMessage message = new SysSmsChannelRefreshMessage();
-        RedisMessageUtils.sendChannelMessage(stringRedisTemplate, message);
+        messageTransport.sendChannelMessage(message);
     }
 
     /**
@@ -37,7 +36,7 @@ public class SysSmsProducer {
      */
     public void sendSmsTemplateRefreshMessage() {
         SysSmsTemplateRefreshMessage message = new SysSmsTemplateRefreshMessage();
-        RedisMessageUtils.sendChannelMessage(stringRedisTemplate, message);
+        messageTransport.sendChannelMessage(message);
     }
 
 }
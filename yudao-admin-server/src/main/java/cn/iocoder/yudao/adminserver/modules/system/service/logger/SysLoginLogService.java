@@ -6,6 +6,7 @@ import cn.iocoder.yudao.coreservice.modules.system.dal.dataobject.logger.SysLogi
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 登录日志 Service 接口
@@ -21,11 +22,10 @@ public interface SysLoginLogService {
     PageResult<SysLoginLogDO> getLoginLogPage(SysLoginLogPageReqVO reqVO);
 
     /**
-     * 获得登录日志列表
+     * 分批获得登录日志列表, 用于大数据量的 Excel 导出
      *
-     * @param reqVO 列表条件
-     * @return 登录日志列表
+     * @param reqVO 查询条件
+     * @param consumer 每一批登录日志的处理器
      */
-    List<SysLoginLogDO> getLoginLogList(SysLoginLogExportReqVO reqVO);
-
+    void getLoginLogListByBatch(SysLoginLogExportReqVO reqVO, Consumer<List<SysLoginLogDO>> consumer);
 }
@@ -7,6 +7,7 @@ import cn.iocoder.yudao.adminserver.modules.system.controller.logger.vo.operatel
 import cn.iocoder.yudao.adminserver.modules.system.dal.dataobject.logger.SysOperateLogDO;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 操作日志 Service 接口
@@ -22,11 +23,10 @@ public interface SysOperateLogService extends OperateLogFrameworkService {
     PageResult<SysOperateLogDO> getOperateLogPage(SysOperateLogPageReqVO reqVO);
 
     /**
-     * 获得操作日志列表
+     * 分批获得操作日志列表, 用于大数据量的 Excel 导出
      *
      * @param reqVO 列表条件
-     * @return 日志列表
+     * @param consumer 每一批日志的处理器
      */
-    List<SysOperateLogDO> getOperateLogs(SysOperateLogExportReqVO reqVO);
-
+    void getOperateLogListByBatch(SysOperateLogExportReqVO reqVO, Consumer<List<SysOperateLogDO>> consumer);
 }
@@ -10,6 +10,7 @@ import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 登录日志 Service 实现
@@ -26,8 +27,7 @@ public class SysLoginLogServiceImpl implements SysLoginLogService {
     }
 
     @Override
-    public List<SysLoginLogDO> getLoginLogList(SysLoginLogExportReqVO reqVO) {
-        return loginLogMapper.selectList(reqVO);
+    public void getLoginLogListByBatch(SysLoginLogExportReqVO reqVO, Consumer<List<SysLoginLogDO>> consumer) {
+        loginLogMapper.selectListByBatch(reqVO, consumer);
     }
-
 }
@@ -20,9 +20,9 @@ import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 import static cn.iocoder.yudao.adminserver.modules.system.dal.dataobject.logger.SysOperateLogDO.JAVA_METHOD_ARGS_MAX_LENGTH;
 import static cn.iocoder.yudao.adminserver.modules.system.dal.dataobject.logger.SysOperateLogDO.RESULT_MAX_LENGTH;
@@ -69,17 +69,16 @@ public class SysOperateLogServiceImpl implements SysOperateLogService {
     }
 
     @Override
-    public List<SysOperateLogDO> getOperateLogs(SysOperateLogExportReqVO reqVO) {
+    public void getOperateLogListByBatch(SysOperateLogExportReqVO reqVO, Consumer<List<SysOperateLogDO>> consumer) {
         // 处理基于用户昵称的查询
         Collection<Long> userIds = null;
         if (StrUtil.isNotEmpty(reqVO.getUserNickname())) {
             userIds = convertSet(userService.getUsersByNickname(reqVO.getUserNickname()), SysUserDO::getId);
             if (CollUtil.isEmpty(userIds)) {
-                return Collections.emptyList();
+                return;
             }
         }
-        // 查询列表
-        return operateLogMapper.selectList(reqVO, userIds);
+        // 分批查询
+        operateLogMapper.selectListByBatch(reqVO, userIds, consumer);
     }
-
 }
@@ -23,8 +23,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.transaction.support.TransactionSynchronization;
-import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
@@ -191,15 +189,8 @@ public class SysPermissionServiceImpl implements SysPermissionService {
         if (!CollectionUtil.isEmpty(deleteMenuIds)) {
             roleMenuMapper.deleteListByRoleIdAndMenuIds(roleId, deleteMenuIds);
         }
-        // 发送刷新消息. 注意，需要事务提交后，在进行发送刷新消息。不然 db 还未提交，结果缓存先刷新了
-        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
-
-            @Override
-            public void afterCommit() {
-                permissionProducer.sendRoleMenuRefreshMessage();
-            }
-
-        });
+        // 发送刷新消息。消息写入 Outbox 表，和 db 在同一个事务中提交，提交后才会投递，不会出现 db 还未提交，结果缓存先刷新了
+        permissionProducer.sendRoleMenuRefreshMessage();
     }
 
     @Override
@@ -237,30 +228,16 @@ public class SysPermissionServiceImpl implements SysPermissionService {
         userRoleMapper.deleteListByRoleId(roleId);
         // 标记删除 RoleMenu
         roleMenuMapper.deleteListByRoleId(roleId);
-        // 发送刷新消息. 注意，需要事务提交后，在进行发送刷新消息。不然 db 还未提交，结果缓存先刷新了
-        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
-
-            @Override
-            public void afterCommit() {
-                permissionProducer.sendRoleMenuRefreshMessage();
-            }
-
-        });
+        // 发送刷新消息。消息写入 Outbox 表，和 db 在同一个事务中提交，提交后才会投递，不会出现 db 还未提交，结果缓存先刷新了
+        permissionProducer.sendRoleMenuRefreshMessage();
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void processMenuDeleted(Long menuId) {
         roleMenuMapper.deleteListByMenuId(menuId);
-        // 发送刷新消息. 注意，需要事务提交后，在进行发送刷新消息。不然 db 还未提交，结果缓存先刷新了
-        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
-
-            @Override
-            public void afterCommit() {
-                permissionProducer.sendRoleMenuRefreshMessage();
-            }
-
-        });
+        // 发送刷新消息。消息写入 Outbox 表，和 db 在同一个事务中提交，提交后才会投递，不会出现 db 还未提交，结果缓存先刷新了
+        permissionProducer.sendRoleMenuRefreshMessage();
     }
 
     @Override
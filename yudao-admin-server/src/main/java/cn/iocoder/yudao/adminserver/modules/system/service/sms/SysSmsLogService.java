@@ -6,6 +6,7 @@ import cn.iocoder.yudao.coreservice.modules.system.dal.dataobject.sms.SysSmsLogD
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 短信日志 Service 接口
@@ -24,11 +25,10 @@ public interface SysSmsLogService {
     PageResult<SysSmsLogDO> getSmsLogPage(SysSmsLogPageReqVO pageReqVO);
 
     /**
-     * 获得短信日志列表, 用于 Excel 导出
+     * 分批获得短信日志列表, 用于大数据量的 Excel 导出
      *
      * @param exportReqVO 查询条件
-     * @return 短信日志列表
+     * @param consumer 每一批短信日志的处理器
      */
-    List<SysSmsLogDO> getSmsLogList(SysSmsLogExportReqVO exportReqVO);
-
+    void getSmsLogListByBatch(SysSmsLogExportReqVO exportReqVO, Consumer<List<SysSmsLogDO>> consumer);
 }
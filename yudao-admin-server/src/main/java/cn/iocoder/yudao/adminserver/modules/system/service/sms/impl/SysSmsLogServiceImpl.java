@@ -11,6 +11,7 @@ import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 短信日志 Service 实现类
@@ -31,8 +32,7 @@ public class SysSmsLogServiceImpl implements SysSmsLogService {
     }
 
     @Override
-    public List<SysSmsLogDO> getSmsLogList(SysSmsLogExportReqVO exportReqVO) {
-        return smsLogMapper.selectList(exportReqVO);
+    public void getSmsLogListByBatch(SysSmsLogExportReqVO exportReqVO, Consumer<List<SysSmsLogDO>> consumer) {
+        smsLogMapper.selectListByBatch(exportReqVO, consumer);
     }
-
 }
@@ -10,7 +10,10 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.annotation.Resource;
 
@@ -26,6 +29,7 @@ import cn.iocoder.yudao.adminserver.modules.infra.dal.mysql.job.InfJobLogMapper;
 import cn.iocoder.yudao.adminserver.modules.infra.enums.job.InfJobLogStatusEnum;
 import cn.iocoder.yudao.adminserver.modules.infra.service.job.impl.InfJobLogServiceImpl;
 import cn.iocoder.yudao.framework.common.util.object.ObjectUtils;
+import cn.iocoder.yudao.framework.mybatis.core.util.MyBatisUtils;
 
 /**
  * {@link InfJobLogServiceImpl} 的单元测试
@@ -164,10 +168,43 @@ public class InfJobLogServiceTest extends BaseDbUnitTest {
         reqVo.setEndTime(dbJobLog.getEndTime());
         reqVo.setStatus(InfJobLogStatusEnum.SUCCESS.getStatus());
         // 调用
-        List<InfJobLogDO> list = jobLogService.getJobLogList(reqVo);
+        List<InfJobLogDO> list = new ArrayList<>();
+        jobLogService.getJobLogListByBatch(reqVo, list::addAll);
         // 断言
         assertEquals(1, list.size());
         assertPojoEquals(dbJobLog, list.get(0));
     }
 
+    @Test
+    public void testGetJobLogListByBatch_success() {
+        // mock 数据。开始时间都相同，校验基于编号的游标
+        InfJobLogDO dbJobLog = randomPojo(InfJobLogDO.class, o -> {
+            o.setExecuteIndex(1);
+            o.setStatus(InfJobLogStatusEnum.SUCCESS.getStatus());
+            o.setBeginTime(buildTime(2021, 1, 8));
+        });
+        int count = MyBatisUtils.CURSOR_BATCH_SIZE + 1;
+        for (int i = 0; i < count; i++) {
+            jobLogMapper.insert(ObjectUtils.clone(dbJobLog, o -> o.setId(null)));
+        }
+        // 测试 jobId 不匹配
+        jobLogMapper.insert(ObjectUtils.clone(dbJobLog, o -> {
+            o.setId(null);
+            o.setJobId(randomLongId());
+        }));
+        // 准备参数
+        InfJobLogExportReqVO reqVo = new InfJobLogExportReqVO();
+        reqVo.setJobId(dbJobLog.getJobId());
+        // 调用
+        List<Integer> batchSizes = new ArrayList<>();
+        Set<Long> ids = new HashSet<>();
+        jobLogService.getJobLogListByBatch(reqVo, list -> {
+            batchSizes.add(list.size());
+            list.forEach(jobLog -> ids.add(jobLog.getId()));
+        });
+        // 断言
+        assertEquals(Arrays.asList(MyBatisUtils.CURSOR_BATCH_SIZE, 1), batchSizes);
+        assertEquals(count, ids.size());
+    }
+
 }
@@ -15,6 +15,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.context.annotation.Import;
 
 import javax.annotation.Resource;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -94,7 +95,7 @@ public class InfApiAccessLogServiceImplTest extends BaseDbUnitTest {
     }
 
     @Test
-    public void testGetApiAccessLogList() {
+    public void testGetApiAccessLogListByBatch() {
         // 构造测试数据
         long userId = 2233L;
         int userType = UserTypeEnum.ADMIN.getValue();
@@ -143,7 +144,8 @@ public class InfApiAccessLogServiceImplTest extends BaseDbUnitTest {
         reqVO.setResultCode(resultCode);
 
         // 调用service方法
-        List<InfApiAccessLogDO> list = infApiAccessLogServiceImpl.getApiAccessLogList(reqVO);
+        List<InfApiAccessLogDO> list = new ArrayList<>();
+        infApiAccessLogServiceImpl.getApiAccessLogListByBatch(reqVO, list::addAll);
 
         // 断言，只查到了一条符合条件的
         assertEquals(1, list.size());
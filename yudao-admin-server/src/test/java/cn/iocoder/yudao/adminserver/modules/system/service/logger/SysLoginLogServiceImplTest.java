@@ -18,6 +18,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.context.annotation.Import;
 
 import javax.annotation.Resource;
+import java.util.ArrayList;
 import java.util.List;
 
 import static cn.iocoder.yudao.framework.test.core.util.AssertUtils.assertPojoEquals;
@@ -78,7 +79,7 @@ public class SysLoginLogServiceImplTest extends BaseDbUnitTest {
     }
 
     @Test
-    public void testGetLoginLogList() {
+    public void testGetLoginLogListByBatch() {
         // 构造测试数据
 
         // 登录成功的
@@ -115,7 +116,8 @@ public class SysLoginLogServiceImplTest extends BaseDbUnitTest {
 
 
         // 调用service方法
-        List<SysLoginLogDO> loginLogList = sysLoginLogService.getLoginLogList(reqVO);
+        List<SysLoginLogDO> loginLogList = new ArrayList<>();
+        sysLoginLogService.getLoginLogListByBatch(reqVO, loginLogList::addAll);
 
         // 断言
         assertEquals(1, loginLogList.size());
@@ -23,6 +23,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 
 import javax.annotation.Resource;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
@@ -115,7 +116,7 @@ public class SysOperateLogServiceImplTest extends BaseDbUnitTest {
     }
 
     @Test
-    public void testGetOperateLogs() {
+    public void testGetOperateLogListByBatch() {
         // 构造测试数据
         // 先构造用户
         SysUserDO user = RandomUtils.randomPojo(SysUserDO.class, o -> {
@@ -158,7 +159,8 @@ public class SysOperateLogServiceImplTest extends BaseDbUnitTest {
         reqVO.setSuccess(true);
 
         // 调用 service 方法
-        List<SysOperateLogDO> list = operateLogServiceImpl.getOperateLogs(reqVO);
+        List<SysOperateLogDO> list = new ArrayList<>();
+        operateLogServiceImpl.getOperateLogListByBatch(reqVO, list::addAll);
         // 断言，只查到了一条符合条件的
         assertEquals(1, list.size());
         assertPojoEquals(sysOperateLogDO, list.get(0));
@@ -18,6 +18,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.context.annotation.Import;
 
 import javax.annotation.Resource;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
@@ -91,7 +92,7 @@ public class SysSmsLogServiceTest extends BaseDbUnitTest {
     }
 
     @Test
-    public void testGetSmsLogList() {
+    public void testGetSmsLogListByBatch() {
         // mock 数据
         SysSmsLogDO dbSmsLog = randomSmsLogDO(o -> { // 等会查询到
             o.setChannelId(1L);
@@ -130,7 +131,8 @@ public class SysSmsLogServiceTest extends BaseDbUnitTest {
         reqVO.setEndReceiveTime(buildTime(2021, 11, 30));
 
        // 调用
-       List<SysSmsLogDO> list = smsLogService.getSmsLogList(reqVO);
+       List<SysSmsLogDO> list = new ArrayList<>();
+       smsLogService.getSmsLogListByBatch(reqVO, list::addAll);
        // 断言
        assertEquals(1, list.size());
        assertPojoEquals(dbSmsLog, list.get(0));
@@ -334,6 +334,9 @@ CREATE TABLE IF NOT EXISTS "inf_api_error_log" (
  "exception_file_name" varchar(512) not null,
  "exception_method_name" varchar(512) not null,
  "exception_line_number" integer not null,
+ "exception_fingerprint" varchar(32) default null,
+ "exception_count" integer not null default '1',
+ "exception_window_time" timestamp default null,
  "process_status" tinyint not null,
  "process_time" timestamp default null,
  "process_user_id" bigint default '0',
@@ -342,7 +345,8 @@ CREATE TABLE IF NOT EXISTS "inf_api_error_log" (
  "updater" varchar(64) default '',
  "update_time" timestamp not null default current_timestamp,
  "deleted" bit not null default false,
- primary key ("id")
+ primary key ("id"),
+ unique ("application_name", "exception_fingerprint", "exception_window_time")
 ) COMMENT '系统异常日志';
 
 CREATE TABLE IF NOT EXISTS "sys_sms_channel" (
@@ -5,6 +5,8 @@ import cn.iocoder.yudao.coreservice.modules.infra.dal.dataobject.logger.InfApiEr
 import org.mapstruct.Mapper;
 import org.mapstruct.factory.Mappers;
 
+import java.util.List;
+
 @Mapper
 public interface InfApiErrorLogCoreConvert {
 
@@ -12,4 +14,6 @@ public interface InfApiErrorLogCoreConvert {
 
     InfApiErrorLogDO convert(ApiErrorLogCreateReqDTO bean);
 
+    List<InfApiErrorLogDO> convertList(List<ApiErrorLogCreateReqDTO> list);
+
 }
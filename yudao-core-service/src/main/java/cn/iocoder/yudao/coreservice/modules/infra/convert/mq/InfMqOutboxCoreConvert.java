@@ -0,0 +1,19 @@
+package cn.iocoder.yudao.coreservice.modules.infra.convert.mq;
+
+import cn.iocoder.yudao.coreservice.modules.infra.dal.dataobject.mq.InfMqOutboxDO;
+import cn.iocoder.yudao.framework.mq.core.outbox.dto.MessageOutboxDTO;
+import org.mapstruct.Mapper;
+import org.mapstruct.factory.Mappers;
+
+import java.util.List;
+
+@Mapper
+public interface InfMqOutboxCoreConvert {
+
+    InfMqOutboxCoreConvert INSTANCE = Mappers.getMapper(InfMqOutboxCoreConvert.class);
+
+    List<InfMqOutboxDO> convertList(List<MessageOutboxDTO> list);
+
+    List<MessageOutboxDTO> convertList02(List<InfMqOutboxDO> list);
+
+}
@@ -131,6 +131,22 @@ public class InfApiErrorLogDO extends BaseDO {
      * {@link StackTraceElement#getLineNumber()}
      */
     private Integer exceptionLineNumber;
+    /**
+     * 异常指纹
+     *
+     * 基于异常类 + 栈顶的若干帧计算，用于聚合相同的异常
+     */
+    private String exceptionFingerprint;
+    /**
+     * 异常次数
+     *
+     * 聚合窗口内，相同指纹的异常出现的次数
+     */
+    private Integer exceptionCount;
+    /**
+     * 聚合窗口的开始时间
+     */
+    private Date exceptionWindowTime;
 
     // ========== 处理相关字段 ==========
 
@@ -0,0 +1,53 @@
+package cn.iocoder.yudao.coreservice.modules.infra.dal.dataobject.mq;
+
+import cn.iocoder.yudao.framework.mq.core.outbox.MessageOutboxTypeEnum;
+import cn.iocoder.yudao.framework.mybatis.core.dataobject.BaseDO;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.*;
+
+/**
+ * MQ Outbox 消息 DO
+ *
+ * 和业务数据在同一个事务中写入，投递到 Redis 后物理删除
+ *
+ * @author 芋道源码
+ */
+@TableName("inf_mq_outbox")
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InfMqOutboxDO extends BaseDO {
+
+    /**
+     * 编号
+     */
+    @TableId
+    private Long id;
+    /**
+     * 消息编号，用于消费者的幂等判断
+     */
+    private String messageId;
+    /**
+     * 消息类型
+     *
+     * 枚举 {@link MessageOutboxTypeEnum}
+     */
+    private Integer type;
+    /**
+     * 目的地，即 Redis Stream Key 或者 Redis Channel
+     */
+    private String destination;
+    /**
+     * 消息内容
+     */
+    private String content;
+    /**
+     * Redis Stream 的最大长度
+     */
+    private Long streamMaxLength;
+
+}
@@ -2,8 +2,38 @@ package cn.iocoder.yudao.coreservice.modules.infra.dal.mysql.logger;
 
 import cn.iocoder.yudao.framework.mybatis.core.mapper.BaseMapperX;
 import cn.iocoder.yudao.coreservice.modules.infra.dal.dataobject.logger.InfApiErrorLogDO;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 @Mapper
 public interface InfApiErrorLogCoreMapper extends BaseMapperX<InfApiErrorLogDO> {
+
+    /**
+     * 批量插入错误日志
+     *
+     * 基于 uk_exception_fingerprint 唯一索引，相同应用、指纹、聚合窗口的记录已经存在时，累加异常次数
+     *
+     * @param list 错误日志数组
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO inf_api_error_log (trace_id, user_id, user_type, application_name," +
+            " request_method, request_url, request_params, user_ip, user_agent," +
+            " exception_time, exception_name, exception_message, exception_root_cause_message, exception_stack_trace," +
+            " exception_class_name, exception_file_name, exception_method_name, exception_line_number," +
+            " exception_fingerprint, exception_count, exception_window_time, process_status) VALUES" +
+            "<foreach collection='list' item='item' separator=','>" +
+            " (#{item.traceId}, #{item.userId}, #{item.userType}, #{item.applicationName}," +
+            " #{item.requestMethod}, #{item.requestUrl}, #{item.requestParams}, #{item.userIp}, #{item.userAgent}," +
+            " #{item.exceptionTime}, #{item.exceptionName}, #{item.exceptionMessage}, #{item.exceptionRootCauseMessage}, #{item.exceptionStackTrace}," +
+            " #{item.exceptionClassName}, #{item.exceptionFileName}, #{item.exceptionMethodName}, #{item.exceptionLineNumber}," +
+            " #{item.exceptionFingerprint}, #{item.exceptionCount}, #{item.exceptionWindowTime}, #{item.processStatus})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE exception_count = exception_count + VALUES(exception_count)" +
+            "</script>")
+    int insertOrIncrementBatch(@Param("list") List<InfApiErrorLogDO> list);
+
 }
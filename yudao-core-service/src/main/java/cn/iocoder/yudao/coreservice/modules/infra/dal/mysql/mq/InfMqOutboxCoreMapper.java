@@ -0,0 +1,49 @@
+package cn.iocoder.yudao.coreservice.modules.infra.dal.mysql.mq;
+
+import cn.iocoder.yudao.coreservice.modules.infra.dal.dataobject.mq.InfMqOutboxDO;
+import cn.iocoder.yudao.framework.mybatis.core.mapper.BaseMapperX;
+import cn.iocoder.yudao.framework.mybatis.core.query.QueryWrapperX;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+@Mapper
+public interface InfMqOutboxCoreMapper extends BaseMapperX<InfMqOutboxDO> {
+
+    /**
+     * 批量插入 Outbox 消息，一条 SQL 完成，减少事务的耗时
+     *
+     * @param list Outbox 消息数组
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO inf_mq_outbox (message_id, type, destination, content, stream_max_length, create_time) VALUES" +
+            "<foreach collection='list' item='item' separator=','>" +
+            " (#{item.messageId}, #{item.type}, #{item.destination}, #{item.content}, #{item.streamMaxLength}, #{item.createTime})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("list") List<InfMqOutboxDO> list);
+
+    default List<InfMqOutboxDO> selectListByCreateTimeLt(Date createTime, int limit) {
+        return selectList(new QueryWrapperX<InfMqOutboxDO>().lt("create_time", createTime)
+                .orderByAsc("id").last("LIMIT " + limit));
+    }
+
+    /**
+     * 物理删除 Outbox 消息。已经投递的消息没有保留的意义，不使用逻辑删除，避免表无限增长
+     *
+     * @param messageIds 消息编号数组
+     * @return 影响行数
+     */
+    @Delete("<script>" +
+            "DELETE FROM inf_mq_outbox WHERE message_id IN" +
+            "<foreach collection='messageIds' item='messageId' open='(' separator=',' close=')'>#{messageId}</foreach>" +
+            "</script>")
+    int deleteByMessageIds(@Param("messageIds") Collection<String> messageIds);
+
+}
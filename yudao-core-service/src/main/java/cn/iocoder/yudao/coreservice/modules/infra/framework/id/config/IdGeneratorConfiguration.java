@@ -0,0 +1,55 @@
+package cn.iocoder.yudao.coreservice.modules.infra.framework.id.config;
+
+import cn.iocoder.yudao.coreservice.modules.infra.framework.id.core.IdGenerator;
+import cn.iocoder.yudao.coreservice.modules.infra.framework.id.core.RedisWorkerIdLease;
+import cn.iocoder.yudao.coreservice.modules.infra.framework.id.core.SegmentIdGenerator;
+import cn.iocoder.yudao.coreservice.modules.infra.framework.id.core.SnowflakeIdGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 分布式编号生成器的配置类
+ *
+ * 如果需要其它实现，声明自己的 {@link IdGenerator} Bean 即可
+ */
+@Configuration
+@EnableConfigurationProperties(IdGeneratorProperties.class)
+public class IdGeneratorConfiguration {
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "yudao.id-generator", name = "type", havingValue = "snowflake", matchIfMissing = true)
+    public static class SnowflakeIdGeneratorConfiguration {
+
+        @Bean(initMethod = "start", destroyMethod = "stop")
+        public RedisWorkerIdLease redisWorkerIdLease(StringRedisTemplate stringRedisTemplate,
+                                                     IdGeneratorProperties properties) {
+            return new RedisWorkerIdLease(stringRedisTemplate, properties.getWorkerIdLease());
+        }
+
+        @Bean
+        @ConditionalOnMissingBean(IdGenerator.class)
+        public IdGenerator snowflakeIdGenerator(RedisWorkerIdLease redisWorkerIdLease, IdGeneratorProperties properties) {
+            return new SnowflakeIdGenerator(properties.getEpoch(), redisWorkerIdLease::getWorkerId);
+        }
+
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "yudao.id-generator", name = "type", havingValue = "segment")
+    public static class SegmentIdGeneratorConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(IdGenerator.class)
+        public IdGenerator segmentIdGenerator(StringRedisTemplate stringRedisTemplate, IdGeneratorProperties properties) {
+            String key = properties.getSegmentKey();
+            return new SegmentIdGenerator(step -> stringRedisTemplate.opsForValue().increment(key, step),
+                    properties.getSegmentStep());
+        }
+
+    }
+
+}
@@ -0,0 +1,63 @@
+package cn.iocoder.yudao.coreservice.modules.infra.framework.id.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+
+/**
+ * 分布式编号生成器的配置属性
+ *
+ * @author 芋道源码
+ */
+@ConfigurationProperties(prefix = "yudao.id-generator")
+@Validated
+@Data
+public class IdGeneratorProperties {
+
+    /**
+     * 生成器的类型
+     */
+    @NotNull(message = "生成器的类型不能为空")
+    private Type type = Type.SNOWFLAKE;
+
+    /**
+     * Snowflake 的起始时间，单位：毫秒。设置后不能修改，否则可能生成重复的编号
+     */
+    @NotNull(message = "起始时间不能为空")
+    private Long epoch = 1609430400000L; // 2021-01-01 00:00:00 +08:00
+    /**
+     * Snowflake 机器编号的租约时长
+     */
+    @NotNull(message = "机器编号的租约时长不能为空")
+    private Duration workerIdLease = Duration.ofSeconds(30);
+
+    /**
+     * 号段的 Redis Key
+     */
+    @NotNull(message = "号段的 Redis Key 不能为空")
+    private String segmentKey = "id_generator:segment";
+    /**
+     * 号段的大小，即每次从 Redis 分配的编号数量
+     */
+    @NotNull(message = "号段的大小不能为空")
+    @Min(value = 1, message = "号段的大小不能小于 1")
+    private Long segmentStep = 1000L;
+
+    public enum Type {
+
+        /**
+         * {@link cn.iocoder.yudao.coreservice.modules.infra.framework.id.core.SnowflakeIdGenerator}
+         */
+        SNOWFLAKE,
+        /**
+         * {@link cn.iocoder.yudao.coreservice.modules.infra.framework.id.core.SegmentIdGenerator}
+         */
+        SEGMENT,
+
+    }
+
+}
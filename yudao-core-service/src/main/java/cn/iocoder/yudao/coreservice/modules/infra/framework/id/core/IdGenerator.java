@@ -0,0 +1,17 @@
+package cn.iocoder.yudao.coreservice.modules.infra.framework.id.core;
+
+/**
+ * 分布式编号的生成器
+ *
+ * @author 芋道源码
+ */
+public interface IdGenerator {
+
+    /**
+     * 生成编号。全局唯一，并且在当前节点内单调递增
+     *
+     * @return 编号
+     */
+    long nextId();
+
+}
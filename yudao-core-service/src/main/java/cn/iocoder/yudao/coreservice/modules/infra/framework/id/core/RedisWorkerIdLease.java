@@ -0,0 +1,187 @@
+package cn.iocoder.yudao.coreservice.modules.infra.framework.id.core;
+
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.system.SystemUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 Redis 租约的机器编号，提供给 {@link SnowflakeIdGenerator} 使用
+ *
+ * 启动时，从随机位置开始，通过 SET NX PX 抢占一个未被使用的机器编号，之后每 1/3 租约时长续约一次。
+ * 续约时发现租约已经丢失（例如说长时间 GC、和 Redis 断开），重新抢占新的机器编号，避免和其它节点重复
+ *
+ * 同时，在本地记录租约的截止时间，即发起抢占、续约请求前的时间 + 租约时长，不晚于 Redis 中 Key 的过期时间。
+ * 超过截止时间仍未续约成功时（例如说 Redis 持续不可用），{@link #getWorkerId()} 抛出异常，拒绝生成编号，
+ * 避免 Key 过期后，机器编号被其它节点抢占，生成重复的编号
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class RedisWorkerIdLease {
+
+    /**
+     * 机器编号的 Key 格式，参数为机器编号
+     */
+    private static final String WORKER_KEY_FORMAT = "id_generator:worker:%d";
+
+    /**
+     * 续约的脚本。仍然是自己持有时，才延长租约
+     */
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then\n" +
+            "    return redis.call('PEXPIRE', KEYS[1], ARGV[2])\n" +
+            "end\n" +
+            "return 0", Long.class);
+    /**
+     * 释放的脚本。仍然是自己持有时，才删除
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then\n" +
+            "    return redis.call('DEL', KEYS[1])\n" +
+            "end\n" +
+            "return 0", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Duration lease;
+    /**
+     * 持有者，使用本地 IP + 进程编号 + 随机串的方式
+     */
+    private final String owner = String.format("%s@%d#%s", SystemUtil.getHostInfo().getAddress(),
+            SystemUtil.getCurrentPID(), IdUtil.fastSimpleUUID());
+
+    /**
+     * 当前持有的租约。机器编号和截止时间一起发布，避免读到不匹配的两者
+     */
+    private volatile Lease current = Lease.EXPIRED;
+    private ScheduledExecutorService renewExecutor;
+
+    public RedisWorkerIdLease(StringRedisTemplate stringRedisTemplate, Duration lease) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.lease = lease;
+    }
+
+    /**
+     * 获得机器编号
+     *
+     * @return 机器编号
+     * @throws IllegalStateException 租约已经过期时
+     */
+    public int getWorkerId() {
+        Lease lease = current;
+        if (System.nanoTime() - lease.deadlineNanos >= 0) {
+            throw new IllegalStateException(String.format("机器编号(%d) 的租约已经过期，拒绝生成编号", lease.workerId));
+        }
+        return lease.workerId;
+    }
+
+    public synchronized void start() {
+        if (renewExecutor != null) {
+            return;
+        }
+        current = acquire();
+        log.info("[start][获得机器编号({})]", current.workerId);
+        renewExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "id-generator-worker-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = lease.toMillis() / 3;
+        renewExecutor.scheduleWithFixedDelay(this::renew, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (renewExecutor == null) {
+            return;
+        }
+        renewExecutor.shutdownNow();
+        renewExecutor = null;
+        int workerId = current.workerId;
+        current = Lease.EXPIRED;
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(buildKey(workerId)), owner);
+        } catch (Throwable e) {
+            // 释放失败时，等待 Key 自然过期即可
+            log.warn("[stop][机器编号({}) 释放发生异常]", workerId, e);
+        }
+    }
+
+    private void renew() {
+        int workerId = current.workerId;
+        try {
+            long startNanos = System.nanoTime(); // 请求前的时间，保证本地的截止时间不晚于 Key 的过期时间
+            Long result = stringRedisTemplate.execute(RENEW_SCRIPT, Collections.singletonList(buildKey(workerId)),
+                    owner, String.valueOf(lease.toMillis()));
+            if (result != null && result > 0) {
+                current = new Lease(workerId, startNanos + lease.toNanos());
+                return;
+            }
+            // 租约已经丢失，可能已经被其它节点抢占，立即停止使用，再重新抢占新的机器编号
+            current = Lease.EXPIRED;
+            current = acquire();
+            log.warn("[renew][机器编号({}) 的租约已经丢失，重新获得机器编号({})]", workerId, current.workerId);
+        } catch (Throwable e) {
+            // 不修改截止时间，超过后 getWorkerId 拒绝生成编号，直到续约或重新抢占成功
+            log.error("[renew][机器编号({}) 续约发生异常]", workerId, e);
+        }
+    }
+
+    /**
+     * 抢占一个未被使用的机器编号
+     *
+     * @return 租约
+     */
+    private Lease acquire() {
+        int size = SnowflakeIdGenerator.MAX_WORKER_ID + 1;
+        int offset = RandomUtil.randomInt(size); // 随机位置开始，减少多个节点同时启动时的冲突
+        for (int i = 0; i < size; i++) {
+            int candidate = (offset + i) % size;
+            long startNanos = System.nanoTime();
+            Boolean success = stringRedisTemplate.opsForValue().setIfAbsent(buildKey(candidate), owner, lease);
+            if (Boolean.TRUE.equals(success)) {
+                return new Lease(candidate, startNanos + lease.toNanos());
+            }
+        }
+        throw new IllegalStateException(String.format("机器编号已经用完，最多 %d 个节点", size));
+    }
+
+    private static String buildKey(int workerId) {
+        return String.format(WORKER_KEY_FORMAT, workerId);
+    }
+
+    /**
+     * 租约
+     */
+    private static class Lease {
+
+        /**
+         * 已经过期的租约，未启动、或者租约丢失时使用
+         */
+        private static final Lease EXPIRED = new Lease(-1, System.nanoTime());
+
+        /**
+         * 机器编号
+         */
+        private final int workerId;
+        /**
+         * 截止时间，基于 {@link System#nanoTime()}，不受系统时钟调整的影响
+         */
+        private final long deadlineNanos;
+
+        Lease(int workerId, long deadlineNanos) {
+            this.workerId = workerId;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+    }
+
+}
@@ -0,0 +1,128 @@
+package cn.iocoder.yudao.coreservice.modules.infra.framework.id.core;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * 基于号段模式的编号生成器
+ *
+ * 每次从存储中分配 step 个编号，即一个号段，之后在内存中通过 {@link AtomicLong} 无锁地分配。
+ * 当前号段使用过半时，异步预加载下一个号段，切换号段时通常无需等待存储
+ *
+ * 号段由存储原子地分配，所以多个节点之间不会重复；单个节点内，后分配的号段一定更大，所以编号单调递增
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class SegmentIdGenerator implements IdGenerator {
+
+    /**
+     * 号段的分配器，参数为号段的大小，返回号段的最大编号（包含）
+     */
+    private final LongUnaryOperator allocator;
+    /**
+     * 号段的大小
+     */
+    private final long step;
+
+    /**
+     * 当前号段。初始为空号段，第一次生成编号时分配
+     */
+    private volatile Segment current = new Segment(0, -1);
+    /**
+     * 预加载的下一个号段
+     */
+    private final AtomicReference<CompletableFuture<Segment>> next = new AtomicReference<>();
+
+    public SegmentIdGenerator(LongUnaryOperator allocator, long step) {
+        this.allocator = allocator;
+        this.step = step;
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            Segment segment = current;
+            long id = segment.cursor.getAndIncrement();
+            if (id <= segment.max) {
+                // 使用过半时，预加载下一个号段
+                if (id == segment.preloadId) {
+                    preload();
+                }
+                return id;
+            }
+            switchSegment(segment);
+        }
+    }
+
+    private void preload() {
+        CompletableFuture<Segment> future = new CompletableFuture<>();
+        if (!next.compareAndSet(null, future)) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+            try {
+                future.complete(allocate());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * 切换到下一个号段。只有号段用完时，才会进入该方法
+     *
+     * @param exhausted 已经用完的号段
+     */
+    private synchronized void switchSegment(Segment exhausted) {
+        if (current != exhausted) { // 其它线程已经切换
+            return;
+        }
+        CompletableFuture<Segment> future = next.getAndSet(null);
+        Segment segment = null;
+        if (future != null) {
+            try {
+                segment = future.join();
+            } catch (Throwable e) {
+                log.error("[switchSegment][预加载号段发生异常，重新分配]", e);
+            }
+        }
+        current = segment != null ? segment : allocate();
+    }
+
+    private Segment allocate() {
+        long max = allocator.applyAsLong(step);
+        return new Segment(max - step + 1, max);
+    }
+
+    /**
+     * 号段
+     */
+    private static class Segment {
+
+        /**
+         * 下一个分配的编号
+         */
+        private final AtomicLong cursor;
+        /**
+         * 最大编号（包含）
+         */
+        private final long max;
+        /**
+         * 分配到该编号时，预加载下一个号段
+         */
+        private final long preloadId;
+
+        Segment(long min, long max) {
+            this.cursor = new AtomicLong(min);
+            this.max = max;
+            this.preloadId = min + (max - min) / 2;
+        }
+
+    }
+
+}
@@ -0,0 +1,65 @@
+package cn.iocoder.yudao.coreservice.modules.infra.framework.id.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+/**
+ * 基于 Snowflake 算法的编号生成器
+ *
+ * 编号由 1 位符号位、41 位时间戳（相对 epoch 的毫秒数）、10 位机器编号、12 位序号组成。
+ *
+ * 和常见的 synchronized 实现不同，这里将「时间戳 + 序号」作为一个整体，通过 CAS 原子地递增，分配过程无锁：
+ * 1. 当前时间大于上一次的时间戳时，使用当前时间，序号从 0 开始
+ * 2. 否则，在上一次的基础上 + 1。序号用完时，自然地进位到下一毫秒，即「借用」未来的时间戳，不会自旋等待
+ * 3. 时钟回拨时，同样在上一次的基础上 + 1，不会生成重复的编号
+ *
+ * 注意，持续超过每毫秒 4096 个的速度时，时间戳会领先于实际时间，直到请求量下降后追平
+ *
+ * @author 芋道源码
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final int WORKER_ID_BITS = 10;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    /**
+     * 最大的机器编号
+     */
+    public static final int MAX_WORKER_ID = (1 << WORKER_ID_BITS) - 1;
+
+    /**
+     * 起始时间，单位：毫秒
+     */
+    private final long epoch;
+    /**
+     * 机器编号的提供者。机器编号的租约丢失后，可能会重新分配；租约过期时抛出异常，拒绝生成编号
+     */
+    private final IntSupplier workerIdSupplier;
+    /**
+     * 上一次分配的「时间戳 + 序号」，即 timestamp << SEQUENCE_BITS | sequence
+     */
+    private final AtomicLong last = new AtomicLong();
+
+    public SnowflakeIdGenerator(long epoch, IntSupplier workerIdSupplier) {
+        this.epoch = epoch;
+        this.workerIdSupplier = workerIdSupplier;
+    }
+
+    @Override
+    public long nextId() {
+        int workerId = workerIdSupplier.getAsInt(); // 先获得机器编号，租约过期时不消耗序号
+        long current;
+        long next;
+        do {
+            current = last.get();
+            long timestamp = System.currentTimeMillis() - epoch;
+            // 当前时间更大时，使用当前时间；否则在上一次的基础上 + 1，序号用完时自动进位到下一毫秒
+            next = Math.max(timestamp << SEQUENCE_BITS, current + 1);
+        } while (!last.compareAndSet(current, next));
+        return (next >>> SEQUENCE_BITS) << (WORKER_ID_BITS + SEQUENCE_BITS) // 时间戳
+                | ((long) workerId << SEQUENCE_BITS) // 机器编号
+                | (next & SEQUENCE_MASK); // 序号
+    }
+
+}
@@ -0,0 +1,8 @@
+/**
+ * 分布式编号的生成，提供两种实现：
+ * 1. Snowflake：时间戳 + 机器编号 + 序号，机器编号通过 Redis 租约分配，不依赖存储，推荐使用
+ * 2. Segment：号段模式，通过 Redis INCRBY 批量分配号段，编号连续、更短
+ *
+ * 两种实现的分配过程都是无锁的，并且在单个节点内单调递增
+ */
+package cn.iocoder.yudao.coreservice.modules.infra.framework.id;
@@ -1,5 +1,6 @@
 package cn.iocoder.yudao.coreservice.modules.infra.service.logger.impl;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.iocoder.yudao.coreservice.modules.infra.convert.logger.InfApiErrorLogCoreConvert;
 import cn.iocoder.yudao.coreservice.modules.infra.dal.dataobject.logger.InfApiErrorLogDO;
 import cn.iocoder.yudao.coreservice.modules.infra.dal.mysql.logger.InfApiErrorLogCoreMapper;
@@ -12,6 +13,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
 import javax.annotation.Resource;
+import java.util.List;
 
 /**
  * API 错误日志 Service 实现类
@@ -34,4 +36,14 @@ public class InfApiErrorLogCoreServiceImpl implements InfApiErrorLogCoreService
         apiErrorLogMapper.insert(apiErrorLog);
     }
 
+    @Override
+    public void createApiErrorLogList(List<ApiErrorLogCreateReqDTO> createDTOs) {
+        if (CollUtil.isEmpty(createDTOs)) {
+            return;
+        }
+        List<InfApiErrorLogDO> apiErrorLogs = InfApiErrorLogCoreConvert.INSTANCE.convertList(createDTOs);
+        apiErrorLogs.forEach(apiErrorLog -> apiErrorLog.setProcessStatus(InfApiErrorLogProcessStatusEnum.INIT.getStatus()));
+        apiErrorLogMapper.insertOrIncrementBatch(apiErrorLogs);
+    }
+
 }
@@ -0,0 +1,12 @@
+package cn.iocoder.yudao.coreservice.modules.infra.service.mq;
+
+import cn.iocoder.yudao.framework.mq.core.outbox.MessageOutboxFrameworkService;
+
+/**
+ * MQ Outbox 消息 Service 接口
+ *
+ * @author 芋道源码
+ */
+public interface InfMqOutboxCoreService extends MessageOutboxFrameworkService {
+
+}
@@ -0,0 +1,54 @@
+package cn.iocoder.yudao.coreservice.modules.infra.service.mq.impl;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.iocoder.yudao.coreservice.modules.infra.convert.mq.InfMqOutboxCoreConvert;
+import cn.iocoder.yudao.coreservice.modules.infra.dal.dataobject.mq.InfMqOutboxDO;
+import cn.iocoder.yudao.coreservice.modules.infra.dal.mysql.mq.InfMqOutboxCoreMapper;
+import cn.iocoder.yudao.coreservice.modules.infra.service.mq.InfMqOutboxCoreService;
+import cn.iocoder.yudao.framework.mq.core.outbox.dto.MessageOutboxDTO;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+
+import javax.annotation.Resource;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * MQ Outbox 消息 Service 实现类
+ *
+ * @author 芋道源码
+ */
+@Service
+@Validated
+public class InfMqOutboxCoreServiceImpl implements InfMqOutboxCoreService {
+
+    @Resource
+    private InfMqOutboxCoreMapper mqOutboxMapper;
+
+    @Override
+    public void createMessageOutboxList(List<MessageOutboxDTO> createDTOs) {
+        if (CollUtil.isEmpty(createDTOs)) {
+            return;
+        }
+        List<InfMqOutboxDO> mqOutboxes = InfMqOutboxCoreConvert.INSTANCE.convertList(createDTOs);
+        // 批量插入时，不会自动填充创建时间，所以手动设置
+        Date now = new Date();
+        mqOutboxes.forEach(mqOutbox -> mqOutbox.setCreateTime(now));
+        mqOutboxMapper.insertBatch(mqOutboxes);
+    }
+
+    @Override
+    public List<MessageOutboxDTO> getMessageOutboxList(Date createTime, int limit) {
+        return InfMqOutboxCoreConvert.INSTANCE.convertList02(mqOutboxMapper.selectListByCreateTimeLt(createTime, limit));
+    }
+
+    @Override
+    public void deleteMessageOutboxList(Collection<String> messageIds) {
+        if (CollUtil.isEmpty(messageIds)) {
+            return;
+        }
+        mqOutboxMapper.deleteByMessageIds(messageIds);
+    }
+
+}
@@ -95,5 +95,15 @@ public class PayNotifyTaskDO extends BaseDO {
      * 通知地址
      */
     private String notifyUrl;
+    /**
+     * 认领者，即认领该任务的节点 + 认领批次，在状态为 {@link PayNotifyStatusEnum#CLAIMED} 时有意义
+     *
+     * 更新通知结果时，需要匹配认领者，避免租约到期被其它节点重新认领后，旧的结果覆盖新的结果
+     */
+    private String claimOwner;
+    /**
+     * 认领的租约到期时间。到期后仍为 {@link PayNotifyStatusEnum#CLAIMED} 状态时，可以被重新认领
+     */
+    private Date claimExpireTime;
 
 }
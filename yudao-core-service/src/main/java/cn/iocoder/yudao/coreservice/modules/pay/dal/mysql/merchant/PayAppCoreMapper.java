@@ -3,7 +3,14 @@ package cn.iocoder.yudao.coreservice.modules.pay.dal.mysql.merchant;
 import cn.iocoder.yudao.coreservice.modules.pay.dal.dataobject.merchant.PayAppDO;
 import cn.iocoder.yudao.framework.mybatis.core.mapper.BaseMapperX;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Date;
 
 @Mapper
 public interface PayAppCoreMapper extends BaseMapperX<PayAppDO> {
+
+    @Select("SELECT id FROM pay_app WHERE update_time > #{maxUpdateTime} LIMIT 1")
+    Long selectExistsByUpdateTimeAfter(Date maxUpdateTime);
+
 }
@@ -2,8 +2,27 @@ package cn.iocoder.yudao.coreservice.modules.pay.dal.mysql.notify;
 
 import cn.iocoder.yudao.coreservice.modules.pay.dal.dataobject.notify.PayNotifyLogDO;
 import cn.iocoder.yudao.framework.mybatis.core.mapper.BaseMapperX;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 @Mapper
 public interface PayNotifyLogCoreMapper extends BaseMapperX<PayNotifyLogDO> {
+
+    /**
+     * 批量插入通知日志，一条 SQL 完成
+     *
+     * @param list 通知日志数组
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO pay_notify_log (task_id, notify_times, response, status, create_time) VALUES" +
+            "<foreach collection='list' item='item' separator=','>" +
+            " (#{item.taskId}, #{item.notifyTimes}, #{item.response}, #{item.status}, #{item.createTime})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("list") List<PayNotifyLogDO> list);
+
 }
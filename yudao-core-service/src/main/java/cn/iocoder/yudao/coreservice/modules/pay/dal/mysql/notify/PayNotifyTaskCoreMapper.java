@@ -4,8 +4,12 @@ import cn.iocoder.yudao.coreservice.modules.pay.dal.dataobject.notify.PayNotifyT
 import cn.iocoder.yudao.coreservice.modules.pay.enums.notify.PayNotifyStatusEnum;
 import cn.iocoder.yudao.framework.mybatis.core.mapper.BaseMapperX;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -13,18 +17,133 @@ import java.util.List;
 public interface PayNotifyTaskCoreMapper extends BaseMapperX<PayNotifyTaskDO> {
 
     /**
-     * 获得需要通知的 PayNotifyTaskDO 记录。需要满足如下条件：
+     * 获得需要通知的 PayNotifyTaskDO 记录。需要满足如下条件之一：
      *
-     * 1. status 非成功
-     * 2. nextNotifyTime 小于当前时间
+     * 1. status 非成功、非认领，并且 nextNotifyTime 小于当前时间
+     * 2. status 为认领，并且认领的租约已经到期
      *
+     * @param now 当前时间
+     * @param limit 最大数量
      * @return PayTransactionNotifyTaskDO 数组
      */
-    default List<PayNotifyTaskDO> selectListByNotify() {
-        return selectList(new QueryWrapper<PayNotifyTaskDO>()
+    default List<PayNotifyTaskDO> selectListByNotify(Date now, Integer limit) {
+        return selectList(buildNotifyQuery(new QueryWrapper<>(), now).orderByAsc("id").last("LIMIT " + limit));
+    }
+
+    /**
+     * 获得 nextNotifyTime 在 (beginTime, endTime] 范围内，等待通知的 PayNotifyTaskDO 记录，用于加载到时间轮
+     *
+     * 只查询 id、next_notify_time 字段，并按照 id 分页
+     *
+     * @param beginTime 开始时间
+     * @param endTime 结束时间
+     * @param minId 最小编号（不包含）
+     * @param limit 最大数量
+     * @return PayTransactionNotifyTaskDO 数组
+     */
+    default List<PayNotifyTaskDO> selectListByNextNotifyTime(Date beginTime, Date endTime, Long minId, Integer limit) {
+        return selectList(new QueryWrapper<PayNotifyTaskDO>().select("id", "next_notify_time")
                 .in("status", PayNotifyStatusEnum.WAITING.getStatus(), PayNotifyStatusEnum.REQUEST_SUCCESS.getStatus(),
                         PayNotifyStatusEnum.REQUEST_FAILURE.getStatus())
-                .le("next_notify_time", new Date()));
+                .gt("next_notify_time", beginTime).le("next_notify_time", endTime)
+                .gt("id", minId).orderByAsc("id").last("LIMIT " + limit));
+    }
+
+    /**
+     * 获得指定编号中，等待通知、但 nextNotifyTime 大于指定时间的 PayNotifyTaskDO 记录，即还未到期的记录
+     *
+     * 只查询 id、next_notify_time 字段
+     *
+     * @param ids 编号数组
+     * @param time 指定时间
+     * @return PayTransactionNotifyTaskDO 数组
+     */
+    default List<PayNotifyTaskDO> selectListByIdsAndNextNotifyTimeGt(Collection<Long> ids, Date time) {
+        return selectList(new QueryWrapper<PayNotifyTaskDO>().select("id", "next_notify_time").in("id", ids)
+                .in("status", PayNotifyStatusEnum.WAITING.getStatus(), PayNotifyStatusEnum.REQUEST_SUCCESS.getStatus(),
+                        PayNotifyStatusEnum.REQUEST_FAILURE.getStatus())
+                .gt("next_notify_time", time));
+    }
+
+    /**
+     * 批量认领需要通知的 PayNotifyTaskDO 记录
+     *
+     * 通过一条 UPDATE 语句，原子地将满足 {@link #selectListByNotify(Date, Integer)} 条件的记录更新为认领状态。
+     * 多个节点并发认领时，每条记录只会被一个节点认领成功，之后通过 {@link #selectListByClaimOwner(String)} 获得
+     *
+     * @param ids 编号数组
+     * @param claimOwner 认领者
+     * @param claimExpireTime 认领的租约到期时间
+     * @param now 当前时间
+     * @return 认领成功的数量
+     */
+    default int updateClaim(Collection<Long> ids, String claimOwner, Date claimExpireTime, Date now) {
+        return update(new PayNotifyTaskDO().setStatus(PayNotifyStatusEnum.CLAIMED.getStatus())
+                        .setClaimOwner(claimOwner).setClaimExpireTime(claimExpireTime),
+                buildNotifyQuery(new QueryWrapper<PayNotifyTaskDO>().in("id", ids), now));
+    }
+
+    default List<PayNotifyTaskDO> selectListByClaimOwner(String claimOwner) {
+        return selectList(new QueryWrapper<PayNotifyTaskDO>().eq("claim_owner", claimOwner)
+                .eq("status", PayNotifyStatusEnum.CLAIMED.getStatus()));
+    }
+
+    /**
+     * 批量更新通知结果，通过 CASE WHEN 一条 SQL 完成
+     *
+     * 只更新认领者仍为 {@link PayNotifyTaskDO#getClaimOwner()} 的记录，避免租约到期被其它节点重新认领后，旧的结果覆盖新的结果。
+     * 为 null 的字段，保持原值
+     *
+     * @param list 通知结果数组，需要设置 id、claimOwner、status 字段
+     * @param claimedStatus 认领状态，即 {@link PayNotifyStatusEnum#CLAIMED}
+     * @return 更新条数。小于数组大小时，说明部分记录的租约已经到期
+     */
+    @Update("<script>" +
+            "UPDATE pay_notify_task SET" +
+            " status = CASE id<foreach collection='list' item='item'> WHEN #{item.id} THEN #{item.status}</foreach> END," +
+            " notify_times = CASE id<foreach collection='list' item='item'>" +
+            " WHEN #{item.id} THEN IFNULL(#{item.notifyTimes,jdbcType=INTEGER}, notify_times)</foreach> END," +
+            " next_notify_time = CASE id<foreach collection='list' item='item'>" +
+            " WHEN #{item.id} THEN IFNULL(#{item.nextNotifyTime,jdbcType=TIMESTAMP}, next_notify_time)</foreach> END," +
+            " last_execute_time = CASE id<foreach collection='list' item='item'>" +
+            " WHEN #{item.id} THEN IFNULL(#{item.lastExecuteTime,jdbcType=TIMESTAMP}, last_execute_time)</foreach> END" +
+            " WHERE status = #{claimedStatus} AND (id, claim_owner) IN" +
+            "<foreach collection='list' item='item' open='(' separator=',' close=')'>(#{item.id}, #{item.claimOwner})</foreach>" +
+            "</script>")
+    int updateBatchByIdAndClaimOwner(@Param("list") List<PayNotifyTaskDO> list, @Param("claimedStatus") Integer claimedStatus);
+
+    static QueryWrapper<PayNotifyTaskDO> buildNotifyQuery(QueryWrapper<PayNotifyTaskDO> queryWrapper, Date now) {
+        return queryWrapper.and(w -> w.in("status", PayNotifyStatusEnum.WAITING.getStatus(),
+                        PayNotifyStatusEnum.REQUEST_SUCCESS.getStatus(), PayNotifyStatusEnum.REQUEST_FAILURE.getStatus())
+                .le("next_notify_time", now)
+                .or(o -> o.eq("status", PayNotifyStatusEnum.CLAIMED.getStatus()).le("claim_expire_time", now)));
+    }
+
+    /**
+     * 批量释放 PayNotifyTaskDO 记录，并延后下一次通知时间，用于 Host 熔断中，未发起通知的情况
+     *
+     * 只更新状态仍为 whereStatus、并且仍然满足 {@link #selectListByNotify(Date, Integer)} 条件的记录，
+     * 避免覆盖查询之后，被其它节点认领、或者已经完成通知的记录
+     *
+     * @param ids 编号数组
+     * @param whereStatus 查询到的状态
+     * @param status 释放后的状态
+     * @param nextNotifyTime 下一次通知时间
+     * @param now 当前时间
+     * @return 更新条数
+     */
+    default int updateBatchRelease(Collection<Long> ids, Integer whereStatus, Integer status,
+                                   Date nextNotifyTime, Date now) {
+        UpdateWrapper<PayNotifyTaskDO> updateWrapper = new UpdateWrapper<PayNotifyTaskDO>()
+                .set("status", status).set("next_notify_time", nextNotifyTime)
+                .set("claim_owner", null).set("claim_expire_time", null)
+                .in("id", ids).eq("status", whereStatus);
+        if (PayNotifyStatusEnum.CLAIMED.getStatus().equals(whereStatus)) {
+            updateWrapper.le("claim_expire_time", now);
+        } else {
+            updateWrapper.le("next_notify_time", now);
+        }
+        return update(null, updateWrapper);
     }
 
 }
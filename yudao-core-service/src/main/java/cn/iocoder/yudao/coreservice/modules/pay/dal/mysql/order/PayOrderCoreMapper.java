@@ -6,6 +6,9 @@ import cn.iocoder.yudao.framework.mybatis.core.mapper.BaseMapperX;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import org.apache.ibatis.annotations.Mapper;
 
+import java.util.Date;
+import java.util.List;
+
 @Mapper
 public interface PayOrderCoreMapper extends BaseMapperX<PayOrderDO> {
 
@@ -19,4 +22,23 @@ public interface PayOrderCoreMapper extends BaseMapperX<PayOrderDO> {
                 .eq("id", id).eq("status", status));
     }
 
+    /**
+     * 获得 expireTime 在 [beginTime, endTime] 范围内，指定状态的 PayOrderDO 记录，用于对账
+     *
+     * 只查询 id 字段，并按照 id 分页
+     *
+     * @param status 状态
+     * @param beginTime 开始时间
+     * @param endTime 结束时间
+     * @param minId 最小编号（不包含）
+     * @param limit 最大数量
+     * @return PayOrderDO 数组
+     */
+    default List<PayOrderDO> selectListByStatusAndExpireTime(Integer status, Date beginTime, Date endTime,
+                                                             Long minId, Integer limit) {
+        return selectList(new QueryWrapper<PayOrderDO>().select("id").eq("status", status)
+                .between("expire_time", beginTime, endTime)
+                .gt("id", minId).orderByAsc("id").last("LIMIT " + limit));
+    }
+
 }
@@ -5,6 +5,9 @@ import cn.iocoder.yudao.framework.mybatis.core.mapper.BaseMapperX;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import org.apache.ibatis.annotations.Mapper;
 
+import java.util.Collection;
+import java.util.List;
+
 @Mapper
 public interface PayOrderExtensionCoreMapper extends BaseMapperX<PayOrderExtensionDO> {
 
@@ -17,4 +20,33 @@ public interface PayOrderExtensionCoreMapper extends BaseMapperX<PayOrderExtensi
                 .eq("id", id).eq("status", status));
     }
 
+    /**
+     * 获得指定支付订单、指定状态的 PayOrderExtensionDO 记录，用于对账
+     *
+     * 只查询对账需要的字段，不查询 channel_extras 等较大的字段
+     *
+     * @param orderIds 支付订单编号数组
+     * @param status 状态
+     * @return PayOrderExtensionDO 数组
+     */
+    default List<PayOrderExtensionDO> selectListByOrderIdsAndStatus(Collection<Long> orderIds, Integer status) {
+        return selectList(new QueryWrapper<PayOrderExtensionDO>()
+                .select("id", "no", "order_id", "channel_id", "channel_code")
+                .in("order_id", orderIds).eq("status", status));
+    }
+
+    /**
+     * 获得指定支付订单号的 PayOrderExtensionDO 记录，用于异步处理回调时，按照支付订单分区
+     *
+     * 只查询分区需要的字段
+     *
+     * @param nos 支付订单号数组
+     * @return PayOrderExtensionDO 数组
+     */
+    default List<PayOrderExtensionDO> selectListByNos(Collection<String> nos) {
+        return selectList(new QueryWrapper<PayOrderExtensionDO>()
+                .select("no", "order_id")
+                .in("no", nos));
+    }
+
 }
@@ -17,6 +17,7 @@ public enum PayNotifyStatusEnum {
     FAILURE(3, "通知失败"), // 多次尝试，彻底失败
     REQUEST_SUCCESS(4, "请求成功，但是结果失败"),
     REQUEST_FAILURE(5, "请求失败"),
+    CLAIMED(6, "通知中"), // 已被某个节点认领，正在通知。租约到期未完成时，会被重新认领
 
     ;
 
@@ -0,0 +1,67 @@
+package cn.iocoder.yudao.coreservice.modules.pay.framework.notify.config;
+
+import cn.iocoder.yudao.coreservice.modules.pay.framework.notify.core.PayNotifyHttpDispatcher;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 支付通知 配置类
+ *
+ * @author 芋道源码
+ */
+@Configuration
+@EnableConfigurationProperties(PayNotifyProperties.class)
+public class PayNotifyConfiguration {
+
+    /**
+     * 创建支付通知的 HTTP 分发器
+     *
+     * 优先使用 Resilience4j 自动配置的 CircuitBreakerRegistry，这样熔断器可以通过 /actuator/circuitbreakers 查看
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public PayNotifyHttpDispatcher payNotifyHttpDispatcher(PayNotifyProperties properties,
+                                                           ObjectProvider<CircuitBreakerRegistry> circuitBreakerRegistry) {
+        return new PayNotifyHttpDispatcher(properties, circuitBreakerRegistry.getIfAvailable(CircuitBreakerRegistry::ofDefaults));
+    }
+
+    /**
+     * 基于 Micrometer，暴露支付通知的监控指标
+     */
+    @Configuration
+    @ConditionalOnClass(MeterBinder.class)
+    static class PayNotifyMetricsConfiguration {
+
+        /**
+         * 暴露请求中、排队中的数量，成功、失败、拒绝、熔断的次数，以及总耗时
+         */
+        @Bean
+        public MeterBinder payNotifyMeterBinder(PayNotifyHttpDispatcher dispatcher) {
+            return registry -> {
+                PayNotifyHttpDispatcher.Metrics metrics = dispatcher.getMetrics();
+                Gauge.builder("yudao.pay.notify.in-flight", dispatcher, PayNotifyHttpDispatcher::getInFlightCount)
+                        .register(registry);
+                Gauge.builder("yudao.pay.notify.queued", dispatcher, PayNotifyHttpDispatcher::getQueuedCount)
+                        .register(registry);
+                FunctionCounter.builder("yudao.pay.notify.requests", metrics,
+                        PayNotifyHttpDispatcher.Metrics::getSuccessCount).tag("result", "success").register(registry);
+                FunctionCounter.builder("yudao.pay.notify.requests", metrics,
+                        PayNotifyHttpDispatcher.Metrics::getFailureCount).tag("result", "failure").register(registry);
+                FunctionCounter.builder("yudao.pay.notify.requests", metrics,
+                        PayNotifyHttpDispatcher.Metrics::getRejectedCount).tag("result", "rejected").register(registry);
+                FunctionCounter.builder("yudao.pay.notify.requests", metrics,
+                        PayNotifyHttpDispatcher.Metrics::getNotPermittedCount).tag("result", "not-permitted").register(registry);
+                FunctionCounter.builder("yudao.pay.notify.latency", metrics,
+                        PayNotifyHttpDispatcher.Metrics::getTotalLatency).baseUnit("milliseconds").register(registry);
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,179 @@
+package cn.iocoder.yudao.coreservice.modules.pay.framework.notify.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+
+/**
+ * 支付通知的配置属性
+ *
+ * @author 芋道源码
+ */
+@ConfigurationProperties(prefix = "yudao.pay.notify")
+@Validated
+@Data
+public class PayNotifyProperties {
+
+    /**
+     * 建立连接的超时时间。商户的通知地址不可用时，尽快失败
+     */
+    @NotNull(message = "建立连接的超时时间不能为空")
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    /**
+     * 等待响应的超时时间
+     */
+    @NotNull(message = "等待响应的超时时间不能为空")
+    private Duration responseTimeout = Duration.ofSeconds(10);
+    /**
+     * 每个商户 Host 的最大并发请求数，同时也是连接池的最大连接数。超过时，请求在该 Host 的队列中排队
+     */
+    @NotNull(message = "每个 Host 的最大并发请求数不能为空")
+    @Min(value = 1, message = "每个 Host 的最大并发请求数不能小于 1")
+    private Integer maxConcurrencyPerHost = 10;
+    /**
+     * 每个商户 Host 的最大排队请求数。超过时，直接拒绝，等待下次通知
+     */
+    @NotNull(message = "每个 Host 的最大排队请求数不能为空")
+    @Min(value = 0, message = "每个 Host 的最大排队请求数不能小于 0")
+    private Integer maxQueueSizePerHost = 1000;
+    /**
+     * 每个商户 Host 的最大排队时长。超过时，排队中的请求直接拒绝，等待下次通知
+     *
+     * 和建立连接、等待响应的超时时间一起，决定了认领通知任务的租约时长，保证租约到期前通知已经完成
+     */
+    @NotNull(message = "每个 Host 的最大排队时长不能为空")
+    private Duration maxQueueTimePerHost = Duration.ofSeconds(90);
+    /**
+     * 所有商户 Host 的最大连接数
+     */
+    @NotNull(message = "最大连接数不能为空")
+    @Min(value = 1, message = "最大连接数不能小于 1")
+    private Integer maxConnections = 200;
+    /**
+     * 非阻塞 IO 的线程数
+     */
+    @NotNull(message = "IO 线程数不能为空")
+    @Min(value = 1, message = "IO 线程数不能小于 1")
+    private Integer ioThreads = Runtime.getRuntime().availableProcessors();
+    /**
+     * 处理通知结果的线程数，即更新通知任务、记录通知日志
+     */
+    @NotNull(message = "处理通知结果的线程数不能为空")
+    @Min(value = 1, message = "处理通知结果的线程数不能小于 1")
+    private Integer callbackThreads = 4;
+    /**
+     * 批量保存通知结果时，每批的最大数量。通知结果先进入队列，由独立的线程批量更新通知任务、插入通知日志
+     */
+    @NotNull(message = "每批保存通知结果的最大数量不能为空")
+    @Min(value = 1, message = "每批保存通知结果的最大数量不能小于 1")
+    private Integer resultBatchSize = 200;
+    /**
+     * 通知结果的队列容量。队列已满时，由处理通知结果的线程直接保存
+     */
+    @NotNull(message = "通知结果的队列容量不能为空")
+    @Min(value = 1, message = "通知结果的队列容量不能小于 1")
+    private Integer resultQueueCapacity = 10000;
+
+    /**
+     * 通知任务的时间轮配置
+     */
+    @NotNull(message = "时间轮配置不能为空")
+    @Valid
+    private TimingWheel timingWheel = new TimingWheel();
+
+    /**
+     * 每个商户 Host 的熔断配置
+     */
+    @NotNull(message = "熔断配置不能为空")
+    @Valid
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    /**
+     * 每个商户 Host 的熔断配置
+     *
+     * 商户的通知地址不可用时，熔断打开，该 Host 的通知任务被批量延后，不再发起 HTTP 请求；
+     * 等待 {@link #waitDurationInOpenState} 后进入半开状态，允许少量的探测请求，成功后恢复通知
+     */
+    @Data
+    public static class CircuitBreaker {
+
+        /**
+         * 失败率的阈值，百分比。超过时，熔断打开
+         */
+        @NotNull(message = "失败率的阈值不能为空")
+        @Min(value = 1, message = "失败率的阈值不能小于 1")
+        @Max(value = 100, message = "失败率的阈值不能大于 100")
+        private Integer failureRateThreshold = 50;
+        /**
+         * 统计失败率的滑动窗口大小，即最近的请求数
+         */
+        @NotNull(message = "滑动窗口大小不能为空")
+        @Min(value = 1, message = "滑动窗口大小不能小于 1")
+        private Integer slidingWindowSize = 20;
+        /**
+         * 计算失败率前，至少需要的请求数
+         */
+        @NotNull(message = "最少请求数不能为空")
+        @Min(value = 1, message = "最少请求数不能小于 1")
+        private Integer minimumNumberOfCalls = 10;
+        /**
+         * 熔断打开的时长，之后进入半开状态。同时，也是熔断时通知任务被延后的时长
+         */
+        @NotNull(message = "熔断打开的时长不能为空")
+        private Duration waitDurationInOpenState = Duration.ofMinutes(1);
+        /**
+         * 半开状态时，允许的探测请求数
+         */
+        @NotNull(message = "探测请求数不能为空")
+        @Min(value = 1, message = "探测请求数不能小于 1")
+        private Integer permittedNumberOfCallsInHalfOpenState = 2;
+
+    }
+
+    /**
+     * 通知任务的时间轮配置
+     *
+     * 即将到期的通知任务保存在内存的时间轮中，在 nextNotifyTime 准时触发；
+     * 定时任务只负责对账，即通知已经到期、但未被触发的任务，并将 {@link #lookAhead} 内到期的任务加载到时间轮
+     */
+    @Data
+    public static class TimingWheel {
+
+        /**
+         * 每一格的时长，即触发的精度
+         */
+        @NotNull(message = "每一格的时长不能为空")
+        private Duration tick = Duration.ofMillis(10);
+        /**
+         * 每一层的格数
+         */
+        @NotNull(message = "每一层的格数不能为空")
+        @Min(value = 2, message = "每一层的格数不能小于 2")
+        private Integer wheelSize = 512;
+        /**
+         * 预加载的时长，需要大于定时任务的执行间隔
+         */
+        @NotNull(message = "预加载的时长不能为空")
+        private Duration lookAhead = Duration.ofMinutes(10);
+        /**
+         * 认领到期任务的线程数。独立的线程池，不占用应用共享的 @Async 线程池
+         */
+        @NotNull(message = "认领到期任务的线程数不能为空")
+        @Min(value = 1, message = "认领到期任务的线程数不能小于 1")
+        private Integer claimThreads = 2;
+        /**
+         * 认领到期任务的队列容量。队列已满时，丢弃本次触发，由定时任务的对账兜底
+         */
+        @NotNull(message = "认领到期任务的队列容量不能为空")
+        @Min(value = 1, message = "认领到期任务的队列容量不能小于 1")
+        private Integer claimQueueCapacity = 1000;
+
+    }
+
+}
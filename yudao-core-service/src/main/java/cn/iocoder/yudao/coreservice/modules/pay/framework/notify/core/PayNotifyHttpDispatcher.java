@@ -0,0 +1,449 @@
+package cn.iocoder.yudao.coreservice.modules.pay.framework.notify.core;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.iocoder.yudao.coreservice.modules.pay.framework.notify.config.PayNotifyProperties;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.Getter;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 支付通知的 HTTP 分发器
+ *
+ * 基于非阻塞的 HttpAsyncClient 发起通知，少量 IO 线程即可支撑大量并发中的请求，和应用的线程池完全隔离：
+ * 1. 每个商户 Host 独立的连接池（按照 route 划分），并限制最大并发请求数，超过时在该 Host 的队列中排队。
+ *    这样，某个商户的通知地址响应慢，只会占满它自己的并发数，不会影响其它商户。
+ *    排队超过最大时长的请求直接拒绝，所以每个通知最多耗时 {@link #getMaxNotifyDuration()}
+ * 2. 较短的建立连接超时时间，商户的通知地址不可用时尽快失败
+ * 3. 通知的结果，在独立的线程池中回调，避免阻塞 IO 线程
+ * 4. 每个商户 Host 一个 Resilience4j 的熔断器。熔断打开时，请求直接失败，调用方可以通过 {@link #isAvailable(String)} 提前判断
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class PayNotifyHttpDispatcher {
+
+    /**
+     * 熔断器名字的前缀，后面拼接 Host
+     */
+    private static final String CIRCUIT_BREAKER_NAME_PREFIX = "payNotify:";
+
+    private final PayNotifyProperties properties;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final CircuitBreakerConfig circuitBreakerConfig;
+
+    private CloseableHttpAsyncClient httpClient;
+    /**
+     * 处理通知结果的线程池
+     */
+    private ExecutorService callbackExecutor;
+
+    /**
+     * 各个商户 Host，key 为 host:port
+     */
+    private final ConcurrentMap<String, Host> hosts = new ConcurrentHashMap<>();
+    /**
+     * 所有 Host 汇总的统计
+     */
+    @Getter
+    private final Metrics metrics = new Metrics();
+
+    public PayNotifyHttpDispatcher(PayNotifyProperties properties, CircuitBreakerRegistry circuitBreakerRegistry) {
+        this.properties = properties;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        PayNotifyProperties.CircuitBreaker circuitBreaker = properties.getCircuitBreaker();
+        this.circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .failureRateThreshold(circuitBreaker.getFailureRateThreshold())
+                .slidingWindowSize(circuitBreaker.getSlidingWindowSize())
+                .minimumNumberOfCalls(circuitBreaker.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(circuitBreaker.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(circuitBreaker.getPermittedNumberOfCallsInHalfOpenState())
+                .automaticTransitionFromOpenToHalfOpenEnabled(true) // 无需等待请求，到期自动进入半开状态
+                .build();
+    }
+
+    @SneakyThrows
+    public void start() {
+        int connectTimeout = (int) properties.getConnectTimeout().toMillis();
+        int responseTimeout = (int) properties.getResponseTimeout().toMillis();
+        // 创建连接池，每个 Host 即一个 route
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom().setIoThreadCount(properties.getIoThreads())
+                .setConnectTimeout(connectTimeout).setSoTimeout(responseTimeout).build();
+        PoolingNHttpClientConnectionManager connectionManager = new PoolingNHttpClientConnectionManager(
+                new DefaultConnectingIOReactor(ioReactorConfig, new NamedThreadFactory("pay-notify-io-", true)));
+        connectionManager.setMaxTotal(properties.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxConcurrencyPerHost());
+        // 创建 HttpAsyncClient
+        httpClient = HttpAsyncClients.custom().setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom().setConnectTimeout(connectTimeout)
+                        .setSocketTimeout(responseTimeout).setConnectionRequestTimeout(responseTimeout).build())
+                .build();
+        httpClient.start();
+        // 创建处理通知结果的线程池
+        callbackExecutor = new ThreadPoolExecutor(properties.getCallbackThreads(), properties.getCallbackThreads(),
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), new NamedThreadFactory("pay-notify-callback-", true));
+    }
+
+    public void stop() throws IOException {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        if (callbackExecutor != null) {
+            callbackExecutor.shutdown();
+        }
+    }
+
+    /**
+     * 发起 POST 通知
+     *
+     * 返回的 Future 在处理通知结果的线程池中完成，可以执行数据库操作等阻塞逻辑。
+     * HTTP 状态码非 2XX 时，Future 以异常完成；Host 熔断时，以 {@link CallNotPermittedException} 异常完成；
+     * 超过 Host 的排队数量、排队时长时，以 {@link RejectedExecutionException} 异常完成
+     *
+     * @param url 通知地址
+     * @param body 请求内容，JSON 格式
+     * @return 响应内容
+     */
+    public CompletableFuture<String> post(String url, String body) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        Request request;
+        Host host;
+        try {
+            URI uri = URI.create(url);
+            request = new Request(uri, body, future);
+            host = getHost(uri);
+        } catch (Throwable ex) {
+            callbackExecutor.execute(() -> future.completeExceptionally(ex));
+            return future;
+        }
+        // 熔断中，直接失败。半开状态时，只允许少量的探测请求通过
+        if (!host.circuitBreaker.tryAcquirePermission()) {
+            host.metrics.notPermittedCount.increment();
+            metrics.notPermittedCount.increment();
+            callbackExecutor.execute(() -> future.completeExceptionally(
+                    CallNotPermittedException.createCallNotPermittedException(host.circuitBreaker)));
+            return future;
+        }
+        // 未超过 Host 的最大并发请求数，直接发起；否则，排队
+        synchronized (host) {
+            if (host.inFlight < properties.getMaxConcurrencyPerHost()) {
+                host.inFlight++;
+            } else if (host.queue.size() < properties.getMaxQueueSizePerHost()) {
+                host.queue.add(request);
+                return future;
+            } else {
+                reject(host, request, String.format("Host(%s) 排队的通知数量超过上限(%d)",
+                        host.name, properties.getMaxQueueSizePerHost()));
+                return future;
+            }
+        }
+        execute(host, request);
+        return future;
+    }
+
+    /**
+     * 判断通知地址的 Host 是否可用，即熔断器未打开
+     *
+     * @param url 通知地址
+     * @return 是否可用。通知地址不合法时，返回 true，由实际请求时失败
+     */
+    public boolean isAvailable(String url) {
+        Host host;
+        try {
+            host = getHost(URI.create(url));
+        } catch (Throwable ex) {
+            return true;
+        }
+        CircuitBreaker.State state = host.circuitBreaker.getState();
+        return state != CircuitBreaker.State.OPEN && state != CircuitBreaker.State.FORCED_OPEN;
+    }
+
+    /**
+     * 获得单个通知的最大耗时，即最大排队时长 + 建立连接的超时时间 + 等待响应的超时时间
+     *
+     * 调用方认领通知任务的租约，需要大于该时长，否则排队中的通知还未发起，任务就被其它节点重新认领
+     *
+     * @return 时长
+     */
+    public Duration getMaxNotifyDuration() {
+        return properties.getMaxQueueTimePerHost().plus(properties.getConnectTimeout())
+                .plus(properties.getResponseTimeout());
+    }
+
+    /**
+     * 获得 Host 不可用时，通知任务需要延后的时长，即熔断打开的时长
+     *
+     * @return 时长
+     */
+    public Duration getUnavailableDelay() {
+        return properties.getCircuitBreaker().getWaitDurationInOpenState();
+    }
+
+    /**
+     * 获得各个 Host 的统计，key 为 host:port
+     *
+     * @return 统计
+     */
+    public Map<String, Metrics> getHostMetrics() {
+        Map<String, Metrics> result = new ConcurrentHashMap<>(hosts.size());
+        hosts.forEach((name, host) -> result.put(name, host.metrics));
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * 获得所有 Host 正在请求中的通知数量
+     *
+     * @return 数量
+     */
+    public int getInFlightCount() {
+        int count = 0;
+        for (Host host : hosts.values()) {
+            count += host.inFlight;
+        }
+        return count;
+    }
+
+    /**
+     * 获得所有 Host 排队中的通知数量
+     *
+     * @return 数量
+     */
+    public int getQueuedCount() {
+        int count = 0;
+        for (Host host : hosts.values()) {
+            synchronized (host) {
+                count += host.queue.size();
+            }
+        }
+        return count;
+    }
+
+    private Host getHost(URI uri) {
+        if (uri.getHost() == null) {
+            throw new IllegalArgumentException(String.format("通知地址(%s) 不合法", uri));
+        }
+        return hosts.computeIfAbsent(uri.getHost() + ":" + uri.getPort(), name -> new Host(name,
+                circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER_NAME_PREFIX + name, circuitBreakerConfig)));
+    }
+
+    private void execute(Host host, Request request) {
+        long startTime = System.currentTimeMillis();
+        HttpPost post = new HttpPost(request.uri);
+        post.setEntity(new StringEntity(request.body, ContentType.APPLICATION_JSON));
+        try {
+            httpClient.execute(post, new FutureCallback<HttpResponse>() {
+
+                @Override
+                public void completed(HttpResponse response) {
+                    String content;
+                    try {
+                        content = response.getEntity() != null
+                                ? EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8) : null;
+                    } catch (Throwable ex) {
+                        failed(ex instanceof Exception ? (Exception) ex : new RuntimeException(ex));
+                        return;
+                    }
+                    int statusCode = response.getStatusLine().getStatusCode();
+                    if (statusCode < 200 || statusCode >= 300) {
+                        failed(new IllegalStateException(String.format("HTTP 状态码(%d)，响应(%s)", statusCode, content)));
+                        return;
+                    }
+                    complete(host, startTime, null);
+                    callbackExecutor.execute(() -> request.future.complete(content));
+                }
+
+                @Override
+                public void failed(Exception ex) {
+                    complete(host, startTime, ex);
+                    callbackExecutor.execute(() -> request.future.completeExceptionally(ex));
+                }
+
+                @Override
+                public void cancelled() {
+                    failed(new IllegalStateException("通知被取消"));
+                }
+
+            });
+        } catch (Throwable ex) {
+            complete(host, startTime, ex);
+            callbackExecutor.execute(() -> request.future.completeExceptionally(ex));
+        }
+    }
+
+    /**
+     * 请求完成，记录统计、熔断器，并发起该 Host 排队中的下一个请求
+     *
+     * @param exception 请求的异常，为 null 时表示成功
+     */
+    private void complete(Host host, long startTime, Throwable exception) {
+        long latency = System.currentTimeMillis() - startTime;
+        host.metrics.record(exception == null, latency);
+        metrics.record(exception == null, latency);
+        if (exception == null) {
+            host.circuitBreaker.onSuccess(latency, TimeUnit.MILLISECONDS);
+        } else {
+            host.circuitBreaker.onError(latency, TimeUnit.MILLISECONDS, exception);
+        }
+        // 取出排队中的下一个请求。排队超过最大时长的请求，直接拒绝
+        long expireTime = System.currentTimeMillis() - properties.getMaxQueueTimePerHost().toMillis();
+        List<Request> expiredRequests = new ArrayList<>();
+        Request next;
+        synchronized (host) {
+            while ((next = host.queue.poll()) != null && next.queueTime < expireTime) {
+                expiredRequests.add(next);
+            }
+            if (next == null) {
+                host.inFlight--;
+            }
+        }
+        expiredRequests.forEach(request -> reject(host, request, String.format("Host(%s) 排队的时长超过上限(%d ms)",
+                host.name, properties.getMaxQueueTimePerHost().toMillis())));
+        if (next != null) {
+            execute(host, next);
+        }
+    }
+
+    /**
+     * 拒绝请求，未发起 HTTP 请求，所以需要释放熔断器的许可
+     */
+    private void reject(Host host, Request request, String message) {
+        host.circuitBreaker.releasePermission();
+        host.metrics.rejectedCount.increment();
+        metrics.rejectedCount.increment();
+        callbackExecutor.execute(() -> request.future.completeExceptionally(new RejectedExecutionException(message)));
+    }
+
+    /**
+     * 待发起的通知请求
+     */
+    private static class Request {
+
+        private final URI uri;
+        private final String body;
+        private final CompletableFuture<String> future;
+        /**
+         * 创建时间，用于判断排队是否超过最大时长
+         */
+        private final long queueTime = System.currentTimeMillis();
+
+        private Request(URI uri, String body, CompletableFuture<String> future) {
+            this.uri = uri;
+            this.body = body;
+            this.future = future;
+        }
+
+    }
+
+    /**
+     * 商户 Host，即通知地址的 host:port
+     */
+    private static class Host {
+
+        private final String name;
+        /**
+         * 请求中的数量，通过 synchronized 保护
+         */
+        private volatile int inFlight;
+        /**
+         * 排队中的请求，通过 synchronized 保护
+         */
+        private final Queue<Request> queue = new ArrayDeque<>();
+        private final Metrics metrics = new Metrics();
+        private final CircuitBreaker circuitBreaker;
+
+        private Host(String name, CircuitBreaker circuitBreaker) {
+            this.name = name;
+            this.circuitBreaker = circuitBreaker;
+        }
+
+    }
+
+    /**
+     * 通知的统计
+     */
+    public static class Metrics {
+
+        /**
+         * 成功的请求数，即 HTTP 状态码为 2XX
+         */
+        private final LongAdder successCount = new LongAdder();
+        /**
+         * 失败的请求数，包括连接失败、超时、HTTP 状态码非 2XX
+         */
+        private final LongAdder failureCount = new LongAdder();
+        /**
+         * 因为排队数量超过上限，被拒绝的请求数
+         */
+        private final LongAdder rejectedCount = new LongAdder();
+        /**
+         * 因为熔断，未发起的请求数
+         */
+        private final LongAdder notPermittedCount = new LongAdder();
+        /**
+         * 请求的总耗时，单位：毫秒
+         */
+        private final LongAdder totalLatency = new LongAdder();
+
+        private void record(boolean success, long latency) {
+            (success ? successCount : failureCount).increment();
+            totalLatency.add(latency);
+        }
+
+        public long getSuccessCount() {
+            return successCount.sum();
+        }
+
+        public long getFailureCount() {
+            return failureCount.sum();
+        }
+
+        public long getRejectedCount() {
+            return rejectedCount.sum();
+        }
+
+        public long getNotPermittedCount() {
+            return notPermittedCount.sum();
+        }
+
+        public long getTotalLatency() {
+            return totalLatency.sum();
+        }
+
+    }
+
+}
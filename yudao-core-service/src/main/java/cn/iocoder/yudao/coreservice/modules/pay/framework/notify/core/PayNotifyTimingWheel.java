@@ -0,0 +1,307 @@
+package cn.iocoder.yudao.coreservice.modules.pay.framework.notify.core;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 支付通知的分层时间轮，在通知任务的 nextNotifyTime 到达时触发
+ *
+ * 和 Kafka 的 TimingWheel 类似：
+ * 1. 第一层的每一格为 tick 时间，共 wheelSize 格；超出当前层范围的任务，放入上一层，上一层的每一格为下一层的总时长
+ * 2. 只有非空的格子才放入 {@link DelayQueue}，后台线程按照最近一格的到期时间阻塞，不会空转
+ * 3. 格子到期后，推进时钟，并将格子中的任务重新放入时间轮：已经到期的触发，未到期的降级到下一层
+ *
+ * 和 Kafka 不同，任务不会在 deadline 之前触发：格子在它的开始时间到期，其中未到期的任务，放入在当前格子结束时到期的格子，
+ * 最多延后一个 tick 触发。因为通知任务在 deadline 之前触发时，认领会因为未到达 nextNotifyTime 而失败
+ *
+ * 每个任务只保留最后一次调度，重复调度同一个编号时，之前的调度自动失效
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class PayNotifyTimingWheel {
+
+    /**
+     * 第一层时间轮
+     */
+    private final Wheel wheel;
+    /**
+     * 非空的格子，按照到期时间排序
+     */
+    private final DelayQueue<Bucket> queue = new DelayQueue<>();
+    /**
+     * 任务编号与最后一次调度的映射
+     */
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    /**
+     * 任务到期的处理器，参数为同一时刻到期的任务编号数组。在时间轮的线程中执行，所以不能阻塞
+     */
+    private final Consumer<List<Long>> expiredHandler;
+
+    private volatile Thread worker;
+
+    public PayNotifyTimingWheel(long tickMs, int wheelSize, Consumer<List<Long>> expiredHandler) {
+        this.wheel = new Wheel(tickMs, wheelSize, System.currentTimeMillis(), queue);
+        this.expiredHandler = expiredHandler;
+    }
+
+    /**
+     * 调度任务，在 deadline 时触发。已经到期的任务，立即触发
+     *
+     * @param id 任务编号
+     * @param deadline 触发时间
+     */
+    public void schedule(Long id, long deadline) {
+        Entry entry = new Entry(id, deadline);
+        entries.put(id, entry);
+        synchronized (this) {
+            if (!wheel.add(entry, System.currentTimeMillis())) {
+                wheel.addExpired(entry);
+            }
+        }
+    }
+
+    /**
+     * 取消任务的调度
+     *
+     * @param id 任务编号
+     */
+    public void cancel(Long id) {
+        entries.remove(id); // 格子中的任务，在到期时发现已经失效，直接忽略
+    }
+
+    /**
+     * @return 等待触发的任务数量
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    public synchronized void start() {
+        if (worker != null) {
+            return;
+        }
+        worker = new Thread(this::run, "pay-notify-timing-wheel");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public synchronized void stop() {
+        Thread current = worker;
+        worker = null;
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+
+    private void run() {
+        List<Long> expiredIds = new ArrayList<>();
+        while (worker == Thread.currentThread()) {
+            try {
+                Bucket bucket = queue.poll(1, TimeUnit.SECONDS);
+                if (bucket == null) {
+                    // 没有到期的格子，推进时钟，避免空闲较久后，新任务基于过时的时钟计算格子
+                    synchronized (this) {
+                        wheel.advanceClock(System.currentTimeMillis());
+                    }
+                    continue;
+                }
+                synchronized (this) {
+                    // 一次性处理所有到期的格子，同一时刻到期的任务一起触发
+                    while (bucket != null) {
+                        wheel.advanceClock(bucket.getExpiration());
+                        long now = System.currentTimeMillis();
+                        bucket.flush(entry -> {
+                            if (entries.get(entry.id) != entry) { // 已经取消、或者重新调度
+                                return;
+                            }
+                            if (!wheel.add(entry, now)) {
+                                entries.remove(entry.id, entry);
+                                expiredIds.add(entry.id);
+                            }
+                        });
+                        bucket = queue.poll();
+                    }
+                }
+                if (!expiredIds.isEmpty()) {
+                    expiredHandler.accept(new ArrayList<>(expiredIds));
+                }
+            } catch (InterruptedException e) {
+                break;
+            } catch (Throwable e) {
+                // 触发失败的任务，由定时扫描的对账兜底
+                log.error("[run][触发 {} 个通知任务发生异常]", expiredIds.size(), e);
+            } finally {
+                expiredIds.clear();
+            }
+        }
+    }
+
+    /**
+     * 某一层时间轮
+     */
+    private static class Wheel {
+
+        private final long tickMs;
+        private final int wheelSize;
+        /**
+         * 本层的总时长
+         */
+        private final long interval;
+        private final Bucket[] buckets;
+        private final DelayQueue<Bucket> queue;
+        /**
+         * 在当前格子结束时到期的格子，存放当前格子中还未到期的任务
+         *
+         * 不复用 {@link #buckets}：当前格子的下一圈对应的格子，可能还有未触发的任务
+         */
+        private Bucket tickBucket;
+        /**
+         * 当前时间，向下取整到 tickMs
+         */
+        private long currentTime;
+        /**
+         * 上一层时间轮，按需创建
+         */
+        private Wheel overflowWheel;
+
+        Wheel(long tickMs, int wheelSize, long startMs, DelayQueue<Bucket> queue) {
+            this.tickMs = tickMs;
+            this.wheelSize = wheelSize;
+            this.interval = tickMs * wheelSize;
+            this.buckets = new Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new Bucket();
+            }
+            this.queue = queue;
+            this.currentTime = startMs - startMs % tickMs;
+        }
+
+        /**
+         * 放入任务
+         *
+         * @param now 当前时间
+         * @return 是否放入成功。false 说明已经到期
+         */
+        boolean add(Entry entry, long now) {
+            if (entry.deadline <= now) {
+                return false;
+            }
+            // 当前格子中还未到期的任务，在当前格子结束时触发。只有第一层会出现，上一层的当前格子由下一层覆盖
+            if (entry.deadline < currentTime + tickMs) {
+                long expiration = currentTime + tickMs;
+                if (tickBucket == null || tickBucket.getExpiration() != expiration) {
+                    tickBucket = new Bucket();
+                }
+                addToBucket(tickBucket, entry, expiration);
+                return true;
+            }
+            if (entry.deadline < currentTime + interval) {
+                long virtualId = entry.deadline / tickMs;
+                addToBucket(buckets[(int) (virtualId % wheelSize)], entry, virtualId * tickMs);
+                return true;
+            }
+            if (overflowWheel == null) {
+                overflowWheel = new Wheel(interval, wheelSize, currentTime, queue);
+            }
+            return overflowWheel.add(entry, now);
+        }
+
+        /**
+         * 放入已经到期的任务，立即触发
+         *
+         * 放入当前时间对应的格子。该格子已经被推进过，在当前这一圈不会有未到期的任务
+         */
+        void addExpired(Entry entry) {
+            addToBucket(buckets[(int) ((currentTime / tickMs) % wheelSize)], entry, currentTime);
+        }
+
+        private void addToBucket(Bucket bucket, Entry entry, long expiration) {
+            bucket.add(entry);
+            // 格子的到期时间变化，说明是新的一圈，需要重新放入 DelayQueue
+            if (bucket.setExpiration(expiration)) {
+                queue.offer(bucket);
+            }
+        }
+
+        void advanceClock(long time) {
+            if (time < currentTime + tickMs) {
+                return;
+            }
+            currentTime = time - time % tickMs;
+            if (overflowWheel != null) {
+                overflowWheel.advanceClock(currentTime);
+            }
+        }
+
+    }
+
+    /**
+     * 时间轮的一格
+     */
+    private static class Bucket implements Delayed {
+
+        private final AtomicLong expiration = new AtomicLong(-1);
+        private List<Entry> entries = new ArrayList<>();
+
+        void add(Entry entry) {
+            entries.add(entry);
+        }
+
+        /**
+         * 设置到期时间
+         *
+         * @return 是否变化
+         */
+        boolean setExpiration(long expiration) {
+            return this.expiration.getAndSet(expiration) != expiration;
+        }
+
+        long getExpiration() {
+            return expiration.get();
+        }
+
+        void flush(Consumer<Entry> consumer) {
+            List<Entry> flushed = entries;
+            entries = new ArrayList<>();
+            expiration.set(-1);
+            flushed.forEach(consumer);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Math.max(getExpiration() - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            return Long.compare(getExpiration(), ((Bucket) o).getExpiration());
+        }
+
+    }
+
+    /**
+     * 一次调度
+     */
+    private static class Entry {
+
+        private final Long id;
+        private final long deadline;
+
+        Entry(Long id, long deadline) {
+            this.id = id;
+            this.deadline = deadline;
+        }
+
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * 支付通知的 HTTP 分发，基于非阻塞的 HttpAsyncClient 实现，按照商户的 Host 隔离并发
+ */
+package cn.iocoder.yudao.coreservice.modules.pay.framework.notify;
@@ -0,0 +1,12 @@
+package cn.iocoder.yudao.coreservice.modules.pay.framework.order.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 支付订单的配置类
+ */
+@Configuration
+@EnableConfigurationProperties(PayOrderProperties.class)
+public class PayOrderConfiguration {
+}
@@ -0,0 +1,86 @@
+package cn.iocoder.yudao.coreservice.modules.pay.framework.order.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+
+/**
+ * 支付订单的配置属性
+ *
+ * @author 芋道源码
+ */
+@ConfigurationProperties(prefix = "yudao.pay.order")
+@Validated
+@Data
+public class PayOrderProperties {
+
+    /**
+     * 是否异步处理支付渠道的回调
+     *
+     * 开启后，回调请求只校验签名、解析结果，写入 Redis Stream 后立即响应，由 PayOrderNotifyMessage 的消费者异步更新支付订单。
+     * 需要部署该消息的消费者。另外，消息需要持久化，所以 yudao.mq.transport 不能为 local，否则启动时报错
+     */
+    @NotNull(message = "是否异步处理回调不能为空")
+    private Boolean notifyAsync = false;
+    /**
+     * 异步处理回调的线程数。同一个支付订单的回调，总是由同一个线程按顺序处理
+     */
+    @NotNull(message = "异步处理回调的线程数不能为空")
+    @Min(value = 1, message = "异步处理回调的线程数不能小于 1")
+    private Integer notifyWorkerThreads = 8;
+
+    /**
+     * 支付结果的对账配置
+     */
+    @NotNull(message = "对账配置不能为空")
+    @Valid
+    private Sync sync = new Sync();
+
+    /**
+     * 支付结果的对账配置
+     *
+     * 支付渠道的回调可能丢失、延迟，定时任务批量查询即将过期、仍在待支付的支付订单拓展，主动调用支付渠道查询支付结果。
+     * 已经支付成功的，和回调一样更新支付订单
+     */
+    @Data
+    public static class Sync {
+
+        /**
+         * 每批查询的最大数量
+         */
+        @NotNull(message = "每批查询的最大数量不能为空")
+        @Min(value = 1, message = "每批查询的最大数量不能小于 1")
+        private Integer batchSize = 500;
+        /**
+         * 对账的提前时长，即支付订单在该时长内过期时，开始对账
+         */
+        @NotNull(message = "对账的提前时长不能为空")
+        private Duration expireLookAhead = Duration.ofMinutes(5);
+        /**
+         * 对账的延后时长，即支付订单过期超过该时长后，不再对账
+         *
+         * 支付渠道的订单过期时间，可能略晚于支付订单，所以过期后仍需要对账一段时间
+         */
+        @NotNull(message = "对账的延后时长不能为空")
+        private Duration expireGrace = Duration.ofMinutes(10);
+        /**
+         * 查询支付渠道的线程数
+         */
+        @NotNull(message = "对账的线程数不能为空")
+        @Min(value = 1, message = "对账的线程数不能小于 1")
+        private Integer threads = 32;
+        /**
+         * 每个支付渠道的最大并发查询数，避免触发支付渠道的限流
+         */
+        @NotNull(message = "每个支付渠道的最大并发数不能为空")
+        @Min(value = 1, message = "每个支付渠道的最大并发数不能小于 1")
+        private Integer concurrencyPerChannel = 8;
+
+    }
+
+}
@@ -0,0 +1,106 @@
+package cn.iocoder.yudao.coreservice.modules.pay.framework.order.core;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.iocoder.yudao.coreservice.modules.pay.dal.dataobject.order.PayOrderExtensionDO;
+import cn.iocoder.yudao.framework.pay.core.client.PayClient;
+import cn.iocoder.yudao.framework.pay.core.client.PayCommonResult;
+import cn.iocoder.yudao.framework.pay.core.client.dto.PayOrderQueryRespDTO;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 支付结果的对账执行器，批量调用支付渠道，查询支付订单拓展的支付结果
+ *
+ * 按照支付渠道分组，每个渠道最多 concurrencyPerChannel 个查询同时进行：
+ * 每个渠道启动不超过该数量的 worker，从该渠道的队列中依次取出支付订单拓展进行查询。
+ * 某个渠道较慢时，只会占用自己的 worker，不会阻塞其它渠道的查询
+ *
+ * 支付渠道通过 clientResolver 获得，单元测试时可以替换成模拟的 {@link PayClient}，离线压测
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class PayOrderSyncExecutor {
+
+    private final ExecutorService executor;
+    private final int concurrencyPerChannel;
+    /**
+     * 支付客户端的获取器，参数为渠道编号
+     */
+    private final Function<Long, PayClient> clientResolver;
+
+    public PayOrderSyncExecutor(int threads, int concurrencyPerChannel, Function<Long, PayClient> clientResolver) {
+        this.executor = Executors.newFixedThreadPool(threads, new NamedThreadFactory("pay-order-sync-", true));
+        this.concurrencyPerChannel = concurrencyPerChannel;
+        this.clientResolver = clientResolver;
+    }
+
+    /**
+     * 查询一批支付订单拓展的支付结果，等待全部查询完成后返回
+     *
+     * @param extensions 支付订单拓展数组，需要设置 no、channelId 字段
+     * @param paidHandler 已经支付成功的处理器，在查询的线程中执行
+     * @return 已经支付成功的数量
+     */
+    public int execute(Collection<PayOrderExtensionDO> extensions,
+                       BiConsumer<PayOrderExtensionDO, PayOrderQueryRespDTO> paidHandler) {
+        AtomicInteger paidCount = new AtomicInteger();
+        Map<Long, List<PayOrderExtensionDO>> channelExtensions = extensions.stream()
+                .collect(Collectors.groupingBy(PayOrderExtensionDO::getChannelId));
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        channelExtensions.forEach((channelId, list) -> {
+            PayClient client = clientResolver.apply(channelId);
+            if (client == null) {
+                log.error("[execute][渠道编号({}) 找不到对应的支付客户端，跳过 {} 个支付订单拓展]", channelId, list.size());
+                return;
+            }
+            Queue<PayOrderExtensionDO> queue = new ConcurrentLinkedQueue<>(list);
+            for (int i = 0; i < Math.min(concurrencyPerChannel, list.size()); i++) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    PayOrderExtensionDO extension;
+                    while ((extension = queue.poll()) != null) {
+                        if (query(client, extension, paidHandler)) {
+                            paidCount.incrementAndGet();
+                        }
+                    }
+                }, executor));
+            }
+        });
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        return paidCount.get();
+    }
+
+    private boolean query(PayClient client, PayOrderExtensionDO extension,
+                          BiConsumer<PayOrderExtensionDO, PayOrderQueryRespDTO> paidHandler) {
+        try {
+            PayCommonResult<PayOrderQueryRespDTO> result = client.queryOrder(extension.getNo());
+            if (result.isError() || result.getData() == null || !Boolean.TRUE.equals(result.getData().getPaid())) {
+                return false;
+            }
+            paidHandler.accept(extension, result.getData());
+            return true;
+        } catch (Throwable e) {
+            // 单个查询失败，不影响其它查询，等待下次对账
+            log.error("[query][支付订单拓展({}) 对账失败]", extension.getId(), e);
+            return false;
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * 支付订单的配置，例如说支付渠道回调的异步处理、支付结果的对账
+ */
+package cn.iocoder.yudao.coreservice.modules.pay.framework.order;
@@ -0,0 +1,50 @@
+package cn.iocoder.yudao.coreservice.modules.pay.mq.message.order;
+
+import cn.iocoder.yudao.framework.mq.core.stream.StreamMessage;
+import cn.iocoder.yudao.framework.pay.core.client.dto.PayOrderNotifyRespDTO;
+import lombok.Data;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * 支付渠道的支付结果回调消息
+ *
+ * 回调请求中只校验签名、解析结果，之后发送该消息即可响应，由消费者异步更新支付订单
+ *
+ * @author 芋道源码
+ */
+@Data
+public class PayOrderNotifyMessage implements StreamMessage {
+
+    /**
+     * 渠道编号
+     */
+    @NotNull(message = "渠道编号不能为空")
+    private Long channelId;
+    /**
+     * 渠道编码
+     */
+    @NotNull(message = "渠道编码不能为空")
+    private String channelCode;
+    /**
+     * 回调的原始数据
+     */
+    @NotNull(message = "回调的原始数据不能为空")
+    private String notifyData;
+    /**
+     * 解析后的支付结果
+     */
+    @NotNull(message = "支付结果不能为空")
+    private PayOrderNotifyRespDTO notifyResp;
+
+    @Override
+    public String getStreamKey() {
+        return "pay.order.notify";
+    }
+
+    @Override
+    public Long getStreamMaxLength() {
+        return 100000L; // 大促时回调可能短时间积压，所以设置得大一些
+    }
+
+}
@@ -0,0 +1,53 @@
+package cn.iocoder.yudao.coreservice.modules.pay.mq.producer.order;
+
+import cn.iocoder.yudao.coreservice.modules.pay.mq.message.order.PayOrderNotifyMessage;
+import cn.iocoder.yudao.framework.mq.core.transport.MessageTransport;
+import cn.iocoder.yudao.framework.pay.core.client.dto.PayOrderNotifyRespDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 支付订单相关消息的 Core Producer
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+@Component
+public class PayOrderCoreProducer {
+
+    @Resource
+    private MessageTransport messageTransport;
+
+    /**
+     * 是否可以发送 {@link PayOrderNotifyMessage} 消息，即传输层是否持久化消息
+     *
+     * 发送后会立即响应支付渠道，支付渠道不再重试回调。如果传输层不持久化，例如说 yudao.mq.transport 为 local，
+     * 进程重启时还未消费的回调会丢失
+     *
+     * @return 是否可以发送
+     */
+    public boolean isPayOrderNotifyMessageDurable() {
+        return messageTransport.isDurable();
+    }
+
+    /**
+     * 发送 {@link PayOrderNotifyMessage} 消息
+     *
+     * 直接写入 Stream，而不是 Outbox 表。这样，回调请求无需访问数据库。
+     * 写入 Redis Stream 成功后，消息已经持久化，再响应支付渠道；启动时，由 PayOrderCoreServiceImpl 校验传输层是否持久化
+     *
+     * @param channelId 渠道编号
+     * @param channelCode 渠道编码
+     * @param notifyData 回调的原始数据
+     * @param notifyResp 解析后的支付结果
+     */
+    public void sendPayOrderNotifyMessage(Long channelId, String channelCode, String notifyData,
+                                         PayOrderNotifyRespDTO notifyResp) {
+        PayOrderNotifyMessage message = new PayOrderNotifyMessage().setChannelId(channelId).setChannelCode(channelCode)
+                .setNotifyData(notifyData).setNotifyResp(notifyResp);
+        messageTransport.sendStreamMessage(message);
+    }
+
+}
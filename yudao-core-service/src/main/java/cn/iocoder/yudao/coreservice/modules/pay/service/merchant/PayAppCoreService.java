@@ -10,6 +10,11 @@ import cn.iocoder.yudao.framework.common.exception.ServiceException;
  */
 public interface PayAppCoreService {
 
+    /**
+     * 初始化支付应用的本地缓存
+     */
+    void initLocalCache();
+
     /**
      * 支付应用的合法性
      *
@@ -1,14 +1,24 @@
 package cn.iocoder.yudao.coreservice.modules.pay.service.merchant.impl;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.iocoder.yudao.coreservice.modules.pay.dal.dataobject.merchant.PayAppDO;
 import cn.iocoder.yudao.coreservice.modules.pay.dal.mysql.merchant.PayAppCoreMapper;
 import cn.iocoder.yudao.coreservice.modules.pay.service.merchant.PayAppCoreService;
 import cn.iocoder.yudao.framework.common.enums.CommonStatusEnum;
+import cn.iocoder.yudao.framework.mybatis.core.dataobject.BaseDO;
+import com.google.common.collect.ImmutableMap;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 import javax.validation.Valid;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 import static cn.iocoder.yudao.coreservice.modules.pay.enums.PayErrorCodeCoreConstants.*;
 import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception;
@@ -23,12 +33,77 @@ import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionU
 @Slf4j
 public class PayAppCoreServiceImpl implements PayAppCoreService {
 
+    /**
+     * 定时执行 {@link #schedulePeriodicRefresh()} 的周期
+     */
+    private static final long SCHEDULER_PERIOD = 5 * 60 * 1000L;
+
+    /**
+     * 支付应用缓存
+     * key：支付应用编号 {@link PayAppDO#getId()}
+     *
+     * 这里声明 volatile 修饰的原因是，每次刷新时，直接修改指向
+     */
+    private volatile Map<Long, PayAppDO> payAppCache = Collections.emptyMap();
+    /**
+     * 缓存支付应用的最大更新时间，用于后续的增量轮询，判断是否有更新
+     */
+    private volatile Date maxUpdateTime;
+
     @Resource
     private PayAppCoreMapper payAppCoreMapper;
 
+    @Override
+    @PostConstruct
+    public void initLocalCache() {
+        // 获取支付应用，如果有更新
+        List<PayAppDO> payApps = this.loadPayAppIfUpdate(maxUpdateTime);
+        if (CollUtil.isEmpty(payApps)) {
+            return;
+        }
+
+        // 写入缓存
+        ImmutableMap.Builder<Long, PayAppDO> builder = ImmutableMap.builder();
+        payApps.forEach(payApp -> builder.put(payApp.getId(), payApp));
+        payAppCache = builder.build();
+        assert payApps.size() > 0; // 断言，避免告警
+        maxUpdateTime = payApps.stream().max(Comparator.comparing(BaseDO::getUpdateTime)).get().getUpdateTime();
+        log.info("[initLocalCache][初始化 PayApp 数量为 {}]", payApps.size());
+    }
+
+    @Scheduled(fixedDelay = SCHEDULER_PERIOD, initialDelay = SCHEDULER_PERIOD)
+    public void schedulePeriodicRefresh() {
+        initLocalCache();
+    }
+
+    /**
+     * 如果支付应用发生变化，从数据库中获取最新的全量支付应用。
+     * 如果未发生变化，则返回空
+     *
+     * @param maxUpdateTime 当前支付应用的最大更新时间
+     * @return 支付应用列表
+     */
+    private List<PayAppDO> loadPayAppIfUpdate(Date maxUpdateTime) {
+        // 第一步，判断是否要更新。
+        if (maxUpdateTime == null) { // 如果更新时间为空，说明 DB 一定有新数据
+            log.info("[loadPayAppIfUpdate][首次加载全量支付应用]");
+        } else { // 判断数据库中是否有更新的支付应用
+            if (payAppCoreMapper.selectExistsByUpdateTimeAfter(maxUpdateTime) == null) {
+                return null;
+            }
+            log.info("[loadPayAppIfUpdate][增量加载全量支付应用]");
+        }
+        // 第二步，如果有更新，则从数据库加载所有支付应用
+        return payAppCoreMapper.selectList();
+    }
+
     @Override
     public PayAppDO validPayApp(Long id) {
-        PayAppDO app = payAppCoreMapper.selectById(id);
+        // 优先从缓存中获取。未命中时，可能是缓存还未刷新的新应用，从数据库中获取
+        PayAppDO app = payAppCache.get(id);
+        if (app == null) {
+            app = payAppCoreMapper.selectById(id);
+        }
         // 校验是否存在
         if (app == null) {
             throw exception(PAY_APP_NOT_FOUND);
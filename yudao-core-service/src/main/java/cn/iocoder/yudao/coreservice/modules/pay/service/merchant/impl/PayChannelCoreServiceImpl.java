@@ -8,6 +8,10 @@ import cn.iocoder.yudao.coreservice.modules.pay.service.merchant.PayChannelCoreS
 import cn.iocoder.yudao.framework.common.enums.CommonStatusEnum;
 import cn.iocoder.yudao.framework.mybatis.core.dataobject.BaseDO;
 import cn.iocoder.yudao.framework.pay.core.client.PayClientFactory;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Table;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -16,9 +20,11 @@ import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 import javax.validation.Valid;
 
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import static cn.iocoder.yudao.coreservice.modules.pay.enums.PayErrorCodeCoreConstants.*;
 import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception;
@@ -40,7 +46,22 @@ public class PayChannelCoreServiceImpl implements PayChannelCoreService {
     private static final long SCHEDULER_PERIOD = 5 * 60 * 1000L;
 
     /**
-     * 缓存菜单的最大更新时间，用于后续的增量轮询，判断是否有更新
+     * 支付渠道缓存
+     * key：支付渠道编号 {@link PayChannelDO#getId()}
+     *
+     * 这里声明 volatile 修饰的原因是，每次刷新时，直接修改指向
+     */
+    private volatile Map<Long, PayChannelDO> payChannelCache = Collections.emptyMap();
+    /**
+     * 支付渠道缓存
+     * row：应用编号 {@link PayChannelDO#getAppId()}
+     * column：渠道编码 {@link PayChannelDO#getCode()}
+     *
+     * 这里声明 volatile 修饰的原因是，每次刷新时，直接修改指向
+     */
+    private volatile Table<Long, String, PayChannelDO> appPayChannelCache = ImmutableTable.of();
+    /**
+     * 缓存支付渠道的最大更新时间，用于后续的增量轮询，判断是否有更新
      */
     private volatile Date maxUpdateTime;
 
@@ -64,6 +85,18 @@ public class PayChannelCoreServiceImpl implements PayChannelCoreService {
                 payChannel.getCode(), payChannel.getConfig()));
 
         // 写入缓存
+        ImmutableMap.Builder<Long, PayChannelDO> builder = ImmutableMap.builder();
+        Table<Long, String, PayChannelDO> appBuilder = HashBasedTable.create();
+        payChannels.forEach(payChannel -> {
+            builder.put(payChannel.getId(), payChannel);
+            appBuilder.put(payChannel.getAppId(), payChannel.getCode(), payChannel);
+        });
+        Map<Long, PayChannelDO> oldPayChannelCache = payChannelCache;
+        payChannelCache = builder.build();
+        appPayChannelCache = ImmutableTable.copyOf(appBuilder);
+        // 移除已经不存在的支付渠道的 Client，释放它们占用的资源，例如说证书的临时文件
+        oldPayChannelCache.keySet().stream().filter(id -> !payChannelCache.containsKey(id))
+                .forEach(payClientFactory::removePayClient);
         assert payChannels.size() > 0; // 断言，避免告警
         maxUpdateTime = payChannels.stream().max(Comparator.comparing(BaseDO::getUpdateTime)).get().getUpdateTime();
         log.info("[initPayClients][初始化 PayChannel 数量为 {}]", payChannels.size());
@@ -97,14 +130,22 @@ public class PayChannelCoreServiceImpl implements PayChannelCoreService {
 
     @Override
     public PayChannelDO validPayChannel(Long id) {
-        PayChannelDO channel = payChannelCoreMapper.selectById(id);
+        // 优先从缓存中获取。未命中时，可能是缓存还未刷新的新渠道，从数据库中获取
+        PayChannelDO channel = payChannelCache.get(id);
+        if (channel == null) {
+            channel = payChannelCoreMapper.selectById(id);
+        }
         this.validPayChannel(channel);
         return channel;
     }
 
     @Override
     public PayChannelDO validPayChannel(Long appId, String code) {
-        PayChannelDO channel = payChannelCoreMapper.selectByAppIdAndCode(appId, code);
+        // 优先从缓存中获取。未命中时，可能是缓存还未刷新的新渠道，从数据库中获取
+        PayChannelDO channel = appPayChannelCache.get(appId, code);
+        if (channel == null) {
+            channel = payChannelCoreMapper.selectByAppIdAndCode(appId, code);
+        }
         this.validPayChannel(channel);
         return channel;
     }
@@ -1,5 +1,6 @@
 package cn.iocoder.yudao.coreservice.modules.pay.service.notify;
 
+import cn.iocoder.yudao.coreservice.modules.pay.dal.dataobject.order.PayOrderDO;
 import cn.iocoder.yudao.coreservice.modules.pay.service.notify.dto.PayNotifyTaskCreateReqDTO;
 
 import javax.validation.Valid;
@@ -18,12 +19,23 @@ public interface PayNotifyCoreService {
      */
     void createPayNotifyTask(@Valid PayNotifyTaskCreateReqDTO reqDTO);
 
+    /**
+     * 创建支付订单的通知任务
+     *
+     * 和 {@link #createPayNotifyTask(PayNotifyTaskCreateReqDTO)} 相比，直接使用调用方已经查询到的支付订单，无需再次查询
+     *
+     * @param order 支付订单
+     */
+    void createPayOrderNotifyTask(PayOrderDO order);
+
     /**
      * 执行支付通知
      *
      * 注意，该方法提供给定时任务调用。目前是 yudao-admin-server 进行调用
-     * @return 通知数量
+     * 通知是异步执行的，该方法只负责发起，不等待通知完成
+     *
+     * @return 发起通知的数量
      */
-    int executeNotify() throws InterruptedException;
+    int executeNotify();
 
 }
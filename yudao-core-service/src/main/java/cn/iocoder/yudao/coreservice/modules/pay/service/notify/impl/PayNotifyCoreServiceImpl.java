@@ -1,41 +1,61 @@
 package cn.iocoder.yudao.coreservice.modules.pay.service.notify.impl;
 
 import cn.hutool.core.collection.CollUtil;
-import cn.hutool.http.HttpUtil;
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.system.SystemUtil;
 import cn.iocoder.yudao.coreservice.modules.pay.dal.dataobject.notify.PayNotifyLogDO;
 import cn.iocoder.yudao.coreservice.modules.pay.dal.dataobject.notify.PayNotifyTaskDO;
 import cn.iocoder.yudao.coreservice.modules.pay.dal.dataobject.order.PayOrderDO;
 import cn.iocoder.yudao.coreservice.modules.pay.dal.mysql.notify.PayNotifyLogCoreMapper;
 import cn.iocoder.yudao.coreservice.modules.pay.dal.mysql.notify.PayNotifyTaskCoreMapper;
-import cn.iocoder.yudao.coreservice.modules.pay.dal.redis.notify.PayNotifyLockCoreRedisDAO;
 import cn.iocoder.yudao.coreservice.modules.pay.enums.notify.PayNotifyStatusEnum;
 import cn.iocoder.yudao.coreservice.modules.pay.enums.notify.PayNotifyTypeEnum;
+import cn.iocoder.yudao.coreservice.modules.pay.framework.notify.config.PayNotifyProperties;
+import cn.iocoder.yudao.coreservice.modules.pay.framework.notify.core.PayNotifyHttpDispatcher;
+import cn.iocoder.yudao.coreservice.modules.pay.framework.notify.core.PayNotifyTimingWheel;
 import cn.iocoder.yudao.coreservice.modules.pay.service.notify.PayNotifyCoreService;
 import cn.iocoder.yudao.coreservice.modules.pay.service.notify.dto.PayNotifyTaskCreateReqDTO;
 import cn.iocoder.yudao.coreservice.modules.pay.service.notify.vo.PayNotifyOrderReqVO;
 import cn.iocoder.yudao.coreservice.modules.pay.service.notify.vo.PayRefundOrderReqVO;
 import cn.iocoder.yudao.coreservice.modules.pay.service.order.PayOrderCoreService;
 import cn.iocoder.yudao.framework.common.pojo.CommonResult;
+import cn.iocoder.yudao.framework.common.util.collection.CollectionUtils;
 import cn.iocoder.yudao.framework.common.util.date.DateUtils;
 import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import javax.validation.Valid;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static cn.hutool.core.exceptions.ExceptionUtil.getRootCauseMessage;
-import static cn.iocoder.yudao.framework.common.util.date.DateUtils.SECOND_MILLIS;
 import static cn.iocoder.yudao.framework.common.util.json.JsonUtils.toJsonString;
 
 /**
@@ -49,13 +69,32 @@ import static cn.iocoder.yudao.framework.common.util.json.JsonUtils.toJsonString
 public class PayNotifyCoreServiceImpl implements PayNotifyCoreService {
 
     /**
-     * 通知超时时间，单位：秒
+     * 保存通知结果的预留时长，单位：秒
+     *
+     * 认领任务的租约时长 = 单个通知的最大耗时 {@link PayNotifyHttpDispatcher#getMaxNotifyDuration()} + 该时长。
+     * 认领后超过租约仍未完成通知，会被重新认领
+     */
+    public static final int NOTIFY_SAVE_TIMEOUT = 30;
+    /**
+     * 时间轮触发的任务，认领时允许的提前量，单位：毫秒
+     *
+     * 容忍应用节点和数据库之间的时钟误差，避免时间轮准时触发，但认领时判断任务还未到期
+     */
+    public static final long NOTIFY_CLAIM_TOLERANCE = 1000;
+    /**
+     * 每次认领的最大任务数量
      */
-    public static final int NOTIFY_TIMEOUT = 120;
+    public static final int NOTIFY_BATCH_SIZE = 500;
     /**
-     * {@link #NOTIFY_TIMEOUT} 的毫秒
+     * 通知日志的响应内容的最大长度，和 pay_notify_log 的 response 字段一致
      */
-    public static final long NOTIFY_TIMEOUT_MILLIS = 120 * SECOND_MILLIS;
+    private static final int NOTIFY_LOG_RESPONSE_MAX_LENGTH = 2048;
+
+    /**
+     * 认领者的前缀，使用本地 IP + 进程编号的方式
+     */
+    private static final String CLAIM_OWNER_PREFIX = String.format("%s@%d",
+            SystemUtil.getHostInfo().getAddress(), SystemUtil.getCurrentPID());
 
     @Resource
     @Lazy // 循环依赖，避免报错
@@ -67,190 +106,513 @@ public class PayNotifyCoreServiceImpl implements PayNotifyCoreService {
     private PayNotifyLogCoreMapper payNotifyLogCoreMapper;
 
     @Resource
-    private ThreadPoolTaskExecutor threadPoolTaskExecutor; // TODO 芋艿：未来提供独立的线程池
-
+    private PayNotifyHttpDispatcher payNotifyHttpDispatcher;
     @Resource
-    private PayNotifyLockCoreRedisDAO payNotifyLockCoreRedisDAO;
+    private PayNotifyProperties payNotifyProperties;
 
     @Resource
     @Lazy // 循环依赖（自己依赖自己），避免报错
     private PayNotifyCoreServiceImpl self;
 
+    /**
+     * 待保存的通知结果的队列
+     */
+    private BlockingQueue<PayNotifyResult> notifyResultQueue;
+    /**
+     * 批量保存通知结果的线程
+     */
+    private volatile Thread notifyResultWriter;
+    /**
+     * 即将到期的通知任务的时间轮
+     */
+    private PayNotifyTimingWheel notifyTimingWheel;
+    /**
+     * 认领时间轮到期任务的线程池
+     */
+    private ExecutorService notifyClaimExecutor;
+
+    @PostConstruct
+    public void init() {
+        // 时间轮。到期的任务，在独立的线程池中认领并发起通知，避免阻塞时间轮的线程，也不受其它 @Async 任务的影响
+        PayNotifyProperties.TimingWheel timingWheelProperties = payNotifyProperties.getTimingWheel();
+        notifyClaimExecutor = new ThreadPoolExecutor(timingWheelProperties.getClaimThreads(),
+                timingWheelProperties.getClaimThreads(), 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(timingWheelProperties.getClaimQueueCapacity()),
+                new NamedThreadFactory("pay-notify-claim-", true));
+        notifyTimingWheel = new PayNotifyTimingWheel(timingWheelProperties.getTick().toMillis(),
+                timingWheelProperties.getWheelSize(), this::executeNotifyAsync);
+        notifyTimingWheel.start();
+        // 批量保存通知结果的线程
+        notifyResultQueue = new LinkedBlockingQueue<>(payNotifyProperties.getResultQueueCapacity());
+        notifyResultWriter = new Thread(this::writeNotifyResults, "pay-notify-result-writer");
+        notifyResultWriter.setDaemon(true);
+        notifyResultWriter.start();
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        notifyTimingWheel.stop();
+        notifyClaimExecutor.shutdown();
+        Thread writer = notifyResultWriter;
+        notifyResultWriter = null;
+        if (writer == null) {
+            return;
+        }
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+        // 保存队列中剩余的通知结果。未保存成功的，等认领的租约到期后重新通知
+        List<PayNotifyResult> results = new ArrayList<>();
+        notifyResultQueue.drainTo(results);
+        if (CollUtil.isNotEmpty(results)) {
+            self.saveNotifyResultsInTransaction(results);
+        }
+    }
+
     @Override
     public void createPayNotifyTask(PayNotifyTaskCreateReqDTO reqDTO) {
-        PayNotifyTaskDO task = new PayNotifyTaskDO();
-        task.setType(reqDTO.getType()).setDataId(reqDTO.getDataId());
-        task.setStatus(PayNotifyStatusEnum.WAITING.getStatus()).setNextNotifyTime(new Date())
-                .setNotifyTimes(0).setMaxNotifyTimes(PayNotifyTaskDO.NOTIFY_FREQUENCY.length + 1);
         // 补充 merchantId + appId + notifyUrl 字段
-        if (Objects.equals(task.getType(), PayNotifyTypeEnum.ORDER.getType())) {
-            PayOrderDO order = payOrderCoreService.getPayOrder(task.getDataId()); // 不进行非空判断，有问题直接异常
-            task.setMerchantId(order.getMerchantId()).setAppId(order.getAppId()).
-                    setMerchantOrderId(order.getMerchantOrderId()).setNotifyUrl(order.getNotifyUrl());
-        } else if (Objects.equals(task.getType(), PayNotifyTypeEnum.REFUND.getType())) {
+        if (Objects.equals(reqDTO.getType(), PayNotifyTypeEnum.ORDER.getType())) {
+            PayOrderDO order = payOrderCoreService.getPayOrder(reqDTO.getDataId()); // 不进行非空判断，有问题直接异常
+            createPayOrderNotifyTask(order);
+        } else if (Objects.equals(reqDTO.getType(), PayNotifyTypeEnum.REFUND.getType())) {
             // TODO 芋艿，需要实现下哈
             throw new UnsupportedOperationException("需要实现");
         }
+    }
+
+    @Override
+    public void createPayOrderNotifyTask(PayOrderDO order) {
+        PayNotifyTaskDO task = new PayNotifyTaskDO();
+        task.setType(PayNotifyTypeEnum.ORDER.getType()).setDataId(order.getId());
+        task.setStatus(PayNotifyStatusEnum.WAITING.getStatus()).setNextNotifyTime(buildNotifyTime(System.currentTimeMillis()))
+                .setNotifyTimes(0).setMaxNotifyTimes(PayNotifyTaskDO.NOTIFY_FREQUENCY.length + 1);
+        task.setMerchantId(order.getMerchantId()).setAppId(order.getAppId()).
+                setMerchantOrderId(order.getMerchantOrderId()).setNotifyUrl(order.getNotifyUrl());
+        createPayNotifyTask(task);
+    }
 
+    private void createPayNotifyTask(PayNotifyTaskDO task) {
         // 执行插入
         payNotifyTaskCoreMapper.insert(task);
 
-        // 异步直接发起任务。虽然会有定时任务扫描，但是会导致延迟
-        self.executeNotifyAsync(task);
+        // 放入时间轮，立即发起通知。存在事务时，需要在事务提交后，否则认领不到任务
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            scheduleNotify(task);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCommit() {
+                scheduleNotify(task);
+            }
+
+        });
     }
 
+    /**
+     * 对账：发起已经到期、但未被时间轮触发的通知，例如说其它节点创建的任务、宕机未完成的任务，
+     * 并将即将到期的任务加载到时间轮，在 nextNotifyTime 准时触发
+     *
+     * @return 发起通知的任务数
+     */
     @Override
-    public int executeNotify() throws InterruptedException {
-        // 获得需要通知的任务
-        List<PayNotifyTaskDO> tasks = payNotifyTaskCoreMapper.selectListByNotify();
-        if (CollUtil.isEmpty(tasks)) {
-            return 0;
-        }
+    public int executeNotify() {
+        int count = executeExpiredNotify();
+        loadNotifyTimingWheel();
+        return count;
+    }
 
-        // 遍历，逐个通知
-        CountDownLatch latch = new CountDownLatch(tasks.size());
-        tasks.forEach(task -> threadPoolTaskExecutor.execute(() -> {
-            try {
-                executeNotifySync(task);
-            } finally {
-                latch.countDown();
+    private int executeExpiredNotify() {
+        int count = 0;
+        while (true) {
+            // 获得需要通知的任务
+            List<PayNotifyTaskDO> tasks = payNotifyTaskCoreMapper.selectListByNotify(new Date(), NOTIFY_BATCH_SIZE);
+            if (CollUtil.isEmpty(tasks)) {
+                break;
             }
-        }));
-        // 等待完成
-        this.awaitExecuteNotify(latch);
-        // 返回执行完成的任务数（成功 + 失败)
-        return tasks.size();
+
+            // 熔断中的 Host，批量释放并延后它们的任务，不发起 HTTP 请求
+            Map<Boolean, List<PayNotifyTaskDO>> availableTasks = tasks.stream().collect(Collectors.partitioningBy(
+                    task -> payNotifyHttpDispatcher.isAvailable(task.getNotifyUrl())));
+            if (CollUtil.isNotEmpty(availableTasks.get(false))) {
+                releaseUnavailableNotifyTasks(availableTasks.get(false));
+            }
+
+            // 批量认领，并发起通知
+            count += claimAndExecuteNotify(CollectionUtils.convertList(availableTasks.get(true), PayNotifyTaskDO::getId),
+                    new Date());
+            if (tasks.size() < NOTIFY_BATCH_SIZE) {
+                break;
+            }
+        }
+        // 返回发起通知的任务数
+        return count;
     }
 
     /**
-     * 等待全部支付通知的完成
-     * 每 1 秒会打印一次剩余任务数量
+     * 批量释放 Host 熔断中的任务，并延后通知
+     *
+     * 和 {@link #buildReleaseNotifyTask(PayNotifyTaskDO)} 一致，租约到期的认领状态的任务，需要恢复成等待通知的状态，
+     * 否则它们仍然满足 {@link PayNotifyTaskCoreMapper#selectListByNotify(Date, Integer)} 的条件，会被反复查询
      *
-     * @param latch Latch
-     * @throws InterruptedException 如果被打断
+     * @param tasks 通知任务数组
      */
-    private void awaitExecuteNotify(CountDownLatch latch) throws InterruptedException {
-        long size = latch.getCount();
-        for (int i = 0; i < NOTIFY_TIMEOUT; i++) {
-            if (latch.await(1L, TimeUnit.SECONDS)) {
-                return;
+    private void releaseUnavailableNotifyTasks(List<PayNotifyTaskDO> tasks) {
+        Date now = new Date();
+        Date nextNotifyTime = buildUnavailableNextNotifyTime();
+        // 按照查询到的状态、释放后的状态分组，每组一条 UPDATE 语句
+        Map<Integer, Map<Integer, List<Long>>> statusIds = tasks.stream().collect(Collectors.groupingBy(
+                PayNotifyTaskDO::getStatus, Collectors.groupingBy(this::buildReleaseStatus,
+                        Collectors.mapping(PayNotifyTaskDO::getId, Collectors.toList()))));
+        statusIds.forEach((whereStatus, releaseStatusIds) -> releaseStatusIds.forEach((status, ids) ->
+                payNotifyTaskCoreMapper.updateBatchRelease(ids, whereStatus, status, nextNotifyTime, now)));
+        tasks.forEach(task -> scheduleNotify(task.getId(), nextNotifyTime));
+        log.warn("[releaseUnavailableNotifyTasks][{} 个任务的 Host 熔断中，延后通知]", tasks.size());
+    }
+
+    /**
+     * 将 lookAhead 内到期的任务，加载到时间轮
+     */
+    private void loadNotifyTimingWheel() {
+        Date now = new Date();
+        Date endTime = new Date(now.getTime() + payNotifyProperties.getTimingWheel().getLookAhead().toMillis());
+        Long minId = 0L;
+        while (true) {
+            List<PayNotifyTaskDO> tasks = payNotifyTaskCoreMapper.selectListByNextNotifyTime(now, endTime,
+                    minId, NOTIFY_BATCH_SIZE);
+            tasks.forEach(task -> notifyTimingWheel.schedule(task.getId(), task.getNextNotifyTime().getTime()));
+            if (tasks.size() < NOTIFY_BATCH_SIZE) {
+                break;
             }
-            log.info("[awaitExecuteNotify][任务处理中， 总任务数({}) 剩余任务数({})]", size, latch.getCount());
+            minId = tasks.get(tasks.size() - 1).getId();
+        }
+    }
+
+    private void scheduleNotify(PayNotifyTaskDO task) {
+        scheduleNotify(task.getId(), task.getNextNotifyTime());
+    }
+
+    /**
+     * 将任务放入时间轮。超过 lookAhead 的任务，由定时任务稍后加载
+     *
+     * @param id 任务编号
+     * @param nextNotifyTime 下次通知时间
+     */
+    private void scheduleNotify(Long id, Date nextNotifyTime) {
+        if (nextNotifyTime == null || nextNotifyTime.getTime() > System.currentTimeMillis()
+                + payNotifyProperties.getTimingWheel().getLookAhead().toMillis()) {
+            return;
         }
-        log.error("[awaitExecuteNotify][任务未处理完，总任务数({}) 剩余任务数({})]", size, latch.getCount());
+        notifyTimingWheel.schedule(id, nextNotifyTime.getTime());
     }
 
     /**
-     * 异步执行单个支付通知
+     * 异步执行时间轮触发的支付通知
      *
-     * @param task 通知任务
+     * @param ids 任务编号数组
      */
-    @Async
-    public void executeNotifyAsync(PayNotifyTaskDO task) {
-        self.executeNotifySync(task); // 使用 self，避免事务不发起
+    private void executeNotifyAsync(List<Long> ids) {
+        try {
+            notifyClaimExecutor.execute(() -> executeTimingWheelNotify(ids));
+        } catch (RejectedExecutionException e) {
+            log.warn("[executeNotifyAsync][认领队列已满，{} 个到期任务由对账发起通知]", ids.size());
+        }
     }
 
     /**
-     * 同步执行单个支付通知
+     * 执行时间轮触发的支付通知
      *
-     * @param task 通知任务
+     * @param ids 任务编号数组
      */
-    public void executeNotifySync(PayNotifyTaskDO task) {
-        // 分布式锁，避免并发问题
-        payNotifyLockCoreRedisDAO.lock(task.getId(), NOTIFY_TIMEOUT_MILLIS, () -> {
-            // 校验，当前任务是否已经被通知过
-            // 虽然已经通过分布式加锁，但是可能同时满足通知的条件，然后都去获得锁。此时，第一个执行完后，第二个还是能拿到锁，然后会再执行一次。
-            PayNotifyTaskDO dbTask = payNotifyTaskCoreMapper.selectById(task.getId());
-            if (DateUtils.afterNow(dbTask.getNextNotifyTime())) {
-                log.info("[executeNotify][dbTask({}) 任务被忽略，原因是未到达下次通知时间，可能是因为并发执行了]", toJsonString(dbTask));
+    private void executeTimingWheelNotify(List<Long> ids) {
+        try {
+            Date now = new Date(System.currentTimeMillis() + NOTIFY_CLAIM_TOLERANCE);
+            if (claimAndExecuteNotify(ids, now) >= ids.size()) {
                 return;
             }
+            // 未认领成功、并且还未到期的任务，例如说时钟误差超过容忍范围，重新放入时间轮，避免等到对账时才通知
+            List<PayNotifyTaskDO> notDueTasks = payNotifyTaskCoreMapper.selectListByIdsAndNextNotifyTimeGt(ids, now);
+            notDueTasks.forEach(this::scheduleNotify);
+        } catch (Throwable e) {
+            // 认领失败的任务，由定时任务的对账兜底
+            log.error("[executeTimingWheelNotify][认领 {} 个到期任务发生异常]", ids.size(), e);
+        }
+    }
 
-            // 执行通知
-            executeNotify(dbTask);
+    /**
+     * 批量认领任务，并发起通知
+     *
+     * 通过一条 UPDATE 语句认领，无需逐个任务加锁、重新查询。已被其它节点认领、或者未到达通知时间的任务，会被忽略
+     *
+     * @param ids 任务编号数组
+     * @param now 当前时间，nextNotifyTime、认领的租约到期时间不大于它的任务，才可以被认领
+     * @return 认领成功的任务数
+     */
+    private int claimAndExecuteNotify(List<Long> ids, Date now) {
+        if (CollUtil.isEmpty(ids)) {
+            return 0;
+        }
+        // 批量认领
+        String claimOwner = CLAIM_OWNER_PREFIX + "#" + IdUtil.fastSimpleUUID();
+        long notifyTimeout = payNotifyHttpDispatcher.getMaxNotifyDuration().getSeconds() + NOTIFY_SAVE_TIMEOUT;
+        int count = payNotifyTaskCoreMapper.updateClaim(ids, claimOwner,
+                DateUtils.addDate(now, Calendar.SECOND, (int) notifyTimeout), now);
+        if (count == 0) {
+            return 0;
+        }
+        // 获得认领成功的任务，逐个发起通知
+        List<PayNotifyTaskDO> tasks = payNotifyTaskCoreMapper.selectListByClaimOwner(claimOwner);
+        tasks.forEach(task -> {
+            // 时间轮触发的任务，认领时才知道 Host，所以在这里检查熔断：熔断中则释放认领，并延后通知
+            if (!payNotifyHttpDispatcher.isAvailable(task.getNotifyUrl())) {
+                addNotifyResult(new PayNotifyResult(buildReleaseNotifyTask(task), null));
+                return;
+            }
+            try {
+                executeNotify(task);
+            } catch (Throwable e) {
+                log.error("[claimAndExecuteNotify][task({}) 发起通知发生异常]", toJsonString(task), e);
+            }
         });
+        return tasks.size();
     }
 
-    @Transactional
-    public void executeNotify(PayNotifyTaskDO task) {
+    private void executeNotify(PayNotifyTaskDO task) {
         // 发起回调
-        CommonResult<?> invokeResult = null;
-        Throwable invokeException = null;
+        CompletableFuture<String> future;
         try {
-            invokeResult = executeNotifyInvoke(task);
+            future = payNotifyHttpDispatcher.post(task.getNotifyUrl(), toJsonString(buildNotifyRequest(task)));
         } catch (Throwable e) {
-            invokeException = e;
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        // 处理结果。回调在 PayNotifyHttpDispatcher 独立的线程池中执行
+        future.whenComplete((response, exception) -> {
+            try {
+                processNotify(task, response, exception);
+            } catch (Throwable e) {
+                log.error("[executeNotify][task({}) 处理通知结果发生异常]", toJsonString(task), e);
+            }
+        });
+    }
+
+    /**
+     * 处理单个支付通知的结果：构建通知任务的更新、通知日志，放入队列后由 {@link #writeNotifyResults()} 批量保存
+     *
+     * @param task 通知任务
+     * @param response HTTP 响应
+     * @param invokeException 通知异常
+     */
+    public void processNotify(PayNotifyTaskDO task, String response, Throwable invokeException) {
+        // 熔断、排队已满，实际未发起 HTTP 请求，不计入通知次数，释放认领并延后通知即可
+        if (invokeException instanceof CallNotPermittedException
+                || invokeException instanceof RejectedExecutionException) {
+            addNotifyResult(new PayNotifyResult(buildReleaseNotifyTask(task), null));
+            return;
+        }
+
+        // 解析结果
+        CommonResult<?> invokeResult = null;
+        if (invokeException == null) {
+            try {
+                invokeResult = JsonUtils.parseObject(response, CommonResult.class);
+            } catch (Throwable e) {
+                invokeException = e;
+            }
         }
 
         // 处理
-        Integer newStatus = this.processNotifyResult(task, invokeResult, invokeException);
+        PayNotifyTaskDO updateTask = this.processNotifyResult(task, invokeResult, invokeException);
 
         // 记录 PayNotifyLog 日志
-        String response = invokeException != null ? getRootCauseMessage(invokeException) : toJsonString(invokeResult);
-        payNotifyLogCoreMapper.insert(PayNotifyLogDO.builder().taskId(task.getId())
-                .notifyTimes(task.getNotifyTimes() + 1).status(newStatus).response(response).build());
+        String logResponse = invokeException != null ? getRootCauseMessage(invokeException) : toJsonString(invokeResult);
+        PayNotifyLogDO notifyLog = PayNotifyLogDO.builder().taskId(task.getId())
+                .notifyTimes(updateTask.getNotifyTimes()).status(updateTask.getStatus())
+                .response(StrUtil.sub(logResponse, 0, NOTIFY_LOG_RESPONSE_MAX_LENGTH)).build();
+        notifyLog.setCreateTime(updateTask.getLastExecuteTime()); // 批量插入时，不会自动填充
+        addNotifyResult(new PayNotifyResult(updateTask, notifyLog));
+    }
+
+    private void addNotifyResult(PayNotifyResult result) {
+        // 队列已满，说明数据库写入跟不上，直接在当前线程保存，起到背压的作用
+        if (!notifyResultQueue.offer(result)) {
+            saveNotifyResults(Collections.singletonList(result));
+        }
+    }
+
+    private void saveNotifyResults(List<PayNotifyResult> results) {
+        self.saveNotifyResultsInTransaction(results);
+        // 事务提交后，将需要重试的任务放入时间轮
+        results.forEach(result -> scheduleNotify(result.getUpdateTask()));
+    }
+
+    /**
+     * 批量保存通知结果的线程：阻塞获取第一个结果后，取出队列中已有的结果，最多 resultBatchSize 个，一起保存
+     *
+     * 负载低时，每个结果几乎立即保存；负载高时，自然地合并成批，数据库的写入次数和批次数相关，而不是和通知次数相关
+     */
+    private void writeNotifyResults() {
+        int batchSize = payNotifyProperties.getResultBatchSize();
+        List<PayNotifyResult> results = new ArrayList<>(batchSize);
+        while (notifyResultWriter == Thread.currentThread()) {
+            try {
+                PayNotifyResult first = notifyResultQueue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                results.add(first);
+                notifyResultQueue.drainTo(results, batchSize - 1);
+                saveNotifyResults(results);
+            } catch (InterruptedException e) {
+                break;
+            } catch (Throwable e) {
+                // 保存失败时，任务仍处于认领状态，等租约到期后重新通知
+                log.error("[writeNotifyResults][保存 {} 个通知结果发生异常]", results.size(), e);
+            } finally {
+                results.clear();
+            }
+        }
     }
 
     /**
-     * 执行单个支付任务的 HTTP 调用
+     * 批量保存通知结果：一条 SQL 更新通知任务，一条 SQL 插入通知日志
+     *
+     * @param results 通知结果数组
+     */
+    @Transactional
+    public void saveNotifyResultsInTransaction(List<PayNotifyResult> results) {
+        // 批量更新通知任务。认领者不匹配时，说明租约已经到期、被其它节点重新认领，忽略本次结果
+        List<PayNotifyTaskDO> updateTasks = CollectionUtils.convertList(results, PayNotifyResult::getUpdateTask);
+        int count = payNotifyTaskCoreMapper.updateBatchByIdAndClaimOwner(updateTasks,
+                PayNotifyStatusEnum.CLAIMED.getStatus());
+        if (count < updateTasks.size()) {
+            log.warn("[saveNotifyResultsInTransaction][{} 个任务认领的租约已经到期，忽略本次通知结果]", updateTasks.size() - count);
+        }
+
+        // 批量插入通知日志
+        List<PayNotifyLogDO> notifyLogs = results.stream().map(PayNotifyResult::getNotifyLog)
+                .filter(Objects::nonNull).collect(Collectors.toList());
+        if (CollUtil.isNotEmpty(notifyLogs)) {
+            payNotifyLogCoreMapper.insertBatch(notifyLogs);
+        }
+    }
+
+    /**
+     * 构建释放认领的任务的更新，并延后通知，用于 Host 不可用，未发起 HTTP 请求的情况
+     *
+     * @param task 通知任务
+     * @return 通知任务的更新
+     */
+    private PayNotifyTaskDO buildReleaseNotifyTask(PayNotifyTaskDO task) {
+        return new PayNotifyTaskDO().setId(task.getId()).setClaimOwner(task.getClaimOwner())
+                .setStatus(buildReleaseStatus(task)).setNextNotifyTime(buildUnavailableNextNotifyTime());
+    }
+
+    /**
+     * 构建释放任务后的状态：认领状态的任务，根据是否通知过，恢复成请求失败、或者等待通知；其它状态的任务，保持不变
+     *
+     * @param task 通知任务
+     * @return 状态
+     */
+    private Integer buildReleaseStatus(PayNotifyTaskDO task) {
+        if (!PayNotifyStatusEnum.CLAIMED.getStatus().equals(task.getStatus())) {
+            return task.getStatus();
+        }
+        return task.getNotifyTimes() > 0 ? PayNotifyStatusEnum.REQUEST_FAILURE.getStatus()
+                : PayNotifyStatusEnum.WAITING.getStatus();
+    }
+
+    /**
+     * 构建 Host 不可用时的下次通知时间，即熔断进入半开状态之后
+     *
+     * 额外增加最多 20% 的随机时间，避免大量任务在同一时刻争抢半开状态的探测请求
+     *
+     * @return 下次通知时间
+     */
+    private Date buildUnavailableNextNotifyTime() {
+        long delay = payNotifyHttpDispatcher.getUnavailableDelay().toMillis();
+        return buildNotifyTime(System.currentTimeMillis() + delay + RandomUtil.randomLong(delay / 5 + 1));
+    }
+
+    /**
+     * 构建通知时间，向下取整到秒
+     *
+     * 和数据库 datetime 的精度一致。否则 MySQL 会将毫秒四舍五入，数据库中的 nextNotifyTime 可能比时间轮中的晚，导致时间轮触发时认领失败
+     *
+     * @param time 时间戳，单位：毫秒
+     * @return 通知时间
+     */
+    private static Date buildNotifyTime(long time) {
+        return new Date(time - time % DateUtils.SECOND_MILLIS);
+    }
+
+    /**
+     * 构建单个支付任务的 HTTP 请求
      *
      * @param task 通知任务
-     * @return HTTP 响应
+     * @return HTTP 请求
      */
-    private CommonResult<?> executeNotifyInvoke(PayNotifyTaskDO task) {
-        // 拼接参数
-        Object request;
+    private Object buildNotifyRequest(PayNotifyTaskDO task) {
         if (Objects.equals(task.getType(), PayNotifyTypeEnum.ORDER.getType())) {
-            request = PayNotifyOrderReqVO.builder().merchantOrderId(task.getMerchantOrderId())
+            return PayNotifyOrderReqVO.builder().merchantOrderId(task.getMerchantOrderId())
                             .payOrderId(task.getDataId()).build();
-        } else if (Objects.equals(task.getType(), PayNotifyTypeEnum.REFUND.getType())) {
-            request = PayRefundOrderReqVO.builder().merchantOrderId(task.getMerchantOrderId())
+        }
+        if (Objects.equals(task.getType(), PayNotifyTypeEnum.REFUND.getType())) {
+            return PayRefundOrderReqVO.builder().merchantOrderId(task.getMerchantOrderId())
                     .payRefundId(task.getDataId()).build();
-        } else {
-            throw new RuntimeException("未知的通知任务类型：" + toJsonString(task));
         }
-        // 请求地址
-        String response = HttpUtil.post(task.getNotifyUrl(), toJsonString(request),
-                (int) NOTIFY_TIMEOUT_MILLIS);
-        // 解析结果
-        return JsonUtils.parseObject(response, CommonResult.class);
+        throw new RuntimeException("未知的通知任务类型：" + toJsonString(task));
     }
 
     /**
-     * 处理并更新通知结果
+     * 处理通知结果，构建通知任务的更新
      *
      * @param task 通知任务
      * @param invokeResult 通知结果
      * @param invokeException 通知异常
-     * @return 最终任务的状态
+     * @return 通知任务的更新
      */
-    private Integer processNotifyResult(PayNotifyTaskDO task, CommonResult<?> invokeResult, Throwable invokeException) {
+    private PayNotifyTaskDO processNotifyResult(PayNotifyTaskDO task, CommonResult<?> invokeResult, Throwable invokeException) {
         // 设置通用的更新 PayNotifyTaskDO 的字段
         PayNotifyTaskDO updateTask = new PayNotifyTaskDO()
                 .setId(task.getId())
+                .setClaimOwner(task.getClaimOwner())
                 .setLastExecuteTime(new Date())
                 .setNotifyTimes(task.getNotifyTimes() + 1);
 
         // 情况一：调用成功
         if (invokeResult != null && invokeResult.isSuccess()) {
-            updateTask.setStatus(PayNotifyStatusEnum.SUCCESS.getStatus());
-            return updateTask.getStatus();
+            return updateTask.setStatus(PayNotifyStatusEnum.SUCCESS.getStatus());
         }
         // 情况二：调用失败、调用异常
         // 2.1 超过最大回调次数
         if (updateTask.getNotifyTimes() >= PayNotifyTaskDO.NOTIFY_FREQUENCY.length) {
-            updateTask.setStatus(PayNotifyStatusEnum.FAILURE.getStatus());
-            return updateTask.getStatus();
+            return updateTask.setStatus(PayNotifyStatusEnum.FAILURE.getStatus());
         }
         // 2.2 未超过最大回调次数
-        updateTask.setNextNotifyTime(DateUtils.addDate(Calendar.SECOND, PayNotifyTaskDO.NOTIFY_FREQUENCY[updateTask.getNotifyTimes()]));
-        updateTask.setStatus(invokeException != null ? PayNotifyStatusEnum.REQUEST_FAILURE.getStatus()
+        updateTask.setNextNotifyTime(buildNotifyTime(System.currentTimeMillis()
+                + TimeUnit.SECONDS.toMillis(PayNotifyTaskDO.NOTIFY_FREQUENCY[updateTask.getNotifyTimes()])));
+        return updateTask.setStatus(invokeException != null ? PayNotifyStatusEnum.REQUEST_FAILURE.getStatus()
                 : PayNotifyStatusEnum.REQUEST_SUCCESS.getStatus());
-        return updateTask.getStatus();
     }
 
-    private void processNotifySuccess(PayNotifyTaskDO task, PayNotifyTaskDO updateTask) {
-        payNotifyTaskCoreMapper.updateById(updateTask);
+    /**
+     * 单个支付通知的结果，等待批量保存
+     */
+    @Data
+    @AllArgsConstructor
+    public static class PayNotifyResult {
+
+        /**
+         * 通知任务的更新
+         */
+        private PayNotifyTaskDO updateTask;
+        /**
+         * 通知日志。为 null 时，说明未发起 HTTP 请求，无需记录
+         */
+        private PayNotifyLogDO notifyLog;
+
     }
 
 }
@@ -1,11 +1,13 @@
 package cn.iocoder.yudao.coreservice.modules.pay.service.order;
 
 import cn.iocoder.yudao.coreservice.modules.pay.dal.dataobject.order.PayOrderDO;
+import cn.iocoder.yudao.coreservice.modules.pay.mq.message.order.PayOrderNotifyMessage;
 import cn.iocoder.yudao.coreservice.modules.pay.service.order.dto.PayOrderCreateReqDTO;
 import cn.iocoder.yudao.coreservice.modules.pay.service.order.dto.PayOrderSubmitReqDTO;
 import cn.iocoder.yudao.coreservice.modules.pay.service.order.dto.PayOrderSubmitRespDTO;
 
 import javax.validation.Valid;
+import java.util.List;
 
 /**
  * 支付订单 Core Service
@@ -42,10 +44,31 @@ public interface PayOrderCoreService {
    /**
     * 通知支付单成功
     *
+    * 开启 yudao.pay.order.notify-async 时，只校验签名、解析结果，发送 {@link PayOrderNotifyMessage} 消息后即返回，
+    * 由 {@link #processPayOrderNotifyMessages(List)} 异步更新支付单
+    *
     * @param channelId 渠道编号
     * @param channelCode 渠道编码
     * @param notifyData 通知数据
     */
    void notifyPayOrder(Long channelId, String channelCode, String notifyData) throws Exception;
 
+   /**
+    * 处理一批支付渠道的回调消息，更新支付单
+    *
+    * 同一个支付单的回调，按照顺序处理；不同支付单的回调，并行处理
+    *
+    * @param messages 回调消息
+    */
+   void processPayOrderNotifyMessages(List<PayOrderNotifyMessage> messages);
+
+   /**
+    * 对账即将过期、仍在待支付的支付单，主动调用支付渠道查询支付结果
+    *
+    * 已经支付成功的，和 {@link #notifyPayOrder(Long, String, String)} 一样更新支付单
+    *
+    * @return 对账后更新为已支付的数量
+    */
+   int syncPayOrder();
+
 }
@@ -1,8 +1,8 @@
 package cn.iocoder.yudao.coreservice.modules.pay.service.order.impl;
 
-import cn.hutool.core.date.DateUtil;
-import cn.hutool.core.util.RandomUtil;
+import cn.hutool.core.thread.NamedThreadFactory;
 import cn.hutool.core.util.StrUtil;
+import cn.iocoder.yudao.coreservice.modules.infra.framework.id.core.IdGenerator;
 import cn.iocoder.yudao.coreservice.modules.pay.convert.order.PayOrderCoreConvert;
 import cn.iocoder.yudao.coreservice.modules.pay.dal.dataobject.merchant.PayAppDO;
 import cn.iocoder.yudao.coreservice.modules.pay.dal.dataobject.merchant.PayChannelDO;
@@ -10,32 +10,47 @@ import cn.iocoder.yudao.coreservice.modules.pay.dal.dataobject.order.PayOrderDO;
 import cn.iocoder.yudao.coreservice.modules.pay.dal.dataobject.order.PayOrderExtensionDO;
 import cn.iocoder.yudao.coreservice.modules.pay.dal.mysql.order.PayOrderCoreMapper;
 import cn.iocoder.yudao.coreservice.modules.pay.dal.mysql.order.PayOrderExtensionCoreMapper;
-import cn.iocoder.yudao.coreservice.modules.pay.enums.notify.PayNotifyTypeEnum;
 import cn.iocoder.yudao.coreservice.modules.pay.enums.order.PayOrderNotifyStatusEnum;
 import cn.iocoder.yudao.coreservice.modules.pay.enums.order.PayOrderStatusEnum;
+import cn.iocoder.yudao.coreservice.modules.pay.framework.order.config.PayOrderProperties;
+import cn.iocoder.yudao.coreservice.modules.pay.framework.order.core.PayOrderSyncExecutor;
+import cn.iocoder.yudao.coreservice.modules.pay.mq.message.order.PayOrderNotifyMessage;
+import cn.iocoder.yudao.coreservice.modules.pay.mq.producer.order.PayOrderCoreProducer;
 import cn.iocoder.yudao.coreservice.modules.pay.service.merchant.PayAppCoreService;
 import cn.iocoder.yudao.coreservice.modules.pay.service.merchant.PayChannelCoreService;
 import cn.iocoder.yudao.coreservice.modules.pay.service.notify.PayNotifyCoreService;
-import cn.iocoder.yudao.coreservice.modules.pay.service.notify.dto.PayNotifyTaskCreateReqDTO;
 import cn.iocoder.yudao.coreservice.modules.pay.service.order.PayOrderCoreService;
 import cn.iocoder.yudao.coreservice.modules.pay.service.order.dto.PayOrderCreateReqDTO;
 import cn.iocoder.yudao.coreservice.modules.pay.service.order.dto.PayOrderSubmitReqDTO;
 import cn.iocoder.yudao.coreservice.modules.pay.service.order.dto.PayOrderSubmitRespDTO;
+import cn.iocoder.yudao.framework.common.exception.ServiceException;
 import cn.iocoder.yudao.framework.common.pojo.CommonResult;
+import cn.iocoder.yudao.framework.common.util.collection.CollectionUtils;
 import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
 import cn.iocoder.yudao.framework.pay.config.PayProperties;
 import cn.iocoder.yudao.framework.pay.core.client.PayClient;
 import cn.iocoder.yudao.framework.pay.core.client.PayClientFactory;
 import cn.iocoder.yudao.framework.pay.core.client.dto.PayOrderNotifyRespDTO;
+import cn.iocoder.yudao.framework.pay.core.client.dto.PayOrderQueryRespDTO;
 import cn.iocoder.yudao.framework.pay.core.client.dto.PayOrderUnifiedReqDTO;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 import static cn.iocoder.yudao.coreservice.modules.pay.enums.PayErrorCodeCoreConstants.*;
 import static cn.iocoder.yudao.framework.common.exception.util.ServiceExceptionUtil.exception;
@@ -63,11 +78,61 @@ public class PayOrderCoreServiceImpl implements PayOrderCoreService {
     @Resource
     private PayClientFactory payClientFactory;
 
+    @Resource
+    private IdGenerator idGenerator;
+
     @Resource
     private PayOrderCoreMapper payOrderCoreMapper;
     @Resource
     private PayOrderExtensionCoreMapper payOrderExtensionCoreMapper;
 
+    @Resource
+    private PayOrderProperties payOrderProperties;
+    @Resource
+    private PayOrderCoreProducer payOrderCoreProducer;
+
+    @Resource
+    @Lazy // 循环依赖（自己依赖自己），避免报错
+    private PayOrderCoreServiceImpl self;
+
+    /**
+     * 异步处理回调的线程，每个线程对应一个分区
+     */
+    private ExecutorService[] notifyWorkers;
+    /**
+     * 支付结果的对账执行器
+     */
+    private PayOrderSyncExecutor syncExecutor;
+
+    @PostConstruct
+    public void validateNotifyAsync() {
+        // 异步处理回调时，响应支付渠道后，回调只保存在消息中，所以传输层必须持久化
+        if (payOrderProperties.getNotifyAsync() && !payOrderCoreProducer.isPayOrderNotifyMessageDurable()) {
+            throw new IllegalStateException("开启 yudao.pay.order.notify-async 时，yudao.mq.transport 不能为 local，"
+                    + "否则进程重启会丢失已经响应支付渠道的回调");
+        }
+    }
+
+    @PostConstruct
+    public void initExecutors() {
+        notifyWorkers = new ExecutorService[payOrderProperties.getNotifyWorkerThreads()];
+        for (int i = 0; i < notifyWorkers.length; i++) {
+            notifyWorkers[i] = Executors.newSingleThreadExecutor(new NamedThreadFactory(
+                    "pay-order-notify-" + i + "-", true));
+        }
+        PayOrderProperties.Sync sync = payOrderProperties.getSync();
+        syncExecutor = new PayOrderSyncExecutor(sync.getThreads(), sync.getConcurrencyPerChannel(),
+                payClientFactory::getPayClient);
+    }
+
+    @PreDestroy
+    public void destroyExecutors() {
+        for (ExecutorService notifyWorker : notifyWorkers) {
+            notifyWorker.shutdown();
+        }
+        syncExecutor.shutdown();
+    }
+
     @Override
     public PayOrderDO getPayOrder(Long id) {
         return payOrderCoreMapper.selectById(id);
@@ -143,7 +208,7 @@ public class PayOrderCoreServiceImpl implements PayOrderCoreService {
         CommonResult<?> unifiedOrderResult = client.unifiedOrder(unifiedOrderReqDTO);
         unifiedOrderResult.checkError();
 
-        // TODO 轮询三方接口，是否已经支付的任务
+        // 支付渠道的回调丢失、延迟时，由 syncPayOrder 对账兜底
         // 返回成功
         return new PayOrderSubmitRespDTO().setExtensionId(orderExtension.getId())
                 .setInvokeResponse(unifiedOrderResult.getData());
@@ -161,26 +226,18 @@ public class PayOrderCoreServiceImpl implements PayOrderCoreService {
                 + "/" + channel.getId();
     }
 
+    /**
+     * 生成支付订单号，即 PayOrderExtensionDO 的 no 属性，也是传递给支付渠道的商户订单号
+     *
+     * 使用 {@link IdGenerator} 生成，全局唯一，不会因为高并发而重复
+     *
+     * @return 支付订单号
+     */
     private String generateOrderExtensionNo() {
-//    wx
-//    2014
-//    10
-//    27
-//    20
-//    09
-//    39
-//    5522657
-//    a690389285100
-        // 目前的算法
-        // 时间序列，年月日时分秒 14 位
-        // 纯随机，6 位 TODO 芋艿：此处估计是会有问题的，后续在调整
-        return DateUtil.format(new Date(), "yyyyMMddHHmmss") + // 时间序列
-                RandomUtil.randomInt(100000, 999999) // 随机。为什么是这个范围，因为偷懒
-                ;
+        return String.valueOf(idGenerator.nextId());
     }
 
     @Override
-    @Transactional
     public void notifyPayOrder(Long channelId, String channelCode, String notifyData) throws Exception {
         // TODO 芋艿，记录回调日志
         log.info("[notifyPayOrder][channelId({}) 回调数据({})]", channelId, notifyData);
@@ -193,9 +250,120 @@ public class PayOrderCoreServiceImpl implements PayOrderCoreService {
             log.error("[notifyPayOrder][渠道编号({}) 找不到对应的支付客户端]", channel.getId());
             throw exception(PAY_CHANNEL_CLIENT_NOT_FOUND);
         }
-        // 解析支付结果
+        // 解析支付结果，同时校验签名
         PayOrderNotifyRespDTO notifyRespDTO = client.parseOrderNotify(notifyData);
 
+        // 异步处理：写入 Stream 后即可响应支付渠道，由 PayOrderNotifyMessage 的消费者更新支付订单
+        if (payOrderProperties.getNotifyAsync()) {
+            payOrderCoreProducer.sendPayOrderNotifyMessage(channelId, channelCode, notifyData, notifyRespDTO);
+            return;
+        }
+        // 同步处理
+        self.processPayOrderNotify(channelId, channelCode, notifyData, notifyRespDTO);
+    }
+
+    @Override
+    public void processPayOrderNotifyMessages(List<PayOrderNotifyMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        // 按照支付订单分区，同一个支付订单的回调，由同一个线程按顺序处理。
+        // 回调中只有支付订单号，即 PayOrderExtensionDO 的 no 属性，所以先批量查询对应的支付订单编号；
+        // 这样，同一个支付订单的多个支付订单拓展同时回调时，也不会并发更新同一个支付订单
+        Map<String, Long> orderIds = CollectionUtils.convertMap(payOrderExtensionCoreMapper.selectListByNos(
+                CollectionUtils.convertSet(messages, message -> message.getNotifyResp().getOrderExtensionNo())),
+                PayOrderExtensionDO::getNo, PayOrderExtensionDO::getOrderId);
+        Map<Integer, List<PayOrderNotifyMessage>> partitions = messages.stream().collect(Collectors.groupingBy(
+                message -> Math.floorMod(getPartitionKey(message, orderIds).hashCode(), notifyWorkers.length)));
+        List<CompletableFuture<Void>> futures = new ArrayList<>(partitions.size());
+        partitions.forEach((partition, partitionMessages) -> futures.add(CompletableFuture.runAsync(
+                () -> partitionMessages.forEach(this::processPayOrderNotifyMessage), notifyWorkers[partition])));
+        // 等待全部处理完成。任一失败时，抛出异常，这一批消息不会 ack，稍后重新消费
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
+
+    /**
+     * 获得回调消息的分区键，即支付订单编号。支付订单拓展不存在时，使用支付订单号，处理时会抛出业务异常后忽略
+     *
+     * @param message 回调消息
+     * @param orderIds 支付订单编号，key 为支付订单号
+     * @return 分区键
+     */
+    private static Object getPartitionKey(PayOrderNotifyMessage message, Map<String, Long> orderIds) {
+        String orderExtensionNo = message.getNotifyResp().getOrderExtensionNo();
+        Long orderId = orderIds.get(orderExtensionNo);
+        return orderId != null ? orderId : orderExtensionNo;
+    }
+
+    private void processPayOrderNotifyMessage(PayOrderNotifyMessage message) {
+        try {
+            self.processPayOrderNotify(message.getChannelId(), message.getChannelCode(), message.getNotifyData(),
+                    message.getNotifyResp());
+        } catch (ServiceException ex) {
+            // 业务异常，重试也无法成功，例如说重复的回调，打印日志后忽略
+            log.warn("[processPayOrderNotifyMessage][支付订单号({}) 回调处理失败：{}]",
+                    message.getNotifyResp().getOrderExtensionNo(), ex.getMessage());
+        }
+    }
+
+    @Override
+    public int syncPayOrder() {
+        PayOrderProperties.Sync sync = payOrderProperties.getSync();
+        Date now = new Date();
+        Date beginTime = new Date(now.getTime() - sync.getExpireGrace().toMillis());
+        Date endTime = new Date(now.getTime() + sync.getExpireLookAhead().toMillis());
+        // 按照 id 分页，循环对账即将过期、仍在待支付的支付订单
+        int paidCount = 0;
+        Long minId = 0L;
+        while (true) {
+            List<PayOrderDO> orders = payOrderCoreMapper.selectListByStatusAndExpireTime(
+                    PayOrderStatusEnum.WAITING.getStatus(), beginTime, endTime, minId, sync.getBatchSize());
+            if (orders.isEmpty()) {
+                break;
+            }
+            List<PayOrderExtensionDO> orderExtensions = payOrderExtensionCoreMapper.selectListByOrderIdsAndStatus(
+                    CollectionUtils.convertList(orders, PayOrderDO::getId), PayOrderStatusEnum.WAITING.getStatus());
+            paidCount += syncExecutor.execute(orderExtensions, this::processPayOrderQuery);
+            if (orders.size() < sync.getBatchSize()) {
+                break;
+            }
+            minId = orders.get(orders.size() - 1).getId();
+        }
+        return paidCount;
+    }
+
+    /**
+     * 处理支付渠道的查询结果，和回调一样更新支付订单为已支付
+     *
+     * @param orderExtension 支付订单拓展
+     * @param queryRespDTO 已经支付成功的查询结果
+     */
+    private void processPayOrderQuery(PayOrderExtensionDO orderExtension, PayOrderQueryRespDTO queryRespDTO) {
+        PayOrderNotifyRespDTO notifyRespDTO = PayOrderNotifyRespDTO.builder().orderExtensionNo(orderExtension.getNo())
+                .channelOrderNo(queryRespDTO.getChannelOrderNo()).channelUserId(queryRespDTO.getChannelUserId())
+                .successTime(queryRespDTO.getSuccessTime()).data(queryRespDTO.getData()).build();
+        try {
+            self.processPayOrderNotify(orderExtension.getChannelId(), orderExtension.getChannelCode(),
+                    queryRespDTO.getData(), notifyRespDTO);
+        } catch (ServiceException ex) {
+            // 业务异常，例如说对账的同时，支付渠道的回调已经更新支付订单，打印日志后忽略
+            log.warn("[processPayOrderQuery][支付订单号({}) 对账处理失败：{}]", orderExtension.getNo(), ex.getMessage());
+        }
+    }
+
+    /**
+     * 处理支付渠道的回调，更新支付订单为已支付
+     *
+     * 对账查询到已经支付成功时，同样调用该方法
+     *
+     * @param channelId 渠道编号
+     * @param channelCode 渠道编码
+     * @param notifyData 回调的原始数据
+     * @param notifyRespDTO 解析后的支付结果
+     */
+    @Transactional
+    public void processPayOrderNotify(Long channelId, String channelCode, String notifyData,
+                                      PayOrderNotifyRespDTO notifyRespDTO) {
         // TODO 芋艿，先最严格的校验。即使调用方重复调用，实际哪个订单已经被重复回调的支付，也返回 false 。也没问题，因为实际已经回调成功了。
         // 1.1 查询 PayOrderExtensionDO
         PayOrderExtensionDO orderExtension = payOrderExtensionCoreMapper.selectByNo(
@@ -234,9 +402,8 @@ public class PayOrderCoreServiceImpl implements PayOrderCoreService {
         }
         log.info("[notifyPayOrder][支付订单({}) 更新为已支付]", order.getId());
 
-        // 3. 插入支付通知记录
-        payNotifyCoreService.createPayNotifyTask(PayNotifyTaskCreateReqDTO.builder()
-                .type(PayNotifyTypeEnum.ORDER.getType()).dataId(order.getId()).build());
+        // 3. 插入支付通知记录。直接使用已经查询的支付订单，无需再次查询
+        payNotifyCoreService.createPayOrderNotifyTask(order);
     }
 
 }
@@ -2,6 +2,8 @@ package cn.iocoder.yudao.coreservice.modules.system.mq.message.sms;
 
 import cn.iocoder.yudao.framework.common.core.KeyValue;
 import cn.iocoder.yudao.framework.mq.core.stream.StreamMessage;
+import cn.iocoder.yudao.framework.mq.core.stream.StreamMessagePriorityEnum;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 
 import javax.validation.constraints.NotNull;
@@ -39,10 +41,25 @@ public class SysSmsSendMessage implements StreamMessage {
      * 短信模板参数
      */
     private List<KeyValue<String, Object>> templateParams;
+    /**
+     * 优先级，决定发送到的 Stream 通道。例如说，验证码短信使用高优先级，避免积压在群发短信之后
+     */
+    @JsonIgnore // 通过 Stream 通道区分，无需序列化
+    private StreamMessagePriorityEnum priority = StreamMessagePriorityEnum.NORMAL;
 
     @Override
     public String getStreamKey() {
         return "system.sms.send";
     }
 
+    @Override
+    public Long getStreamMaxLength() {
+        return 100000L; // 群发时可能短时间积压，所以设置得大一些
+    }
+
+    @Override
+    public boolean isPriorityEnabled() {
+        return true;
+    }
+
 }
@@ -2,9 +2,9 @@ package cn.iocoder.yudao.coreservice.modules.system.mq.producer.sms;
 
 import cn.iocoder.yudao.coreservice.modules.system.mq.message.sms.SysSmsSendMessage;
 import cn.iocoder.yudao.framework.common.core.KeyValue;
-import cn.iocoder.yudao.framework.mq.core.util.RedisMessageUtils;
+import cn.iocoder.yudao.framework.mq.core.outbox.MessageOutbox;
+import cn.iocoder.yudao.framework.mq.core.stream.StreamMessagePriorityEnum;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
@@ -21,22 +21,36 @@ import java.util.List;
 public class SysSmsCoreProducer {
 
     @Resource
-    private StringRedisTemplate stringRedisTemplate;
+    private MessageOutbox messageOutbox;
 
     /**
      * 发送 {@link SysSmsSendMessage} 消息
      *
+     * 通过 {@link MessageOutbox} 发送，和短信日志在同一个事务中提交
+     *
      * @param logId 短信日志编号
      * @param mobile 手机号
      * @param channelId 渠道编号
      * @param apiTemplateId 短信模板编号
      * @param templateParams 短信模板参数
+     * @param priority 优先级
      */
     public void sendSmsSendMessage(Long logId, String mobile,
-                                   Long channelId, String apiTemplateId, List<KeyValue<String, Object>> templateParams) {
+                                   Long channelId, String apiTemplateId, List<KeyValue<String, Object>> templateParams,
+                                   StreamMessagePriorityEnum priority) {
         SysSmsSendMessage message = new SysSmsSendMessage().setLogId(logId).setMobile(mobile);
-        message.setChannelId(channelId).setApiTemplateId(apiTemplateId).setTemplateParams(templateParams);
-        RedisMessageUtils.sendStreamMessage(stringRedisTemplate, message);
+        message.setChannelId(channelId).setApiTemplateId(apiTemplateId).setTemplateParams(templateParams)
+                .setPriority(priority);
+        messageOutbox.sendStreamMessage(message);
+    }
+
+    /**
+     * 批量发送 {@link SysSmsSendMessage} 消息，批量写入 Outbox 表，投递时通过 pipeline 一次往返完成
+     *
+     * @param messages 消息列表
+     */
+    public void sendSmsSendMessageList(List<SysSmsSendMessage> messages) {
+        messageOutbox.sendStreamMessages(messages);
     }
 
 }
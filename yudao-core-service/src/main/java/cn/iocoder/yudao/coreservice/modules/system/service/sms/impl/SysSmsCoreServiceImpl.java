@@ -6,6 +6,7 @@ import cn.iocoder.yudao.coreservice.modules.member.dal.dataobject.user.MbrUserDO
 import cn.iocoder.yudao.coreservice.modules.member.service.user.MbrUserCoreService;
 import cn.iocoder.yudao.coreservice.modules.system.dal.dataobject.sms.SysSmsTemplateDO;
 import cn.iocoder.yudao.coreservice.modules.system.dal.dataobject.user.SysUserDO;
+import cn.iocoder.yudao.coreservice.modules.system.enums.sms.SysSmsTemplateTypeEnum;
 import cn.iocoder.yudao.coreservice.modules.system.mq.message.sms.SysSmsSendMessage;
 import cn.iocoder.yudao.coreservice.modules.system.mq.producer.sms.SysSmsCoreProducer;
 import cn.iocoder.yudao.coreservice.modules.system.service.sms.SysSmsCoreService;
@@ -15,6 +16,7 @@ import cn.iocoder.yudao.coreservice.modules.system.service.user.SysUserCoreServi
 import cn.iocoder.yudao.framework.common.core.KeyValue;
 import cn.iocoder.yudao.framework.common.enums.CommonStatusEnum;
 import cn.iocoder.yudao.framework.common.enums.UserTypeEnum;
+import cn.iocoder.yudao.framework.mq.core.stream.StreamMessagePriorityEnum;
 import cn.iocoder.yudao.framework.sms.core.client.SmsClient;
 import cn.iocoder.yudao.framework.sms.core.client.SmsClientFactory;
 import cn.iocoder.yudao.framework.sms.core.client.SmsCommonResult;
@@ -22,11 +24,14 @@ import cn.iocoder.yudao.framework.sms.core.client.dto.SmsReceiveRespDTO;
 import cn.iocoder.yudao.framework.sms.core.client.dto.SmsSendRespDTO;
 import com.google.common.annotations.VisibleForTesting;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
 import javax.annotation.Resource;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import static cn.iocoder.yudao.coreservice.modules.system.enums.SysErrorCodeConstants.*;
@@ -56,6 +61,7 @@ public class SysSmsCoreServiceImpl implements SysSmsCoreService {
     private SysSmsCoreProducer smsCoreProducer;
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public Long sendSingleSmsToAdmin(String mobile, Long userId, String templateCode, Map<String, Object> templateParams) {
         // 如果 mobile 为空，则加载用户编号对应的手机号
         if (StrUtil.isEmpty(mobile)) {
@@ -69,6 +75,7 @@ public class SysSmsCoreServiceImpl implements SysSmsCoreService {
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public Long sendSingleSmsToMember(String mobile, Long userId, String templateCode, Map<String, Object> templateParams) {
         // 如果 mobile 为空，则加载用户编号对应的手机号
         if (StrUtil.isEmpty(mobile)) {
@@ -82,6 +89,7 @@ public class SysSmsCoreServiceImpl implements SysSmsCoreService {
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class) // 短信日志和 Outbox 消息在同一个事务中提交
     public Long sendSingleSms(String mobile, Long userId, Integer userType,
                               String templateCode, Map<String, Object> templateParams) {
         // 校验短信模板是否合法
@@ -99,15 +107,57 @@ public class SysSmsCoreServiceImpl implements SysSmsCoreService {
         // 发送 MQ 消息，异步执行发送短信
         if (isSend) {
             smsCoreProducer.sendSmsSendMessage(sendLogId, mobile, template.getChannelId(),
-                    template.getApiTemplateId(), newTemplateParams);
+                    template.getApiTemplateId(), newTemplateParams, buildSmsPriority(template));
         }
         return sendLogId;
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void sendBatchSms(List<String> mobiles, List<Long> userIds, Integer userType,
                              String templateCode, Map<String, Object> templateParams) {
-        throw new UnsupportedOperationException("暂时不支持该操作，感兴趣可以实现该功能哟！");
+        Assert.isTrue(userIds == null || userIds.size() == mobiles.size(), "手机号和用户编号的数量不一致");
+        // 校验短信模板是否合法
+        SysSmsTemplateDO template = this.checkSmsTemplateValid(templateCode);
+        // 构建有序的模板参数。所有手机号共用，只需要构建一次
+        List<KeyValue<String, Object>> newTemplateParams = this.buildTemplateParams(template, templateParams);
+
+        // 逐个创建发送日志
+        Boolean isSend = CommonStatusEnum.ENABLE.getStatus().equals(template.getStatus()); // 如果模板被禁用，则不发送短信，只记录日志
+        String content = smsTemplateCoreService.formatSmsTemplateContent(template.getContent(), templateParams);
+        List<SysSmsSendMessage> messages = new ArrayList<>(mobiles.size());
+        for (int i = 0; i < mobiles.size(); i++) {
+            String mobile = this.checkMobile(mobiles.get(i));
+            Long userId = userIds != null ? userIds.get(i) : null;
+            Long sendLogId = smsLogCoreService.createSmsLog(mobile, userId, userType, isSend, template, content, templateParams);
+            if (isSend) {
+                messages.add(new SysSmsSendMessage().setLogId(sendLogId).setMobile(mobile)
+                        .setChannelId(template.getChannelId()).setApiTemplateId(template.getApiTemplateId())
+                        .setTemplateParams(newTemplateParams)
+                        .setPriority(StreamMessagePriorityEnum.LOW)); // 群发使用低优先级，避免阻塞验证码等短信
+            }
+        }
+
+        // 批量发送 MQ 消息，异步执行发送短信
+        if (!messages.isEmpty()) {
+            smsCoreProducer.sendSmsSendMessageList(messages);
+        }
+    }
+
+    /**
+     * 获得短信的发送优先级：验证码短信使用高优先级，营销短信使用低优先级
+     *
+     * @param template 短信模板
+     * @return 优先级
+     */
+    private static StreamMessagePriorityEnum buildSmsPriority(SysSmsTemplateDO template) {
+        if (Objects.equals(SysSmsTemplateTypeEnum.VERIFICATION_CODE.getType(), template.getType())) {
+            return StreamMessagePriorityEnum.HIGH;
+        }
+        if (Objects.equals(SysSmsTemplateTypeEnum.PROMOTION.getType(), template.getType())) {
+            return StreamMessagePriorityEnum.LOW;
+        }
+        return StreamMessagePriorityEnum.NORMAL;
     }
 
     @VisibleForTesting
@@ -0,0 +1,93 @@
+package cn.iocoder.yudao.coreservice.modules.infra.framework.id.core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link SnowflakeIdGenerator} 和 {@link SegmentIdGenerator} 的单元测试
+ *
+ * 多线程并发生成编号，校验无重复、每个线程内单调递增，并输出吞吐量。
+ * 吞吐量受机器负载影响较大，只断言一个宽松的下限，用于发现锁竞争、等待时钟等严重的退化
+ */
+@Slf4j
+public class IdGeneratorTest {
+
+    private static final int THREAD_COUNT = 4;
+    private static final int COUNT_PER_THREAD = 100_000;
+    /**
+     * 吞吐量的下限，单位：个/秒。远低于正常的吞吐量（百万级），避免 CI 机器负载较高时误报
+     */
+    private static final long MIN_THROUGHPUT = 100_000;
+
+    @Test
+    public void testSnowflakeIdGenerator() {
+        assertUniqueAndMonotonic("snowflake", new SnowflakeIdGenerator(1609430400000L, () -> 1));
+    }
+
+    @Test
+    public void testSegmentIdGenerator() {
+        AtomicLong storage = new AtomicLong(); // 模拟 Redis 的 INCRBY
+        assertUniqueAndMonotonic("segment", new SegmentIdGenerator(storage::addAndGet, 10000));
+    }
+
+    private static void assertUniqueAndMonotonic(String name, IdGenerator idGenerator) {
+        // 预热
+        for (int i = 0; i < 100_000; i++) {
+            idGenerator.nextId();
+        }
+
+        // 并发生成
+        long[][] ids = new long[THREAD_COUNT][COUNT_PER_THREAD];
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            long[] threadIds = ids[i];
+            futures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                for (int j = 0; j < threadIds.length; j++) {
+                    threadIds[j] = idGenerator.nextId();
+                }
+            }, runnable -> new Thread(runnable).start()));
+        }
+        long startTime = System.nanoTime();
+        startLatch.countDown();
+        futures.forEach(CompletableFuture::join);
+        long elapsedNanos = System.nanoTime() - startTime;
+        long total = (long) THREAD_COUNT * COUNT_PER_THREAD;
+        long throughput = total * 1_000_000_000L / elapsedNanos;
+        log.info("[assertUniqueAndMonotonic][{} 生成 {} 个编号，耗时 {} ms，吞吐量 {} 个/秒]", name, total,
+                elapsedNanos / 1_000_000, throughput);
+        assertTrue(throughput >= MIN_THROUGHPUT, String.format("%s 的吞吐量(%d 个/秒) 低于下限(%d 个/秒)",
+                name, throughput, MIN_THROUGHPUT));
+
+        // 断言：每个线程内单调递增
+        for (long[] threadIds : ids) {
+            for (int j = 1; j < threadIds.length; j++) {
+                assertTrue(threadIds[j] > threadIds[j - 1], "编号未单调递增");
+            }
+        }
+        // 断言：全局无重复
+        long[] all = new long[(int) total];
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            System.arraycopy(ids[i], 0, all, i * COUNT_PER_THREAD, COUNT_PER_THREAD);
+        }
+        Arrays.sort(all);
+        for (int i = 1; i < all.length; i++) {
+            assertTrue(all[i] != all[i - 1], "编号重复：" + all[i]);
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+package cn.iocoder.yudao.coreservice.modules.infra.framework.id.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link RedisWorkerIdLease} 的单元测试
+ *
+ * 使用 mock 的 {@link StringRedisTemplate}，校验租约过期后拒绝生成编号
+ */
+public class RedisWorkerIdLeaseTest {
+
+    private static final Duration LEASE = Duration.ofMillis(300);
+
+    private final StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+
+    private RedisWorkerIdLease workerIdLease;
+
+    @BeforeEach
+    public void setUp() {
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), eq(LEASE))).thenReturn(true);
+        workerIdLease = new RedisWorkerIdLease(stringRedisTemplate, LEASE);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        workerIdLease.stop();
+    }
+
+    @Test
+    public void testGetWorkerId_notStarted() {
+        assertThrows(IllegalStateException.class, () -> workerIdLease.getWorkerId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGetWorkerId_renewSuccess() throws InterruptedException {
+        // mock 方法：续约成功
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), ArgumentMatchers.<Object>any())).thenReturn(1L);
+        workerIdLease.start();
+        int workerId = workerIdLease.getWorkerId();
+
+        // 调用：超过租约时长后，仍然可以使用
+        Thread.sleep(LEASE.toMillis() * 2);
+        // 断言
+        assertEquals(workerId, workerIdLease.getWorkerId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGetWorkerId_renewFailure() throws InterruptedException {
+        // mock 方法：续约时，Redis 不可用
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), ArgumentMatchers.<Object>any()))
+                .thenThrow(new RedisConnectionFailureException("Redis 不可用"));
+        workerIdLease.start();
+        workerIdLease.getWorkerId();
+
+        // 调用：超过租约时长后
+        Thread.sleep(LEASE.toMillis() + 100);
+        // 断言：拒绝生成编号
+        assertThrows(IllegalStateException.class, () -> workerIdLease.getWorkerId());
+        SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(1609430400000L, workerIdLease::getWorkerId);
+        assertThrows(IllegalStateException.class, idGenerator::nextId);
+    }
+
+}
@@ -0,0 +1,107 @@
+package cn.iocoder.yudao.coreservice.modules.infra.service.logger;
+
+import cn.hutool.core.util.RandomUtil;
+import cn.iocoder.yudao.coreservice.BaseDbUnitTest;
+import cn.iocoder.yudao.coreservice.modules.infra.dal.dataobject.logger.InfApiAccessLogDO;
+import cn.iocoder.yudao.coreservice.modules.infra.dal.mysql.logger.InfApiAccessLogCoreMapper;
+import cn.iocoder.yudao.framework.common.enums.UserTypeEnum;
+import cn.iocoder.yudao.framework.common.pojo.PageParam;
+import cn.iocoder.yudao.framework.common.pojo.PageResult;
+import cn.iocoder.yudao.framework.mybatis.core.mapper.BaseMapperX;
+import cn.iocoder.yudao.framework.mybatis.core.util.MyBatisUtils;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static cn.iocoder.yudao.framework.test.core.util.RandomUtils.randomPojo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * {@link BaseMapperX#selectCursorPage} 的单元测试，基于 inf_api_access_log 表
+ */
+public class InfApiAccessLogCursorPageTest extends BaseDbUnitTest {
+
+    @Resource
+    private InfApiAccessLogCoreMapper apiAccessLogCoreMapper;
+
+    @Test
+    public void testBuildAndParseCursor() {
+        Date time = new Date(1635294882123L);
+        String cursor = MyBatisUtils.buildCursor(time, 1024L);
+        assertEquals("1635294882123_1024", cursor);
+        assertEquals(time, MyBatisUtils.parseCursorTime(cursor));
+        assertEquals(1024L, MyBatisUtils.parseCursorId(cursor));
+    }
+
+    @Test
+    public void testSelectCursorPage_tiesOnTime() {
+        // mock 数据：7 条记录，只有 3 个不同的时间，同一时间的记录通过 id 排序
+        long now = System.currentTimeMillis() / 1000 * 1000;
+        Date[] times = new Date[]{new Date(now - 2000), new Date(now - 1000), new Date(now)};
+        int[] timeIndexes = new int[]{0, 1, 2, 0, 1, 2, 2};
+        List<InfApiAccessLogDO> logs = new ArrayList<>();
+        for (int timeIndex : timeIndexes) {
+            InfApiAccessLogDO log = randomPojo(InfApiAccessLogDO.class, o -> {
+                o.setId(null);
+                o.setUserType(RandomUtil.randomEle(UserTypeEnum.values()).getValue());
+                o.setBeginTime(times[timeIndex]);
+            });
+            apiAccessLogCoreMapper.insert(log);
+            logs.add(log);
+        }
+        List<Integer> expectedIds = logs.stream().sorted(Comparator.comparing(InfApiAccessLogDO::getBeginTime)
+                .thenComparing(InfApiAccessLogDO::getId).reversed())
+                .map(InfApiAccessLogDO::getId).collect(Collectors.toList());
+
+        // 调用：第一页查询总量，之后的页通过游标翻页，不查询总量
+        PageParam pageParam = new PageParam();
+        pageParam.setPageSize(2);
+        List<Integer> actualIds = new ArrayList<>();
+        PageResult<InfApiAccessLogDO> pageResult = selectCursorPage(pageParam);
+        assertEquals(7L, pageResult.getTotal());
+        pageResult.getList().forEach(log -> actualIds.add(log.getId()));
+        while (pageResult.getNextCursor() != null) {
+            pageParam.setCursor(pageResult.getNextCursor());
+            pageParam.setSearchCount(false);
+            pageResult = selectCursorPage(pageParam);
+            assertNull(pageResult.getTotal());
+            pageResult.getList().forEach(log -> actualIds.add(log.getId()));
+        }
+        // 断言：不重复、不遗漏，按照 (beginTime, id) 倒序
+        assertEquals(expectedIds, actualIds);
+    }
+
+    @Test
+    public void testSelectCursorPage_searchCountFalse() {
+        // mock 数据
+        InfApiAccessLogDO log = randomPojo(InfApiAccessLogDO.class, o -> {
+            o.setId(null);
+            o.setUserType(RandomUtil.randomEle(UserTypeEnum.values()).getValue());
+        });
+        apiAccessLogCoreMapper.insert(log);
+        // 准备参数
+        PageParam pageParam = new PageParam();
+        pageParam.setSearchCount(false);
+
+        // 调用
+        PageResult<InfApiAccessLogDO> pageResult = selectCursorPage(pageParam);
+        // 断言：不查询总量，只有一页
+        assertNull(pageResult.getTotal());
+        assertEquals(1, pageResult.getList().size());
+        assertEquals(log.getId(), pageResult.getList().get(0).getId());
+        assertNull(pageResult.getNextCursor());
+    }
+
+    private PageResult<InfApiAccessLogDO> selectCursorPage(PageParam pageParam) {
+        return apiAccessLogCoreMapper.selectCursorPage(pageParam, new QueryWrapper<>(), "begin_time",
+                InfApiAccessLogDO::getBeginTime, InfApiAccessLogDO::getId);
+    }
+
+}
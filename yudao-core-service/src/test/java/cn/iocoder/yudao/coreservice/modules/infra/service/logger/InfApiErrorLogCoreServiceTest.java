@@ -12,8 +12,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.context.annotation.Import;
 
 import javax.annotation.Resource;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
 
 import static cn.iocoder.yudao.framework.test.core.util.AssertUtils.assertPojoEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 /**
@@ -42,4 +46,28 @@ public class InfApiErrorLogCoreServiceTest extends BaseDbUnitTest {
         assertPojoEquals(createDTO, infApiErrorLogDO);
     }
 
+    @Test
+    public void testCreateApiErrorLogList() {
+        // 准备参数
+        Date windowTime = new Date();
+        ApiErrorLogCreateReqDTO createDTO = RandomUtils.randomPojo(ApiErrorLogCreateReqDTO.class, dto -> {
+            dto.setUserType(RandomUtil.randomEle(UserTypeEnum.values()).getValue());
+            dto.setExceptionCount(2).setExceptionWindowTime(windowTime);
+        });
+        ApiErrorLogCreateReqDTO createDTO02 = RandomUtils.randomPojo(ApiErrorLogCreateReqDTO.class, dto -> {
+            dto.setUserType(RandomUtil.randomEle(UserTypeEnum.values()).getValue());
+            dto.setApplicationName(createDTO.getApplicationName()).setExceptionFingerprint(createDTO.getExceptionFingerprint())
+                    .setExceptionCount(3).setExceptionWindowTime(windowTime);
+        });
+
+        // 调用
+        apiErrorLogCoreService.createApiErrorLogList(Collections.singletonList(createDTO));
+        apiErrorLogCoreService.createApiErrorLogList(Collections.singletonList(createDTO02));
+        // 断言，相同指纹累加次数
+        List<InfApiErrorLogDO> infApiErrorLogDOs = infApiErrorLogCoreMapper.selectList();
+        assertEquals(1, infApiErrorLogDOs.size());
+        assertPojoEquals(createDTO, infApiErrorLogDOs.get(0), "exceptionCount");
+        assertEquals(5, infApiErrorLogDOs.get(0).getExceptionCount());
+    }
+
 }
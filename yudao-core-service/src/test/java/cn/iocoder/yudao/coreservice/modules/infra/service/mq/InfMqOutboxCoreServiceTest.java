@@ -0,0 +1,89 @@
+package cn.iocoder.yudao.coreservice.modules.infra.service.mq;
+
+import cn.hutool.core.date.DateUtil;
+import cn.iocoder.yudao.coreservice.BaseDbUnitTest;
+import cn.iocoder.yudao.coreservice.modules.infra.dal.dataobject.mq.InfMqOutboxDO;
+import cn.iocoder.yudao.coreservice.modules.infra.dal.mysql.mq.InfMqOutboxCoreMapper;
+import cn.iocoder.yudao.coreservice.modules.infra.service.mq.impl.InfMqOutboxCoreServiceImpl;
+import cn.iocoder.yudao.framework.mq.core.outbox.MessageOutboxTypeEnum;
+import cn.iocoder.yudao.framework.mq.core.outbox.dto.MessageOutboxDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Import;
+
+import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static cn.iocoder.yudao.framework.test.core.util.AssertUtils.assertPojoEquals;
+import static cn.iocoder.yudao.framework.test.core.util.RandomUtils.randomPojo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link InfMqOutboxCoreServiceImpl} 单元测试
+ */
+@Import(InfMqOutboxCoreServiceImpl.class)
+public class InfMqOutboxCoreServiceTest extends BaseDbUnitTest {
+
+    @Resource
+    private InfMqOutboxCoreService mqOutboxCoreService;
+
+    @Resource
+    private InfMqOutboxCoreMapper mqOutboxCoreMapper;
+
+    @Test
+    public void testCreateMessageOutboxList() {
+        // 准备参数
+        MessageOutboxDTO createDTO = randomPojo(MessageOutboxDTO.class,
+                dto -> dto.setType(MessageOutboxTypeEnum.STREAM.getType()));
+        MessageOutboxDTO createDTO02 = randomPojo(MessageOutboxDTO.class,
+                dto -> dto.setType(MessageOutboxTypeEnum.CHANNEL.getType()).setStreamMaxLength(null));
+
+        // 调用
+        mqOutboxCoreService.createMessageOutboxList(Arrays.asList(createDTO, createDTO02));
+        // 断言
+        List<InfMqOutboxDO> mqOutboxes = mqOutboxCoreMapper.selectList();
+        assertEquals(2, mqOutboxes.size());
+        assertPojoEquals(createDTO, mqOutboxes.get(0));
+        assertPojoEquals(createDTO02, mqOutboxes.get(1));
+    }
+
+    @Test
+    public void testGetMessageOutboxList() {
+        // mock 数据
+        InfMqOutboxDO dbMqOutbox = randomPojo(InfMqOutboxDO.class, o -> {
+            o.setType(MessageOutboxTypeEnum.STREAM.getType());
+            o.setCreateTime(DateUtil.offsetMinute(new Date(), -5));
+        });
+        mqOutboxCoreMapper.insert(dbMqOutbox);
+        // 测试 createTime 不匹配
+        mqOutboxCoreMapper.insert(randomPojo(InfMqOutboxDO.class, o -> {
+            o.setType(MessageOutboxTypeEnum.STREAM.getType());
+            o.setCreateTime(new Date());
+        }));
+
+        // 调用
+        List<MessageOutboxDTO> list = mqOutboxCoreService.getMessageOutboxList(DateUtil.offsetMinute(new Date(), -1), 10);
+        // 断言
+        assertEquals(1, list.size());
+        assertPojoEquals(dbMqOutbox, list.get(0));
+    }
+
+    @Test
+    public void testDeleteMessageOutboxList() {
+        // mock 数据
+        InfMqOutboxDO dbMqOutbox = randomPojo(InfMqOutboxDO.class, o -> o.setType(MessageOutboxTypeEnum.STREAM.getType()));
+        mqOutboxCoreMapper.insert(dbMqOutbox);
+        InfMqOutboxDO dbMqOutbox02 = randomPojo(InfMqOutboxDO.class, o -> o.setType(MessageOutboxTypeEnum.CHANNEL.getType()));
+        mqOutboxCoreMapper.insert(dbMqOutbox02);
+
+        // 调用
+        mqOutboxCoreService.deleteMessageOutboxList(Collections.singletonList(dbMqOutbox.getMessageId()));
+        // 断言
+        List<InfMqOutboxDO> mqOutboxes = mqOutboxCoreMapper.selectList();
+        assertEquals(1, mqOutboxes.size());
+        assertPojoEquals(dbMqOutbox02, mqOutboxes.get(0));
+    }
+
+}
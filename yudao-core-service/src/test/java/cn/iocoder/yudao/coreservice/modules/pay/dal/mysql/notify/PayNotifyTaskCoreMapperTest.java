@@ -0,0 +1,192 @@
+package cn.iocoder.yudao.coreservice.modules.pay.dal.mysql.notify;
+
+import cn.iocoder.yudao.coreservice.BaseDbUnitTest;
+import cn.iocoder.yudao.coreservice.modules.pay.dal.dataobject.notify.PayNotifyLogDO;
+import cn.iocoder.yudao.coreservice.modules.pay.dal.dataobject.notify.PayNotifyTaskDO;
+import cn.iocoder.yudao.coreservice.modules.pay.enums.notify.PayNotifyStatusEnum;
+import cn.iocoder.yudao.coreservice.modules.pay.enums.notify.PayNotifyTypeEnum;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static cn.iocoder.yudao.framework.test.core.util.AssertUtils.assertPojoEquals;
+import static cn.iocoder.yudao.framework.test.core.util.RandomUtils.randomPojo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * {@link PayNotifyTaskCoreMapper}、{@link PayNotifyLogCoreMapper} 的单元测试，覆盖自定义的认领、批量更新、批量插入的 SQL
+ */
+public class PayNotifyTaskCoreMapperTest extends BaseDbUnitTest {
+
+    @Resource
+    private PayNotifyTaskCoreMapper payNotifyTaskCoreMapper;
+    @Resource
+    private PayNotifyLogCoreMapper payNotifyLogCoreMapper;
+
+    @Test
+    public void testUpdateClaim() {
+        // mock 数据
+        long now = System.currentTimeMillis() / 1000 * 1000;
+        Date past = new Date(now - 60_000);
+        Date future = new Date(now + 60_000);
+        PayNotifyTaskDO waiting = insertTask(PayNotifyStatusEnum.WAITING.getStatus(), past, null, null);
+        PayNotifyTaskDO requestFailure = insertTask(PayNotifyStatusEnum.REQUEST_FAILURE.getStatus(), past, null, null);
+        PayNotifyTaskDO claimExpired = insertTask(PayNotifyStatusEnum.CLAIMED.getStatus(), past, "old", past);
+        // 测试 nextNotifyTime 未到达
+        PayNotifyTaskDO notDue = insertTask(PayNotifyStatusEnum.WAITING.getStatus(), future, null, null);
+        // 测试认领的租约未到期
+        PayNotifyTaskDO claimed = insertTask(PayNotifyStatusEnum.CLAIMED.getStatus(), past, "other", future);
+        // 测试 status 为成功
+        PayNotifyTaskDO success = insertTask(PayNotifyStatusEnum.SUCCESS.getStatus(), past, null, null);
+        List<Long> ids = Arrays.asList(waiting.getId(), requestFailure.getId(), claimExpired.getId(),
+                notDue.getId(), claimed.getId(), success.getId());
+
+        // 调用
+        int count = payNotifyTaskCoreMapper.updateClaim(ids, "owner", future, new Date(now));
+        // 断言
+        assertEquals(3, count);
+        List<PayNotifyTaskDO> tasks = payNotifyTaskCoreMapper.selectListByClaimOwner("owner");
+        assertEquals(Arrays.asList(waiting.getId(), requestFailure.getId(), claimExpired.getId()),
+                tasks.stream().map(PayNotifyTaskDO::getId).sorted().collect(Collectors.toList()));
+        tasks.forEach(task -> {
+            assertEquals(PayNotifyStatusEnum.CLAIMED.getStatus(), task.getStatus());
+            assertEquals(future, task.getClaimExpireTime());
+        });
+        // 断言：未满足条件的任务，保持不变
+        assertPojoEquals(notDue, payNotifyTaskCoreMapper.selectById(notDue.getId()), "createTime", "updateTime");
+        assertPojoEquals(claimed, payNotifyTaskCoreMapper.selectById(claimed.getId()), "createTime", "updateTime");
+        assertPojoEquals(success, payNotifyTaskCoreMapper.selectById(success.getId()), "createTime", "updateTime");
+    }
+
+    @Test
+    public void testSelectListByIdsAndNextNotifyTimeGt() {
+        // mock 数据
+        long now = System.currentTimeMillis() / 1000 * 1000;
+        Date past = new Date(now - 60_000);
+        Date future = new Date(now + 60_000);
+        PayNotifyTaskDO notDue = insertTask(PayNotifyStatusEnum.WAITING.getStatus(), future, null, null);
+        // 测试已经到期
+        PayNotifyTaskDO due = insertTask(PayNotifyStatusEnum.WAITING.getStatus(), past, null, null);
+        // 测试已经被认领
+        PayNotifyTaskDO claimed = insertTask(PayNotifyStatusEnum.CLAIMED.getStatus(), future, "other", future);
+
+        // 调用
+        List<PayNotifyTaskDO> tasks = payNotifyTaskCoreMapper.selectListByIdsAndNextNotifyTimeGt(
+                Arrays.asList(notDue.getId(), due.getId(), claimed.getId()), new Date(now));
+        // 断言
+        assertEquals(1, tasks.size());
+        assertEquals(notDue.getId(), tasks.get(0).getId());
+        assertEquals(future, tasks.get(0).getNextNotifyTime());
+    }
+
+    @Test
+    public void testUpdateBatchByIdAndClaimOwner() {
+        // mock 数据
+        long now = System.currentTimeMillis() / 1000 * 1000;
+        Date nextNotifyTime = new Date(now - 60_000);
+        Date claimExpireTime = new Date(now + 60_000);
+        PayNotifyTaskDO task = insertTask(PayNotifyStatusEnum.CLAIMED.getStatus(), nextNotifyTime, "owner", claimExpireTime);
+        PayNotifyTaskDO task02 = insertTask(PayNotifyStatusEnum.CLAIMED.getStatus(), nextNotifyTime, "owner", claimExpireTime);
+        // 测试租约到期后，被其它节点重新认领
+        PayNotifyTaskDO reclaimed = insertTask(PayNotifyStatusEnum.CLAIMED.getStatus(), nextNotifyTime, "other", claimExpireTime);
+        // 测试已经不是认领状态
+        PayNotifyTaskDO released = insertTask(PayNotifyStatusEnum.WAITING.getStatus(), nextNotifyTime, "owner", claimExpireTime);
+        // 准备参数。task 只更新 status、notifyTimes、lastExecuteTime，task02 只更新 status、nextNotifyTime
+        Date lastExecuteTime = new Date(now);
+        Date newNextNotifyTime = new Date(now + 15_000);
+        List<PayNotifyTaskDO> updateTasks = Arrays.asList(
+                new PayNotifyTaskDO().setId(task.getId()).setClaimOwner("owner")
+                        .setStatus(PayNotifyStatusEnum.SUCCESS.getStatus()).setNotifyTimes(1).setLastExecuteTime(lastExecuteTime),
+                new PayNotifyTaskDO().setId(task02.getId()).setClaimOwner("owner")
+                        .setStatus(PayNotifyStatusEnum.WAITING.getStatus()).setNextNotifyTime(newNextNotifyTime),
+                new PayNotifyTaskDO().setId(reclaimed.getId()).setClaimOwner("owner")
+                        .setStatus(PayNotifyStatusEnum.SUCCESS.getStatus()).setNotifyTimes(1).setLastExecuteTime(lastExecuteTime),
+                new PayNotifyTaskDO().setId(released.getId()).setClaimOwner("owner")
+                        .setStatus(PayNotifyStatusEnum.SUCCESS.getStatus()).setNotifyTimes(1).setLastExecuteTime(lastExecuteTime));
+
+        // 调用
+        int count = payNotifyTaskCoreMapper.updateBatchByIdAndClaimOwner(updateTasks, PayNotifyStatusEnum.CLAIMED.getStatus());
+        // 断言：只更新认领者匹配、仍为认领状态的任务
+        assertEquals(2, count);
+        // 断言：为 null 的字段，保持原值
+        PayNotifyTaskDO dbTask = payNotifyTaskCoreMapper.selectById(task.getId());
+        assertEquals(PayNotifyStatusEnum.SUCCESS.getStatus(), dbTask.getStatus());
+        assertEquals(1, dbTask.getNotifyTimes());
+        assertEquals(lastExecuteTime, dbTask.getLastExecuteTime());
+        assertEquals(nextNotifyTime, dbTask.getNextNotifyTime());
+        PayNotifyTaskDO dbTask02 = payNotifyTaskCoreMapper.selectById(task02.getId());
+        assertEquals(PayNotifyStatusEnum.WAITING.getStatus(), dbTask02.getStatus());
+        assertEquals(task02.getNotifyTimes(), dbTask02.getNotifyTimes());
+        assertEquals(task02.getLastExecuteTime(), dbTask02.getLastExecuteTime());
+        assertEquals(newNextNotifyTime, dbTask02.getNextNotifyTime());
+        // 断言：过期的认领者，忽略本次结果
+        assertPojoEquals(reclaimed, payNotifyTaskCoreMapper.selectById(reclaimed.getId()), "createTime", "updateTime");
+        assertPojoEquals(released, payNotifyTaskCoreMapper.selectById(released.getId()), "createTime", "updateTime");
+    }
+
+    @Test
+    public void testUpdateBatchRelease() {
+        // mock 数据
+        long now = System.currentTimeMillis() / 1000 * 1000;
+        Date past = new Date(now - 60_000);
+        Date future = new Date(now + 60_000);
+        PayNotifyTaskDO claimExpired = insertTask(PayNotifyStatusEnum.CLAIMED.getStatus(), past, "old", past);
+        // 测试查询之后，被其它节点重新认领
+        PayNotifyTaskDO reclaimed = insertTask(PayNotifyStatusEnum.CLAIMED.getStatus(), past, "other", future);
+        List<Long> ids = Arrays.asList(claimExpired.getId(), reclaimed.getId());
+
+        // 调用
+        int count = payNotifyTaskCoreMapper.updateBatchRelease(ids, PayNotifyStatusEnum.CLAIMED.getStatus(),
+                PayNotifyStatusEnum.WAITING.getStatus(), future, new Date(now));
+        // 断言
+        assertEquals(1, count);
+        PayNotifyTaskDO dbClaimExpired = payNotifyTaskCoreMapper.selectById(claimExpired.getId());
+        assertEquals(PayNotifyStatusEnum.WAITING.getStatus(), dbClaimExpired.getStatus());
+        assertEquals(future, dbClaimExpired.getNextNotifyTime());
+        assertNull(dbClaimExpired.getClaimOwner());
+        assertNull(dbClaimExpired.getClaimExpireTime());
+        assertPojoEquals(reclaimed, payNotifyTaskCoreMapper.selectById(reclaimed.getId()), "createTime", "updateTime");
+    }
+
+    @Test
+    public void testInsertBatch() {
+        // 准备参数
+        Date createTime = new Date(System.currentTimeMillis() / 1000 * 1000);
+        PayNotifyLogDO notifyLog = PayNotifyLogDO.builder().taskId(1L).notifyTimes(1)
+                .status(PayNotifyStatusEnum.SUCCESS.getStatus()).response("success").build();
+        notifyLog.setCreateTime(createTime);
+        PayNotifyLogDO notifyLog02 = PayNotifyLogDO.builder().taskId(2L).notifyTimes(3)
+                .status(PayNotifyStatusEnum.REQUEST_FAILURE.getStatus()).response("failure").build();
+        notifyLog02.setCreateTime(createTime);
+
+        // 调用
+        int count = payNotifyLogCoreMapper.insertBatch(Arrays.asList(notifyLog, notifyLog02));
+        // 断言
+        assertEquals(2, count);
+        List<PayNotifyLogDO> notifyLogs = payNotifyLogCoreMapper.selectList();
+        notifyLogs.sort(Comparator.comparing(PayNotifyLogDO::getTaskId));
+        assertEquals(2, notifyLogs.size());
+        assertPojoEquals(notifyLog, notifyLogs.get(0), "id", "creator", "updater", "updateTime", "deleted");
+        assertPojoEquals(notifyLog02, notifyLogs.get(1), "id", "creator", "updater", "updateTime", "deleted");
+    }
+
+    private PayNotifyTaskDO insertTask(Integer status, Date nextNotifyTime, String claimOwner, Date claimExpireTime) {
+        PayNotifyTaskDO task = randomPojo(PayNotifyTaskDO.class, o -> {
+            o.setId(null);
+            o.setType(PayNotifyTypeEnum.ORDER.getType());
+            o.setStatus(status).setNextNotifyTime(nextNotifyTime);
+            o.setLastExecuteTime(new Date(nextNotifyTime.getTime() - 15_000));
+            o.setNotifyTimes(0).setMaxNotifyTimes(PayNotifyTaskDO.NOTIFY_FREQUENCY.length + 1);
+            o.setClaimOwner(claimOwner).setClaimExpireTime(claimExpireTime);
+        });
+        payNotifyTaskCoreMapper.insert(task);
+        return task;
+    }
+
+}
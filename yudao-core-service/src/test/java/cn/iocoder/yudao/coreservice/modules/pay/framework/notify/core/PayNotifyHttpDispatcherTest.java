@@ -0,0 +1,276 @@
+package cn.iocoder.yudao.coreservice.modules.pay.framework.notify.core;
+
+import cn.iocoder.yudao.coreservice.modules.pay.framework.notify.config.PayNotifyProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link PayNotifyHttpDispatcher} 的单元测试
+ *
+ * 使用 JDK 自带的 {@link HttpServer} 作为商户的通知地址，校验每个 Host 的并发上限、排队的拒绝、熔断，以及统计
+ */
+public class PayNotifyHttpDispatcherTest {
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String baseUrl;
+    /**
+     * 商户正在处理中的请求数，以及最大值
+     */
+    private final AtomicInteger concurrency = new AtomicInteger();
+    private final AtomicInteger maxConcurrency = new AtomicInteger();
+    /**
+     * 商户收到的请求数
+     */
+    private final AtomicInteger requestCount = new AtomicInteger();
+    /**
+     * /block 地址等待的信号
+     */
+    private final CountDownLatch blockLatch = new CountDownLatch(1);
+
+    private final PayNotifyProperties properties = new PayNotifyProperties();
+    /**
+     * 委托给真实熔断器的 mock，用于校验许可的释放
+     */
+    private CircuitBreaker circuitBreaker;
+    private PayNotifyHttpDispatcher dispatcher;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        properties.setConnectTimeout(Duration.ofSeconds(1));
+        properties.setResponseTimeout(Duration.ofSeconds(5));
+        properties.setIoThreads(2);
+        properties.setCallbackThreads(2);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        blockLatch.countDown();
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testPost_maxConcurrencyPerHost() throws Exception {
+        // 准备参数
+        properties.setMaxConcurrencyPerHost(3);
+        properties.setMaxQueueSizePerHost(100);
+        startDispatcher();
+
+        // 调用：远超并发上限的请求
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            futures.add(dispatcher.post(baseUrl + "/slow", "{\"id\":" + i + "}"));
+        }
+        // 断言：全部成功，商户同时处理的请求数不超过上限
+        for (CompletableFuture<String> future : futures) {
+            assertEquals("success", future.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(30, requestCount.get());
+        assertTrue(maxConcurrency.get() <= 3, "最大并发数：" + maxConcurrency.get());
+        // 断言：统计
+        assertEquals(30, dispatcher.getMetrics().getSuccessCount());
+        assertEquals(0, dispatcher.getMetrics().getFailureCount());
+        assertEquals(0, dispatcher.getMetrics().getRejectedCount());
+        assertEquals(1, dispatcher.getHostMetrics().size());
+        assertEquals(30, dispatcher.getHostMetrics().values().iterator().next().getSuccessCount());
+        waitUntil(() -> dispatcher.getInFlightCount() == 0, 1000);
+        assertEquals(0, dispatcher.getInFlightCount());
+        assertEquals(0, dispatcher.getQueuedCount());
+    }
+
+    @Test
+    public void testPost_queueSizeRejected() throws Exception {
+        // 准备参数
+        properties.setMaxConcurrencyPerHost(1);
+        properties.setMaxQueueSizePerHost(1);
+        startDispatcher();
+
+        // 调用：第一个请求中，第二个排队，第三个超过排队数量
+        CompletableFuture<String> inFlight = dispatcher.post(baseUrl + "/block", "{}");
+        CompletableFuture<String> queued = dispatcher.post(baseUrl + "/block", "{}");
+        CompletableFuture<String> rejected = dispatcher.post(baseUrl + "/block", "{}");
+        // 断言：第三个直接拒绝，并释放熔断器的许可
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        assertTrue(ex.getCause() instanceof RejectedExecutionException, String.valueOf(ex.getCause()));
+        verify(circuitBreaker, times(1)).releasePermission();
+        assertEquals(1, dispatcher.getInFlightCount());
+        assertEquals(1, dispatcher.getQueuedCount());
+        assertEquals(1, dispatcher.getMetrics().getRejectedCount());
+
+        // 调用：商户恢复响应
+        blockLatch.countDown();
+        // 断言：排队中的请求，在第一个请求完成后发起
+        assertEquals("success", inFlight.get(5, TimeUnit.SECONDS));
+        assertEquals("success", queued.get(5, TimeUnit.SECONDS));
+        assertEquals(2, requestCount.get());
+        assertEquals(2, dispatcher.getMetrics().getSuccessCount());
+    }
+
+    @Test
+    public void testPost_queueTimeExpired() throws Exception {
+        // 准备参数
+        properties.setMaxConcurrencyPerHost(1);
+        properties.setMaxQueueSizePerHost(10);
+        properties.setMaxQueueTimePerHost(Duration.ofMillis(200));
+        startDispatcher();
+
+        // 调用：第一个请求中，后两个排队
+        CompletableFuture<String> inFlight = dispatcher.post(baseUrl + "/block", "{}");
+        CompletableFuture<String> expired01 = dispatcher.post(baseUrl + "/block", "{}");
+        CompletableFuture<String> expired02 = dispatcher.post(baseUrl + "/block", "{}");
+        // 调用：排队超过最大时长后，商户恢复响应
+        Thread.sleep(300);
+        blockLatch.countDown();
+        // 断言：排队超时的请求被拒绝，不会发起
+        assertEquals("success", inFlight.get(5, TimeUnit.SECONDS));
+        for (CompletableFuture<String> expired : Arrays.asList(expired01, expired02)) {
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> expired.get(5, TimeUnit.SECONDS));
+            assertTrue(ex.getCause() instanceof RejectedExecutionException, String.valueOf(ex.getCause()));
+        }
+        assertEquals(1, requestCount.get());
+        verify(circuitBreaker, times(2)).releasePermission();
+        // 断言：统计，并释放了并发数
+        assertEquals(1, dispatcher.getMetrics().getSuccessCount());
+        assertEquals(2, dispatcher.getMetrics().getRejectedCount());
+        assertEquals(0, dispatcher.getInFlightCount());
+        assertEquals(0, dispatcher.getQueuedCount());
+    }
+
+    @Test
+    public void testPost_non2xxFailure() {
+        // 准备参数
+        startDispatcher();
+
+        // 调用
+        CompletableFuture<String> future = dispatcher.post(baseUrl + "/error", "{}");
+        // 断言：HTTP 状态码非 2XX 时，以异常完成，并记录到熔断器
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(ex.getCause() instanceof IllegalStateException, String.valueOf(ex.getCause()));
+        assertTrue(ex.getCause().getMessage().contains("500"), ex.getCause().getMessage());
+        assertEquals(0, dispatcher.getMetrics().getSuccessCount());
+        assertEquals(1, dispatcher.getMetrics().getFailureCount());
+        verify(circuitBreaker).onError(anyLong(), any(TimeUnit.class), any(Throwable.class));
+        verify(circuitBreaker, never()).releasePermission();
+    }
+
+    @Test
+    public void testPost_circuitBreakerOpen() {
+        // 准备参数
+        startDispatcher();
+        String url = baseUrl + "/slow";
+        assertTrue(dispatcher.isAvailable(url));
+        circuitBreaker.transitionToOpenState();
+
+        // 调用
+        CompletableFuture<String> future = dispatcher.post(url, "{}");
+        // 断言：熔断打开时，不发起请求
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(ex.getCause() instanceof CallNotPermittedException, String.valueOf(ex.getCause()));
+        assertFalse(dispatcher.isAvailable(url));
+        assertEquals(0, requestCount.get());
+        assertEquals(1, dispatcher.getMetrics().getNotPermittedCount());
+    }
+
+    /**
+     * 创建并启动分发器。熔断器使用委托给真实熔断器的 mock，所有 Host 共用一个
+     */
+    private void startDispatcher() {
+        CircuitBreakerRegistry registry = mock(CircuitBreakerRegistry.class);
+        when(registry.circuitBreaker(anyString(), any(CircuitBreakerConfig.class))).thenAnswer(invocation -> {
+            if (circuitBreaker == null) {
+                CircuitBreaker delegate = CircuitBreakerRegistry.ofDefaults().circuitBreaker(
+                        invocation.getArgument(0), (CircuitBreakerConfig) invocation.getArgument(1));
+                circuitBreaker = mock(CircuitBreaker.class, AdditionalAnswers.delegatesTo(delegate));
+            }
+            return circuitBreaker;
+        });
+        dispatcher = new PayNotifyHttpDispatcher(properties, registry);
+        dispatcher.start();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        int current = concurrency.incrementAndGet();
+        maxConcurrency.accumulateAndGet(current, Math::max);
+        try (InputStream in = exchange.getRequestBody()) {
+            while (in.read() != -1) {
+                // 读取完请求内容
+            }
+            String path = exchange.getRequestURI().getPath();
+            if ("/slow".equals(path)) {
+                Thread.sleep(50);
+            } else if ("/block".equals(path)) {
+                blockLatch.await(10, TimeUnit.SECONDS);
+            }
+            byte[] response = "success".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders("/error".equals(path) ? 500 : 200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            concurrency.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+
+}
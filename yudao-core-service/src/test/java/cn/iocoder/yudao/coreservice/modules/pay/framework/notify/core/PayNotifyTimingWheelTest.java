@@ -0,0 +1,139 @@
+package cn.iocoder.yudao.coreservice.modules.pay.framework.notify.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link PayNotifyTimingWheel} 的单元测试
+ *
+ * 使用较小的 tick、wheelSize，让任务跨越多层时间轮，覆盖降级到下一层的逻辑
+ */
+public class PayNotifyTimingWheelTest {
+
+    private static final long TICK_MS = 10;
+    private static final int WHEEL_SIZE = 4;
+
+    /**
+     * 触发的任务，key 为任务编号，value 为触发时间
+     */
+    private final Map<Long, Long> fireTimes = new ConcurrentHashMap<>();
+    /**
+     * 触发的次数，key 为任务编号
+     */
+    private final Map<Long, Integer> fireCounts = new ConcurrentHashMap<>();
+
+    private PayNotifyTimingWheel timingWheel;
+
+    @BeforeEach
+    public void setUp() {
+        timingWheel = new PayNotifyTimingWheel(TICK_MS, WHEEL_SIZE, ids -> {
+            long now = System.currentTimeMillis();
+            ids.forEach(id -> {
+                fireTimes.put(id, now);
+                fireCounts.merge(id, 1, Integer::sum);
+            });
+        });
+        timingWheel.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        timingWheel.stop();
+    }
+
+    @Test
+    public void testSchedule_neverBeforeDeadline() throws InterruptedException {
+        // 准备参数：deadline 分布在 0 ~ 1000ms，第一层 40ms，第二层 160ms，第三层 640ms，第四层 2560ms
+        Map<Long, Long> deadlines = new ConcurrentHashMap<>();
+        long now = System.currentTimeMillis();
+        for (long id = 1; id <= 200; id++) {
+            long deadline = now + id * 5 + id % 7;
+            deadlines.put(id, deadline);
+            timingWheel.schedule(id, deadline);
+        }
+
+        // 调用
+        waitUntil(() -> fireTimes.size() == deadlines.size(), 5000);
+        // 断言：全部触发，只触发一次，并且不早于 deadline
+        assertEquals(deadlines.size(), fireTimes.size());
+        deadlines.forEach((id, deadline) -> {
+            assertEquals(1, fireCounts.get(id));
+            assertTrue(fireTimes.get(id) >= deadline,
+                    String.format("任务(%d) 提前 %d ms 触发", id, deadline - fireTimes.get(id)));
+        });
+        assertEquals(0, timingWheel.size());
+    }
+
+    @Test
+    public void testSchedule_cascade() throws InterruptedException {
+        // 准备参数：超过前三层的总时长，需要从第四层逐层降级
+        long deadline = System.currentTimeMillis() + 700;
+        timingWheel.schedule(1L, deadline);
+
+        // 调用
+        waitUntil(() -> fireTimes.containsKey(1L), 3000);
+        // 断言
+        assertTrue(fireTimes.get(1L) >= deadline);
+    }
+
+    @Test
+    public void testSchedule_expired() throws InterruptedException {
+        // 调用：已经到期的任务
+        long deadline = System.currentTimeMillis() - 1000;
+        timingWheel.schedule(1L, deadline);
+
+        // 断言：立即触发
+        waitUntil(() -> fireTimes.containsKey(1L), 1000);
+        assertTrue(fireTimes.containsKey(1L));
+    }
+
+    @Test
+    public void testSchedule_reschedule() throws InterruptedException {
+        // 准备参数
+        long now = System.currentTimeMillis();
+        timingWheel.schedule(1L, now + 50);
+
+        // 调用：重新调度到更晚的时间，之前的调度失效
+        long deadline = now + 300;
+        timingWheel.schedule(1L, deadline);
+        // 断言
+        waitUntil(() -> fireTimes.containsKey(1L), 3000);
+        assertTrue(fireTimes.get(1L) >= deadline);
+        Thread.sleep(100);
+        assertEquals(1, fireCounts.get(1L));
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        // 准备参数
+        long now = System.currentTimeMillis();
+        timingWheel.schedule(1L, now + 50);
+        timingWheel.schedule(2L, now + 100);
+
+        // 调用
+        timingWheel.cancel(1L);
+        // 断言：只触发未取消的任务
+        waitUntil(() -> fireTimes.containsKey(2L), 3000);
+        Thread.sleep(100);
+        assertFalse(fireTimes.containsKey(1L));
+        assertEquals(0, timingWheel.size());
+    }
+
+    private static void waitUntil(BooleanSupplier condition, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+package cn.iocoder.yudao.coreservice.modules.pay.framework.order.core;
+
+import cn.iocoder.yudao.coreservice.modules.pay.dal.dataobject.order.PayOrderExtensionDO;
+import cn.iocoder.yudao.framework.pay.core.client.PayClient;
+import cn.iocoder.yudao.framework.pay.core.client.PayCommonResult;
+import cn.iocoder.yudao.framework.pay.core.client.dto.PayOrderNotifyRespDTO;
+import cn.iocoder.yudao.framework.pay.core.client.dto.PayOrderQueryRespDTO;
+import cn.iocoder.yudao.framework.pay.core.client.dto.PayOrderUnifiedReqDTO;
+import cn.iocoder.yudao.framework.pay.core.client.impl.wx.WXCodeMapping;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link PayOrderSyncExecutor} 的单元测试
+ *
+ * 使用模拟的 {@link PayClient} 替代真实的支付渠道，离线压测对账的吞吐量，并校验每个渠道的并发数不超过上限
+ */
+@Slf4j
+public class PayOrderSyncExecutorTest {
+
+    private static final int CHANNEL_COUNT = 4;
+    private static final int COUNT_PER_CHANNEL = 2_000;
+    private static final int CONCURRENCY_PER_CHANNEL = 8;
+    private static final long LATENCY_MS = 2;
+
+    @Test
+    public void testExecute() {
+        // 准备参数
+        Map<Long, FakePayClient> clients = new HashMap<>();
+        List<PayOrderExtensionDO> extensions = new ArrayList<>();
+        for (long channelId = 1; channelId <= CHANNEL_COUNT; channelId++) {
+            clients.put(channelId, new FakePayClient(channelId, LATENCY_MS));
+            for (int i = 0; i < COUNT_PER_CHANNEL; i++) {
+                extensions.add(PayOrderExtensionDO.builder().id((long) extensions.size())
+                        .no(String.valueOf(extensions.size())).channelId(channelId).build());
+            }
+        }
+        PayOrderSyncExecutor executor = new PayOrderSyncExecutor(CHANNEL_COUNT * CONCURRENCY_PER_CHANNEL,
+                CONCURRENCY_PER_CHANNEL, clients::get);
+        Set<String> paidNos = ConcurrentHashMap.newKeySet();
+
+        // 调用
+        long startTime = System.nanoTime();
+        int paidCount = executor.execute(extensions, (extension, respDTO) -> paidNos.add(extension.getNo()));
+        long elapsedNanos = System.nanoTime() - startTime;
+        executor.shutdown();
+        log.info("[testExecute][对账 {} 个支付订单拓展，耗时 {} ms，吞吐量 {} 个/秒]", extensions.size(),
+                elapsedNanos / 1_000_000, extensions.size() * 1_000_000_000L / elapsedNanos);
+
+        // 断言：偶数的支付订单号已经支付
+        assertEquals(extensions.size() / 2, paidCount);
+        assertEquals(extensions.size() / 2, paidNos.size());
+        paidNos.forEach(no -> assertEquals(0, Long.parseLong(no) % 2));
+        // 断言：每个渠道都查询了全部支付订单拓展，并且并发数不超过上限
+        clients.values().forEach(client -> {
+            assertEquals(COUNT_PER_CHANNEL, client.queryCount.get());
+            assertTrue(client.maxConcurrency.get() <= CONCURRENCY_PER_CHANNEL,
+                    "并发数超过上限：" + client.maxConcurrency.get());
+        });
+    }
+
+    /**
+     * 模拟的支付客户端：查询耗时 latencyMs 毫秒，偶数的支付订单号已经支付，奇数的未支付
+     */
+    private static class FakePayClient implements PayClient {
+
+        private final Long id;
+        private final long latencyMs;
+
+        private final AtomicInteger concurrency = new AtomicInteger();
+        private final AtomicInteger maxConcurrency = new AtomicInteger();
+        private final AtomicInteger queryCount = new AtomicInteger();
+
+        FakePayClient(Long id, long latencyMs) {
+            this.id = id;
+            this.latencyMs = latencyMs;
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public PayCommonResult<?> unifiedOrder(PayOrderUnifiedReqDTO reqDTO) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public PayOrderNotifyRespDTO parseOrderNotify(String data) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public PayCommonResult<PayOrderQueryRespDTO> queryOrder(String orderExtensionNo) {
+            int current = concurrency.incrementAndGet();
+            maxConcurrency.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrency.decrementAndGet();
+                queryCount.incrementAndGet();
+            }
+            boolean paid = Long.parseLong(orderExtensionNo) % 2 == 0;
+            return PayCommonResult.build(WXCodeMapping.CODE_SUCCESS, WXCodeMapping.MESSAGE_SUCCESS,
+                    PayOrderQueryRespDTO.builder().orderExtensionNo(orderExtensionNo).paid(paid)
+                            .successTime(paid ? new Date() : null).build(), new WXCodeMapping());
+        }
+
+    }
+
+}
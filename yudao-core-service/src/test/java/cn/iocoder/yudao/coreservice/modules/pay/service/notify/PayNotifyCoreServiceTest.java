@@ -0,0 +1,318 @@
+package cn.iocoder.yudao.coreservice.modules.pay.service.notify;
+
+import cn.hutool.core.util.ReflectUtil;
+import cn.iocoder.yudao.coreservice.modules.pay.dal.dataobject.notify.PayNotifyTaskDO;
+import cn.iocoder.yudao.coreservice.modules.pay.dal.mysql.notify.PayNotifyLogCoreMapper;
+import cn.iocoder.yudao.coreservice.modules.pay.dal.mysql.notify.PayNotifyTaskCoreMapper;
+import cn.iocoder.yudao.coreservice.modules.pay.enums.notify.PayNotifyStatusEnum;
+import cn.iocoder.yudao.coreservice.modules.pay.enums.notify.PayNotifyTypeEnum;
+import cn.iocoder.yudao.coreservice.modules.pay.framework.notify.config.PayNotifyProperties;
+import cn.iocoder.yudao.coreservice.modules.pay.framework.notify.core.PayNotifyHttpDispatcher;
+import cn.iocoder.yudao.coreservice.modules.pay.service.notify.impl.PayNotifyCoreServiceImpl;
+import cn.iocoder.yudao.coreservice.modules.pay.service.notify.impl.PayNotifyCoreServiceImpl.PayNotifyResult;
+import cn.iocoder.yudao.coreservice.modules.pay.service.order.PayOrderCoreService;
+import cn.iocoder.yudao.framework.common.pojo.CommonResult;
+import cn.iocoder.yudao.framework.test.core.ut.BaseMockitoUnitTest;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static cn.iocoder.yudao.framework.common.util.json.JsonUtils.toJsonString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link PayNotifyCoreServiceImpl} 的单元测试，校验 Host 熔断时通知任务的释放、半开状态的探测
+ *
+ * 使用 mock 的 {@link PayNotifyHttpDispatcher}，熔断状态由真实的 {@link CircuitBreaker} 维护
+ *
+ * @author 芋道源码
+ */
+public class PayNotifyCoreServiceTest extends BaseMockitoUnitTest {
+
+    private static final String OPEN_URL = "http://open.iocoder.cn/notify";
+    private static final String HEALTHY_URL = "http://healthy.iocoder.cn/notify";
+    private static final Duration UNAVAILABLE_DELAY = Duration.ofMinutes(1);
+
+    @InjectMocks
+    private PayNotifyCoreServiceImpl payNotifyCoreService;
+
+    @Spy
+    private PayNotifyProperties payNotifyProperties = new PayNotifyProperties();
+
+    @Mock
+    private PayOrderCoreService payOrderCoreService;
+    @Mock
+    private PayNotifyTaskCoreMapper payNotifyTaskCoreMapper;
+    @Mock
+    private PayNotifyLogCoreMapper payNotifyLogCoreMapper;
+    @Mock
+    private PayNotifyHttpDispatcher payNotifyHttpDispatcher;
+
+    /**
+     * 事务代理的自己，用于记录批量保存的通知结果。部分测试不会保存结果，所以使用 lenient 的 mock
+     */
+    private final PayNotifyCoreServiceImpl self = mock(PayNotifyCoreServiceImpl.class);
+    /**
+     * 批量保存的通知结果
+     */
+    private final List<PayNotifyResult> savedResults = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        ReflectUtil.setFieldValue(payNotifyCoreService, "self", self);
+        lenient().doAnswer(invocation -> savedResults.addAll(invocation.getArgument(0)))
+                .when(self).saveNotifyResultsInTransaction(anyList());
+        payNotifyCoreService.init();
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        payNotifyCoreService.destroy();
+    }
+
+    @Test
+    public void testExecuteNotify_hostOpen() {
+        // 准备参数：3 个任务的 Host 熔断中，1 个任务的 Host 正常
+        PayNotifyTaskDO task01 = buildTask(1L, OPEN_URL, PayNotifyStatusEnum.WAITING, 0);
+        PayNotifyTaskDO task02 = buildTask(2L, OPEN_URL, PayNotifyStatusEnum.WAITING, 0);
+        PayNotifyTaskDO task03 = buildTask(3L, OPEN_URL, PayNotifyStatusEnum.WAITING, 0);
+        PayNotifyTaskDO task04 = buildTask(4L, HEALTHY_URL, PayNotifyStatusEnum.WAITING, 0);
+        // mock 方法
+        when(payNotifyTaskCoreMapper.selectListByNotify(any(Date.class), anyInt()))
+                .thenReturn(Arrays.asList(task01, task02, task03, task04));
+        when(payNotifyHttpDispatcher.isAvailable(anyString())).thenAnswer(invocation ->
+                HEALTHY_URL.equals(invocation.getArgument(0)));
+        when(payNotifyHttpDispatcher.getUnavailableDelay()).thenReturn(UNAVAILABLE_DELAY);
+        when(payNotifyHttpDispatcher.getMaxNotifyDuration()).thenReturn(Duration.ofMinutes(2));
+        // mock 方法：Host 正常的任务，已被其它节点认领
+        when(payNotifyTaskCoreMapper.updateClaim(anyCollection(), anyString(), any(Date.class), any(Date.class)))
+                .thenReturn(0);
+
+        // 调用
+        long now = System.currentTimeMillis();
+        assertEquals(0, payNotifyCoreService.executeNotify());
+        // 断言：熔断中的任务，一条 UPDATE 语句释放，并延后到熔断进入半开状态之后
+        ArgumentCaptor<Date> nextNotifyTimeCaptor = ArgumentCaptor.forClass(Date.class);
+        verify(payNotifyTaskCoreMapper).updateBatchRelease(eq(Arrays.asList(1L, 2L, 3L)),
+                eq(PayNotifyStatusEnum.WAITING.getStatus()), eq(PayNotifyStatusEnum.WAITING.getStatus()),
+                nextNotifyTimeCaptor.capture(), any(Date.class));
+        verify(payNotifyTaskCoreMapper, times(1)).updateBatchRelease(anyCollection(), any(), any(), any(), any());
+        long nextNotifyTime = nextNotifyTimeCaptor.getValue().getTime();
+        assertTrue(nextNotifyTime >= now + UNAVAILABLE_DELAY.toMillis() - 1000, "下次通知时间过早：" + nextNotifyTime);
+        assertTrue(nextNotifyTime <= System.currentTimeMillis() + UNAVAILABLE_DELAY.toMillis() * 6 / 5 + 1000,
+                "下次通知时间过晚：" + nextNotifyTime);
+        // 断言：只认领 Host 正常的任务
+        verify(payNotifyTaskCoreMapper).updateClaim(eq(Collections.singletonList(4L)), anyString(),
+                any(Date.class), any(Date.class));
+        // 断言：熔断中的任务，不发起 HTTP 请求，也不增加通知次数
+        verify(payNotifyHttpDispatcher, never()).post(anyString(), anyString());
+        verify(payNotifyTaskCoreMapper, never()).updateBatchByIdAndClaimOwner(anyList(), any());
+        assertTrue(savedResults.isEmpty());
+    }
+
+    @Test
+    public void testProcessNotify_notPermitted() throws InterruptedException {
+        // 准备参数：已经通知过 2 次的任务，发起通知时 Host 熔断中
+        PayNotifyTaskDO task = buildTask(1L, OPEN_URL, PayNotifyStatusEnum.CLAIMED, 2).setClaimOwner("owner");
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("open.iocoder.cn:80");
+        circuitBreaker.transitionToOpenState();
+        // mock 方法
+        when(payNotifyHttpDispatcher.getUnavailableDelay()).thenReturn(UNAVAILABLE_DELAY);
+
+        // 调用
+        payNotifyCoreService.processNotify(task, null,
+                CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+        // 断言：释放认领，并延后通知；不增加通知次数，不记录通知日志
+        PayNotifyResult result = waitResult(1L);
+        assertEquals(PayNotifyStatusEnum.REQUEST_FAILURE.getStatus(), result.getUpdateTask().getStatus());
+        assertEquals("owner", result.getUpdateTask().getClaimOwner());
+        assertNull(result.getUpdateTask().getNotifyTimes());
+        assertNull(result.getUpdateTask().getLastExecuteTime());
+        assertTrue(result.getUpdateTask().getNextNotifyTime().getTime() >= System.currentTimeMillis()
+                + UNAVAILABLE_DELAY.toMillis() - 2000);
+        assertNull(result.getNotifyLog());
+    }
+
+    @Test
+    public void testExecuteNotify_halfOpenProbeSuccess() throws InterruptedException {
+        // 准备参数：熔断进入半开状态，只允许 1 个探测请求
+        CircuitBreaker circuitBreaker = buildHalfOpenCircuitBreaker();
+        List<CompletableFuture<String>> probes = mockDispatcher(circuitBreaker);
+        PayNotifyTaskDO task01 = buildTask(1L, OPEN_URL, PayNotifyStatusEnum.WAITING, 0);
+        PayNotifyTaskDO task02 = buildTask(2L, OPEN_URL, PayNotifyStatusEnum.WAITING, 0);
+        // mock 方法：第一轮认领 task01、task02；第二轮认领探测成功后的 task02
+        when(payNotifyTaskCoreMapper.selectListByNotify(any(Date.class), anyInt()))
+                .thenReturn(Arrays.asList(task01, task02), Collections.singletonList(task02));
+        when(payNotifyTaskCoreMapper.updateClaim(anyCollection(), anyString(), any(Date.class), any(Date.class)))
+                .thenReturn(2, 1);
+        when(payNotifyTaskCoreMapper.selectListByClaimOwner(anyString())).thenReturn(
+                Arrays.asList(claim(task01), claim(task02)), Collections.singletonList(claim(task02)));
+
+        // 调用：第一轮，task01 作为探测请求；task02 未获得许可，释放认领
+        payNotifyCoreService.executeNotify();
+        assertEquals(1, probes.size());
+        assertReleased(waitResult(2L));
+        // 调用：探测成功，熔断关闭
+        circuitBreaker.onSuccess(0, TimeUnit.MILLISECONDS);
+        probes.get(0).complete(toJsonString(CommonResult.success(true)));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        PayNotifyResult probeResult = waitResult(1L);
+        assertEquals(PayNotifyStatusEnum.SUCCESS.getStatus(), probeResult.getUpdateTask().getStatus());
+        assertEquals(1, probeResult.getUpdateTask().getNotifyTimes());
+        assertNotNull(probeResult.getNotifyLog());
+
+        // 调用：第二轮，恢复通知
+        savedResults.clear();
+        payNotifyCoreService.executeNotify();
+        // 断言：task02 发起 HTTP 请求，并通知成功
+        verify(payNotifyHttpDispatcher, times(3)).post(eq(OPEN_URL), anyString());
+        verify(payNotifyTaskCoreMapper, never()).updateBatchRelease(anyCollection(), any(), any(), any(), any());
+        PayNotifyResult result = waitResult(2L);
+        assertEquals(PayNotifyStatusEnum.SUCCESS.getStatus(), result.getUpdateTask().getStatus());
+        assertEquals(1, result.getUpdateTask().getNotifyTimes());
+    }
+
+    @Test
+    public void testExecuteNotify_halfOpenProbeFailure() throws InterruptedException {
+        // 准备参数：熔断进入半开状态，只允许 1 个探测请求
+        CircuitBreaker circuitBreaker = buildHalfOpenCircuitBreaker();
+        List<CompletableFuture<String>> probes = mockDispatcher(circuitBreaker);
+        PayNotifyTaskDO task01 = buildTask(1L, OPEN_URL, PayNotifyStatusEnum.WAITING, 0);
+        PayNotifyTaskDO task02 = buildTask(2L, OPEN_URL, PayNotifyStatusEnum.WAITING, 0);
+        // mock 方法：第一轮认领 task01、task02；第二轮查询到探测失败后的 task02
+        when(payNotifyTaskCoreMapper.selectListByNotify(any(Date.class), anyInt()))
+                .thenReturn(Arrays.asList(task01, task02), Collections.singletonList(task02));
+        when(payNotifyTaskCoreMapper.updateClaim(anyCollection(), anyString(), any(Date.class), any(Date.class)))
+                .thenReturn(2);
+        when(payNotifyTaskCoreMapper.selectListByClaimOwner(anyString())).thenReturn(
+                Arrays.asList(claim(task01), claim(task02)));
+
+        // 调用：第一轮，task01 作为探测请求；task02 未获得许可，释放认领
+        payNotifyCoreService.executeNotify();
+        assertEquals(1, probes.size());
+        assertReleased(waitResult(2L));
+        // 调用：探测失败，熔断重新打开
+        ConnectException exception = new ConnectException("模拟连接失败");
+        circuitBreaker.onError(0, TimeUnit.MILLISECONDS, exception);
+        probes.get(0).completeExceptionally(exception);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        // 断言：探测请求实际发起，计入通知次数
+        PayNotifyResult probeResult = waitResult(1L);
+        assertEquals(PayNotifyStatusEnum.REQUEST_FAILURE.getStatus(), probeResult.getUpdateTask().getStatus());
+        assertEquals(1, probeResult.getUpdateTask().getNotifyTimes());
+        assertNotNull(probeResult.getNotifyLog());
+
+        // 调用：第二轮，仍然熔断中
+        payNotifyCoreService.executeNotify();
+        // 断言：task02 批量释放并延后，不再认领、不发起 HTTP 请求
+        verify(payNotifyTaskCoreMapper).updateBatchRelease(eq(Collections.singletonList(2L)),
+                eq(PayNotifyStatusEnum.WAITING.getStatus()), eq(PayNotifyStatusEnum.WAITING.getStatus()),
+                any(Date.class), any(Date.class));
+        verify(payNotifyTaskCoreMapper, times(1)).updateClaim(anyCollection(), anyString(),
+                any(Date.class), any(Date.class));
+        verify(payNotifyHttpDispatcher, times(2)).post(eq(OPEN_URL), anyString());
+    }
+
+    private static CircuitBreaker buildHalfOpenCircuitBreaker() {
+        CircuitBreaker circuitBreaker = CircuitBreaker.of("open.iocoder.cn:80", CircuitBreakerConfig.custom()
+                .permittedNumberOfCallsInHalfOpenState(1).build());
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();
+        return circuitBreaker;
+    }
+
+    /**
+     * mock {@link PayNotifyHttpDispatcher}，和真实的实现一样，通过熔断器判断 Host 是否可用、是否允许发起请求
+     *
+     * 半开状态时的探测请求，由调用方决定何时、以何种结果完成；熔断关闭时的请求，直接成功
+     *
+     * @param circuitBreaker 熔断器
+     * @return 探测请求的 Future 数组
+     */
+    private List<CompletableFuture<String>> mockDispatcher(CircuitBreaker circuitBreaker) {
+        List<CompletableFuture<String>> probes = new CopyOnWriteArrayList<>();
+        when(payNotifyHttpDispatcher.isAvailable(anyString())).thenAnswer(invocation ->
+                circuitBreaker.getState() != CircuitBreaker.State.OPEN);
+        when(payNotifyHttpDispatcher.post(anyString(), anyString())).thenAnswer(invocation -> {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            if (!circuitBreaker.tryAcquirePermission()) {
+                future.completeExceptionally(CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+            } else if (circuitBreaker.getState() == CircuitBreaker.State.HALF_OPEN) {
+                probes.add(future);
+            } else {
+                circuitBreaker.onSuccess(0, TimeUnit.MILLISECONDS);
+                future.complete(toJsonString(CommonResult.success(true)));
+            }
+            return future;
+        });
+        when(payNotifyHttpDispatcher.getUnavailableDelay()).thenReturn(UNAVAILABLE_DELAY);
+        when(payNotifyHttpDispatcher.getMaxNotifyDuration()).thenReturn(Duration.ofMinutes(2));
+        return probes;
+    }
+
+    private static void assertReleased(PayNotifyResult result) {
+        assertEquals(PayNotifyStatusEnum.WAITING.getStatus(), result.getUpdateTask().getStatus());
+        assertNull(result.getUpdateTask().getNotifyTimes());
+        assertNull(result.getNotifyLog());
+    }
+
+    private PayNotifyResult waitResult(Long taskId) throws InterruptedException {
+        BooleanSupplier saved = () -> savedResults.stream().anyMatch(result ->
+                taskId.equals(result.getUpdateTask().getId()));
+        waitUntil(saved, 5000);
+        return savedResults.stream().filter(result -> taskId.equals(result.getUpdateTask().getId()))
+                .findFirst().orElseThrow(() -> new AssertionError("任务(" + taskId + ") 的通知结果未保存"));
+    }
+
+    private static PayNotifyTaskDO buildTask(Long id, String notifyUrl, PayNotifyStatusEnum status, int notifyTimes) {
+        return new PayNotifyTaskDO().setId(id).setType(PayNotifyTypeEnum.ORDER.getType()).setDataId(id)
+                .setMerchantOrderId("merchant-" + id).setNotifyUrl(notifyUrl)
+                .setStatus(status.getStatus()).setNotifyTimes(notifyTimes);
+    }
+
+    private static PayNotifyTaskDO claim(PayNotifyTaskDO task) {
+        return buildTask(task.getId(), task.getNotifyUrl(), PayNotifyStatusEnum.CLAIMED, task.getNotifyTimes())
+                .setClaimOwner("owner");
+    }
+
+    private static void waitUntil(BooleanSupplier condition, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+
+}
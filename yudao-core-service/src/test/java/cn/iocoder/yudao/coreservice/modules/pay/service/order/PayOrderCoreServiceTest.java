@@ -0,0 +1,185 @@
+package cn.iocoder.yudao.coreservice.modules.pay.service.order;
+
+import cn.hutool.core.util.ReflectUtil;
+import cn.iocoder.yudao.coreservice.modules.pay.dal.dataobject.merchant.PayChannelDO;
+import cn.iocoder.yudao.coreservice.modules.pay.dal.dataobject.order.PayOrderExtensionDO;
+import cn.iocoder.yudao.coreservice.modules.pay.dal.mysql.order.PayOrderCoreMapper;
+import cn.iocoder.yudao.coreservice.modules.pay.dal.mysql.order.PayOrderExtensionCoreMapper;
+import cn.iocoder.yudao.coreservice.modules.pay.framework.order.config.PayOrderProperties;
+import cn.iocoder.yudao.coreservice.modules.pay.mq.message.order.PayOrderNotifyMessage;
+import cn.iocoder.yudao.coreservice.modules.pay.mq.producer.order.PayOrderCoreProducer;
+import cn.iocoder.yudao.coreservice.modules.pay.service.merchant.PayChannelCoreService;
+import cn.iocoder.yudao.coreservice.modules.pay.service.notify.PayNotifyCoreService;
+import cn.iocoder.yudao.coreservice.modules.pay.service.order.impl.PayOrderCoreServiceImpl;
+import cn.iocoder.yudao.framework.common.exception.ServiceException;
+import cn.iocoder.yudao.framework.pay.core.client.PayClient;
+import cn.iocoder.yudao.framework.pay.core.client.PayClientFactory;
+import cn.iocoder.yudao.framework.pay.core.client.dto.PayOrderNotifyRespDTO;
+import cn.iocoder.yudao.framework.test.core.ut.BaseMockitoUnitTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static cn.iocoder.yudao.coreservice.modules.pay.enums.PayErrorCodeCoreConstants.PAY_ORDER_EXTENSION_STATUS_IS_NOT_WAITING;
+import static cn.iocoder.yudao.framework.test.core.util.RandomUtils.randomLongId;
+import static cn.iocoder.yudao.framework.test.core.util.RandomUtils.randomString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link PayOrderCoreServiceImpl} 的单元测试，校验异步处理支付渠道的回调
+ *
+ * @author 芋道源码
+ */
+public class PayOrderCoreServiceTest extends BaseMockitoUnitTest {
+
+    @InjectMocks
+    private PayOrderCoreServiceImpl payOrderCoreService;
+
+    @Spy
+    private PayOrderProperties payOrderProperties = new PayOrderProperties();
+
+    @Mock
+    private PayChannelCoreService payChannelCoreService;
+    @Mock
+    private PayNotifyCoreService payNotifyCoreService;
+    @Mock
+    private PayClientFactory payClientFactory;
+    @Mock
+    private PayOrderCoreMapper payOrderCoreMapper;
+    @Mock
+    private PayOrderExtensionCoreMapper payOrderExtensionCoreMapper;
+    @Mock
+    private PayOrderCoreProducer payOrderCoreProducer;
+
+    /**
+     * 事务代理的自己，用于校验 processPayOrderNotify 的调用
+     */
+    private final PayOrderCoreServiceImpl self = mock(PayOrderCoreServiceImpl.class);
+
+    @BeforeEach
+    public void setUp() {
+        payOrderProperties.setNotifyAsync(true);
+        payOrderProperties.setNotifyWorkerThreads(4);
+        ReflectUtil.setFieldValue(payOrderCoreService, "self", self);
+        payOrderCoreService.initExecutors();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        payOrderCoreService.destroyExecutors();
+    }
+
+    @Test
+    public void testValidateNotifyAsync_notDurable() {
+        // mock 方法：本地传输层，不持久化
+        when(payOrderCoreProducer.isPayOrderNotifyMessageDurable()).thenReturn(false);
+
+        // 调用，并断言
+        assertThrows(IllegalStateException.class, () -> payOrderCoreService.validateNotifyAsync());
+    }
+
+    @Test
+    public void testValidateNotifyAsync_durable() {
+        // mock 方法
+        when(payOrderCoreProducer.isPayOrderNotifyMessageDurable()).thenReturn(true);
+
+        // 调用，不抛出异常
+        payOrderCoreService.validateNotifyAsync();
+    }
+
+    @Test
+    public void testNotifyPayOrder_async() throws Exception {
+        // 准备参数
+        Long channelId = randomLongId();
+        String channelCode = randomString();
+        String notifyData = randomString();
+        // mock 方法：校验签名、解析结果
+        PayChannelDO channel = PayChannelDO.builder().id(channelId).code(channelCode).build();
+        when(payChannelCoreService.validPayChannel(eq(channelId))).thenReturn(channel);
+        PayClient client = mock(PayClient.class);
+        when(payClientFactory.getPayClient(eq(channelId))).thenReturn(client);
+        PayOrderNotifyRespDTO notifyResp = PayOrderNotifyRespDTO.builder().orderExtensionNo(randomString()).build();
+        when(client.parseOrderNotify(eq(notifyData))).thenReturn(notifyResp);
+
+        // 调用
+        payOrderCoreService.notifyPayOrder(channelId, channelCode, notifyData);
+        // 断言：只发送消息后立即返回，不访问数据库，也不更新支付订单
+        verify(payOrderCoreProducer).sendPayOrderNotifyMessage(eq(channelId), eq(channelCode), eq(notifyData),
+                eq(notifyResp));
+        verifyNoInteractions(payOrderCoreMapper, payOrderExtensionCoreMapper, payNotifyCoreService, self);
+    }
+
+    @Test
+    public void testProcessPayOrderNotifyMessages_partitionByOrder() {
+        // 准备参数：支付订单 1 有两个支付订单拓展，按照顺序回调；支付订单 2 的回调是重复的
+        Long orderId01 = randomLongId();
+        Long orderId02 = orderId01 + 1;
+        PayOrderNotifyMessage message01 = buildMessage("no-01");
+        PayOrderNotifyMessage message02 = buildMessage("no-02");
+        PayOrderNotifyMessage message03 = buildMessage("no-03");
+        PayOrderNotifyMessage message04 = buildMessage("no-04"); // 支付订单拓展不存在
+        // mock 方法：批量查询支付订单拓展
+        when(payOrderExtensionCoreMapper.selectListByNos(anyCollection())).thenReturn(Arrays.asList(
+                PayOrderExtensionDO.builder().no("no-01").orderId(orderId01).build(),
+                PayOrderExtensionDO.builder().no("no-02").orderId(orderId01).build(),
+                PayOrderExtensionDO.builder().no("no-03").orderId(orderId02).build()));
+        // mock 方法：记录处理的线程、顺序；支付订单 2 的回调抛出业务异常
+        Map<String, String> threadNames = new ConcurrentHashMap<>();
+        List<String> processedNos = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            PayOrderNotifyRespDTO notifyResp = invocation.getArgument(3);
+            threadNames.put(notifyResp.getOrderExtensionNo(), Thread.currentThread().getName());
+            processedNos.add(notifyResp.getOrderExtensionNo());
+            if ("no-03".equals(notifyResp.getOrderExtensionNo())) {
+                throw new ServiceException(PAY_ORDER_EXTENSION_STATUS_IS_NOT_WAITING);
+            }
+            return null;
+        }).when(self).processPayOrderNotify(anyLong(), anyString(), anyString(), any(PayOrderNotifyRespDTO.class));
+
+        // 调用
+        payOrderCoreService.processPayOrderNotifyMessages(Arrays.asList(message01, message02, message03, message04));
+        // 断言：全部处理，业务异常被忽略
+        assertEquals(4, processedNos.size());
+        // 断言：同一个支付订单的回调，由同一个线程按顺序处理
+        assertEquals(threadNames.get("no-01"), threadNames.get("no-02"));
+        assertTrue(processedNos.indexOf("no-01") < processedNos.indexOf("no-02"),
+                "同一个支付订单的回调需要按顺序处理：" + processedNos);
+    }
+
+    @Test
+    public void testProcessPayOrderNotifyMessages_empty() {
+        // 调用
+        payOrderCoreService.processPayOrderNotifyMessages(Collections.emptyList());
+        // 断言：不查询数据库
+        verifyNoInteractions(payOrderExtensionCoreMapper, self);
+    }
+
+    private static PayOrderNotifyMessage buildMessage(String orderExtensionNo) {
+        return new PayOrderNotifyMessage().setChannelId(randomLongId()).setChannelCode(randomString())
+                .setNotifyData(randomString())
+                .setNotifyResp(PayOrderNotifyRespDTO.builder().orderExtensionNo(orderExtensionNo).build());
+    }
+
+}
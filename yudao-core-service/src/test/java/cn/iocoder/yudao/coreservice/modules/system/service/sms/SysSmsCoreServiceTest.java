@@ -2,12 +2,14 @@ package cn.iocoder.yudao.coreservice.modules.system.service.sms;
 
 import cn.hutool.core.map.MapUtil;
 import cn.iocoder.yudao.coreservice.modules.system.dal.dataobject.sms.SysSmsTemplateDO;
+import cn.iocoder.yudao.coreservice.modules.system.enums.sms.SysSmsTemplateTypeEnum;
 import cn.iocoder.yudao.coreservice.modules.system.mq.message.sms.SysSmsSendMessage;
 import cn.iocoder.yudao.coreservice.modules.system.mq.producer.sms.SysSmsCoreProducer;
 import cn.iocoder.yudao.coreservice.modules.system.service.sms.impl.SysSmsCoreServiceImpl;
 import cn.iocoder.yudao.framework.common.core.KeyValue;
 import cn.iocoder.yudao.framework.common.enums.CommonStatusEnum;
 import cn.iocoder.yudao.framework.common.enums.UserTypeEnum;
+import cn.iocoder.yudao.framework.mq.core.stream.StreamMessagePriorityEnum;
 import cn.iocoder.yudao.framework.sms.core.client.SmsClient;
 import cn.iocoder.yudao.framework.sms.core.client.SmsClientFactory;
 import cn.iocoder.yudao.framework.sms.core.client.SmsCommonResult;
@@ -16,6 +18,7 @@ import cn.iocoder.yudao.framework.sms.core.client.dto.SmsSendRespDTO;
 import cn.iocoder.yudao.framework.test.core.ut.BaseMockitoUnitTest;
 import org.assertj.core.util.Lists;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
@@ -65,6 +68,7 @@ public class SysSmsCoreServiceTest extends BaseMockitoUnitTest {
         // mock SmsTemplateService 的方法
         SysSmsTemplateDO template = randomPojo(SysSmsTemplateDO.class, o -> {
             o.setStatus(CommonStatusEnum.ENABLE.getStatus());
+            o.setType(SysSmsTemplateTypeEnum.VERIFICATION_CODE.getType());
             o.setContent("验证码为{code}, 操作为{op}");
             o.setParams(Lists.newArrayList("code", "op"));
         });
@@ -84,7 +88,8 @@ public class SysSmsCoreServiceTest extends BaseMockitoUnitTest {
         // 断言调用
         verify(smsCoreProducer, times(1)).sendSmsSendMessage(eq(smsLogId), eq(mobile),
                 eq(template.getChannelId()), eq(template.getApiTemplateId()),
-                eq(Lists.newArrayList(new KeyValue<>("code", "1234"), new KeyValue<>("op", "login"))));
+                eq(Lists.newArrayList(new KeyValue<>("code", "1234"), new KeyValue<>("op", "login"))),
+                eq(StreamMessagePriorityEnum.HIGH));
     }
 
     /**
@@ -120,7 +125,52 @@ public class SysSmsCoreServiceTest extends BaseMockitoUnitTest {
         assertEquals(smsLogId, resultSmsLogId);
         // 断言调用
         verify(smsCoreProducer, times(0)).sendSmsSendMessage(anyLong(), anyString(),
-                anyLong(), any(), anyList());
+                anyLong(), any(), anyList(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSendBatchSms_success() {
+        // 准备参数
+        List<String> mobiles = Lists.newArrayList(randomString(), randomString());
+        List<Long> userIds = Lists.newArrayList(randomLongId(), randomLongId());
+        Integer userType = randomEle(UserTypeEnum.values()).getValue();
+        String templateCode = randomString();
+        Map<String, Object> templateParams = MapUtil.<String, Object>builder().put("code", "1234")
+                .put("op", "login").build();
+        // mock SmsTemplateService 的方法
+        SysSmsTemplateDO template = randomPojo(SysSmsTemplateDO.class, o -> {
+            o.setStatus(CommonStatusEnum.ENABLE.getStatus());
+            o.setContent("验证码为{code}, 操作为{op}");
+            o.setParams(Lists.newArrayList("code", "op"));
+        });
+        when(smsTemplateCoreService.getSmsTemplateByCodeFromCache(eq(templateCode))).thenReturn(template);
+        String content = randomString();
+        when(smsTemplateCoreService.formatSmsTemplateContent(eq(template.getContent()), eq(templateParams)))
+                .thenReturn(content);
+        // mock SmsLogService 的方法
+        List<Long> smsLogIds = Lists.newArrayList(randomLongId(), randomLongId());
+        for (int i = 0; i < mobiles.size(); i++) {
+            when(smsLogCoreService.createSmsLog(eq(mobiles.get(i)), eq(userIds.get(i)), eq(userType), eq(Boolean.TRUE),
+                    eq(template), eq(content), eq(templateParams))).thenReturn(smsLogIds.get(i));
+        }
+
+        // 调用
+        smsCoreService.sendBatchSms(mobiles, userIds, userType, templateCode, templateParams);
+        // 断言调用
+        ArgumentCaptor<List<SysSmsSendMessage>> messagesCaptor = ArgumentCaptor.forClass(List.class);
+        verify(smsCoreProducer, times(1)).sendSmsSendMessageList(messagesCaptor.capture());
+        List<SysSmsSendMessage> messages = messagesCaptor.getValue();
+        assertEquals(mobiles.size(), messages.size());
+        for (int i = 0; i < mobiles.size(); i++) {
+            assertEquals(smsLogIds.get(i), messages.get(i).getLogId());
+            assertEquals(mobiles.get(i), messages.get(i).getMobile());
+            assertEquals(template.getChannelId(), messages.get(i).getChannelId());
+            assertEquals(template.getApiTemplateId(), messages.get(i).getApiTemplateId());
+            assertEquals(Lists.newArrayList(new KeyValue<>("code", "1234"), new KeyValue<>("op", "login")),
+                    messages.get(i).getTemplateParams());
+            assertEquals(StreamMessagePriorityEnum.LOW, messages.get(i).getPriority());
+        }
     }
 
     @Test
@@ -2,9 +2,14 @@
 DELETE FROM "inf_api_access_log";
 DELETE FROM "inf_file";
 DELETE FROM "inf_api_error_log";
+DELETE FROM "inf_mq_outbox";
 
 -- sys 开头的 DB
 DELETE FROM "sys_user_session";
 DELETE FROM "sys_dict_data";
 DELETE FROM "sys_sms_template";
 DELETE FROM "sys_sms_log";
+
+-- pay 开头的 DB
+DELETE FROM "pay_notify_task";
+DELETE FROM "pay_notify_log";
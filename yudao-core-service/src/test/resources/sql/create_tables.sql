@@ -90,6 +90,9 @@ CREATE TABLE IF NOT EXISTS "inf_api_error_log" (
     "exception_file_name" varchar(512) not null,
     "exception_method_name" varchar(512) not null,
     "exception_line_number" integer not null,
+    "exception_fingerprint" varchar(32) default null,
+    "exception_count" integer not null default '1',
+    "exception_window_time" timestamp default null,
     "process_status" tinyint not null,
     "process_time" timestamp default null,
     "process_user_id" bigint default '0',
@@ -98,9 +101,26 @@ CREATE TABLE IF NOT EXISTS "inf_api_error_log" (
     "updater" varchar(64) default '',
     "update_time" timestamp not null default current_timestamp,
     "deleted" bit not null default false,
-    primary key ("id")
+    primary key ("id"),
+    unique ("application_name", "exception_fingerprint", "exception_window_time")
 ) COMMENT '系统异常日志';
 
+CREATE TABLE IF NOT EXISTS "inf_mq_outbox" (
+    "id" bigint not null GENERATED BY DEFAULT AS IDENTITY,
+    "message_id" varchar(32) not null,
+    "type" tinyint not null,
+    "destination" varchar(255) not null,
+    "content" clob not null,
+    "stream_max_length" bigint default null,
+    "creator" varchar(64) default '',
+    "create_time" timestamp not null default current_timestamp,
+    "updater" varchar(64) default '',
+    "update_time" timestamp not null default current_timestamp,
+    "deleted" bit not null default false,
+    primary key ("id"),
+    unique ("message_id")
+) COMMENT 'MQ Outbox 消息表';
+
 CREATE TABLE IF NOT EXISTS "sys_sms_template" (
     "id" bigint NOT NULL GENERATED BY DEFAULT AS IDENTITY,
     "type" tinyint NOT NULL,
@@ -171,3 +191,40 @@ CREATE TABLE IF NOT EXISTS `sys_login_log` (
     `deleted`     bit(1)       NOT NULL DEFAULT '0',
     PRIMARY KEY (`id`)
 ) COMMENT ='系统访问记录';
+
+CREATE TABLE IF NOT EXISTS "pay_notify_task" (
+    "id" bigint NOT NULL GENERATED BY DEFAULT AS IDENTITY,
+    "merchant_id" bigint NOT NULL,
+    "app_id" bigint NOT NULL,
+    "type" tinyint NOT NULL,
+    "data_id" bigint NOT NULL,
+    "status" tinyint NOT NULL,
+    "merchant_order_id" varchar(64) NOT NULL,
+    "next_notify_time" timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    "last_execute_time" timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    "notify_times" tinyint NOT NULL,
+    "max_notify_times" tinyint NOT NULL,
+    "notify_url" varchar(1024) NOT NULL,
+    "claim_owner" varchar(64) DEFAULT NULL,
+    "claim_expire_time" timestamp DEFAULT NULL,
+    "creator" varchar(64) DEFAULT '',
+    "create_time" timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    "updater" varchar(64) DEFAULT '',
+    "update_time" timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    "deleted" bit NOT NULL DEFAULT FALSE,
+    PRIMARY KEY ("id")
+) COMMENT '商户支付、退款等的通知';
+
+CREATE TABLE IF NOT EXISTS "pay_notify_log" (
+    "id" bigint NOT NULL GENERATED BY DEFAULT AS IDENTITY,
+    "task_id" bigint NOT NULL,
+    "notify_times" tinyint NOT NULL,
+    "response" varchar(2048) NOT NULL,
+    "status" tinyint NOT NULL,
+    "creator" varchar(64) DEFAULT '',
+    "create_time" timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    "updater" varchar(64) DEFAULT '',
+    "update_time" timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    "deleted" bit NOT NULL DEFAULT FALSE,
+    PRIMARY KEY ("id")
+) COMMENT '支付通知 App 的日志';
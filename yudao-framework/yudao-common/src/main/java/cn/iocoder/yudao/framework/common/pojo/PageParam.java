@@ -7,6 +7,7 @@ import lombok.Data;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
 import java.io.Serializable;
 
 @ApiModel("分页参数")
@@ -27,4 +28,13 @@ public class PageParam implements Serializable {
     @Max(value = 100, message = "页码最大值为 100")
     private Integer pageSize = PAGE_SIZE;
 
+    @ApiModelProperty(value = "游标，即上一页返回的 nextCursor", example = "1635294882000_1024",
+            notes = "传递时，使用游标分页，忽略 pageNo 页码，适合翻页很深的大表")
+    @Pattern(regexp = "^\\d+_\\d+$", message = "游标格式不正确")
+    private String cursor;
+
+    @ApiModelProperty(value = "是否查询总量，默认为 true", example = "true",
+            notes = "大表翻页时，建议只在第一页查询总量，后续页设置为 false，避免 COUNT(*) 的开销")
+    private Boolean searchCount = true;
+
 }
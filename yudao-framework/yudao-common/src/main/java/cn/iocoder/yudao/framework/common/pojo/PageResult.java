@@ -15,9 +15,12 @@ public final class PageResult<T> implements Serializable {
     @ApiModelProperty(value = "数据", required = true)
     private List<T> list;
 
-    @ApiModelProperty(value = "总量", required = true)
+    @ApiModelProperty(value = "总量", required = true, notes = "不查询总量时，为 null")
     private Long total;
 
+    @ApiModelProperty(value = "下一页的游标", notes = "只有游标分页才返回，为 null 时表示没有下一页")
+    private String nextCursor;
+
     public PageResult() {
     }
 
@@ -26,6 +29,12 @@ public final class PageResult<T> implements Serializable {
         this.total = total;
     }
 
+    public PageResult(List<T> list, Long total, String nextCursor) {
+        this.list = list;
+        this.total = total;
+        this.nextCursor = nextCursor;
+    }
+
     public PageResult(Long total) {
         this.list = new ArrayList<>();
         this.total = total;
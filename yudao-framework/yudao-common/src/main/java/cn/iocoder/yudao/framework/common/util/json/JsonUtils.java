@@ -3,7 +3,9 @@ package cn.iocoder.yudao.framework.common.util.json;
 import cn.hutool.core.util.ArrayUtil;
 import cn.hutool.core.util.StrUtil;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.TreeNode;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 
@@ -35,6 +37,15 @@ public class JsonUtils {
         JsonUtils.objectMapper = objectMapper;
     }
 
+    /**
+     * 获得 objectMapper 属性，用于创建可复用的 ObjectReader、ObjectWriter
+     *
+     * @return ObjectMapper 对象
+     */
+    public static ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
     public static String toJsonString(Object object) {
         try {
             return objectMapper.writeValueAsString(object);
@@ -43,6 +54,10 @@ public class JsonUtils {
         }
     }
 
+    public static JsonNode toJsonNode(Object object) {
+        return objectMapper.valueToTree(object);
+    }
+
     public static <T> T parseObject(String text, Class<T> clazz) {
         if (StrUtil.isEmpty(text)) {
             return null;
@@ -65,6 +80,14 @@ public class JsonUtils {
         }
     }
 
+    public static <T> T parseObject(TreeNode node, Class<T> clazz) {
+        try {
+            return objectMapper.treeToValue(node, clazz);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     public static <T> T parseObject(String text, TypeReference<T> typeReference) {
         try {
             return objectMapper.readValue(text, typeReference);
@@ -73,6 +96,14 @@ public class JsonUtils {
         }
     }
 
+    public static JsonNode parseTree(String text) {
+        try {
+            return objectMapper.readTree(text);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     public static <T> List<T> parseArray(String text, Class<T> clazz) {
         if (StrUtil.isEmpty(text)) {
             return new ArrayList<>();
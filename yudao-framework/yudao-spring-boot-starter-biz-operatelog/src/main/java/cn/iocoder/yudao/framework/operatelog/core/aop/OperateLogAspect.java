@@ -1,37 +1,29 @@
 package cn.iocoder.yudao.framework.operatelog.core.aop;
 
 import cn.hutool.core.exceptions.ExceptionUtil;
-import cn.hutool.core.util.ArrayUtil;
-import cn.hutool.core.util.StrUtil;
 import cn.hutool.extra.servlet.ServletUtil;
 import cn.iocoder.yudao.framework.common.pojo.CommonResult;
-import cn.iocoder.yudao.framework.operatelog.core.annotations.OperateLog;
 import cn.iocoder.yudao.framework.operatelog.core.dto.OperateLogCreateReqDTO;
-import cn.iocoder.yudao.framework.operatelog.core.enums.OperateTypeEnum;
 import cn.iocoder.yudao.framework.operatelog.core.service.OperateLogFrameworkService;
 import cn.iocoder.yudao.framework.common.util.monitor.TracerUtils;
 import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
 import cn.iocoder.yudao.framework.common.util.servlet.ServletUtils;
 import cn.iocoder.yudao.framework.web.core.util.WebFrameworkUtils;
 import com.google.common.collect.Maps;
-import io.swagger.annotations.Api;
-import io.swagger.annotations.ApiOperation;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.springframework.core.annotation.AnnotationUtils;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Array;
+import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.stream.IntStream;
 
@@ -65,32 +57,37 @@ public class OperateLogAspect {
      */
     private static final ThreadLocal<Map<String, Object>> EXTS = new ThreadLocal<>();
 
+    /**
+     * 方法元数据的缓存
+     *
+     * key：拦截的方法
+     */
+    private static final Map<Method, OperateLogMethodMeta> METHOD_METAS = new ConcurrentHashMap<>();
+
     @Resource
     private OperateLogFrameworkService operateLogFrameworkService;
 
-    @Around("@annotation(apiOperation)")
-    public Object around(ProceedingJoinPoint joinPoint, ApiOperation apiOperation) throws Throwable {
-        // 可能也添加了 @ApiOperation 注解
-        OperateLog operateLog = getMethodAnnotation(joinPoint, OperateLog.class);
-        return around0(joinPoint, operateLog, apiOperation);
+    @Around("@annotation(io.swagger.annotations.ApiOperation)")
+    public Object aroundApiOperation(ProceedingJoinPoint joinPoint) throws Throwable {
+        return around0(joinPoint);
     }
 
-    @Around("!@annotation(io.swagger.annotations.ApiOperation) && @annotation(operateLog)") // 兼容处理，只添加 @OperateLog 注解的情况
-    public Object around(ProceedingJoinPoint joinPoint, OperateLog operateLog) throws Throwable {
-        return around0(joinPoint, operateLog, null);
+    @Around("!@annotation(io.swagger.annotations.ApiOperation) && @annotation(cn.iocoder.yudao.framework.operatelog.core.annotations.OperateLog)") // 兼容处理，只添加 @OperateLog 注解的情况
+    public Object aroundOperateLog(ProceedingJoinPoint joinPoint) throws Throwable {
+        return around0(joinPoint);
     }
 
-    private Object around0(ProceedingJoinPoint joinPoint, OperateLog operateLog, ApiOperation apiOperation) throws Throwable {
+    private Object around0(ProceedingJoinPoint joinPoint) throws Throwable {
         // 记录开始时间
         Date startTime = new Date();
         try {
             // 执行原有方法
             Object result = joinPoint.proceed();
             // 记录正常执行时的操作日志
-            this.log(joinPoint, operateLog, apiOperation, startTime, result, null);
+            this.log(joinPoint, startTime, result, null);
             return result;
         } catch (Throwable exception) {
-            this.log(joinPoint, operateLog, apiOperation, startTime, null, exception);
+            this.log(joinPoint, startTime, null, exception);
             throw exception;
         } finally {
             clearThreadLocal();
@@ -113,22 +110,23 @@ public class OperateLogAspect {
         EXTS.remove();
     }
 
-    private void log(ProceedingJoinPoint joinPoint, OperateLog operateLog, ApiOperation apiOperation,
-                     Date startTime, Object result, Throwable exception) {
+    private void log(ProceedingJoinPoint joinPoint, Date startTime, Object result, Throwable exception) {
+        OperateLogMethodMeta methodMeta = null;
         try {
             // 判断不记录的情况
-            if (!isLogEnable(joinPoint, operateLog)) {
+            methodMeta = getMethodMeta(joinPoint);
+            if (!methodMeta.isEnable()) {
                 return;
             }
             // 真正记录操作日志
-            this.log0(joinPoint, operateLog, apiOperation, startTime, result, exception);
+            this.log0(joinPoint, methodMeta, startTime, result, exception);
         } catch (Throwable ex) {
-            log.error("[log][记录操作日志时，发生异常，其中参数是 joinPoint({}) operateLog({}) apiOperation({}) result({}) exception({}) ]",
-                    joinPoint, operateLog, apiOperation, result, exception, ex);
+            log.error("[log][记录操作日志时，发生异常，其中参数是 joinPoint({}) methodMeta({}) result({}) exception({}) ]",
+                    joinPoint, methodMeta, result, exception, ex);
         }
     }
 
-    private void log0(ProceedingJoinPoint joinPoint, OperateLog operateLog, ApiOperation apiOperation,
+    private void log0(ProceedingJoinPoint joinPoint, OperateLogMethodMeta methodMeta,
                       Date startTime, Object result, Throwable exception) {
         OperateLogCreateReqDTO operateLogDTO = new OperateLogCreateReqDTO();
         // 补全通用字段
@@ -137,55 +135,35 @@ public class OperateLogAspect {
         // 补充用户信息
         fillUserFields(operateLogDTO);
         // 补全模块信息
-        fillModuleFields(operateLogDTO, joinPoint, operateLog, apiOperation);
+        fillModuleFields(operateLogDTO, methodMeta);
         // 补全请求信息
         fillRequestFields(operateLogDTO);
         // 补全方法信息
-        fillMethodFields(operateLogDTO, joinPoint, operateLog, startTime, result, exception);
+        fillMethodFields(operateLogDTO, joinPoint, methodMeta, startTime, result, exception);
 
         // 异步记录日志
         operateLogFrameworkService.createOperateLogAsync(operateLogDTO);
     }
 
+    private static OperateLogMethodMeta getMethodMeta(ProceedingJoinPoint joinPoint) {
+        MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
+        Method method = methodSignature.getMethod();
+        // 先 get 再 computeIfAbsent，避免 JDK8 下 computeIfAbsent 命中时仍然加锁
+        OperateLogMethodMeta methodMeta = METHOD_METAS.get(method);
+        if (methodMeta != null) {
+            return methodMeta;
+        }
+        return METHOD_METAS.computeIfAbsent(method, key -> OperateLogMethodMeta.of(methodSignature));
+    }
+
     private static void fillUserFields(OperateLogCreateReqDTO operateLogDTO) {
         operateLogDTO.setUserId(WebFrameworkUtils.getLoginUserId());
     }
 
-    private static void fillModuleFields(OperateLogCreateReqDTO operateLogDTO,
-                                         ProceedingJoinPoint joinPoint, OperateLog operateLog, ApiOperation apiOperation) {
-        // module 属性
-        if (operateLog != null) {
-            operateLogDTO.setModule(operateLog.module());
-        }
-        if (StrUtil.isEmpty(operateLogDTO.getModule())) {
-            Api api = getClassAnnotation(joinPoint, Api.class);
-            if (api != null) {
-                // 优先读取 @API 的 name 属性
-                if (StrUtil.isNotEmpty(api.value())) {
-                    operateLogDTO.setModule(api.value());
-                }
-                // 没有的话，读取 @API 的 tags 属性
-                if (StrUtil.isEmpty(operateLogDTO.getModule()) && ArrayUtil.isNotEmpty(api.tags())) {
-                    operateLogDTO.setModule(api.tags()[0]);
-                }
-            }
-        }
-        // name 属性
-        if (operateLog != null) {
-            operateLogDTO.setName(operateLog.name());
-        }
-        if (StrUtil.isEmpty(operateLogDTO.getName()) && apiOperation != null) {
-            operateLogDTO.setName(apiOperation.value());
-        }
-        // type 属性
-        if (operateLog != null && ArrayUtil.isNotEmpty(operateLog.type())) {
-            operateLogDTO.setType(operateLog.type()[0].getType());
-        }
-        if (operateLogDTO.getType() == null) {
-            RequestMethod requestMethod = obtainFirstMatchRequestMethod(obtainRequestMethod(joinPoint));
-            OperateTypeEnum operateLogType = convertOperateLogType(requestMethod);
-            operateLogDTO.setType(operateLogType != null ? operateLogType.getType() : null);
-        }
+    private static void fillModuleFields(OperateLogCreateReqDTO operateLogDTO, OperateLogMethodMeta methodMeta) {
+        operateLogDTO.setModule(methodMeta.getModule());
+        operateLogDTO.setName(methodMeta.getName());
+        operateLogDTO.setType(methodMeta.getType());
         // content 和 exts 属性
         operateLogDTO.setContent(CONTENT.get());
         operateLogDTO.setExts(EXTS.get());
@@ -205,14 +183,13 @@ public class OperateLogAspect {
     }
 
     private static void fillMethodFields(OperateLogCreateReqDTO operateLogDTO,
-                                         ProceedingJoinPoint joinPoint, OperateLog operateLog,
+                                         ProceedingJoinPoint joinPoint, OperateLogMethodMeta methodMeta,
                                          Date startTime, Object result, Throwable exception) {
-        MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
-        operateLogDTO.setJavaMethod(methodSignature.toString());
-        if (operateLog == null || operateLog.logArgs()) {
-            operateLogDTO.setJavaMethodArgs(obtainMethodArgs(joinPoint));
+        operateLogDTO.setJavaMethod(methodMeta.getJavaMethod());
+        if (methodMeta.isLogArgs()) {
+            operateLogDTO.setJavaMethodArgs(obtainMethodArgs(joinPoint, methodMeta));
         }
-        if (operateLog == null || operateLog.logResultData()) {
+        if (methodMeta.isLogResultData()) {
             operateLogDTO.setResultData(obtainResultData(result));
         }
         operateLogDTO.setDuration((int) (System.currentTimeMillis() - startTime.getTime()));
@@ -233,83 +210,10 @@ public class OperateLogAspect {
         }
     }
 
-    private static boolean isLogEnable(ProceedingJoinPoint joinPoint, OperateLog operateLog) {
-        // 有 @OperateLog 注解的情况下
-        if (operateLog != null) {
-            return operateLog.enable();
-        }
-        // 没有 @ApiOperation 注解的情况下，只记录 POST、PUT、DELETE 的情况
-        return obtainFirstLogRequestMethod(obtainRequestMethod(joinPoint)) != null;
-    }
-
-    private static RequestMethod obtainFirstLogRequestMethod(RequestMethod[] requestMethods) {
-        if (ArrayUtil.isEmpty(requestMethods)) {
-            return null;
-        }
-        return Arrays.stream(requestMethods).filter(requestMethod ->
-                           requestMethod == RequestMethod.POST
-                        || requestMethod == RequestMethod.PUT
-                        || requestMethod == RequestMethod.DELETE)
-                .findFirst().orElse(null);
-    }
-
-    private static RequestMethod obtainFirstMatchRequestMethod(RequestMethod[] requestMethods) {
-        if (ArrayUtil.isEmpty(requestMethods)) {
-            return null;
-        }
-        // 优先，匹配最优的 POST、PUT、DELETE
-        RequestMethod result = obtainFirstLogRequestMethod(requestMethods);
-        if (result != null) {
-            return result;
-        }
-        // 然后，匹配次优的 GET
-        result = Arrays.stream(requestMethods).filter(requestMethod -> requestMethod == RequestMethod.GET)
-                .findFirst().orElse(null);
-        if (result != null) {
-            return result;
-        }
-        // 兜底，获得第一个
-        return requestMethods[0];
-    }
-
-    private static OperateTypeEnum convertOperateLogType(RequestMethod requestMethod) {
-        if (requestMethod == null) {
-            return null;
-        }
-        switch (requestMethod) {
-            case GET:
-                return OperateTypeEnum.GET;
-            case POST:
-                return OperateTypeEnum.CREATE;
-            case PUT:
-                return OperateTypeEnum.UPDATE;
-            case DELETE:
-                return OperateTypeEnum.DELETE;
-            default:
-                return OperateTypeEnum.OTHER;
-        }
-    }
-
-    private static RequestMethod[] obtainRequestMethod(ProceedingJoinPoint joinPoint) {
-        RequestMapping requestMapping = AnnotationUtils.getAnnotation( // 使用 Spring 的工具类，可以处理 @RequestMapping 别名注解
-                ((MethodSignature) joinPoint.getSignature()).getMethod(), RequestMapping.class);
-        return requestMapping != null ? requestMapping.method() : new RequestMethod[]{};
-    }
-
-    @SuppressWarnings("SameParameterValue")
-    private static <T extends Annotation> T getMethodAnnotation(ProceedingJoinPoint joinPoint, Class<T> annotationClass) {
-        return ((MethodSignature) joinPoint.getSignature()).getMethod().getAnnotation(annotationClass);
-    }
-
-    @SuppressWarnings("SameParameterValue")
-    private static <T extends Annotation> T getClassAnnotation(ProceedingJoinPoint joinPoint, Class<T> annotationClass) {
-        return ((MethodSignature) joinPoint.getSignature()).getMethod().getDeclaringClass().getAnnotation(annotationClass);
-    }
-
-    private static String obtainMethodArgs(ProceedingJoinPoint joinPoint) {
+    private static String obtainMethodArgs(ProceedingJoinPoint joinPoint, OperateLogMethodMeta methodMeta) {
         // TODO 提升：参数脱敏和忽略
-        MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
-        String[] argNames = methodSignature.getParameterNames();
+        String[] argNames = methodMeta.getArgNames();
+        byte[] argIgnores = methodMeta.getArgIgnores();
         Object[] argValues = joinPoint.getArgs();
         // 拼接参数
         Map<String, Object> args = Maps.newHashMapWithExpectedSize(argValues.length);
@@ -317,7 +221,9 @@ public class OperateLogAspect {
             String argName = argNames[i];
             Object argValue = argValues[i];
             // 被忽略时，标记为 ignore 字符串，避免和 null 混在一起
-            args.put(argName, !isIgnoreArgs(argValue) ? argValue : "[ignore]");
+            boolean ignore = argIgnores[i] == OperateLogMethodMeta.ARG_IGNORE
+                    || (argIgnores[i] == OperateLogMethodMeta.ARG_CHECK && argValue != null && isIgnoreArgs(argValue));
+            args.put(argName, !ignore ? argValue : "[ignore]");
         }
         return JsonUtils.toJsonString(args);
     }
@@ -0,0 +1,212 @@
+package cn.iocoder.yudao.framework.operatelog.core.aop;
+
+import cn.hutool.core.util.ArrayUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.iocoder.yudao.framework.operatelog.core.annotations.OperateLog;
+import cn.iocoder.yudao.framework.operatelog.core.enums.OperateTypeEnum;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.Getter;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 操作日志的方法元数据
+ *
+ * 基于 {@link Method} 解析 @OperateLog、@Api、@ApiOperation、@RequestMapping 等注解，只解析一次，
+ * 由 {@link OperateLogAspect} 按照 Method 缓存，避免每次拦截都反射读取注解
+ *
+ * @author 芋道源码
+ */
+@Getter
+public class OperateLogMethodMeta {
+
+    /**
+     * 参数的忽略策略：不忽略
+     */
+    static final byte ARG_KEEP = 0;
+    /**
+     * 参数的忽略策略：一定忽略，例如说声明类型就是 MultipartFile、HttpServletRequest
+     */
+    static final byte ARG_IGNORE = 1;
+    /**
+     * 参数的忽略策略：需要根据运行时的参数值判断，例如说 Object、数组、Collection、Map
+     */
+    static final byte ARG_CHECK = 2;
+
+    /**
+     * 是否记录操作日志
+     */
+    private final boolean enable;
+    /**
+     * 操作模块
+     */
+    private final String module;
+    /**
+     * 操作名
+     */
+    private final String name;
+    /**
+     * 操作分类
+     */
+    private final Integer type;
+    /**
+     * 是否记录方法参数
+     */
+    private final boolean logArgs;
+    /**
+     * 是否记录方法结果的数据
+     */
+    private final boolean logResultData;
+    /**
+     * Java 方法名
+     */
+    private final String javaMethod;
+    /**
+     * 参数名数组
+     */
+    private final String[] argNames;
+    /**
+     * 参数的忽略策略数组，和 {@link #argNames} 一一对应
+     */
+    private final byte[] argIgnores;
+
+    private OperateLogMethodMeta(MethodSignature methodSignature) {
+        Method method = methodSignature.getMethod();
+        OperateLog operateLog = method.getAnnotation(OperateLog.class);
+        ApiOperation apiOperation = method.getAnnotation(ApiOperation.class);
+        RequestMethod[] requestMethods = obtainRequestMethod(method);
+        this.enable = operateLog != null ? operateLog.enable() : obtainFirstLogRequestMethod(requestMethods) != null;
+        this.module = buildModule(method, operateLog);
+        this.name = buildName(operateLog, apiOperation);
+        this.type = buildType(operateLog, requestMethods);
+        this.logArgs = operateLog == null || operateLog.logArgs();
+        this.logResultData = operateLog == null || operateLog.logResultData();
+        this.javaMethod = methodSignature.toString();
+        this.argNames = methodSignature.getParameterNames();
+        this.argIgnores = buildArgIgnores(method.getParameterTypes());
+    }
+
+    public static OperateLogMethodMeta of(MethodSignature methodSignature) {
+        return new OperateLogMethodMeta(methodSignature);
+    }
+
+    private static String buildModule(Method method, OperateLog operateLog) {
+        if (operateLog != null && StrUtil.isNotEmpty(operateLog.module())) {
+            return operateLog.module();
+        }
+        Api api = method.getDeclaringClass().getAnnotation(Api.class);
+        if (api != null) {
+            // 优先读取 @API 的 name 属性
+            if (StrUtil.isNotEmpty(api.value())) {
+                return api.value();
+            }
+            // 没有的话，读取 @API 的 tags 属性
+            if (ArrayUtil.isNotEmpty(api.tags())) {
+                return api.tags()[0];
+            }
+        }
+        return operateLog != null ? operateLog.module() : null;
+    }
+
+    private static String buildName(OperateLog operateLog, ApiOperation apiOperation) {
+        if (operateLog != null && StrUtil.isNotEmpty(operateLog.name())) {
+            return operateLog.name();
+        }
+        if (apiOperation != null) {
+            return apiOperation.value();
+        }
+        return operateLog != null ? operateLog.name() : null;
+    }
+
+    private static Integer buildType(OperateLog operateLog, RequestMethod[] requestMethods) {
+        if (operateLog != null && ArrayUtil.isNotEmpty(operateLog.type())) {
+            return operateLog.type()[0].getType();
+        }
+        OperateTypeEnum operateLogType = convertOperateLogType(obtainFirstMatchRequestMethod(requestMethods));
+        return operateLogType != null ? operateLogType.getType() : null;
+    }
+
+    private static byte[] buildArgIgnores(Class<?>[] parameterTypes) {
+        byte[] argIgnores = new byte[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            Class<?> parameterType = parameterTypes[i];
+            if (MultipartFile.class.isAssignableFrom(parameterType)
+                    || HttpServletRequest.class.isAssignableFrom(parameterType)
+                    || HttpServletResponse.class.isAssignableFrom(parameterType)) {
+                argIgnores[i] = ARG_IGNORE;
+            } else if (parameterType == Object.class || parameterType.isArray() || parameterType.isInterface()
+                    || Collection.class.isAssignableFrom(parameterType) || Map.class.isAssignableFrom(parameterType)) {
+                argIgnores[i] = ARG_CHECK;
+            } else {
+                argIgnores[i] = ARG_KEEP;
+            }
+        }
+        return argIgnores;
+    }
+
+    private static RequestMethod obtainFirstLogRequestMethod(RequestMethod[] requestMethods) {
+        if (ArrayUtil.isEmpty(requestMethods)) {
+            return null;
+        }
+        return Arrays.stream(requestMethods).filter(requestMethod ->
+                           requestMethod == RequestMethod.POST
+                        || requestMethod == RequestMethod.PUT
+                        || requestMethod == RequestMethod.DELETE)
+                .findFirst().orElse(null);
+    }
+
+    private static RequestMethod obtainFirstMatchRequestMethod(RequestMethod[] requestMethods) {
+        if (ArrayUtil.isEmpty(requestMethods)) {
+            return null;
+        }
+        // 优先，匹配最优的 POST、PUT、DELETE
+        RequestMethod result = obtainFirstLogRequestMethod(requestMethods);
+        if (result != null) {
+            return result;
+        }
+        // 然后，匹配次优的 GET
+        result = Arrays.stream(requestMethods).filter(requestMethod -> requestMethod == RequestMethod.GET)
+                .findFirst().orElse(null);
+        if (result != null) {
+            return result;
+        }
+        // 兜底，获得第一个
+        return requestMethods[0];
+    }
+
+    private static OperateTypeEnum convertOperateLogType(RequestMethod requestMethod) {
+        if (requestMethod == null) {
+            return null;
+        }
+        switch (requestMethod) {
+            case GET:
+                return OperateTypeEnum.GET;
+            case POST:
+                return OperateTypeEnum.CREATE;
+            case PUT:
+                return OperateTypeEnum.UPDATE;
+            case DELETE:
+                return OperateTypeEnum.DELETE;
+            default:
+                return OperateTypeEnum.OTHER;
+        }
+    }
+
+    private static RequestMethod[] obtainRequestMethod(Method method) {
+        RequestMapping requestMapping = AnnotationUtils.getAnnotation( // 使用 Spring 的工具类，可以处理 @RequestMapping 别名注解
+                method, RequestMapping.class);
+        return requestMapping != null ? requestMapping.method() : new RequestMethod[]{};
+    }
+
+}
@@ -1,6 +1,7 @@
 package cn.iocoder.yudao.framework.pay.core.client;
 
 import cn.iocoder.yudao.framework.pay.core.client.dto.PayOrderNotifyRespDTO;
+import cn.iocoder.yudao.framework.pay.core.client.dto.PayOrderQueryRespDTO;
 import cn.iocoder.yudao.framework.pay.core.client.dto.PayOrderUnifiedReqDTO;
 
 /**
@@ -34,4 +35,14 @@ public interface PayClient {
      */
     PayOrderNotifyRespDTO parseOrderNotify(String data) throws Exception;
 
+    /**
+     * 调用支付渠道，查询支付单的支付结果
+     *
+     * 用于支付渠道的通知丢失、延迟时，主动对账
+     *
+     * @param orderExtensionNo 支付订单号（支付模块的）
+     * @return 各支付渠道的查询结果
+     */
+    PayCommonResult<PayOrderQueryRespDTO> queryOrder(String orderExtensionNo);
+
 }
@@ -25,4 +25,11 @@ public interface PayClientFactory {
     <Config extends PayClientConfig> void createOrUpdatePayClient(Long channelId, String channelCode,
                                                                   Config config);
 
+    /**
+     * 移除支付客户端，并释放它占用的资源
+     *
+     * @param channelId 渠道编号
+     */
+    void removePayClient(Long channelId);
+
 }
@@ -0,0 +1,49 @@
+package cn.iocoder.yudao.framework.pay.core.client.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * 支付查询 Response DTO
+ *
+ * @author 芋道源码
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayOrderQueryRespDTO {
+
+    /**
+     * 支付订单号（支付模块的）
+     */
+    private String orderExtensionNo;
+    /**
+     * 是否已经支付成功
+     */
+    private Boolean paid;
+    /**
+     * 支付渠道编号
+     */
+    private String channelOrderNo;
+    /**
+     * 支付渠道用户编号
+     */
+    private String channelUserId;
+    /**
+     * 支付成功时间
+     */
+    private Date successTime;
+
+    /**
+     * 查询的原始数据
+     *
+     * 支付成功时，和通知的原始数据一样持久化，方便后续修复数据，或者排错
+     */
+    private String data;
+
+}
@@ -5,6 +5,7 @@ import cn.iocoder.yudao.framework.pay.core.client.AbstractPayCodeMapping;
 import cn.iocoder.yudao.framework.pay.core.client.PayClient;
 import cn.iocoder.yudao.framework.pay.core.client.PayClientConfig;
 import cn.iocoder.yudao.framework.pay.core.client.PayCommonResult;
+import cn.iocoder.yudao.framework.pay.core.client.dto.PayOrderQueryRespDTO;
 import cn.iocoder.yudao.framework.pay.core.client.dto.PayOrderUnifiedReqDTO;
 import lombok.extern.slf4j.Slf4j;
 
@@ -32,8 +33,14 @@ public abstract class AbstractPayClient<Config extends PayClientConfig> implemen
     protected AbstractPayCodeMapping codeMapping;
     /**
      * 支付配置
+     *
+     * 这里声明 volatile 修饰的原因是，刷新时直接修改指向
      */
-    protected Config config;
+    protected volatile Config config;
+    /**
+     * 是否已经销毁
+     */
+    private boolean destroyed;
 
     protected Double calculateAmount(Long amount) {
         return amount / 100.0;
@@ -50,24 +57,52 @@ public abstract class AbstractPayClient<Config extends PayClientConfig> implemen
      * 初始化
      */
     public final void init() {
-        doInit();
+        doInit(config);
         log.info("[init][配置({}) 初始化完成]", config);
     }
 
     /**
      * 自定义初始化
+     *
+     * 使用传入的配置，创建新的客户端，最后一步再替换原来的客户端，从而保证替换是原子的。
+     * 调用时需要同时使用客户端和配置的，将两者放在同一个不可变对象中一起替换，不要读取 {@link #config}，
+     * 因为它在 doInit 之后才被替换，参见 WXPubPayClient
+     *
+     * @param config 支付配置
      */
-    protected abstract void doInit();
+    protected abstract void doInit(Config config);
 
-    public final void refresh(Config config) {
+    public final synchronized void refresh(Config config) {
         // 判断是否更新
         if (config.equals(this.config)) {
             return;
         }
         log.info("[refresh][配置({})发生变化，重新初始化]", config);
+        // 先使用新的配置初始化，成功后再替换配置。进行中的调用，继续使用原来的客户端，不受影响；
+        // 初始化失败时，继续使用原来的配置和客户端，下次刷新时重试
+        doInit(config);
         this.config = config;
-        // 初始化
-        this.init();
+        log.info("[refresh][配置({}) 初始化完成]", config);
+    }
+
+    /**
+     * 销毁，在客户端被移除、或者被替换时调用，释放它占用的资源。重复调用时，只销毁一次
+     */
+    public final synchronized void destroy() {
+        if (destroyed) {
+            return;
+        }
+        destroyed = true;
+        doDestroy();
+        log.info("[destroy][配置({}) 销毁完成]", config);
+    }
+
+    /**
+     * 自定义销毁。进行中的调用，已经持有原来的客户端，可以继续使用
+     *
+     * 默认无需释放资源，子类按需重写
+     */
+    protected void doDestroy() {
     }
 
     @Override
@@ -75,6 +110,10 @@ public abstract class AbstractPayClient<Config extends PayClientConfig> implemen
         return channelId;
     }
 
+    public String getChannelCode() {
+        return channelCode;
+    }
+
     @Override
     public final PayCommonResult<?> unifiedOrder(PayOrderUnifiedReqDTO reqDTO) {
         ValidationUtil.validate(reqDTO);
@@ -94,4 +133,19 @@ public abstract class AbstractPayClient<Config extends PayClientConfig> implemen
     protected abstract PayCommonResult<?> doUnifiedOrder(PayOrderUnifiedReqDTO reqDTO)
             throws Throwable;
 
+    @Override
+    public final PayCommonResult<PayOrderQueryRespDTO> queryOrder(String orderExtensionNo) {
+        try {
+            return doQueryOrder(orderExtensionNo);
+        } catch (Throwable ex) {
+            // 打印异常日志
+            log.error("[queryOrder][orderExtensionNo({}) 查询支付失败]", orderExtensionNo, ex);
+            // 封装返回
+            return PayCommonResult.error(ex);
+        }
+    }
+
+    protected abstract PayCommonResult<PayOrderQueryRespDTO> doQueryOrder(String orderExtensionNo)
+            throws Throwable;
+
 }
@@ -43,12 +43,24 @@ public class PayClientFactoryImpl implements PayClientFactory {
     public <Config extends PayClientConfig> void createOrUpdatePayClient(Long channelId, String channelCode,
                                                                          Config config) {
         AbstractPayClient<Config> client = (AbstractPayClient<Config>) channelIdClients.get(channelId);
-        if (client == null) {
-            client = this.createPayClient(channelId, channelCode, config);
-            client.init();
-            channelIdClients.put(client.getId(), client);
-        } else {
+        if (client != null && client.getChannelCode().equals(channelCode)) {
             client.refresh(config);
+            return;
+        }
+        // 不存在，或者渠道编码发生变化时，创建新的客户端，并销毁被替换的客户端
+        AbstractPayClient<Config> newClient = this.createPayClient(channelId, channelCode, config);
+        newClient.init();
+        channelIdClients.put(newClient.getId(), newClient);
+        if (client != null) {
+            client.destroy();
+        }
+    }
+
+    @Override
+    public void removePayClient(Long channelId) {
+        AbstractPayClient<?> client = channelIdClients.remove(channelId);
+        if (client != null) {
+            client.destroy();
         }
     }
 
@@ -0,0 +1,74 @@
+package cn.iocoder.yudao.framework.pay.core.client.impl.alipay;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.iocoder.yudao.framework.pay.core.client.PayCommonResult;
+import cn.iocoder.yudao.framework.pay.core.client.dto.PayOrderQueryRespDTO;
+import cn.iocoder.yudao.framework.pay.core.client.impl.AbstractPayClient;
+import com.alipay.api.AlipayApiException;
+import com.alipay.api.AlipayConfig;
+import com.alipay.api.DefaultAlipayClient;
+import com.alipay.api.domain.AlipayTradeQueryModel;
+import com.alipay.api.request.AlipayTradeQueryRequest;
+import com.alipay.api.response.AlipayTradeQueryResponse;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Objects;
+
+/**
+ * 支付宝抽象类，实现支付宝统一的接口，例如说客户端的初始化、查询支付订单
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public abstract class AbstractAlipayClient extends AbstractPayClient<AlipayPayClientConfig> {
+
+    /**
+     * 支付宝客户端
+     *
+     * 这里声明 volatile 修饰的原因是，刷新时直接修改指向
+     */
+    protected volatile DefaultAlipayClient client;
+
+    public AbstractAlipayClient(Long channelId, String channelCode, AlipayPayClientConfig config) {
+        super(channelId, channelCode, config, new AlipayPayCodeMapping());
+    }
+
+    @Override
+    @SneakyThrows
+    protected void doInit(AlipayPayClientConfig config) {
+        AlipayConfig alipayConfig = new AlipayConfig();
+        BeanUtil.copyProperties(config, alipayConfig, false);
+        // 真实客户端
+        this.client = new DefaultAlipayClient(alipayConfig);
+    }
+
+    @Override
+    public PayCommonResult<PayOrderQueryRespDTO> doQueryOrder(String orderExtensionNo) {
+        // 构建 AlipayTradeQueryRequest 请求
+        AlipayTradeQueryModel model = new AlipayTradeQueryModel();
+        model.setOutTradeNo(orderExtensionNo);
+        AlipayTradeQueryRequest request = new AlipayTradeQueryRequest();
+        request.setBizModel(model);
+
+        // 执行请求
+        AlipayTradeQueryResponse response;
+        try {
+            response = client.execute(request);
+        } catch (AlipayApiException e) {
+            log.error("[queryOrder][orderExtensionNo({}) 查询支付失败]", orderExtensionNo, e);
+            return PayCommonResult.build(e.getErrCode(), e.getErrMsg(), null, codeMapping);
+        }
+        if (!response.isSuccess()) { // 例如说，用户还未扫码时，交易不存在
+            return PayCommonResult.build(response.getCode(), response.getMsg(), null, codeMapping);
+        }
+        // 转换结果。TRADE_SUCCESS、TRADE_FINISHED 都说明已经支付成功
+        boolean paid = Objects.equals(response.getTradeStatus(), "TRADE_SUCCESS")
+                || Objects.equals(response.getTradeStatus(), "TRADE_FINISHED");
+        return PayCommonResult.build(response.getCode(), response.getMsg(), PayOrderQueryRespDTO.builder()
+                .orderExtensionNo(orderExtensionNo).paid(paid)
+                .channelOrderNo(response.getTradeNo()).channelUserId(response.getBuyerUserId())
+                .successTime(response.getSendPayDate()).data(response.getBody()).build(), codeMapping);
+    }
+
+}
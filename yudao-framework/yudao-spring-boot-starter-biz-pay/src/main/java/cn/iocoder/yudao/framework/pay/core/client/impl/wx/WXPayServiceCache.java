@@ -0,0 +1,158 @@
+package cn.iocoder.yudao.framework.pay.core.client.impl.wx;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import cn.iocoder.yudao.framework.common.util.io.FileUtils;
+import com.github.binarywang.wxpay.config.WxPayConfig;
+import com.github.binarywang.wxpay.constant.WxPayConstants;
+import com.github.binarywang.wxpay.service.WxPayService;
+import com.github.binarywang.wxpay.service.impl.WxPayServiceImpl;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static cn.iocoder.yudao.framework.common.util.json.JsonUtils.toJsonString;
+
+/**
+ * {@link WxPayService} 的缓存，按照 {@link WXPayClientConfig} 内容的 SHA-256 复用
+ *
+ * 1. 配置内容相同的多个渠道、或者配置刷新前后内容相同时，复用同一个 WxPayService，无需重复写入证书的临时文件、重建 SSL 上下文
+ * 2. 通过引用计数管理，不再被任何 {@link WXPubPayClient} 引用时，移除缓存，并删除证书的临时文件，避免临时文件堆积
+ * 3. V3 版本初始化 HTTP 客户端时，可能通过网络获取平台证书，所以在全局锁之外进行，只阻塞相同配置的调用
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class WXPayServiceCache {
+
+    /**
+     * 缓存 Map
+     * key：配置内容的 SHA-256
+     */
+    private static final Map<String, Entry> ENTRIES = new HashMap<>();
+
+    /**
+     * 获得配置内容对应的 key
+     *
+     * @param config 配置
+     * @return key
+     */
+    public static String buildKey(WXPayClientConfig config) {
+        return DigestUtil.sha256Hex(toJsonString(config));
+    }
+
+    /**
+     * 获得 WxPayService，并增加引用计数。不存在时，进行创建
+     *
+     * @param key 配置内容对应的 key
+     * @param config 配置
+     * @return WxPayService
+     */
+    public static WxPayService acquire(String key, WXPayClientConfig config) {
+        Entry entry;
+        synchronized (WXPayServiceCache.class) {
+            entry = ENTRIES.get(key);
+            if (entry == null) {
+                entry = create(config);
+                ENTRIES.put(key, entry);
+            }
+            entry.references++; // 先增加引用计数，保证初始化期间不会被移除、删除临时文件
+        }
+        // 在全局锁之外初始化 V3 客户端
+        if (WXPayClientConfig.API_VERSION_V3.equals(config.getApiVersion())) {
+            entry.initApiV3HttpClient(config);
+        }
+        return entry.service;
+    }
+
+    /**
+     * 减少引用计数。不再被引用时，移除缓存，并删除证书的临时文件
+     *
+     * 进行中的调用，已经持有 WxPayService 的引用，可以继续使用
+     *
+     * @param key 配置内容对应的 key
+     */
+    public static synchronized void release(String key) {
+        Entry entry = ENTRIES.get(key);
+        if (entry == null || --entry.references > 0) {
+            return;
+        }
+        ENTRIES.remove(key);
+        entry.deleteTempFiles();
+    }
+
+    private static Entry create(WXPayClientConfig config) {
+        WxPayConfig payConfig = new WxPayConfig();
+        BeanUtil.copyProperties(config, payConfig, "keyContent");
+        payConfig.setTradeType(WxPayConstants.TradeType.JSAPI); // 设置使用 JS API 支付方式
+        List<File> tempFiles = new ArrayList<>(2);
+        if (StrUtil.isNotEmpty(config.getPrivateKeyContent())) {
+            // weixin-pay-java 存在 BUG，无法直接设置内容，所以创建临时文件来解决
+            File file = FileUtils.createTempFile(config.getPrivateKeyContent());
+            tempFiles.add(file);
+            payConfig.setPrivateKeyPath(file.getPath());
+        }
+        if (StrUtil.isNotEmpty(config.getPrivateCertContent())) {
+            // weixin-pay-java 存在 BUG，无法直接设置内容，所以创建临时文件来解决
+            File file = FileUtils.createTempFile(config.getPrivateCertContent());
+            tempFiles.add(file);
+            payConfig.setPrivateCertPath(file.getPath());
+        }
+        // 真实客户端
+        WxPayService service = new WxPayServiceImpl();
+        service.setConfig(payConfig);
+        return new Entry(service, tempFiles);
+    }
+
+    private static class Entry {
+
+        private final WxPayService service;
+        /**
+         * 证书的临时文件，移除缓存时删除
+         */
+        private final List<File> tempFiles;
+        /**
+         * 引用计数
+         */
+        private int references;
+
+        Entry(WxPayService service, List<File> tempFiles) {
+            this.service = service;
+            this.tempFiles = tempFiles;
+        }
+
+        /**
+         * V3 版本，提前加载证书、初始化 HTTP 客户端，之后证书的临时文件不再被读取，可以立即删除
+         *
+         * 只锁定当前 Entry，相同配置的调用等待初始化完成，不影响其它配置
+         *
+         * @param config 配置
+         */
+        synchronized void initApiV3HttpClient(WXPayClientConfig config) {
+            if (tempFiles.isEmpty()) { // 已经初始化，或者无需证书
+                return;
+            }
+            try {
+                service.getConfig().initApiV3HttpClient();
+                deleteTempFiles();
+            } catch (Throwable ex) {
+                // 初始化失败时（例如说，获取平台证书时网络异常），保留临时文件，在第一次请求时重新初始化
+                log.warn("[initApiV3HttpClient][appId({}) mchId({}) 提前初始化 V3 客户端失败，延迟到第一次请求]",
+                        config.getAppId(), config.getMchId(), ex);
+            }
+        }
+
+        synchronized void deleteTempFiles() {
+            tempFiles.forEach(FileUtil::del);
+            tempFiles.clear();
+        }
+
+    }
+
+}
@@ -5,10 +5,10 @@ import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.lang.Assert;
 import cn.hutool.core.map.MapUtil;
 import cn.hutool.core.util.StrUtil;
-import cn.iocoder.yudao.framework.common.util.io.FileUtils;
 import cn.iocoder.yudao.framework.common.util.object.ObjectUtils;
 import cn.iocoder.yudao.framework.pay.core.client.PayCommonResult;
 import cn.iocoder.yudao.framework.pay.core.client.dto.PayOrderNotifyRespDTO;
+import cn.iocoder.yudao.framework.pay.core.client.dto.PayOrderQueryRespDTO;
 import cn.iocoder.yudao.framework.pay.core.client.dto.PayOrderUnifiedReqDTO;
 import cn.iocoder.yudao.framework.pay.core.client.impl.AbstractPayClient;
 import cn.iocoder.yudao.framework.pay.core.enums.PayChannelEnum;
@@ -16,13 +16,13 @@ import com.github.binarywang.wxpay.bean.notify.WxPayOrderNotifyResult;
 import com.github.binarywang.wxpay.bean.order.WxPayMpOrderResult;
 import com.github.binarywang.wxpay.bean.request.WxPayUnifiedOrderRequest;
 import com.github.binarywang.wxpay.bean.request.WxPayUnifiedOrderV3Request;
+import com.github.binarywang.wxpay.bean.result.WxPayOrderQueryResult;
+import com.github.binarywang.wxpay.bean.result.WxPayOrderQueryV3Result;
 import com.github.binarywang.wxpay.bean.result.WxPayUnifiedOrderV3Result;
 import com.github.binarywang.wxpay.bean.result.enums.TradeTypeEnum;
-import com.github.binarywang.wxpay.config.WxPayConfig;
 import com.github.binarywang.wxpay.constant.WxPayConstants;
 import com.github.binarywang.wxpay.exception.WxPayException;
 import com.github.binarywang.wxpay.service.WxPayService;
-import com.github.binarywang.wxpay.service.impl.WxPayServiceImpl;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Objects;
@@ -39,49 +39,57 @@ import static cn.iocoder.yudao.framework.pay.core.client.impl.wx.WXCodeMapping.M
 @Slf4j
 public class WXPubPayClient extends AbstractPayClient<WXPayClientConfig> {
 
-    private WxPayService client;
+    /**
+     * 微信支付客户端，和创建它的配置
+     *
+     * 这里声明 volatile 修饰的原因是，刷新时直接修改指向。客户端和配置放在同一个不可变对象中发布，
+     * 避免进行中的调用，读到新的客户端、原来的配置
+     */
+    private volatile Holder holder;
 
     public WXPubPayClient(Long channelId, WXPayClientConfig config) {
         super(channelId, PayChannelEnum.WX_PUB.getCode(), config, new WXCodeMapping());
     }
 
     @Override
-    protected void doInit() {
-        WxPayConfig payConfig = new WxPayConfig();
-        BeanUtil.copyProperties(config, payConfig, "keyContent");
-        payConfig.setTradeType(WxPayConstants.TradeType.JSAPI); // 设置使用 JS API 支付方式
-//        if (StrUtil.isNotEmpty(config.getKeyContent())) {
-//            payConfig.setKeyContent(config.getKeyContent().getBytes(StandardCharsets.UTF_8));
-//        }
-        if (StrUtil.isNotEmpty(config.getPrivateKeyContent())) {
-            // weixin-pay-java 存在 BUG，无法直接设置内容，所以创建临时文件来解决
-            payConfig.setPrivateKeyPath(FileUtils.createTempFile(config.getPrivateKeyContent()).getPath());
+    protected void doInit(WXPayClientConfig config) {
+        // 从缓存中获得，配置内容相同时，复用证书和 SSL 上下文
+        Holder oldHolder = this.holder;
+        String newClientKey = WXPayServiceCache.buildKey(config);
+        if (oldHolder != null && newClientKey.equals(oldHolder.clientKey)) {
+            this.holder = new Holder(oldHolder.client, newClientKey, config);
+            return;
         }
-        if (StrUtil.isNotEmpty(config.getPrivateCertContent())) {
-            // weixin-pay-java 存在 BUG，无法直接设置内容，所以创建临时文件来解决
-            payConfig.setPrivateCertPath(FileUtils.createTempFile(config.getPrivateCertContent()).getPath());
+        this.holder = new Holder(WXPayServiceCache.acquire(newClientKey, config), newClientKey, config);
+        // 释放原来的客户端，不再被引用时删除证书的临时文件
+        if (oldHolder != null) {
+            WXPayServiceCache.release(oldHolder.clientKey);
         }
-        // 真实客户端
-        this.client = new WxPayServiceImpl();
-        client.setConfig(payConfig);
+    }
+
+    @Override
+    protected void doDestroy() {
+        // 释放客户端，不再被其它渠道引用时删除证书的临时文件
+        WXPayServiceCache.release(holder.clientKey);
     }
 
     @Override
     public PayCommonResult<WxPayMpOrderResult> doUnifiedOrder(PayOrderUnifiedReqDTO reqDTO) {
+        Holder holder = this.holder; // 整个调用使用同一组客户端和配置
         WxPayMpOrderResult response;
         try {
-            switch (config.getApiVersion()) {
+            switch (holder.config.getApiVersion()) {
                 case WXPayClientConfig.API_VERSION_V2:
-                    response = this.unifiedOrderV2(reqDTO);
+                    response = this.unifiedOrderV2(holder.client, reqDTO);
                     break;
                 case WXPayClientConfig.API_VERSION_V3:
-                    WxPayUnifiedOrderV3Result.JsapiResult responseV3 = this.unifiedOrderV3(reqDTO);
+                    WxPayUnifiedOrderV3Result.JsapiResult responseV3 = this.unifiedOrderV3(holder.client, reqDTO);
                     // 将 V3 的结果，统一转换成 V2。返回的字段是一致的
                     response = new WxPayMpOrderResult();
                     BeanUtil.copyProperties(responseV3, response, true);
                     break;
                 default:
-                    throw new IllegalArgumentException(String.format("未知的 API 版本(%s)", config.getApiVersion()));
+                    throw new IllegalArgumentException(String.format("未知的 API 版本(%s)", holder.config.getApiVersion()));
             }
         } catch (WxPayException e) {
             log.error("[unifiedOrder][request({}) 发起支付失败，原因({})]", toJsonString(reqDTO), e);
@@ -91,7 +99,7 @@ public class WXPubPayClient extends AbstractPayClient<WXPayClientConfig> {
         return PayCommonResult.build(CODE_SUCCESS, MESSAGE_SUCCESS, response, codeMapping);
     }
 
-    private WxPayMpOrderResult unifiedOrderV2(PayOrderUnifiedReqDTO reqDTO) throws WxPayException {
+    private WxPayMpOrderResult unifiedOrderV2(WxPayService client, PayOrderUnifiedReqDTO reqDTO) throws WxPayException {
         // 构建 WxPayUnifiedOrderRequest 对象
         WxPayUnifiedOrderRequest request = WxPayUnifiedOrderRequest.newBuilder()
                 .outTradeNo(reqDTO.getMerchantOrderId())
@@ -107,7 +115,7 @@ public class WXPubPayClient extends AbstractPayClient<WXPayClientConfig> {
         return client.createOrder(request);
     }
 
-    private WxPayUnifiedOrderV3Result.JsapiResult unifiedOrderV3(PayOrderUnifiedReqDTO reqDTO) throws WxPayException {
+    private WxPayUnifiedOrderV3Result.JsapiResult unifiedOrderV3(WxPayService client, PayOrderUnifiedReqDTO reqDTO) throws WxPayException {
         // 构建 WxPayUnifiedOrderRequest 对象
         WxPayUnifiedOrderV3Request request = new WxPayUnifiedOrderV3Request();
         request.setOutTradeNo(reqDTO.getMerchantOrderId());
@@ -130,9 +138,51 @@ public class WXPubPayClient extends AbstractPayClient<WXPayClientConfig> {
         return openid;
     }
 
+    @Override
+    public PayCommonResult<PayOrderQueryRespDTO> doQueryOrder(String orderExtensionNo) {
+        Holder holder = this.holder; // 整个调用使用同一组客户端和配置
+        PayOrderQueryRespDTO response;
+        try {
+            switch (holder.config.getApiVersion()) {
+                case WXPayClientConfig.API_VERSION_V2:
+                    response = this.queryOrderV2(holder.client, orderExtensionNo);
+                    break;
+                case WXPayClientConfig.API_VERSION_V3:
+                    response = this.queryOrderV3(holder.client, orderExtensionNo);
+                    break;
+                default:
+                    throw new IllegalArgumentException(String.format("未知的 API 版本(%s)", holder.config.getApiVersion()));
+            }
+        } catch (WxPayException e) {
+            log.error("[queryOrder][orderExtensionNo({}) 查询支付失败，原因({})]", orderExtensionNo, e);
+            return PayCommonResult.build(ObjectUtils.defaultIfNull(e.getErrCode(), e.getReturnCode(), "CustomErrorCode"),
+                    ObjectUtils.defaultIfNull(e.getErrCodeDes(), e.getCustomErrorMsg()),null, codeMapping);
+        }
+        return PayCommonResult.build(CODE_SUCCESS, MESSAGE_SUCCESS, response, codeMapping);
+    }
+
+    private PayOrderQueryRespDTO queryOrderV2(WxPayService client, String orderExtensionNo) throws WxPayException {
+        WxPayOrderQueryResult result = client.queryOrder(null, orderExtensionNo);
+        boolean paid = Objects.equals(result.getTradeState(), WxPayConstants.WxpayTradeStatus.SUCCESS);
+        return PayOrderQueryRespDTO.builder().orderExtensionNo(orderExtensionNo).paid(paid)
+                .channelOrderNo(result.getTransactionId()).channelUserId(result.getOpenid())
+                .successTime(paid ? DateUtil.parse(result.getTimeEnd(), "yyyyMMddHHmmss") : null)
+                .data(result.getXmlString()).build();
+    }
+
+    private PayOrderQueryRespDTO queryOrderV3(WxPayService client, String orderExtensionNo) throws WxPayException {
+        WxPayOrderQueryV3Result result = client.queryOrderV3(null, orderExtensionNo);
+        boolean paid = Objects.equals(result.getTradeState(), WxPayConstants.WxpayTradeStatus.SUCCESS);
+        return PayOrderQueryRespDTO.builder().orderExtensionNo(orderExtensionNo).paid(paid)
+                .channelOrderNo(result.getTransactionId())
+                .channelUserId(result.getPayer() != null ? result.getPayer().getOpenid() : null)
+                .successTime(paid ? DateUtil.parse(result.getSuccessTime(), "yyyy-MM-dd'T'HH:mm:ssXXX") : null)
+                .data(toJsonString(result)).build();
+    }
+
     @Override
     public PayOrderNotifyRespDTO parseOrderNotify(String data) throws WxPayException {
-        WxPayOrderNotifyResult notifyResult = client.parseOrderNotifyResult(data);
+        WxPayOrderNotifyResult notifyResult = holder.client.parseOrderNotifyResult(data);
         Assert.isTrue(Objects.equals(notifyResult.getResultCode(), "SUCCESS"), "支付结果非 SUCCESS");
         // 转换结果
         return PayOrderNotifyRespDTO.builder().orderExtensionNo(notifyResult.getOutTradeNo())
@@ -141,4 +191,30 @@ public class WXPubPayClient extends AbstractPayClient<WXPayClientConfig> {
                 .data(data).build();
     }
 
+    /**
+     * 微信支付客户端，和创建它的配置
+     */
+    private static class Holder {
+
+        /**
+         * 微信支付客户端，来自 {@link WXPayServiceCache}
+         */
+        private final WxPayService client;
+        /**
+         * {@link #client} 在 {@link WXPayServiceCache} 中的 key
+         */
+        private final String clientKey;
+        /**
+         * 支付配置
+         */
+        private final WXPayClientConfig config;
+
+        Holder(WxPayService client, String clientKey, WXPayClientConfig config) {
+            this.client = client;
+            this.clientKey = clientKey;
+            this.config = config;
+        }
+
+    }
+
 }
@@ -0,0 +1,107 @@
+package cn.iocoder.yudao.framework.pay.core.client.impl.wx;
+
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.RandomUtil;
+import cn.iocoder.yudao.framework.pay.core.client.PayClient;
+import cn.iocoder.yudao.framework.pay.core.client.impl.PayClientFactoryImpl;
+import cn.iocoder.yudao.framework.pay.core.enums.PayChannelEnum;
+import com.github.binarywang.wxpay.service.WxPayService;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link WXPayServiceCache} 的单元测试，校验引用计数和证书临时文件的生命周期
+ *
+ * @author 芋道源码
+ */
+public class WXPayServiceCacheTest {
+
+    @Test
+    public void testAcquireAndRelease() {
+        // 准备参数
+        WXPayClientConfig config = buildConfig();
+        String key = WXPayServiceCache.buildKey(config);
+
+        // 调用：相同配置获得两次，复用同一个 WxPayService
+        WxPayService service = WXPayServiceCache.acquire(key, config);
+        assertSame(service, WXPayServiceCache.acquire(key, config));
+        List<File> tempFiles = getTempFiles(service);
+        tempFiles.forEach(file -> assertTrue(file.exists(), file.getPath()));
+        // 调用：释放一次，仍然被引用，临时文件保留
+        WXPayServiceCache.release(key);
+        tempFiles.forEach(file -> assertTrue(file.exists(), file.getPath()));
+        // 调用：释放最后一次引用，删除临时文件
+        WXPayServiceCache.release(key);
+        tempFiles.forEach(file -> assertFalse(file.exists(), file.getPath()));
+
+        // 调用：多余的释放，直接忽略
+        WXPayServiceCache.release(key);
+        // 断言：再次获得时，重新创建
+        WxPayService newService = WXPayServiceCache.acquire(key, config);
+        assertNotSame(service, newService);
+        getTempFiles(newService).forEach(file -> assertTrue(file.exists(), file.getPath()));
+        WXPayServiceCache.release(key);
+    }
+
+    @Test
+    public void testRemovePayClient() {
+        // 准备参数：两个渠道使用相同的配置，共享同一个 WxPayService
+        WXPayClientConfig config = buildConfig();
+        PayClientFactoryImpl payClientFactory = new PayClientFactoryImpl();
+        Long channelId01 = RandomUtil.randomLong();
+        Long channelId02 = channelId01 + 1;
+        payClientFactory.createOrUpdatePayClient(channelId01, PayChannelEnum.WX_PUB.getCode(), config);
+        payClientFactory.createOrUpdatePayClient(channelId02, PayChannelEnum.WX_PUB.getCode(), config);
+        List<File> tempFiles = getTempFiles(config);
+
+        // 调用：销毁客户端多次，只释放一次引用
+        PayClient client01 = payClientFactory.getPayClient(channelId01);
+        ((WXPubPayClient) client01).destroy();
+        payClientFactory.removePayClient(channelId01);
+        // 断言：仍然被另一个渠道引用，临时文件保留
+        tempFiles.forEach(file -> assertTrue(file.exists(), file.getPath()));
+
+        // 调用：移除最后一个渠道
+        payClientFactory.removePayClient(channelId02);
+        // 断言：删除临时文件
+        tempFiles.forEach(file -> assertFalse(file.exists(), file.getPath()));
+    }
+
+    private static WXPayClientConfig buildConfig() {
+        WXPayClientConfig config = new WXPayClientConfig();
+        config.setAppId("wx" + IdUtil.simpleUUID());
+        config.setMchId(RandomUtil.randomNumbers(10));
+        config.setApiVersion(WXPayClientConfig.API_VERSION_V2);
+        config.setMchKey(IdUtil.simpleUUID());
+        config.setPrivateKeyContent(IdUtil.simpleUUID());
+        config.setPrivateCertContent(IdUtil.simpleUUID());
+        return config;
+    }
+
+    /**
+     * 获得配置对应的 WxPayService 的证书临时文件。临时获得一次引用，不影响引用计数
+     *
+     * @param config 配置
+     * @return 临时文件数组
+     */
+    private static List<File> getTempFiles(WXPayClientConfig config) {
+        String key = WXPayServiceCache.buildKey(config);
+        List<File> tempFiles = getTempFiles(WXPayServiceCache.acquire(key, config));
+        WXPayServiceCache.release(key);
+        return tempFiles;
+    }
+
+    private static List<File> getTempFiles(WxPayService service) {
+        return Arrays.asList(new File(service.getConfig().getPrivateKeyPath()),
+                new File(service.getConfig().getPrivateCertPath()));
+    }
+
+}
@@ -1,13 +1,17 @@
 package cn.iocoder.yudao.framework.excel.core.util;
 
 import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.write.metadata.WriteSheet;
 import com.alibaba.excel.write.style.column.LongestMatchColumnWidthStyleStrategy;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.net.URLEncoder;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Excel 工具类
@@ -16,6 +20,13 @@ import java.util.List;
  */
 public class ExcelUtils {
 
+    /**
+     * 每个 sheet 的默认最大行数
+     *
+     * xlsx 单个 sheet 最多 1048576 行，预留一些余量
+     */
+    public static final int SHEET_ROW_COUNT_DEFAULT = 1000000;
+
     /**
      * 将列表以 Excel 响应给前端
      *
@@ -39,10 +50,112 @@ public class ExcelUtils {
         response.setContentType("application/vnd.ms-excel;charset=UTF-8");
     }
 
+    /**
+     * 将数据分批以 Excel 响应给前端，适合大数据量的导出
+     *
+     * @see #write(HttpServletResponse, String, String, Class, int, Consumer)
+     */
+    public static <T> void write(HttpServletResponse response, String filename, String sheetName,
+                                 Class<T> head, Consumer<Consumer<List<T>>> dataProducer) throws IOException {
+        write(response, filename, sheetName, head, SHEET_ROW_COUNT_DEFAULT, dataProducer);
+    }
+
+    /**
+     * 将数据分批以 Excel 响应给前端，适合大数据量的导出
+     *
+     * 和 {@link #write(HttpServletResponse, String, String, Class, List)} 不同，不需要一次性加载全部数据：
+     * dataProducer 每产生一批数据，就直接写入响应，内存中只保留当前这一批。
+     * 超过 sheetRowCount 行时，自动切换到新的 sheet，名字为 sheetName + 序号
+     *
+     * @param response 响应
+     * @param filename 文件名
+     * @param sheetName Excel sheet 名
+     * @param head Excel head 头
+     * @param sheetRowCount 每个 sheet 的最大行数
+     * @param dataProducer 数据的生产者，通过传入的 Consumer 分批写入数据
+     * @param <T> 泛型，保证 head 和 data 类型的一致性
+     * @throws IOException 写入失败的情况
+     */
+    public static <T> void write(HttpServletResponse response, String filename, String sheetName,
+                                 Class<T> head, int sheetRowCount,
+                                 Consumer<Consumer<List<T>>> dataProducer) throws IOException {
+        // 设置 header 和 contentType。需要写在最前面，因为分批写入时，响应可能已经提交
+        response.addHeader("Content-Disposition", "attachment;filename=" + URLEncoder.encode(filename, "UTF-8"));
+        response.setContentType("application/vnd.ms-excel;charset=UTF-8");
+        // 输出 Excel
+        ExcelWriter excelWriter = EasyExcel.write(response.getOutputStream(), head)
+                .autoCloseStream(false) // 不要自动关闭，交给 Servlet 自己处理
+                .registerWriteHandler(new LongestMatchColumnWidthStyleStrategy()) // 基于 column 长度，自动适配。最大 255 宽度
+                .build();
+        try {
+            SheetRollingWriter<T> sheetWriter = new SheetRollingWriter<>(excelWriter, sheetName, sheetRowCount);
+            dataProducer.accept(sheetWriter);
+            // 没有任何数据时，也输出表头
+            if (sheetWriter.sheet == null) {
+                sheetWriter.accept(Collections.emptyList());
+            }
+        } finally {
+            excelWriter.finish();
+        }
+    }
+
     public static <T> List<T> read(MultipartFile file, Class<T> head) throws IOException {
        return EasyExcel.read(file.getInputStream(), head, null)
                 .autoCloseStream(false)  // 不要自动关闭，交给 Servlet 自己处理
                 .doReadAllSync();
     }
 
+    /**
+     * 按照最大行数，自动切换 sheet 的写入器
+     */
+    private static class SheetRollingWriter<T> implements Consumer<List<T>> {
+
+        private final ExcelWriter excelWriter;
+        private final String sheetName;
+        private final int sheetRowCount;
+
+        /**
+         * 当前的 sheet
+         */
+        private WriteSheet sheet;
+        /**
+         * 当前的 sheet 序号，从 0 开始
+         */
+        private int sheetNo = -1;
+        /**
+         * 当前的 sheet 已写入的行数
+         */
+        private int rowCount;
+
+        private SheetRollingWriter(ExcelWriter excelWriter, String sheetName, int sheetRowCount) {
+            this.excelWriter = excelWriter;
+            this.sheetName = sheetName;
+            this.sheetRowCount = sheetRowCount;
+        }
+
+        @Override
+        public void accept(List<T> data) {
+            if (sheet == null) {
+                nextSheet();
+            }
+            int from = 0;
+            do {
+                if (rowCount >= sheetRowCount) {
+                    nextSheet();
+                }
+                int to = Math.min(data.size(), from + sheetRowCount - rowCount);
+                excelWriter.write(data.subList(from, to), sheet);
+                rowCount += to - from;
+                from = to;
+            } while (from < data.size());
+        }
+
+        private void nextSheet() {
+            sheetNo++;
+            sheet = EasyExcel.writerSheet(sheetNo, sheetNo == 0 ? sheetName : sheetName + (sheetNo + 1)).build();
+            rowCount = 0;
+        }
+
+    }
+
 }
@@ -0,0 +1,348 @@
+package cn.iocoder.yudao.framework.mq.config;
+
+import cn.hutool.core.util.ObjectUtil;
+import cn.iocoder.yudao.framework.mq.core.stream.StreamMessagePriorityEnum;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 消息队列配置属性
+ *
+ * @author 芋道源码
+ */
+@ConfigurationProperties(prefix = "yudao.mq")
+@Validated
+@Data
+public class MQProperties {
+
+    /**
+     * 消息的传输层
+     */
+    @NotNull(message = "消息的传输层不能为空")
+    private Transport transport = Transport.REDIS;
+    /**
+     * 本地传输层的配置，仅 {@link Transport#LOCAL} 时生效
+     */
+    @NotNull(message = "本地传输层的配置不能为空")
+    @Valid
+    private Local local = new Local();
+
+    /**
+     * Redis Stream 消费者的默认配置
+     */
+    @NotNull(message = "Redis Stream 消费者的默认配置不能为空")
+    @Valid
+    private StreamConsumer stream = new StreamConsumer(1, 10, Duration.ofSeconds(2));
+    /**
+     * 各个 Redis Stream 消费者的配置，key 为 Stream Key
+     *
+     * 未设置的属性，使用 {@link #stream} 默认配置。例如说：
+     * yudao.mq.streams.[system.sms.send].consumer-count = 4
+     */
+    @Valid
+    private Map<String, StreamConsumer> streams = new HashMap<>();
+    /**
+     * Redis Stream 优先级通道的配置
+     */
+    @NotNull(message = "Redis Stream 优先级配置不能为空")
+    @Valid
+    private StreamPriority streamPriority = new StreamPriority();
+    /**
+     * Redis Stream 未 ack 消息的重新投递配置
+     */
+    @NotNull(message = "Redis Stream 重新投递配置不能为空")
+    @Valid
+    private StreamReclaim streamReclaim = new StreamReclaim();
+    /**
+     * Redis Stream 消息的去重配置
+     */
+    @NotNull(message = "Redis Stream 去重配置不能为空")
+    @Valid
+    private StreamDedup streamDedup = new StreamDedup();
+    /**
+     * Redis Stream 延迟消息的配置
+     */
+    @NotNull(message = "Redis Stream 延迟消息配置不能为空")
+    @Valid
+    private StreamDelay streamDelay = new StreamDelay();
+    /**
+     * 事务 Outbox 消息的投递配置
+     */
+    @NotNull(message = "Outbox 投递配置不能为空")
+    @Valid
+    private Outbox outbox = new Outbox();
+
+    /**
+     * 获得指定 Stream Key 的消费者配置，未设置的属性使用默认配置
+     *
+     * @param streamKey Stream Key
+     * @return 消费者配置
+     */
+    public StreamConsumer getStreamConsumer(String streamKey) {
+        StreamConsumer consumer = streams.get(streamKey);
+        if (consumer == null) {
+            return stream;
+        }
+        return new StreamConsumer(ObjectUtil.defaultIfNull(consumer.getConsumerCount(), stream.getConsumerCount()),
+                ObjectUtil.defaultIfNull(consumer.getBatchSize(), stream.getBatchSize()),
+                ObjectUtil.defaultIfNull(consumer.getPollTimeout(), stream.getPollTimeout()));
+    }
+
+    /**
+     * 消息的传输层
+     */
+    public enum Transport {
+
+        /**
+         * 基于 Redis Pub/Sub、Stream 传输，默认
+         */
+        REDIS,
+        /**
+         * 基于 JVM 内的环形队列传输，适合单机部署、单元测试。消息不持久化，消费失败不会重新投递
+         */
+        LOCAL
+
+    }
+
+    /**
+     * 本地传输层的配置
+     */
+    @Data
+    public static class Local {
+
+        /**
+         * 每个消费者的队列大小，会向上取整到 2 的幂次。队列已满时，发送方等待
+         */
+        @NotNull(message = "队列大小不能为空")
+        @Min(value = 2, message = "队列大小不能小于 2")
+        private Integer bufferSize = 65536;
+
+    }
+
+    /**
+     * Redis Stream 消费者的配置
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StreamConsumer {
+
+        /**
+         * 消费者数量，即并发消费的线程数
+         *
+         * 同一个消费者分组内的多个消费者，由 Redis 分配消息，互不重复
+         */
+        @Min(value = 1, message = "消费者数量不能小于 1")
+        private Integer consumerCount;
+        /**
+         * 每次拉取的最大消息数量
+         */
+        @Min(value = 1, message = "每次拉取的最大消息数量不能小于 1")
+        private Integer batchSize;
+        /**
+         * 拉取消息的阻塞超时时间
+         */
+        private Duration pollTimeout;
+
+    }
+
+    /**
+     * Redis Stream 优先级通道的配置
+     *
+     * 仅对 {@link cn.iocoder.yudao.framework.mq.core.stream.StreamMessage#isPriorityEnabled()} 为 true 的消息生效
+     */
+    @Data
+    public static class StreamPriority {
+
+        /**
+         * 各个优先级通道的权重，即每一轮轮询时，从该通道最多拉取的消息数量
+         *
+         * 高优先级的消息，最多等待一轮，即其它通道权重之和条消息的消费时间
+         */
+        @NotNull(message = "优先级通道的权重不能为空")
+        private Map<StreamMessagePriorityEnum, Integer> weights = new EnumMap<>(StreamMessagePriorityEnum.class);
+
+        public StreamPriority() {
+            weights.put(StreamMessagePriorityEnum.HIGH, 8);
+            weights.put(StreamMessagePriorityEnum.NORMAL, 2);
+            weights.put(StreamMessagePriorityEnum.LOW, 1);
+        }
+
+        /**
+         * 获得各个通道的权重，按照优先级从高到低。未设置权重的通道，权重为 1
+         *
+         * @param streamKey 消息的 Stream Key
+         * @return 权重，key 为通道的 Stream Key
+         */
+        public Map<String, Integer> getLaneWeights(String streamKey) {
+            Map<String, Integer> laneWeights = new LinkedHashMap<>();
+            for (StreamMessagePriorityEnum priority : StreamMessagePriorityEnum.values()) {
+                laneWeights.put(priority.buildStreamKey(streamKey), Math.max(weights.getOrDefault(priority, 1), 1));
+            }
+            return laneWeights;
+        }
+
+    }
+
+    /**
+     * Redis Stream 未 ack 消息的重新投递配置
+     *
+     * 消费失败的消息，会一直保留在消费者分组的 Pending 列表中。后台定时扫描，认领空闲的消息，并按照指数退避重新投递；
+     * 超过最大投递次数后，转移到死信 Stream 中，即 Stream Key + {@code .dead-letter}
+     */
+    @Data
+    public static class StreamReclaim {
+
+        /**
+         * 是否开启
+         */
+        private boolean enable = true;
+        /**
+         * 扫描的间隔
+         */
+        @NotNull(message = "扫描的间隔不能为空")
+        private Duration interval = Duration.ofSeconds(30);
+        /**
+         * 每次扫描的最大消息数量
+         */
+        @NotNull(message = "每次扫描的最大消息数量不能为空")
+        @Min(value = 1, message = "每次扫描的最大消息数量不能小于 1")
+        private Integer batchSize = 100;
+        /**
+         * 第一次重新投递前，消息的最小空闲时间。之后每次翻倍
+         */
+        @NotNull(message = "重新投递的最小空闲时间不能为空")
+        private Duration retryDelay = Duration.ofMinutes(1);
+        /**
+         * 重新投递前，消息的最大空闲时间，即退避的上限
+         */
+        @NotNull(message = "重新投递的最大空闲时间不能为空")
+        private Duration retryMaxDelay = Duration.ofMinutes(30);
+        /**
+         * 最大投递次数。超过后，转移到死信 Stream
+         */
+        @NotNull(message = "最大投递次数不能为空")
+        @Min(value = 1, message = "最大投递次数不能小于 1")
+        private Integer maxDeliveryCount = 16;
+
+    }
+
+    /**
+     * Redis Stream 消息的去重配置
+     *
+     * 消费前，按照消息编号去重，避免重复投递的消息被重复消费。
+     * 本地使用滑动窗口的布隆过滤器，Redis 使用按照时间分桶的 SET，只有可能重复的消息才需要查询 Redis
+     */
+    @Data
+    public static class StreamDedup {
+
+        /**
+         * 是否开启
+         */
+        private boolean enable = true;
+        /**
+         * 消息编号在 Redis 的保留时间，需要大于消息可能被重复投递的时间范围
+         */
+        @NotNull(message = "消息编号的保留时间不能为空")
+        private Duration ttl = Duration.ofDays(1);
+        /**
+         * 消息编号批量写入 Redis 的间隔
+         */
+        @NotNull(message = "消息编号写入 Redis 的间隔不能为空")
+        private Duration flushInterval = Duration.ofSeconds(1);
+        /**
+         * 本地布隆过滤器的窗口。超过 1 ~ 2 个窗口的消息编号，只能通过 Redis 判断
+         */
+        @NotNull(message = "本地布隆过滤器的窗口不能为空")
+        private Duration localWindow = Duration.ofMinutes(10);
+        /**
+         * 本地布隆过滤器，每个窗口预计的消息数量
+         */
+        @NotNull(message = "本地布隆过滤器的预计消息数量不能为空")
+        @Min(value = 1, message = "本地布隆过滤器的预计消息数量不能小于 1")
+        private Integer localExpectedInsertions = 100000;
+        /**
+         * 本地布隆过滤器的误判率。误判时，会查询 Redis 确认，不会丢失消息
+         */
+        @NotNull(message = "本地布隆过滤器的误判率不能为空")
+        private Double localFpp = 0.001;
+
+    }
+
+    /**
+     * Redis Stream 延迟消息的配置
+     *
+     * 延迟消息保存在 Redis ZSET 中，到期后由搬运线程批量投递到目标 Stream
+     */
+    @Data
+    public static class StreamDelay {
+
+        /**
+         * 是否开启
+         */
+        private boolean enable = true;
+        /**
+         * 搬运线程的最大休眠时间。本节点发送的消息会提前唤醒，其它节点发送的消息，最多延迟该时间才被发现
+         */
+        @NotNull(message = "搬运线程的最大休眠时间不能为空")
+        private Duration interval = Duration.ofMillis(500);
+        /**
+         * 每次搬运的最大消息数量
+         */
+        @NotNull(message = "每次搬运的最大消息数量不能为空")
+        @Min(value = 1, message = "每次搬运的最大消息数量不能小于 1")
+        private Integer batchSize = 100;
+        /**
+         * 认领消息的租约时间。认领后超过该时间仍未投递成功，会被重新认领投递
+         */
+        @NotNull(message = "认领消息的租约时间不能为空")
+        private Duration lease = Duration.ofSeconds(30);
+
+    }
+
+    /**
+     * 事务 Outbox 消息的投递配置
+     *
+     * 事务提交后，Outbox 消息会被立即异步投递；扫描只负责兜底，投递超时未删除的消息
+     */
+    @Data
+    public static class Outbox {
+
+        /**
+         * 扫描的间隔
+         */
+        @NotNull(message = "扫描的间隔不能为空")
+        private Duration interval = Duration.ofSeconds(5);
+        /**
+         * 消息创建后，超过该时间仍未投递，才会被扫描投递，避免和事务提交后的异步投递重复
+         */
+        @NotNull(message = "扫描的超时时间不能为空")
+        private Duration timeout = Duration.ofSeconds(30);
+        /**
+         * 每次扫描的最大消息数量
+         */
+        @NotNull(message = "每次扫描的最大消息数量不能为空")
+        @Min(value = 1, message = "每次扫描的最大消息数量不能小于 1")
+        private Integer batchSize = 100;
+        /**
+         * 异步投递的队列容量。队列已满时，由扫描投递
+         */
+        @NotNull(message = "异步投递的队列容量不能为空")
+        @Min(value = 1, message = "异步投递的队列容量不能小于 1")
+        private Integer queueCapacity = 10000;
+
+    }
+
+}
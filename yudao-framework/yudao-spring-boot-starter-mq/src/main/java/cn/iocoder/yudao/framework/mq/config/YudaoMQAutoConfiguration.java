@@ -1,33 +1,63 @@
 package cn.iocoder.yudao.framework.mq.config;
 
 import cn.hutool.system.SystemUtil;
+import cn.iocoder.yudao.framework.mq.core.outbox.MessageOutbox;
+import cn.iocoder.yudao.framework.mq.core.outbox.MessageOutboxFrameworkService;
+import cn.iocoder.yudao.framework.mq.core.outbox.MessageOutboxRelay;
 import cn.iocoder.yudao.framework.mq.core.pubsub.AbstractChannelMessageListener;
+import cn.iocoder.yudao.framework.mq.core.stream.AbstractStreamMessageBatchListener;
 import cn.iocoder.yudao.framework.mq.core.stream.AbstractStreamMessageListener;
+import cn.iocoder.yudao.framework.mq.core.stream.StreamMessageBatchListenerContainer;
+import cn.iocoder.yudao.framework.mq.core.stream.StreamMessageDeduplicator;
+import cn.iocoder.yudao.framework.mq.core.stream.StreamMessageDelayQueue;
+import cn.iocoder.yudao.framework.mq.core.stream.StreamMessageListenerContainerGroup;
+import cn.iocoder.yudao.framework.mq.core.stream.StreamMessagePendingReclaimer;
+import cn.iocoder.yudao.framework.mq.core.stream.StreamMessagePriorityListenerContainer;
+import cn.iocoder.yudao.framework.mq.core.transport.MessageTransport;
+import cn.iocoder.yudao.framework.mq.core.transport.local.LocalMessageTransport;
+import cn.iocoder.yudao.framework.mq.core.transport.redis.RedisMessageTransport;
 import cn.iocoder.yudao.framework.redis.config.YudaoRedisAutoConfiguration;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
-import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.Lifecycle;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.stream.Consumer;
 import org.springframework.data.redis.connection.stream.ObjectRecord;
 import org.springframework.data.redis.connection.stream.ReadOffset;
 import org.springframework.data.redis.connection.stream.StreamOffset;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.stream.StreamMessageListenerContainer;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * 消息队列配置类
  *
+ * 通过 yudao.mq.transport 配置项，选择消息的传输层：
+ * 1. redis：默认，使用 Redis Pub/Sub、Stream 的容器消费
+ * 2. local：使用 {@link LocalMessageTransport} 在 JVM 内传输、消费，不创建 Redis 相关的容器
+ *
  * @author 芋道源码
  */
 @Configuration
 @AutoConfigureAfter(YudaoRedisAutoConfiguration.class)
+@EnableConfigurationProperties(MQProperties.class)
 @Slf4j
 public class YudaoMQAutoConfiguration {
 
@@ -35,6 +65,7 @@ public class YudaoMQAutoConfiguration {
      * 创建 Redis Pub/Sub 广播消费的容器
      */
     @Bean
+    @ConditionalOnProperty(prefix = "yudao.mq", value = "transport", havingValue = "redis", matchIfMissing = true)
     public RedisMessageListenerContainer redisMessageListenerContainer(
             RedisConnectionFactory factory, List<AbstractChannelMessageListener<?>> listeners) {
         // 创建 RedisMessageListenerContainer 对象
@@ -53,44 +84,318 @@ public class YudaoMQAutoConfiguration {
     /**
      * 创建 Redis Stream 集群消费的容器
      *
+     * 每个 listener 使用独立的 {@link StreamMessageListenerContainer} 容器，拥有独立的线程，并按照 {@link MQProperties} 配置并发。
+     * 这样，某个 Stream 的慢消费（例如说短信发送）不会影响其它 Stream，各个 Stream 也可以独立扩展消费能力
+     *
      * Redis Stream 的 xreadgroup 命令：https://www.geek-book.com/src/docs/redis/redis/redis.io/commands/xreadgroup.html
      */
     @Bean(initMethod = "start", destroyMethod = "stop")
-    public StreamMessageListenerContainer<String, ObjectRecord<String, String>> redisStreamMessageListenerContainer(
-            RedisTemplate<String, Object> redisTemplate, List<AbstractStreamMessageListener<?>> listeners) {
-        // 第一步，创建 StreamMessageListenerContainer 容器
-        // 创建 options 配置
-        StreamMessageListenerContainer.StreamMessageListenerContainerOptions<String, ObjectRecord<String, String>> containerOptions =
-                StreamMessageListenerContainer.StreamMessageListenerContainerOptions.builder()
-                        .batchSize(10) // 一次性最多拉取多少条消息
-                        .targetType(String.class) // 目标类型。统一使用 String，通过自己封装的 AbstractStreamMessageListener 去反序列化
-                        .build();
-        // 创建 container 对象
-        StreamMessageListenerContainer<String, ObjectRecord<String, String>> container = StreamMessageListenerContainer.create(
-                redisTemplate.getRequiredConnectionFactory(), containerOptions);
-
-        // 第二步，注册监听器，消费对应的 Stream 主题
+    @ConditionalOnProperty(prefix = "yudao.mq", value = "transport", havingValue = "redis", matchIfMissing = true)
+    public StreamMessageListenerContainerGroup redisStreamMessageListenerContainerGroup(
+            MQProperties mqProperties, RedisTemplate<String, Object> redisTemplate,
+            List<AbstractStreamMessageListener<?>> listeners,
+            ObjectProvider<AbstractStreamMessageBatchListener<?>> batchListeners,
+            ObjectProvider<StreamMessageDeduplicator> deduplicatorProvider) {
         String consumerName = buildConsumerName();
-//        String consumerName = "110";
+        StringRedisTemplate stringRedisTemplate = new StringRedisTemplate(redisTemplate.getRequiredConnectionFactory());
+        StreamMessageDeduplicator deduplicator = deduplicatorProvider.getIfAvailable();
+        List<Lifecycle> containers = new ArrayList<>();
+        // 逐条消费的 listener
         listeners.forEach(listener -> {
-            // 创建 listener 对应的消费者分组
-            try {
-                redisTemplate.opsForStream().createGroup(listener.getStreamKey(), listener.getGroup());
-            } catch (Exception ignore) {}
-            // 设置 listener 对应的 redisTemplate
+            MQProperties.StreamConsumer consumerProperties = mqProperties.getStreamConsumer(listener.getStreamKey());
+            // 创建 listener 对应的消费者分组。开启优先级时，每个通道都需要创建
+            listener.getStreamKeys().forEach(streamKey -> createGroup(redisTemplate, streamKey, listener.getGroup()));
+            // 设置 listener 对应的 redisTemplate、deduplicator
+            listener.setRedisTemplate(redisTemplate);
+            listener.setDeduplicator(deduplicator);
+            // 开启优先级时，使用 StreamMessagePriorityListenerContainer 按照权重轮询各个通道
+            if (listener.isPriorityEnabled()) {
+                containers.add(new StreamMessagePriorityListenerContainer(stringRedisTemplate, listener.getStreamKey(),
+                        mqProperties.getStreamPriority().getLaneWeights(listener.getStreamKey()),
+                        buildConsumers(listener.getGroup(), consumerName, consumerProperties.getConsumerCount()),
+                        new SimpleAsyncTaskExecutor("redis-stream-" + listener.getStreamKey() + "-"),
+                        records -> records.forEach(record -> {
+                            // 逐条消费，某条消息的失败不影响其它消息
+                            try {
+                                listener.consume(record, false);
+                            } catch (Throwable ex) {
+                                log.error("[redisStreamMessageListenerContainerGroup][Stream({}) 消息({}) 消费发生异常]",
+                                        record.getStream(), record.getId(), ex);
+                            }
+                        }), consumerProperties.getPollTimeout()));
+                log.info("[redisStreamMessageListenerContainerGroup][注册 Stream({}) 对应的优先级监听器({})，消费者数量({})]",
+                        listener.getStreamKey(), listener.getClass().getName(), consumerProperties.getConsumerCount());
+                return;
+            }
+
+            // 第一步，创建 listener 独立的 StreamMessageListenerContainer 容器
+            // 创建 options 配置
+            StreamMessageListenerContainer.StreamMessageListenerContainerOptions<String, ObjectRecord<String, String>> containerOptions =
+                    StreamMessageListenerContainer.StreamMessageListenerContainerOptions.builder()
+                            .batchSize(consumerProperties.getBatchSize()) // 一次性最多拉取多少条消息
+                            .pollTimeout(consumerProperties.getPollTimeout()) // 拉取消息的阻塞超时时间
+                            .executor(new SimpleAsyncTaskExecutor("redis-stream-" + listener.getStreamKey() + "-")) // 独立的线程
+                            .targetType(String.class) // 目标类型。统一使用 String，通过自己封装的 AbstractStreamMessageListener 去反序列化
+                            .build();
+            // 创建 container 对象
+            StreamMessageListenerContainer<String, ObjectRecord<String, String>> container = StreamMessageListenerContainer.create(
+                    redisTemplate.getRequiredConnectionFactory(), containerOptions);
+
+            // 第二步，注册 consumerCount 个消费者，消费对应的 Stream 主题。每个消费者占用一个线程，同一分组内由 Redis 分配消息
+            for (int i = 0; i < consumerProperties.getConsumerCount(); i++) {
+                // 创建 Consumer 对象
+                Consumer consumer = Consumer.from(listener.getGroup(), consumerName + "#" + i);
+                // 设置 Consumer 消费进度，以最小消费进度为准
+                StreamOffset<String> streamOffset = StreamOffset.create(listener.getStreamKey(), ReadOffset.lastConsumed());
+                // 设置 Consumer 监听
+                StreamMessageListenerContainer.StreamReadRequestBuilder<String> builder = StreamMessageListenerContainer.StreamReadRequest
+                        .builder(streamOffset).consumer(consumer)
+                        .autoAcknowledge(false) // 不自动 ack
+                        .cancelOnError(throwable -> false); // 默认配置，发生异常就取消消费，显然不符合预期；因此，我们设置为 false
+                container.register(builder.build(), listener);
+            }
+            containers.add(container);
+            log.info("[redisStreamMessageListenerContainerGroup][注册 Stream({}) 对应的监听器({})，消费者数量({})]",
+                    listener.getStreamKey(), listener.getClass().getName(), consumerProperties.getConsumerCount());
+        });
+        // 批量消费的 listener
+        batchListeners.orderedStream().forEach(listener -> {
+            MQProperties.StreamConsumer consumerProperties = mqProperties.getStreamConsumer(listener.getStreamKey());
+            // 创建 listener 对应的消费者分组。开启优先级时，每个通道都需要创建
+            listener.getStreamKeys().forEach(streamKey -> createGroup(redisTemplate, streamKey, listener.getGroup()));
+            // 设置 listener 对应的 redisTemplate、deduplicator
             listener.setRedisTemplate(redisTemplate);
-            // 创建 Consumer 对象
-            Consumer consumer = Consumer.from(listener.getGroup(), consumerName);
-            // 设置 Consumer 消费进度，以最小消费进度为准
-            StreamOffset<String> streamOffset = StreamOffset.create(listener.getStreamKey(), ReadOffset.lastConsumed());
-            // 设置 Consumer 监听
-            StreamMessageListenerContainer.StreamReadRequestBuilder<String> builder = StreamMessageListenerContainer.StreamReadRequest
-                    .builder(streamOffset).consumer(consumer)
-                    .autoAcknowledge(false) // 不自动 ack
-                    .cancelOnError(throwable -> false); // 默认配置，发生异常就取消消费，显然不符合预期；因此，我们设置为 false
-            container.register(builder.build(), listener);
+            listener.setDeduplicator(deduplicator);
+            List<Consumer> consumers = buildConsumers(listener.getGroup(), consumerName, consumerProperties.getConsumerCount());
+            // 开启优先级时，使用 StreamMessagePriorityListenerContainer 按照权重轮询各个通道
+            if (listener.isPriorityEnabled()) {
+                containers.add(new StreamMessagePriorityListenerContainer(stringRedisTemplate, listener.getStreamKey(),
+                        mqProperties.getStreamPriority().getLaneWeights(listener.getStreamKey()), consumers,
+                        new SimpleAsyncTaskExecutor("redis-stream-" + listener.getStreamKey() + "-"),
+                        listener::consume, consumerProperties.getPollTimeout()));
+                log.info("[redisStreamMessageListenerContainerGroup][注册 Stream({}) 对应的优先级批量监听器({})，消费者数量({})]",
+                        listener.getStreamKey(), listener.getClass().getName(), consumerProperties.getConsumerCount());
+                return;
+            }
+            // 创建 listener 独立的 StreamMessageBatchListenerContainer 容器，每个消费者占用一个线程
+            containers.add(new StreamMessageBatchListenerContainer(stringRedisTemplate, listener, consumers,
+                    new SimpleAsyncTaskExecutor("redis-stream-" + listener.getStreamKey() + "-"),
+                    consumerProperties.getBatchSize(), consumerProperties.getPollTimeout()));
+            log.info("[redisStreamMessageListenerContainerGroup][注册 Stream({}) 对应的批量监听器({})，消费者数量({})]",
+                    listener.getStreamKey(), listener.getClass().getName(), consumerProperties.getConsumerCount());
         });
-        return container;
+        return new StreamMessageListenerContainerGroup(containers);
+    }
+
+    /**
+     * 创建基于 Redis 的消息传输层
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "yudao.mq", value = "transport", havingValue = "redis", matchIfMissing = true)
+    public MessageTransport redisMessageTransport(RedisTemplate<String, Object> redisTemplate) {
+        return new RedisMessageTransport(new StringRedisTemplate(redisTemplate.getRequiredConnectionFactory()));
+    }
+
+    /**
+     * 创建基于 JVM 内环形队列的消息传输层，并注册所有的监听器
+     *
+     * 每个 Stream 监听器按照 {@link MQProperties#getStreamConsumer(String)} 的消费者数量并发消费
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(prefix = "yudao.mq", value = "transport", havingValue = "local")
+    public MessageTransport localMessageTransport(MQProperties mqProperties,
+                                                  ObjectProvider<AbstractChannelMessageListener<?>> channelListeners,
+                                                  ObjectProvider<AbstractStreamMessageListener<?>> listeners,
+                                                  ObjectProvider<AbstractStreamMessageBatchListener<?>> batchListeners) {
+        LocalMessageTransport transport = new LocalMessageTransport(mqProperties.getLocal().getBufferSize());
+        channelListeners.orderedStream().forEach(listener -> {
+            transport.registerChannelListener(listener);
+            log.info("[localMessageTransport][注册 Channel({}) 对应的监听器({})]",
+                    listener.getChannel(), listener.getClass().getName());
+        });
+        listeners.orderedStream().forEach(listener -> {
+            MQProperties.StreamConsumer consumerProperties = mqProperties.getStreamConsumer(listener.getStreamKey());
+            transport.registerStreamListener(listener, consumerProperties.getConsumerCount());
+            log.info("[localMessageTransport][注册 Stream({}) 对应的监听器({})，消费者数量({})]",
+                    listener.getStreamKey(), listener.getClass().getName(), consumerProperties.getConsumerCount());
+        });
+        batchListeners.orderedStream().forEach(listener -> {
+            MQProperties.StreamConsumer consumerProperties = mqProperties.getStreamConsumer(listener.getStreamKey());
+            transport.registerStreamBatchListener(listener, consumerProperties.getConsumerCount(),
+                    consumerProperties.getBatchSize());
+            log.info("[localMessageTransport][注册 Stream({}) 对应的批量监听器({})，消费者数量({})]",
+                    listener.getStreamKey(), listener.getClass().getName(), consumerProperties.getConsumerCount());
+        });
+        return transport;
+    }
+
+    /**
+     * 创建事务 Outbox 消息的投递器
+     *
+     * 依赖 {@link MessageOutboxFrameworkService} 读写 Outbox 表，由引入 DB 的项目实现
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnBean(MessageOutboxFrameworkService.class)
+    public MessageOutboxRelay messageOutboxRelay(MQProperties mqProperties, MessageTransport messageTransport,
+                                                 MessageOutboxFrameworkService messageOutboxFrameworkService) {
+        return new MessageOutboxRelay(messageTransport, messageOutboxFrameworkService, mqProperties.getOutbox());
+    }
+
+    /**
+     * 创建事务 Outbox 消息的发送器
+     */
+    @Bean
+    @ConditionalOnBean(MessageOutboxRelay.class)
+    public MessageOutbox messageOutbox(MessageOutboxFrameworkService messageOutboxFrameworkService,
+                                       MessageOutboxRelay messageOutboxRelay) {
+        return new MessageOutbox(messageOutboxFrameworkService, messageOutboxRelay);
+    }
+
+    /**
+     * Redis Stream 消息的去重、重新投递、延迟投递，仅 Redis 传输层时生效
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "yudao.mq", value = "transport", havingValue = "redis", matchIfMissing = true)
+    static class StreamMessageReliabilityConfiguration {
+
+        /**
+         * 创建 Redis Stream 消息的去重器
+         */
+        @Bean(initMethod = "start", destroyMethod = "stop")
+        @ConditionalOnProperty(prefix = "yudao.mq.stream-dedup", value = "enable", matchIfMissing = true)
+        public StreamMessageDeduplicator redisStreamMessageDeduplicator(
+                MQProperties mqProperties, RedisTemplate<String, Object> redisTemplate,
+                List<AbstractStreamMessageListener<?>> listeners,
+                ObjectProvider<AbstractStreamMessageBatchListener<?>> batchListeners) {
+            StreamMessageDeduplicator deduplicator = new StreamMessageDeduplicator(
+                    new StringRedisTemplate(redisTemplate.getRequiredConnectionFactory()), mqProperties.getStreamDedup());
+            listeners.forEach(listener -> deduplicator.register(listener.getStreamKey()));
+            batchListeners.orderedStream().forEach(listener -> deduplicator.register(listener.getStreamKey()));
+            return deduplicator;
+        }
+
+        /**
+         * 创建 Redis Stream 未 ack 消息的重新投递器
+         */
+        @Bean(initMethod = "start", destroyMethod = "stop")
+        @ConditionalOnProperty(prefix = "yudao.mq.stream-reclaim", value = "enable", matchIfMissing = true)
+        public StreamMessagePendingReclaimer redisStreamMessagePendingReclaimer(
+                MQProperties mqProperties, RedisTemplate<String, Object> redisTemplate,
+                List<AbstractStreamMessageListener<?>> listeners,
+                ObjectProvider<AbstractStreamMessageBatchListener<?>> batchListeners) {
+            StreamMessagePendingReclaimer reclaimer = new StreamMessagePendingReclaimer(
+                    new StringRedisTemplate(redisTemplate.getRequiredConnectionFactory()),
+                    mqProperties.getStreamReclaim(), buildConsumerName() + "#reclaimer");
+            // 重新投递时，逐条处理。这样，某条消息的失败不会影响其它消息。同时标记为重新投递，需要查询 Redis 去重
+            listeners.forEach(listener -> listener.getStreamKeys().forEach(streamKey -> reclaimer.register(streamKey,
+                    listener.getGroup(), record -> listener.consume(record, true))));
+            batchListeners.orderedStream().forEach(listener -> listener.getStreamKeys().forEach(streamKey -> reclaimer.register(
+                    streamKey, listener.getGroup(), record -> listener.consume(Collections.singletonList(record), true))));
+            return reclaimer;
+        }
+
+        /**
+         * 创建 Redis Stream 延迟消息的队列
+         */
+        @Bean(initMethod = "start", destroyMethod = "stop")
+        @ConditionalOnProperty(prefix = "yudao.mq.stream-delay", value = "enable", matchIfMissing = true)
+        public StreamMessageDelayQueue redisStreamMessageDelayQueue(MQProperties mqProperties,
+                                                                    RedisTemplate<String, Object> redisTemplate,
+                                                                    MessageTransport messageTransport) {
+            return new StreamMessageDelayQueue(new StringRedisTemplate(redisTemplate.getRequiredConnectionFactory()),
+                    messageTransport, mqProperties.getStreamDelay());
+        }
+
+    }
+
+    /**
+     * 基于 Micrometer，暴露 Redis Stream 的监控指标
+     */
+    @Configuration
+    @ConditionalOnClass(MeterBinder.class)
+    static class StreamMessageMetricsConfiguration {
+
+        /**
+         * 暴露 Pending 数量、重新投递次数、死信次数
+         */
+        @Bean
+        @ConditionalOnBean(StreamMessagePendingReclaimer.class)
+        public MeterBinder redisStreamMessageMeterBinder(StreamMessagePendingReclaimer reclaimer) {
+            return registry -> reclaimer.getMetrics().forEach(metrics -> {
+                Gauge.builder("yudao.mq.stream.pending", metrics, StreamMessagePendingReclaimer.Metrics::getPendingCount)
+                        .tag("stream", metrics.getStreamKey()).tag("group", metrics.getGroup()).register(registry);
+                FunctionCounter.builder("yudao.mq.stream.redelivered", metrics,
+                        StreamMessagePendingReclaimer.Metrics::getRedeliveredCount)
+                        .tag("stream", metrics.getStreamKey()).tag("group", metrics.getGroup()).register(registry);
+                FunctionCounter.builder("yudao.mq.stream.dead-letter", metrics,
+                        StreamMessagePendingReclaimer.Metrics::getDeadLetterCount)
+                        .tag("stream", metrics.getStreamKey()).tag("group", metrics.getGroup()).register(registry);
+            });
+        }
+
+        /**
+         * 暴露延迟消息的搬运数量、延迟
+         */
+        @Bean
+        @ConditionalOnBean(StreamMessageDelayQueue.class)
+        public MeterBinder redisStreamMessageDelayMeterBinder(StreamMessageDelayQueue delayQueue) {
+            return registry -> {
+                FunctionCounter.builder("yudao.mq.stream.delay.moved", delayQueue.getMetrics(),
+                        StreamMessageDelayQueue.Metrics::getMovedCount).register(registry);
+                Gauge.builder("yudao.mq.stream.delay.lag", delayQueue.getMetrics(),
+                        StreamMessageDelayQueue.Metrics::getLag).baseUnit("milliseconds").register(registry);
+            };
+        }
+
+        /**
+         * 暴露去重的判断次数、重复次数、命中率等
+         */
+        @Bean
+        @ConditionalOnBean(StreamMessageDeduplicator.class)
+        public MeterBinder redisStreamMessageDedupMeterBinder(StreamMessageDeduplicator deduplicator) {
+            return registry -> deduplicator.getMetrics().forEach((streamKey, metrics) -> {
+                FunctionCounter.builder("yudao.mq.stream.dedup.checks", metrics,
+                        StreamMessageDeduplicator.Metrics::getCheckCount).tag("stream", streamKey).register(registry);
+                FunctionCounter.builder("yudao.mq.stream.dedup.local-hits", metrics,
+                        StreamMessageDeduplicator.Metrics::getLocalHitCount).tag("stream", streamKey).register(registry);
+                FunctionCounter.builder("yudao.mq.stream.dedup.remote-checks", metrics,
+                        StreamMessageDeduplicator.Metrics::getRemoteCheckCount).tag("stream", streamKey).register(registry);
+                FunctionCounter.builder("yudao.mq.stream.dedup.duplicates", metrics,
+                        StreamMessageDeduplicator.Metrics::getDuplicateCount).tag("stream", streamKey).register(registry);
+                Gauge.builder("yudao.mq.stream.dedup.hit-rate", metrics, StreamMessageDeduplicator.Metrics::getHitRate)
+                        .tag("stream", streamKey).register(registry);
+            });
+        }
+
+    }
+
+    /**
+     * 创建 Stream 对应的消费者分组。如果已经存在，则忽略
+     *
+     * @param redisTemplate Redis 操作模板
+     * @param streamKey Stream Key
+     * @param group 消费者分组
+     */
+    private static void createGroup(RedisTemplate<String, Object> redisTemplate, String streamKey, String group) {
+        try {
+            redisTemplate.opsForStream().createGroup(streamKey, group);
+        } catch (Exception ignore) {}
+    }
+
+    /**
+     * 构建消费者分组内的 consumerCount 个消费者，每个消费者占用一个线程
+     *
+     * @param group 消费者分组
+     * @param consumerName 消费者名字
+     * @param consumerCount 消费者数量
+     * @return 消费者数组
+     */
+    private static List<Consumer> buildConsumers(String group, String consumerName, int consumerCount) {
+        List<Consumer> consumers = new ArrayList<>(consumerCount);
+        for (int i = 0; i < consumerCount; i++) {
+            consumers.add(Consumer.from(group, consumerName + "#" + i));
+        }
+        return consumers;
     }
 
     /**
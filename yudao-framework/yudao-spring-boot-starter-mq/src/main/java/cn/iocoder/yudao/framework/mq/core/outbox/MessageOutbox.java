@@ -0,0 +1,97 @@
+package cn.iocoder.yudao.framework.mq.core.outbox;
+
+import cn.iocoder.yudao.framework.mq.core.outbox.dto.MessageOutboxDTO;
+import cn.iocoder.yudao.framework.mq.core.pubsub.ChannelMessage;
+import cn.iocoder.yudao.framework.mq.core.stream.StreamMessage;
+import cn.iocoder.yudao.framework.mq.core.util.MessageIdUtils;
+import cn.iocoder.yudao.framework.mq.core.stream.StreamMessagePriorityEnum;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 事务 Outbox 消息的发送器
+ *
+ * 发送消息时，不直接发送到 Redis，而是在当前事务中写入 Outbox 表，保证业务数据和消息的原子性：
+ * 1. 事务提交后，由 {@link MessageOutboxRelay} 异步批量投递，不会增加业务请求的 Redis 耗时
+ * 2. 事务回滚后，消息一起回滚，不会投递
+ * 3. 投递前进程崩溃，由 {@link MessageOutboxRelay} 定时扫描兜底投递
+ *
+ * 不存在事务时，直接写入 Outbox 表，并异步投递
+ *
+ * @author 芋道源码
+ */
+public class MessageOutbox {
+
+    private final MessageOutboxFrameworkService messageOutboxFrameworkService;
+    private final MessageOutboxRelay messageOutboxRelay;
+
+    public MessageOutbox(MessageOutboxFrameworkService messageOutboxFrameworkService,
+                         MessageOutboxRelay messageOutboxRelay) {
+        this.messageOutboxFrameworkService = messageOutboxFrameworkService;
+        this.messageOutboxRelay = messageOutboxRelay;
+    }
+
+    /**
+     * 发送 Redis Stream 消息
+     *
+     * @param message 消息
+     */
+    public <T extends StreamMessage> void sendStreamMessage(T message) {
+        sendStreamMessages(Collections.singletonList(message));
+    }
+
+    /**
+     * 批量发送 Redis Stream 消息
+     *
+     * @param messages 消息数组
+     */
+    public <T extends StreamMessage> void sendStreamMessages(Collection<T> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        List<MessageOutboxDTO> outboxMessages = new ArrayList<>(messages.size());
+        messages.forEach(message -> outboxMessages.add(buildMessageOutbox(message, MessageOutboxTypeEnum.STREAM,
+                StreamMessagePriorityEnum.buildStreamKey(message)).setStreamMaxLength(message.getStreamMaxLength())));
+        send(outboxMessages);
+    }
+
+    /**
+     * 发送 Redis Pub/Sub 消息
+     *
+     * @param message 消息
+     */
+    public <T extends ChannelMessage> void sendChannelMessage(T message) {
+        send(Collections.singletonList(buildMessageOutbox(message, MessageOutboxTypeEnum.CHANNEL, message.getChannel())));
+    }
+
+    private void send(List<MessageOutboxDTO> outboxMessages) {
+        // 写入 Outbox 表。存在事务时，和业务数据一起提交
+        messageOutboxFrameworkService.createMessageOutboxList(outboxMessages);
+        // 不存在事务时，直接异步投递
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            messageOutboxRelay.relayAsync(outboxMessages);
+            return;
+        }
+        // 存在事务时，事务提交后再异步投递
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCommit() {
+                messageOutboxRelay.relayAsync(outboxMessages);
+            }
+
+        });
+    }
+
+    private static MessageOutboxDTO buildMessageOutbox(Object message, MessageOutboxTypeEnum type, String destination) {
+        String messageId = MessageIdUtils.generateMessageId();
+        return new MessageOutboxDTO().setMessageId(messageId).setType(type.getType()).setDestination(destination)
+                .setContent(MessageIdUtils.toJsonString(message, messageId));
+    }
+
+}
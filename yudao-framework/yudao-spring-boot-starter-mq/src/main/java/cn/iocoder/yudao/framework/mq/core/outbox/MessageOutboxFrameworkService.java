@@ -0,0 +1,42 @@
+package cn.iocoder.yudao.framework.mq.core.outbox;
+
+import cn.iocoder.yudao.framework.mq.core.outbox.dto.MessageOutboxDTO;
+
+import javax.validation.Valid;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Outbox 消息 Framework Service 接口
+ *
+ * @author 芋道源码
+ */
+public interface MessageOutboxFrameworkService {
+
+    /**
+     * 批量创建 Outbox 消息
+     *
+     * 注意，需要和业务数据在同一个事务中，这样业务数据提交时，消息一定也提交
+     *
+     * @param createDTOs 消息数组
+     */
+    void createMessageOutboxList(@Valid List<MessageOutboxDTO> createDTOs);
+
+    /**
+     * 获得创建时间早于 createTime 的 Outbox 消息，按照编号升序
+     *
+     * @param createTime 创建时间
+     * @param limit 最大数量
+     * @return 消息数组
+     */
+    List<MessageOutboxDTO> getMessageOutboxList(Date createTime, int limit);
+
+    /**
+     * 删除已经投递的 Outbox 消息
+     *
+     * @param messageIds 消息编号数组
+     */
+    void deleteMessageOutboxList(Collection<String> messageIds);
+
+}
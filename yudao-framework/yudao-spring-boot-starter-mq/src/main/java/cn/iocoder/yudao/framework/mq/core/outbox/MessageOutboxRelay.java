@@ -0,0 +1,189 @@
+package cn.iocoder.yudao.framework.mq.core.outbox;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.iocoder.yudao.framework.mq.config.MQProperties;
+import cn.iocoder.yudao.framework.mq.core.outbox.dto.MessageOutboxDTO;
+import cn.iocoder.yudao.framework.mq.core.transport.MessageTransport;
+import cn.iocoder.yudao.framework.mq.core.transport.TransportMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.Lifecycle;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static cn.iocoder.yudao.framework.common.util.collection.CollectionUtils.convertList;
+
+/**
+ * Outbox 消息的投递器，将 Outbox 消息通过 {@link MessageTransport} 批量投递到 Stream、Pub/Sub 中
+ *
+ * 投递分成两条路径：
+ * 1. 快速路径：事务提交后，由 {@link MessageOutbox} 调用 {@link #relayAsync(List)}，异步投递本次事务的消息
+ * 2. 兜底路径：后台定时扫描创建超过 {@link MQProperties.Outbox#getTimeout()} 仍未删除的消息，例如说进程在投递前崩溃、快速路径的队列已满
+ *
+ * 投递成功后，才删除 Outbox 消息。所以，消息可能被重复投递（例如说多个节点同时扫描），由消费者基于消息编号实现幂等
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class MessageOutboxRelay implements Lifecycle {
+
+    /**
+     * 兜底路径退避的最大倍数为 2^6 = 64 倍扫描间隔
+     */
+    private static final int MAX_BACKOFF_SHIFT = 6;
+
+    private final MessageTransport messageTransport;
+    private final MessageOutboxFrameworkService messageOutboxFrameworkService;
+    private final MQProperties.Outbox properties;
+
+    /**
+     * 快速路径的线程池。队列已满时，丢弃任务，由兜底路径投递
+     */
+    private ExecutorService executor;
+    /**
+     * 兜底路径的定时器
+     */
+    private ScheduledExecutorService scheduler;
+    /**
+     * 兜底路径连续投递失败的次数，用于指数退避
+     */
+    private int failureCount;
+    /**
+     * 兜底路径下一次扫描的时间，退避期间跳过扫描
+     */
+    private long nextScanTime;
+
+    public MessageOutboxRelay(MessageTransport messageTransport,
+                              MessageOutboxFrameworkService messageOutboxFrameworkService,
+                              MQProperties.Outbox properties) {
+        this.messageTransport = messageTransport;
+        this.messageOutboxFrameworkService = messageOutboxFrameworkService;
+        this.properties = properties;
+    }
+
+    @Override
+    public void start() {
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(properties.getQueueCapacity()),
+                new NamedThreadFactory("mq-outbox-relay-", true), new ThreadPoolExecutor.AbortPolicy());
+        scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("mq-outbox-scanner-", true));
+        long interval = properties.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::relayTimeout, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    /**
+     * 异步投递消息，即快速路径
+     *
+     * @param messages 消息数组
+     */
+    public void relayAsync(List<MessageOutboxDTO> messages) {
+        ExecutorService executor = this.executor;
+        if (executor == null) {
+            return;
+        }
+        try {
+            executor.execute(() -> relay(messages));
+        } catch (RejectedExecutionException ex) {
+            log.warn("[relayAsync][队列已满，{} 条消息由扫描投递]", messages.size());
+        }
+    }
+
+    /**
+     * 扫描超时未投递的消息，批量投递，即兜底路径
+     *
+     * 投递或删除失败时，消息仍然会被下一次查询扫描到，所以结束本次扫描，并指数退避，
+     * 避免传输不可用时，反复查询、投递同一批消息
+     */
+    public void relayTimeout() {
+        if (System.currentTimeMillis() < nextScanTime) {
+            return;
+        }
+        try {
+            Date createTime = new Date(System.currentTimeMillis() - properties.getTimeout().toMillis());
+            List<MessageOutboxDTO> messages;
+            do {
+                messages = messageOutboxFrameworkService.getMessageOutboxList(createTime, properties.getBatchSize());
+                if (CollUtil.isEmpty(messages)) {
+                    break;
+                }
+                log.info("[relayTimeout][扫描到 {} 条超时未投递的消息]", messages.size());
+                if (!relay(messages)) {
+                    backoff();
+                    return;
+                }
+            } while (messages.size() >= properties.getBatchSize());
+            failureCount = 0;
+        } catch (Throwable ex) {
+            log.error("[relayTimeout][扫描投递发生异常]", ex);
+            backoff();
+        }
+    }
+
+    private void backoff() {
+        failureCount++;
+        long delay = properties.getInterval().toMillis() * (1L << Math.min(failureCount - 1, MAX_BACKOFF_SHIFT));
+        nextScanTime = System.currentTimeMillis() + delay;
+        log.warn("[backoff][连续 {} 次扫描投递失败，{} ms 后重新扫描]", failureCount, delay);
+    }
+
+    /**
+     * 投递消息，并在投递成功后删除
+     *
+     * @param messages 消息数组
+     * @return 是否投递并删除成功
+     */
+    private boolean relay(List<MessageOutboxDTO> messages) {
+        try {
+            send(messages);
+        } catch (Throwable ex) {
+            log.error("[relay][投递 {} 条消息发生异常，等待扫描重新投递]", messages.size(), ex);
+            return false;
+        }
+        // 投递成功后，删除消息。如果删除失败，扫描会重新投递，由消费者幂等
+        try {
+            messageOutboxFrameworkService.deleteMessageOutboxList(convertList(messages, MessageOutboxDTO::getMessageId));
+            return true;
+        } catch (Throwable ex) {
+            log.error("[relay][删除 {} 条已投递的消息发生异常]", messages.size(), ex);
+            return false;
+        }
+    }
+
+    /**
+     * 批量发送消息。使用 Redis 传输时，所有的 XADD、XTRIM、PUBLISH 命令，通过 pipeline 一次往返完成
+     *
+     * @param messages 消息数组
+     */
+    private void send(List<MessageOutboxDTO> messages) {
+        messageTransport.send(convertList(messages, message ->
+                MessageOutboxTypeEnum.CHANNEL.getType().equals(message.getType())
+                        ? TransportMessage.ofChannel(message.getDestination(), message.getContent())
+                        : TransportMessage.ofStream(message.getDestination(), message.getContent(), message.getStreamMaxLength())));
+    }
+
+}
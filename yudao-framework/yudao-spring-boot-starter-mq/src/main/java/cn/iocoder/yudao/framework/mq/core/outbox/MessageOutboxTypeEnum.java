@@ -0,0 +1,27 @@
+package cn.iocoder.yudao.framework.mq.core.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outbox 消息的类型
+ *
+ * @author 芋道源码
+ */
+@AllArgsConstructor
+@Getter
+public enum MessageOutboxTypeEnum {
+
+    STREAM(1, "Redis Stream 集群消费"),
+    CHANNEL(2, "Redis Pub/Sub 广播消费");
+
+    /**
+     * 类型
+     */
+    private final Integer type;
+    /**
+     * 类型名
+     */
+    private final String name;
+
+}
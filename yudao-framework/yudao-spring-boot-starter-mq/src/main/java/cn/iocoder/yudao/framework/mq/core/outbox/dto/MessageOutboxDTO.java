@@ -0,0 +1,46 @@
+package cn.iocoder.yudao.framework.mq.core.outbox.dto;
+
+import cn.iocoder.yudao.framework.mq.core.outbox.MessageOutboxTypeEnum;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Outbox 消息 DTO
+ *
+ * @author 芋道源码
+ */
+@Data
+@Accessors(chain = true)
+public class MessageOutboxDTO {
+
+    /**
+     * 消息编号，用于消费者的幂等判断
+     */
+    @NotEmpty(message = "消息编号不能为空")
+    private String messageId;
+    /**
+     * 消息类型
+     *
+     * 枚举 {@link MessageOutboxTypeEnum}
+     */
+    @NotNull(message = "消息类型不能为空")
+    private Integer type;
+    /**
+     * 目的地，即 Redis Stream Key 或者 Redis Channel
+     */
+    @NotEmpty(message = "目的地不能为空")
+    private String destination;
+    /**
+     * 消息内容，即 JSON 格式的消息
+     */
+    @NotEmpty(message = "消息内容不能为空")
+    private String content;
+    /**
+     * Redis Stream 的最大长度，为 null 时不裁剪
+     */
+    private Long streamMaxLength;
+
+}
@@ -1,7 +1,7 @@
 package cn.iocoder.yudao.framework.mq.core.pubsub;
 
 import cn.hutool.core.util.TypeUtil;
-import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
+import cn.iocoder.yudao.framework.mq.core.util.MessageCodec;
 import lombok.SneakyThrows;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.connection.MessageListener;
@@ -21,6 +21,10 @@ public abstract class AbstractChannelMessageListener<T extends ChannelMessage> i
      * 消息类型
      */
     private final Class<T> messageType;
+    /**
+     * 消息类型对应的编解码器
+     */
+    private final MessageCodec<T> messageCodec;
     /**
      * Redis Channel
      */
@@ -29,6 +33,7 @@ public abstract class AbstractChannelMessageListener<T extends ChannelMessage> i
     @SneakyThrows
     protected AbstractChannelMessageListener() {
         this.messageType = getMessageClass();
+        this.messageCodec = MessageCodec.of(messageType);
         this.channel = messageType.newInstance().getChannel();
     }
 
@@ -43,7 +48,8 @@ public abstract class AbstractChannelMessageListener<T extends ChannelMessage> i
 
     @Override
     public final void onMessage(Message message, byte[] bytes) {
-        T messageObj = JsonUtils.parseObject(message.getBody(), messageType);
+        // 直接从 byte[] 反序列化。通过 MessageOutbox 发送的消息，带有消息编号，反序列化时会被忽略
+        T messageObj = messageCodec.parseObject(message.getBody());
         this.onMessage(messageObj);
     }
 
@@ -0,0 +1,175 @@
+package cn.iocoder.yudao.framework.mq.core.stream;
+
+import cn.hutool.core.util.TypeUtil;
+import cn.iocoder.yudao.framework.mq.core.util.MessageCodec;
+import cn.iocoder.yudao.framework.mq.core.util.MessageIdUtils;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Redis Stream 批量监听器抽象类，用于实现集群消费
+ *
+ * 和 {@link AbstractStreamMessageListener} 逐条消费、逐条 ack 不同，每次拉取到的消息一起交给 {@link #onMessage(List)} 处理，
+ * 处理完成后，通过一次 XACK 命令批量 ack，适合可以合并处理的消息，例如说批量更新数据库
+ *
+ * 和 {@link AbstractStreamMessageListener} 一样，通过 {@link StreamMessageDeduplicator} 去重：已经消费过的消息直接 ack，
+ * 不交给 {@link #onMessage(List)} 处理
+ *
+ * @param <T> 消息类型。一定要填写噢，不然会报错
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public abstract class AbstractStreamMessageBatchListener<T extends StreamMessage> {
+
+    /**
+     * 消息类型
+     */
+    private final Class<T> messageType;
+    /**
+     * 消息类型对应的编解码器
+     */
+    private final MessageCodec<T> messageCodec;
+    /**
+     * Redis Channel
+     */
+    @Getter
+    private final String streamKey;
+    /**
+     * 是否开启优先级。开启后，需要消费 {@link StreamMessagePriorityEnum} 的所有通道
+     */
+    @Getter
+    private final boolean priorityEnabled;
+
+    /**
+     * Redis 消费者分组，默认使用 spring.application.name 名字
+     */
+    @Value("${spring.application.name}")
+    @Getter
+    private String group;
+    /**
+     * Redis 操作模板，用于 ack 消息。为 null 时，即使用 LocalMessageTransport 本地传输，无需 ack
+     */
+    @Setter
+    private RedisTemplate<String, ?> redisTemplate;
+    /**
+     * 消息去重器。为 null 时，不去重
+     */
+    @Setter
+    private StreamMessageDeduplicator deduplicator;
+
+    @SneakyThrows
+    protected AbstractStreamMessageBatchListener() {
+        this.messageType = getMessageClass();
+        this.messageCodec = MessageCodec.of(messageType);
+        T message = messageType.newInstance();
+        this.streamKey = message.getStreamKey();
+        this.priorityEnabled = message.isPriorityEnabled();
+    }
+
+    /**
+     * 消费一批消息记录
+     *
+     * @param records 消息记录，需要来自同一个 Stream，即开启优先级时的同一个通道
+     */
+    public void consume(List<ObjectRecord<String, String>> records) {
+        consume(records, false);
+    }
+
+    /**
+     * 消费一批消息记录
+     *
+     * 如果处理失败，这一批中未重复的消息都不会 ack，保留在消费者分组的 Pending 列表中
+     *
+     * @param records 消息记录，需要来自同一个 Stream，即开启优先级时的同一个通道
+     * @param redelivered 是否为重新投递，即由 StreamMessagePendingReclaimer 认领后投递
+     */
+    public void consume(List<ObjectRecord<String, String>> records, boolean redelivered) {
+        if (records.isEmpty()) {
+            return;
+        }
+        // 过滤已经消费过的消息。同一批中重复的消息，例如说 Outbox 重复投递，也只处理一次
+        List<T> messages = new ArrayList<>(records.size());
+        List<String> messageIds = new ArrayList<>(records.size());
+        List<RecordId> recordIds = new ArrayList<>(records.size());
+        List<RecordId> duplicateRecordIds = new ArrayList<>();
+        Set<String> batchMessageIds = new HashSet<>();
+        for (ObjectRecord<String, String> record : records) {
+            MessageIdUtils.ParsedMessage<T> parsedMessage = messageCodec.parse(record.getValue());
+            // 未设置消息编号时，使用 Stream 的记录编号，和 AbstractStreamMessageListener 保持一致
+            String messageId = parsedMessage.getMessageId() != null ? parsedMessage.getMessageId()
+                    : record.getStream() + "/" + record.getId().getValue();
+            if (!batchMessageIds.add(messageId) || (deduplicator != null && deduplicator.isDuplicate(streamKey,
+                    group, messageId, redelivered || parsedMessage.getMessageId() != null))) {
+                log.info("[consume][Stream({}) 消息({}) 已经消费过，直接 ack]", streamKey, messageId);
+                duplicateRecordIds.add(record.getId());
+                continue;
+            }
+            messages.add(parsedMessage.getMessage());
+            messageIds.add(messageId);
+            recordIds.add(record.getId());
+        }
+        String stream = records.get(0).getStream();
+        acknowledge(stream, duplicateRecordIds);
+        if (messages.isEmpty()) {
+            return;
+        }
+        // 消费消息
+        this.onMessage(messages);
+        // 记录消息已经消费。在 ack 之前记录，这样 ack 失败导致的重新投递，也可以被去重
+        if (deduplicator != null) {
+            messageIds.forEach(messageId -> deduplicator.record(streamKey, group, messageId));
+        }
+        // 批量 ack 消息消费完成，只需要一次 XACK 命令
+        acknowledge(stream, recordIds);
+    }
+
+    private void acknowledge(String stream, List<RecordId> recordIds) {
+        if (redisTemplate != null && !recordIds.isEmpty()) {
+            redisTemplate.opsForStream().acknowledge(stream, group, recordIds.toArray(new RecordId[0]));
+        }
+    }
+
+    /**
+     * 处理一批消息
+     *
+     * @param messages 消息列表
+     */
+    public abstract void onMessage(List<T> messages);
+
+    /**
+     * 获得需要消费的所有 Stream Key，即各个优先级的通道，按照优先级从高到低
+     *
+     * @return Stream Key 数组
+     */
+    public List<String> getStreamKeys() {
+        return StreamMessagePriorityEnum.buildStreamKeys(streamKey, priorityEnabled);
+    }
+
+    /**
+     * 通过解析类上的泛型，获得消息类型
+     *
+     * @return 消息类型
+     */
+    @SuppressWarnings("unchecked")
+    private Class<T> getMessageClass() {
+        Type type = TypeUtil.getTypeArgument(getClass(), 0);
+        if (type == null) {
+            throw new IllegalStateException(String.format("类型(%s) 需要设置消息类型", getClass().getName()));
+        }
+        return (Class<T>) type;
+    }
+
+}
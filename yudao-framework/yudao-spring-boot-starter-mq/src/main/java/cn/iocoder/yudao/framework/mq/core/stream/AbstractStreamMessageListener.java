@@ -1,16 +1,19 @@
 package cn.iocoder.yudao.framework.mq.core.stream;
 
 import cn.hutool.core.util.TypeUtil;
-import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
+import cn.iocoder.yudao.framework.mq.core.util.MessageCodec;
+import cn.iocoder.yudao.framework.mq.core.util.MessageIdUtils;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.connection.stream.ObjectRecord;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.stream.StreamListener;
 
 import java.lang.reflect.Type;
+import java.util.List;
 
 /**
  * Redis Stream 监听器抽象类，用于实现集群消费
@@ -19,6 +22,7 @@ import java.lang.reflect.Type;
  *
  * @author 芋道源码
  */
+@Slf4j
 public abstract class AbstractStreamMessageListener<T extends StreamMessage>
         implements StreamListener<String, ObjectRecord<String, String>> {
 
@@ -26,11 +30,20 @@ public abstract class AbstractStreamMessageListener<T extends StreamMessage>
      * 消息类型
      */
     private final Class<T> messageType;
+    /**
+     * 消息类型对应的编解码器
+     */
+    private final MessageCodec<T> messageCodec;
     /**
      * Redis Channel
      */
     @Getter
     private final String streamKey;
+    /**
+     * 是否开启优先级。开启后，需要消费 {@link StreamMessagePriorityEnum} 的所有通道
+     */
+    @Getter
+    private final boolean priorityEnabled;
 
     /**
      * Redis 消费者分组，默认使用 spring.application.name 名字
@@ -39,29 +52,64 @@ public abstract class AbstractStreamMessageListener<T extends StreamMessage>
     @Getter
     private String group;
     /**
-     *
+     * Redis 操作模板，用于 ack 消息。为 null 时，即使用 LocalMessageTransport 本地传输，无需 ack
      */
     @Setter
     private RedisTemplate<String, ?> redisTemplate;
+    /**
+     * 消息去重器。为 null 时，不去重
+     */
+    @Setter
+    private StreamMessageDeduplicator deduplicator;
 
     @SneakyThrows
     protected AbstractStreamMessageListener() {
         this.messageType = getMessageClass();
-        this.streamKey = messageType.newInstance().getStreamKey();
+        this.messageCodec = MessageCodec.of(messageType);
+        T message = messageType.newInstance();
+        this.streamKey = message.getStreamKey();
+        this.priorityEnabled = message.isPriorityEnabled();
     }
 
     @Override
     public void onMessage(ObjectRecord<String, String> message) {
+        consume(message, false);
+    }
+
+    /**
+     * 消费消息记录
+     *
+     * @param message 消息记录
+     * @param redelivered 是否为重新投递，即由 StreamMessagePendingReclaimer 认领后投递
+     */
+    public void consume(ObjectRecord<String, String> message, boolean redelivered) {
+        MessageIdUtils.ParsedMessage<T> parsedMessage = messageCodec.parse(message.getValue());
+        // 消息去重。未设置消息编号时，使用 Stream 的记录编号，至少可以过滤 Pending 消息的重复投递
+        // 去重按照 streamKey 进行，而各个优先级的通道是不同的 Stream，记录编号可能相同，所以需要拼接通道的 Stream Key
+        String messageId = parsedMessage.getMessageId() != null ? parsedMessage.getMessageId()
+                : message.getStream() + "/" + message.getId().getValue();
+        if (deduplicator != null && deduplicator.isDuplicate(streamKey, group, messageId,
+                redelivered || parsedMessage.getMessageId() != null)) {
+            log.info("[consume][Stream({}) 消息({}) 已经消费过，直接 ack]", streamKey, messageId);
+            acknowledge(message);
+            return;
+        }
         // 消费消息
-        T messageObj = JsonUtils.parseObject(message.getValue(), messageType);
-        this.onMessage(messageObj);
+        this.onMessage(parsedMessage.getMessage());
+        // 记录消息已经消费。在 ack 之前记录，这样 ack 失败导致的重新投递，也可以被去重
+        if (deduplicator != null) {
+            deduplicator.record(streamKey, group, messageId);
+        }
         // ack 消息消费完成
-        redisTemplate.opsForStream().acknowledge(group, message);
-        // TODO 芋艿：需要额外考虑以下几个点：
-        // 1. 处理异常的情况
-        // 2. 发送日志；以及事务的结合
-        // 3. 消费日志；以及通用的幂等性
-        // 4. 消费失败的重试，https://zhuanlan.zhihu.com/p/60501638
+        acknowledge(message);
+        // 消费失败时，不 ack 消息，由 StreamMessagePendingReclaimer 重新投递，超过最大投递次数后转移到死信
+        // 发送时，可以通过 MessageOutbox 与事务结合，重复投递的消息由 deduplicator 幂等
+    }
+
+    private void acknowledge(ObjectRecord<String, String> message) {
+        if (redisTemplate != null) {
+            redisTemplate.opsForStream().acknowledge(group, message);
+        }
     }
 
     /**
@@ -71,6 +119,15 @@ public abstract class AbstractStreamMessageListener<T extends StreamMessage>
      */
     public abstract void onMessage(T message);
 
+    /**
+     * 获得需要消费的所有 Stream Key，即各个优先级的通道，按照优先级从高到低
+     *
+     * @return Stream Key 数组
+     */
+    public List<String> getStreamKeys() {
+        return StreamMessagePriorityEnum.buildStreamKeys(streamKey, priorityEnabled);
+    }
+
     /**
      * 通过解析类上的泛型，获得消息类型
      *
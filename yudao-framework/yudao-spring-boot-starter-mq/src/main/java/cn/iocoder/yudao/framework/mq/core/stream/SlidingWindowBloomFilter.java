@@ -0,0 +1,154 @@
+package cn.iocoder.yudao.framework.mq.core.stream;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 滑动窗口的布隆过滤器
+ *
+ * 由「当前」和「上一个」两代布隆过滤器组成，每隔一个窗口轮换一次，丢弃最老的一代。
+ * 这样，最近 1 ~ 2 个窗口内添加的元素一定可以被判断存在，并且内存占用固定，不会无限增长
+ *
+ * 线程安全：位数组基于 {@link AtomicLongArray} 实现，无需加锁
+ *
+ * @author 芋道源码
+ */
+public class SlidingWindowBloomFilter {
+
+    /**
+     * 位数量
+     */
+    private final int bitCount;
+    /**
+     * 哈希函数数量
+     */
+    private final int hashCount;
+    /**
+     * 窗口，单位：毫秒
+     */
+    private final long windowMillis;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    /**
+     * 创建滑动窗口的布隆过滤器
+     *
+     * @param expectedInsertions 每个窗口预计添加的元素数量
+     * @param fpp 期望的误判率
+     * @param window 窗口
+     */
+    public SlidingWindowBloomFilter(int expectedInsertions, double fpp, Duration window) {
+        // 参考 Guava BloomFilter 的计算公式
+        long bits = (long) (-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.max(64, Math.min(bits, Integer.MAX_VALUE - 63));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.windowMillis = window.toMillis();
+        this.current = new Generation(bitCount, System.currentTimeMillis());
+        this.previous = new Generation(bitCount, System.currentTimeMillis());
+    }
+
+    /**
+     * 判断元素是否可能存在
+     *
+     * @param value 元素
+     * @return false 时一定不存在；true 时可能存在
+     */
+    public boolean mightContain(String value) {
+        rotateIfNecessary();
+        long[] hashes = hash(value);
+        return current.mightContain(hashes) || previous.mightContain(hashes);
+    }
+
+    /**
+     * 添加元素
+     *
+     * @param value 元素
+     */
+    public void put(String value) {
+        rotateIfNecessary();
+        current.put(hash(value));
+    }
+
+    private void rotateIfNecessary() {
+        Generation generation = current;
+        long now = System.currentTimeMillis();
+        if (now - generation.createTime < windowMillis) {
+            return;
+        }
+        synchronized (this) {
+            if (current == generation) {
+                previous = generation;
+                current = new Generation(bitCount, now);
+            }
+        }
+    }
+
+    /**
+     * 计算元素的两个 64 位哈希值，基于 Kirsch-Mitzenmacher 的方式组合出 hashCount 个哈希函数
+     *
+     * @param value 元素
+     * @return 哈希值
+     */
+    private static long[] hash(String value) {
+        // FNV-1a 64 位哈希
+        long h1 = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h1 ^= b;
+            h1 *= 0x100000001b3L;
+        }
+        // 基于 SplitMix64 混淆，得到第二个哈希值
+        long h2 = h1 + 0x9e3779b97f4a7c15L;
+        h2 = (h2 ^ (h2 >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h2 = (h2 ^ (h2 >>> 27)) * 0x94d049bb133111ebL;
+        h2 = h2 ^ (h2 >>> 31);
+        return new long[]{h1, h2};
+    }
+
+    /**
+     * 一代布隆过滤器
+     */
+    private class Generation {
+
+        private final AtomicLongArray bits;
+        private final long createTime;
+
+        private Generation(int bitCount, long createTime) {
+            this.bits = new AtomicLongArray((bitCount + 63) >>> 6);
+            this.createTime = createTime;
+        }
+
+        private boolean mightContain(long[] hashes) {
+            for (int i = 0; i < hashCount; i++) {
+                int index = index(hashes, i);
+                if ((bits.get(index >>> 6) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void put(long[] hashes) {
+            for (int i = 0; i < hashCount; i++) {
+                int index = index(hashes, i);
+                long mask = 1L << index;
+                int word = index >>> 6;
+                long old;
+                do {
+                    old = bits.get(word);
+                    if ((old & mask) != 0) {
+                        break;
+                    }
+                } while (!bits.compareAndSet(word, old, old | mask));
+            }
+        }
+
+        private int index(long[] hashes, int i) {
+            long combined = hashes[0] + i * hashes[1];
+            return (int) ((combined & Long.MAX_VALUE) % bitCount);
+        }
+
+    }
+
+}
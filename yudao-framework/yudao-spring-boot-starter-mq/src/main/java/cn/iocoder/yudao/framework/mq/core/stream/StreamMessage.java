@@ -17,4 +17,39 @@ public interface StreamMessage {
     @JsonIgnore // 避免序列化
     String getStreamKey();
 
+    /**
+     * 获得 Redis Stream 的最大长度
+     *
+     * 发送消息时，通过 XTRIM MAXLEN ~ 近似裁剪，避免 Stream 无限增长，占用 Redis 内存。
+     * 注意，需要远大于消费的积压量，否则还未消费的消息会被裁剪掉
+     *
+     * @return 最大长度。为 null 时，不裁剪
+     */
+    @JsonIgnore // 避免序列化
+    default Long getStreamMaxLength() {
+        return null;
+    }
+
+    /**
+     * 是否开启优先级
+     *
+     * 开启后，消息按照 {@link #getPriority()} 发送到对应的通道，消费者按照权重轮询所有通道
+     *
+     * @return 是否开启
+     */
+    @JsonIgnore // 避免序列化
+    default boolean isPriorityEnabled() {
+        return false;
+    }
+
+    /**
+     * 获得消息的优先级，仅 {@link #isPriorityEnabled()} 为 true 时生效
+     *
+     * @return 优先级
+     */
+    @JsonIgnore // 避免序列化
+    default StreamMessagePriorityEnum getPriority() {
+        return StreamMessagePriorityEnum.NORMAL;
+    }
+
 }
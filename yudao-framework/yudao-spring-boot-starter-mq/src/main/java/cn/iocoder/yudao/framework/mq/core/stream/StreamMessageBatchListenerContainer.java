@@ -0,0 +1,86 @@
+package cn.iocoder.yudao.framework.mq.core.stream;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.thread.ThreadUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.Lifecycle;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link AbstractStreamMessageBatchListener} 的消费容器
+ *
+ * Spring Data Redis 的 StreamMessageListenerContainer 只支持逐条回调，所以这里自己实现拉取：
+ * 每个消费者一个线程，循环执行 XREADGROUP，将拉取到的一批消息整体交给 listener 处理
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class StreamMessageBatchListenerContainer implements Lifecycle {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final AbstractStreamMessageBatchListener<?> listener;
+    private final List<Consumer> consumers;
+    private final Executor executor;
+    private final StreamReadOptions readOptions;
+    private final Duration pollTimeout;
+
+    private volatile boolean running;
+
+    public StreamMessageBatchListenerContainer(StringRedisTemplate stringRedisTemplate,
+                                               AbstractStreamMessageBatchListener<?> listener,
+                                               List<Consumer> consumers, Executor executor,
+                                               int batchSize, Duration pollTimeout) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listener = listener;
+        this.consumers = consumers;
+        this.executor = executor;
+        this.readOptions = StreamReadOptions.empty().count(batchSize).block(pollTimeout);
+        this.pollTimeout = pollTimeout;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        consumers.forEach(consumer -> executor.execute(() -> poll(consumer)));
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void poll(Consumer consumer) {
+        // 设置 Consumer 消费进度，以最小消费进度为准
+        StreamOffset<String> streamOffset = StreamOffset.create(listener.getStreamKey(), ReadOffset.lastConsumed());
+        while (running) {
+            try {
+                List<ObjectRecord<String, String>> records = stringRedisTemplate.opsForStream()
+                        .read(String.class, consumer, readOptions, streamOffset);
+                if (CollUtil.isEmpty(records)) {
+                    continue;
+                }
+                listener.consume(records);
+            } catch (Throwable ex) {
+                log.error("[poll][Stream({}) 消费者({}) 消费消息发生异常]", listener.getStreamKey(), consumer.getName(), ex);
+                // 避免 Redis 不可用等情况下，空转打满 CPU
+                ThreadUtil.sleep(pollTimeout.toMillis());
+            }
+        }
+    }
+
+}
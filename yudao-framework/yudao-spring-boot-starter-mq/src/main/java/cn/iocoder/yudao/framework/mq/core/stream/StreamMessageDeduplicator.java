@@ -0,0 +1,285 @@
+package cn.iocoder.yudao.framework.mq.core.stream;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.iocoder.yudao.framework.mq.config.MQProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.Lifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Redis Stream 消息的去重器，用于实现消费者的幂等
+ *
+ * 已经消费的消息编号，记录在两个地方：
+ * 1. 本地：{@link SlidingWindowBloomFilter} 滑动窗口的布隆过滤器，内存占用固定，判断「本节点最近是否消费过」
+ * 2. Redis：按照时间分桶的 SET，每个桶设置过期时间，判断「所有节点在 ttl 内是否消费过」。
+ *    消费成功后先放入本地缓冲，由后台定时通过 pipeline 批量 SADD，不增加消费的耗时
+ *
+ * 判断是否重复时，只有「可能重复」的消息才需要查询 Redis，其它消息直接消费：
+ * 1. 本地布隆过滤器命中：可能重复，但存在误判，需要查询 Redis 确认
+ * 2. 重新投递的消息（例如说 ack 失败后，由 {@link StreamMessagePendingReclaimer} 在其它节点重新投递），
+ *    或者带有消息编号的消息（例如说 Outbox 扫描重复投递）：可能在其它节点消费过，需要查询 Redis
+ * 3. 其它首次投递、没有消息编号的消息：Stream 记录编号唯一，不可能重复，无需查询
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class StreamMessageDeduplicator implements Lifecycle {
+
+    /**
+     * 消息编号的 Redis Key 前缀格式，参数依次为 Stream Key、消费者分组，拼接 :时间桶 后即为完整的 Key。
+     * 使用 {} hash tag，保证 Redis Cluster 下同一个分组的时间桶在同一个 slot，可以在 Lua 脚本中一起查询
+     */
+    private static final String KEY_FORMAT = "mq_stream_dedup:{%s:%s}";
+    /**
+     * Redis 时间桶的数量。ttl 按照该数量分桶，查询时需要遍历 ttl 范围内的所有桶
+     */
+    private static final int BUCKET_COUNT = 24;
+
+    /**
+     * 判断消息编号是否存在于任一时间桶的 Lua 脚本
+     */
+    private static final RedisScript<Long> CONTAINS_SCRIPT = new DefaultRedisScript<>(
+            "for i = 1, #KEYS do\n" +
+            "  if redis.call('SISMEMBER', KEYS[i], ARGV[1]) == 1 then\n" +
+            "    return 1\n" +
+            "  end\n" +
+            "end\n" +
+            "return 0", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MQProperties.StreamDedup properties;
+    /**
+     * 时间桶的长度，单位：毫秒
+     */
+    private final long bucketMillis;
+    /**
+     * 本地的布隆过滤器
+     */
+    private final SlidingWindowBloomFilter bloomFilter;
+    /**
+     * 等待批量写入 Redis 的消息编号，key 为 {@link #formatDedupKey(String, String)}
+     */
+    private volatile ConcurrentMap<String, Set<String>> pendingMessageIds = new ConcurrentHashMap<>();
+    /**
+     * 各个 Stream 的统计，key 为 Stream Key
+     */
+    private final ConcurrentMap<String, Metrics> metrics = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    public StreamMessageDeduplicator(StringRedisTemplate stringRedisTemplate, MQProperties.StreamDedup properties) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.properties = properties;
+        this.bucketMillis = Math.max(properties.getTtl().toMillis() / BUCKET_COUNT, 1);
+        this.bloomFilter = new SlidingWindowBloomFilter(properties.getLocalExpectedInsertions(),
+                properties.getLocalFpp(), properties.getLocalWindow());
+    }
+
+    /**
+     * 注册 Stream，提前创建统计，便于暴露监控指标
+     *
+     * @param streamKey Stream Key
+     */
+    public void register(String streamKey) {
+        metrics.computeIfAbsent(streamKey, key -> new Metrics());
+    }
+
+    /**
+     * 获得各个 Stream 的统计，key 为 Stream Key
+     *
+     * @return 统计
+     */
+    public Map<String, Metrics> getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("redis-stream-dedup-", true));
+        long interval = properties.getFlushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+            flush();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /**
+     * 判断消息是否已经消费过
+     *
+     * @param streamKey Stream Key
+     * @param group 消费者分组
+     * @param messageId 消息编号
+     * @param checkRemote 本地未命中时，是否仍然查询 Redis。重新投递、带有消息编号的消息，需要传递 true
+     * @return 是否重复
+     */
+    public boolean isDuplicate(String streamKey, String group, String messageId, boolean checkRemote) {
+        Metrics streamMetrics = metrics.computeIfAbsent(streamKey, key -> new Metrics());
+        streamMetrics.checkCount.increment();
+        String dedupKey = formatDedupKey(streamKey, group);
+        boolean localHit = bloomFilter.mightContain(dedupKey + ":" + messageId);
+        if (!localHit && !checkRemote) {
+            return false;
+        }
+        if (localHit) {
+            streamMetrics.localHitCount.increment();
+        }
+        // 还未写入 Redis 的消息编号
+        Set<String> pending = pendingMessageIds.get(dedupKey);
+        if (pending != null && pending.contains(messageId)) {
+            streamMetrics.duplicateCount.increment();
+            return true;
+        }
+        // 查询 Redis 确认。查询失败时，按照不重复处理，保证消息至少消费一次
+        streamMetrics.remoteCheckCount.increment();
+        boolean duplicate;
+        try {
+            Long result = stringRedisTemplate.execute(CONTAINS_SCRIPT, buildBucketKeys(streamKey, group), messageId);
+            duplicate = result != null && result == 1L;
+        } catch (Throwable ex) {
+            log.error("[isDuplicate][Stream({}) 消息({}) 查询 Redis 发生异常]", streamKey, messageId, ex);
+            return false;
+        }
+        if (duplicate) {
+            streamMetrics.duplicateCount.increment();
+        }
+        return duplicate;
+    }
+
+    /**
+     * 记录消息已经消费。需要在消费成功之后、ack 之前调用，这样 ack 失败导致的重新投递，也可以被去重
+     *
+     * @param streamKey Stream Key
+     * @param group 消费者分组
+     * @param messageId 消息编号
+     */
+    public void record(String streamKey, String group, String messageId) {
+        String dedupKey = formatDedupKey(streamKey, group);
+        bloomFilter.put(dedupKey + ":" + messageId);
+        pendingMessageIds.computeIfAbsent(dedupKey, key -> ConcurrentHashMap.newKeySet()).add(messageId);
+    }
+
+    /**
+     * 将缓冲的消息编号，通过 pipeline 批量写入 Redis 当前的时间桶
+     */
+    public void flush() {
+        ConcurrentMap<String, Set<String>> messageIds = this.pendingMessageIds;
+        if (messageIds.isEmpty()) {
+            return;
+        }
+        this.pendingMessageIds = new ConcurrentHashMap<>();
+        long bucket = System.currentTimeMillis() / bucketMillis;
+        // 过期时间多保留一个桶，保证 ttl 范围内的桶都存在
+        long expireMillis = properties.getTtl().toMillis() + bucketMillis;
+        try {
+            stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, String> stringOperations = (RedisOperations<String, String>) operations;
+                    messageIds.forEach((dedupKey, ids) -> {
+                        String key = dedupKey + ":" + bucket;
+                        stringOperations.opsForSet().add(key, ids.toArray(new String[0]));
+                        stringOperations.expire(key, expireMillis, TimeUnit.MILLISECONDS);
+                    });
+                    return null;
+                }
+
+            });
+        } catch (Throwable ex) {
+            log.error("[flush][写入 {} 个分组的消息编号发生异常]", messageIds.size(), ex);
+        }
+    }
+
+    private List<String> buildBucketKeys(String streamKey, String group) {
+        String dedupKey = formatDedupKey(streamKey, group);
+        long currentBucket = System.currentTimeMillis() / bucketMillis;
+        List<String> keys = new ArrayList<>(BUCKET_COUNT + 1);
+        for (long bucket = currentBucket - BUCKET_COUNT; bucket <= currentBucket; bucket++) {
+            keys.add(dedupKey + ":" + bucket);
+        }
+        return keys;
+    }
+
+    private static String formatDedupKey(String streamKey, String group) {
+        return String.format(KEY_FORMAT, streamKey, group);
+    }
+
+    /**
+     * Stream 的去重统计
+     */
+    public static class Metrics {
+
+        /**
+         * 判断的次数
+         */
+        private final LongAdder checkCount = new LongAdder();
+        /**
+         * 本地布隆过滤器命中的次数
+         */
+        private final LongAdder localHitCount = new LongAdder();
+        /**
+         * 查询 Redis 的次数
+         */
+        private final LongAdder remoteCheckCount = new LongAdder();
+        /**
+         * 重复的次数
+         */
+        private final LongAdder duplicateCount = new LongAdder();
+
+        public long getCheckCount() {
+            return checkCount.sum();
+        }
+
+        public long getLocalHitCount() {
+            return localHitCount.sum();
+        }
+
+        public long getRemoteCheckCount() {
+            return remoteCheckCount.sum();
+        }
+
+        public long getDuplicateCount() {
+            return duplicateCount.sum();
+        }
+
+        /**
+         * 获得去重的命中率，即重复次数 / 判断次数
+         *
+         * @return 命中率
+         */
+        public double getHitRate() {
+            long checks = checkCount.sum();
+            return checks == 0 ? 0D : (double) duplicateCount.sum() / checks;
+        }
+
+    }
+
+}
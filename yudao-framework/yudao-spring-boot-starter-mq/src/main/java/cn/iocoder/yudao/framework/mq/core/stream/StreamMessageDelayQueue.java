@@ -0,0 +1,325 @@
+package cn.iocoder.yudao.framework.mq.core.stream;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
+import cn.iocoder.yudao.framework.mq.config.MQProperties;
+import cn.iocoder.yudao.framework.mq.core.transport.MessageTransport;
+import cn.iocoder.yudao.framework.mq.core.transport.TransportMessage;
+import cn.iocoder.yudao.framework.mq.core.util.MessageIdUtils;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.Lifecycle;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Redis Stream 延迟消息的队列
+ *
+ * 延迟消息先保存在 Redis 中：
+ * 1. {@link #DELAY_KEY} ZSET：member 为消息编号，score 为投递时间
+ * 2. {@link #CONTENT_KEY} HASH：field 为消息编号，value 为消息的目的地、内容
+ *
+ * 后台的搬运线程，按照最近一条消息的投递时间休眠，到期后通过 Lua 脚本批量认领到期的消息，投递到目标 Stream 后再删除。
+ * 这样，重试、超时等场景无需定时扫描数据库，消息也能在到期时被及时投递
+ *
+ * 认领消息时，并不直接删除，而是将 score 延后 lease 时间，即「租约」。这样：
+ * 1. 多个节点同时搬运时，同一条消息只会被一个节点认领
+ * 2. 认领后节点宕机、投递失败时，租约到期后会被重新认领投递，不会丢失消息。
+ *    此时消息可能被重复投递，但消息内容带有消息编号，由 {@link StreamMessageDeduplicator} 去重
+ *
+ * 两个 Key 使用相同的 hash tag，保证 Redis Cluster 下位于同一个 slot，可以在同一个 Lua 脚本中操作
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class StreamMessageDelayQueue implements Lifecycle {
+
+    /**
+     * 延迟消息的 ZSET
+     */
+    public static final String DELAY_KEY = "{mq_stream_delay}";
+    /**
+     * 延迟消息内容的 HASH
+     */
+    public static final String CONTENT_KEY = "{mq_stream_delay}:content";
+
+    /**
+     * 添加延迟消息的脚本。ARGV 每三个一组，分别为投递时间、消息编号、消息内容
+     */
+    private static final RedisScript<Long> ADD_SCRIPT = new DefaultRedisScript<>(
+            "for i = 1, #ARGV, 3 do\n" +
+            "    redis.call('HSET', KEYS[2], ARGV[i + 1], ARGV[i + 2])\n" +
+            "    redis.call('ZADD', KEYS[1], ARGV[i], ARGV[i + 1])\n" +
+            "end\n" +
+            "return #ARGV / 3", Long.class);
+    /**
+     * 认领到期消息的脚本。ARGV 分别为当前时间、最大数量、租约到期时间
+     *
+     * 返回消息编号、消息内容交替的数组。消息内容不存在时，即已经被取消，为 null
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM_SCRIPT = new DefaultRedisScript<>(
+            "local ids = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2])\n" +
+            "local result = {}\n" +
+            "for i = 1, #ids do\n" +
+            "    redis.call('ZADD', KEYS[1], ARGV[3], ids[i])\n" +
+            "    result[#result + 1] = ids[i]\n" +
+            "    result[#result + 1] = redis.call('HGET', KEYS[2], ids[i])\n" +
+            "end\n" +
+            "return result", List.class);
+    /**
+     * 删除消息的脚本。ARGV 为消息编号，返回实际删除的数量
+     */
+    private static final RedisScript<Long> REMOVE_SCRIPT = new DefaultRedisScript<>(
+            "local count = 0\n" +
+            "for i = 1, #ARGV do\n" +
+            "    count = count + redis.call('ZREM', KEYS[1], ARGV[i])\n" +
+            "    redis.call('HDEL', KEYS[2], ARGV[i])\n" +
+            "end\n" +
+            "return count", Long.class);
+
+    private static final List<String> KEYS = Arrays.asList(DELAY_KEY, CONTENT_KEY);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MessageTransport messageTransport;
+    private final MQProperties.StreamDelay properties;
+
+    private final Metrics metrics = new Metrics();
+
+    private volatile Thread mover;
+    /**
+     * 搬运线程下一次醒来的时间。本节点发送更早到期的消息时，需要提前唤醒
+     */
+    private volatile long nextWakeTime;
+
+    public StreamMessageDelayQueue(StringRedisTemplate stringRedisTemplate, MessageTransport messageTransport,
+                                   MQProperties.StreamDelay properties) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.messageTransport = messageTransport;
+        this.properties = properties;
+    }
+
+    /**
+     * 发送延迟消息
+     *
+     * @param message 消息
+     * @param delay 延迟时间
+     * @return 消息编号，可用于 {@link #cancel(String)} 取消
+     */
+    public <T extends StreamMessage> String sendStreamMessage(T message, Duration delay) {
+        return sendStreamMessage(message, new Date(System.currentTimeMillis() + delay.toMillis()));
+    }
+
+    /**
+     * 发送延迟消息
+     *
+     * @param message 消息
+     * @param deliverTime 投递时间
+     * @return 消息编号，可用于 {@link #cancel(String)} 取消
+     */
+    public <T extends StreamMessage> String sendStreamMessage(T message, Date deliverTime) {
+        return sendStreamMessages(Collections.singletonList(message), deliverTime).get(0);
+    }
+
+    /**
+     * 批量发送延迟消息，通过一次 Lua 脚本完成
+     *
+     * @param messages 消息数组
+     * @param deliverTime 投递时间
+     * @return 消息编号数组，和消息的顺序一致
+     */
+    public <T extends StreamMessage> List<String> sendStreamMessages(Collection<T> messages, Date deliverTime) {
+        if (CollUtil.isEmpty(messages)) {
+            return Collections.emptyList();
+        }
+        String score = String.valueOf(deliverTime.getTime());
+        List<String> messageIds = new ArrayList<>(messages.size());
+        Object[] args = new Object[messages.size() * 3];
+        int i = 0;
+        for (T message : messages) {
+            String messageId = MessageIdUtils.generateMessageId();
+            DelayMessage delayMessage = new DelayMessage(StreamMessagePriorityEnum.buildStreamKey(message),
+                    MessageIdUtils.toJsonString(message, messageId), message.getStreamMaxLength());
+            args[i++] = score;
+            args[i++] = messageId;
+            args[i++] = JsonUtils.toJsonString(delayMessage);
+            messageIds.add(messageId);
+        }
+        stringRedisTemplate.execute(ADD_SCRIPT, KEYS, args);
+        // 比搬运线程下一次醒来更早到期，提前唤醒
+        Thread current = mover;
+        if (current != null && deliverTime.getTime() < nextWakeTime) {
+            LockSupport.unpark(current);
+        }
+        return messageIds;
+    }
+
+    /**
+     * 取消延迟消息
+     *
+     * 注意，如果消息已经到期、正在被搬运，可能仍然会被投递。所以，消费时仍需要校验业务状态
+     *
+     * @param messageId 消息编号
+     * @return 是否取消成功，即消息是否仍在队列中
+     */
+    public boolean cancel(String messageId) {
+        Long count = stringRedisTemplate.execute(REMOVE_SCRIPT, KEYS, messageId);
+        return count != null && count > 0;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (mover != null) {
+            return;
+        }
+        mover = new Thread(this::run, "redis-stream-delay-mover");
+        mover.setDaemon(true);
+        mover.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        Thread current = mover;
+        mover = null;
+        if (current != null) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return mover != null;
+    }
+
+    private void run() {
+        long maxIdle = properties.getInterval().toMillis();
+        while (mover == Thread.currentThread()) {
+            long sleep;
+            try {
+                sleep = move();
+            } catch (Throwable ex) {
+                log.error("[run][搬运延迟消息发生异常]", ex);
+                sleep = maxIdle;
+            }
+            if (sleep <= 0) {
+                continue;
+            }
+            nextWakeTime = System.currentTimeMillis() + sleep;
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(sleep));
+            nextWakeTime = 0;
+        }
+    }
+
+    /**
+     * 搬运一批到期的消息
+     *
+     * @return 下一次搬运前需要休眠的毫秒数
+     */
+    @SuppressWarnings("unchecked")
+    private long move() {
+        long now = System.currentTimeMillis();
+        int batchSize = properties.getBatchSize();
+        List<String> result = stringRedisTemplate.execute(CLAIM_SCRIPT, KEYS, String.valueOf(now),
+                String.valueOf(batchSize), String.valueOf(now + properties.getLease().toMillis()));
+        if (CollUtil.isNotEmpty(result)) {
+            // 投递到目标 Stream，成功后再删除。投递失败时，等租约到期后重新认领
+            List<TransportMessage> transportMessages = new ArrayList<>(result.size() / 2);
+            String[] messageIds = new String[result.size() / 2];
+            for (int i = 0; i < messageIds.length; i++) {
+                messageIds[i] = result.get(i * 2);
+                String content = result.get(i * 2 + 1);
+                if (content == null) { // 已经被取消
+                    continue;
+                }
+                DelayMessage delayMessage = JsonUtils.parseObject(content, DelayMessage.class);
+                transportMessages.add(TransportMessage.ofStream(delayMessage.getStreamKey(), delayMessage.getContent(),
+                        delayMessage.getStreamMaxLength()));
+            }
+            messageTransport.send(transportMessages);
+            stringRedisTemplate.execute(REMOVE_SCRIPT, KEYS, (Object[]) messageIds);
+            metrics.movedCount.add(transportMessages.size());
+            // 还有更多到期的消息，立即继续搬运
+            if (messageIds.length >= batchSize) {
+                return 0;
+            }
+        }
+        // 按照最近一条消息的投递时间休眠，最多 interval 时间，以便发现其它节点发送的消息
+        Set<ZSetOperations.TypedTuple<String>> next = stringRedisTemplate.opsForZSet().rangeWithScores(DELAY_KEY, 0, 0);
+        if (CollUtil.isEmpty(next)) {
+            metrics.lag = 0;
+            return properties.getInterval().toMillis();
+        }
+        Double score = next.iterator().next().getScore();
+        long nextTime = score != null ? score.longValue() : now;
+        metrics.lag = Math.max(System.currentTimeMillis() - nextTime, 0);
+        return Math.min(Math.max(nextTime - System.currentTimeMillis(), 0), properties.getInterval().toMillis());
+    }
+
+    /**
+     * 延迟消息的内容
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class DelayMessage {
+
+        /**
+         * 目标 Stream Key，已经包含优先级通道的后缀
+         */
+        private String streamKey;
+        /**
+         * 消息内容，已经包含消息编号
+         */
+        private String content;
+        /**
+         * Stream 的最大长度，为 null 时不裁剪
+         */
+        private Long streamMaxLength;
+
+    }
+
+    /**
+     * 延迟消息的统计
+     */
+    public static class Metrics {
+
+        /**
+         * 搬运的消息数量
+         */
+        private final LongAdder movedCount = new LongAdder();
+        /**
+         * 最早到期的消息，已经超过投递时间多久，单位：毫秒。即最近一次搬运时的值
+         */
+        private volatile long lag;
+
+        public long getMovedCount() {
+            return movedCount.sum();
+        }
+
+        public long getLag() {
+            return lag;
+        }
+
+    }
+
+}
@@ -0,0 +1,33 @@
+package cn.iocoder.yudao.framework.mq.core.stream;
+
+import org.springframework.context.Lifecycle;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+
+import java.util.List;
+
+/**
+ * Redis Stream 消费容器的分组
+ *
+ * 每个 {@link AbstractStreamMessageListener} 对应一个独立的 {@link StreamMessageListenerContainer}，
+ * 每个 {@link AbstractStreamMessageBatchListener} 对应一个独立的 {@link StreamMessageBatchListenerContainer}，
+ * 拥有独立的线程、拉取数量、超时时间，从而实现 Stream 之间的隔离，避免某个 Stream 的慢消费拖慢其它 Stream
+ *
+ * @author 芋道源码
+ */
+public class StreamMessageListenerContainerGroup {
+
+    private final List<Lifecycle> containers;
+
+    public StreamMessageListenerContainerGroup(List<Lifecycle> containers) {
+        this.containers = containers;
+    }
+
+    public void start() {
+        containers.forEach(Lifecycle::start);
+    }
+
+    public void stop() {
+        containers.forEach(Lifecycle::stop);
+    }
+
+}
@@ -0,0 +1,293 @@
+package cn.iocoder.yudao.framework.mq.core.stream;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.StrUtil;
+import cn.iocoder.yudao.framework.mq.config.MQProperties;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.Lifecycle;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.PendingMessagesSummary;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Redis Stream 未 ack 消息的重新投递器
+ *
+ * 消费失败的消息不会 ack，会一直保留在消费者分组的 Pending 列表（PEL）中。并且，消费者名字使用 IP@PID，重启后不会再读取这些消息。
+ * 所以，后台定时通过 XPENDING 扫描 PEL，对空闲足够久的消息，通过 XCLAIM 认领后重新投递：
+ * 1. 空闲时间按照投递次数指数退避，即 retryDelay * 2^(投递次数 - 1)，上限为 retryMaxDelay
+ * 2. 超过最大投递次数后，转移到死信 Stream，即 Stream Key + {@link #DEAD_LETTER_SUFFIX}，并 ack 原消息
+ *
+ * XCLAIM 的 min-idle-time 参数，保证多个节点同时扫描时，同一条消息只会被一个节点认领
+ *
+ * 每次扫描从上一次扫描的最后一条消息之后继续，扫描到 PEL 末尾后，再从头开始。
+ * 这样，PEL 头部仍在退避中的消息，不会导致后面的消息一直得不到扫描
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class StreamMessagePendingReclaimer implements Lifecycle {
+
+    /**
+     * 死信 Stream 的后缀
+     */
+    public static final String DEAD_LETTER_SUFFIX = ".dead-letter";
+
+    /**
+     * 消息内容的字段，和 Spring Data Redis 保存 ObjectRecord 简单类型时使用的字段保持一致
+     */
+    private static final String PAYLOAD_FIELD = "payload";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MQProperties.StreamReclaim properties;
+    /**
+     * 认领消息时，使用的消费者名字
+     */
+    private final String consumerName;
+    /**
+     * 重新投递的目标，key 为 Stream Key + 消费者分组。同一个 Stream 可能有多个消费者分组
+     */
+    private final Map<String, Target> targets = new HashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    public StreamMessagePendingReclaimer(StringRedisTemplate stringRedisTemplate,
+                                         MQProperties.StreamReclaim properties, String consumerName) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.properties = properties;
+        this.consumerName = consumerName;
+    }
+
+    /**
+     * 注册 Stream 的重新投递目标
+     *
+     * @param streamKey Stream Key
+     * @param group 消费者分组
+     * @param handler 消息的处理器，处理成功时需要 ack 消息
+     */
+    public void register(String streamKey, String group, Consumer<ObjectRecord<String, String>> handler) {
+        targets.put(streamKey + "#" + group, new Target(streamKey, group, handler));
+    }
+
+    /**
+     * 获得各个 Stream、消费者分组的统计
+     *
+     * @return 统计
+     */
+    public List<Metrics> getMetrics() {
+        return targets.values().stream().map(target -> target.metrics).collect(Collectors.toList());
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("redis-stream-reclaimer-", true));
+        long interval = properties.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::reclaim, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /**
+     * 扫描所有 Stream 的 Pending 列表，重新投递或者转移到死信
+     */
+    public void reclaim() {
+        targets.values().forEach(target -> {
+            try {
+                reclaim(target);
+            } catch (Throwable ex) {
+                log.error("[reclaim][Stream({}) 分组({}) 重新投递发生异常]", target.streamKey, target.group, ex);
+            }
+        });
+    }
+
+    private void reclaim(Target target) {
+        // 更新 Pending 数量
+        PendingMessagesSummary summary = stringRedisTemplate.opsForStream().pending(target.streamKey, target.group);
+        target.metrics.pendingCount = summary != null ? summary.getTotalPendingMessages() : 0;
+        if (target.metrics.pendingCount == 0) {
+            return;
+        }
+        // 扫描 Pending 列表，从上一次扫描的最后一条消息继续。XPENDING 的范围包含起始编号，所以需要跳过它
+        String lastId = target.lastId;
+        Range<String> range = Range.unbounded();
+        int count = properties.getBatchSize();
+        if (lastId != null) {
+            range = Range.rightUnbounded(Range.Bound.inclusive(lastId));
+            count++;
+        }
+        PendingMessages pendingMessages = stringRedisTemplate.opsForStream().pending(target.streamKey, target.group,
+                range, count);
+        // 未扫描到末尾时，下一次从本页的最后一条消息继续；否则，下一次从头开始
+        target.lastId = pendingMessages.size() >= count
+                ? pendingMessages.get(pendingMessages.size() - 1).getIdAsString() : null;
+        for (PendingMessage pendingMessage : pendingMessages) {
+            if (pendingMessage.getIdAsString().equals(lastId)) {
+                continue;
+            }
+            Duration delay = buildRetryDelay(pendingMessage.getTotalDeliveryCount());
+            if (pendingMessage.getElapsedTimeSinceLastDelivery().compareTo(delay) < 0) {
+                continue;
+            }
+            // 认领消息。min-idle-time 保证只会被一个节点认领
+            ObjectRecord<String, String> record = claim(target, pendingMessage, delay);
+            if (record == null) {
+                continue;
+            }
+            // 超过最大投递次数，转移到死信
+            if (pendingMessage.getTotalDeliveryCount() >= properties.getMaxDeliveryCount()) {
+                deadLetter(target, record, pendingMessage.getTotalDeliveryCount());
+                continue;
+            }
+            // 重新投递
+            target.metrics.redeliveredCount.increment();
+            try {
+                target.handler.accept(record);
+            } catch (Throwable ex) {
+                log.warn("[reclaim][Stream({}) 消息({}) 第 {} 次投递失败]", target.streamKey, record.getId(),
+                        pendingMessage.getTotalDeliveryCount() + 1, ex);
+            }
+        }
+    }
+
+    private ObjectRecord<String, String> claim(Target target, PendingMessage pendingMessage, Duration minIdle) {
+        byte[] streamKey = target.streamKey.getBytes(StandardCharsets.UTF_8);
+        List<ByteRecord> records = stringRedisTemplate.execute((RedisCallback<List<ByteRecord>>) connection ->
+                connection.xClaim(streamKey, target.group, consumerName,
+                        RedisStreamCommands.XClaimOptions.minIdle(minIdle).ids(pendingMessage.getId())));
+        if (CollUtil.isEmpty(records)) {
+            return null;
+        }
+        MapRecord<String, String, String> record = records.get(0).deserialize(RedisSerializer.string(),
+                RedisSerializer.string(), RedisSerializer.string());
+        // 消息已经被裁剪，无法重新投递，直接 ack
+        String payload = record.getValue() != null ? record.getValue().get(PAYLOAD_FIELD) : null;
+        if (payload == null) {
+            stringRedisTemplate.opsForStream().acknowledge(target.streamKey, target.group, record.getId());
+            log.warn("[claim][Stream({}) 消息({}) 已经被裁剪，无法重新投递]", target.streamKey, record.getId());
+            return null;
+        }
+        return StreamRecords.newRecord().in(target.streamKey).withId(record.getId()).ofObject(payload);
+    }
+
+    private void deadLetter(Target target, ObjectRecord<String, String> record, long deliveryCount) {
+        Map<String, String> value = new HashMap<>();
+        value.put(PAYLOAD_FIELD, StrUtil.nullToEmpty(record.getValue()));
+        value.put("id", record.getId().getValue());
+        value.put("group", target.group);
+        value.put("deliveryCount", String.valueOf(deliveryCount));
+        stringRedisTemplate.opsForStream().add(StreamRecords.newRecord()
+                .in(target.streamKey + DEAD_LETTER_SUFFIX).ofMap(value));
+        stringRedisTemplate.opsForStream().acknowledge(target.group, record);
+        target.metrics.deadLetterCount.increment();
+        log.error("[deadLetter][Stream({}) 消息({}) 投递 {} 次仍然失败，转移到死信]", target.streamKey,
+                record.getId(), deliveryCount);
+    }
+
+    private Duration buildRetryDelay(long deliveryCount) {
+        // 投递次数从 1 开始。限制位移的次数，避免溢出
+        long shift = Math.min(Math.max(deliveryCount - 1, 0), 20);
+        Duration delay = properties.getRetryDelay().multipliedBy(1L << shift);
+        return delay.compareTo(properties.getRetryMaxDelay()) > 0 ? properties.getRetryMaxDelay() : delay;
+    }
+
+    /**
+     * 重新投递的目标
+     */
+    private static class Target {
+
+        private final String streamKey;
+        private final String group;
+        private final Consumer<ObjectRecord<String, String>> handler;
+        private final Metrics metrics;
+        /**
+         * 上一次扫描的最后一条消息的编号。为 null 时，从头开始扫描
+         */
+        private String lastId;
+
+        private Target(String streamKey, String group, Consumer<ObjectRecord<String, String>> handler) {
+            this.streamKey = streamKey;
+            this.group = group;
+            this.handler = handler;
+            this.metrics = new Metrics(streamKey, group);
+        }
+
+    }
+
+    /**
+     * Stream 的重新投递统计
+     */
+    public static class Metrics {
+
+        /**
+         * Stream Key
+         */
+        @Getter
+        private final String streamKey;
+        /**
+         * 消费者分组
+         */
+        @Getter
+        private final String group;
+        /**
+         * Pending 列表的消息数量，即最近一次扫描时的值
+         */
+        @Getter
+        private volatile long pendingCount;
+        /**
+         * 重新投递的次数
+         */
+        private final LongAdder redeliveredCount = new LongAdder();
+        /**
+         * 转移到死信的次数
+         */
+        private final LongAdder deadLetterCount = new LongAdder();
+
+        private Metrics(String streamKey, String group) {
+            this.streamKey = streamKey;
+            this.group = group;
+        }
+
+        public long getRedeliveredCount() {
+            return redeliveredCount.sum();
+        }
+
+        public long getDeadLetterCount() {
+            return deadLetterCount.sum();
+        }
+
+    }
+
+}
@@ -0,0 +1,79 @@
+package cn.iocoder.yudao.framework.mq.core.stream;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Redis Stream 消息的优先级
+ *
+ * 每个优先级对应一条独立的 Stream，即「通道」：Stream Key + {@link #suffix}。
+ * 消费时，按照优先级从高到低、按照权重轮询各个通道，保证高优先级的消息不会积压在大量低优先级的消息之后
+ *
+ * 注意，只有 {@link StreamMessage#isPriorityEnabled()} 为 true 的消息，才会消费 {@link #NORMAL} 以外的通道
+ *
+ * @author 芋道源码
+ */
+@AllArgsConstructor
+@Getter
+public enum StreamMessagePriorityEnum {
+
+    HIGH(".high", "高优先级，例如说验证码短信"),
+    NORMAL("", "普通优先级，即原 Stream"),
+    LOW(".low", "低优先级，例如说群发的营销短信");
+
+    /**
+     * Stream Key 的后缀
+     */
+    private final String suffix;
+    /**
+     * 名字
+     */
+    private final String name;
+
+    /**
+     * 获得该优先级通道的 Stream Key
+     *
+     * @param streamKey 消息的 Stream Key
+     * @return 通道的 Stream Key
+     */
+    public String buildStreamKey(String streamKey) {
+        return streamKey + suffix;
+    }
+
+    /**
+     * 获得消息实际发送的 Stream Key，即消息优先级对应的通道
+     *
+     * @param message 消息
+     * @return 通道的 Stream Key
+     */
+    public static String buildStreamKey(StreamMessage message) {
+        StreamMessagePriorityEnum priority = message.getPriority();
+        if (priority == null || !message.isPriorityEnabled()) {
+            return message.getStreamKey();
+        }
+        return priority.buildStreamKey(message.getStreamKey());
+    }
+
+    /**
+     * 获得需要消费的所有通道的 Stream Key，按照优先级从高到低
+     *
+     * @param streamKey 消息的 Stream Key
+     * @param priorityEnabled 是否开启优先级
+     * @return 通道的 Stream Key 数组
+     */
+    public static List<String> buildStreamKeys(String streamKey, boolean priorityEnabled) {
+        if (!priorityEnabled) {
+            return Collections.singletonList(streamKey);
+        }
+        List<String> streamKeys = new ArrayList<>(values().length);
+        for (StreamMessagePriorityEnum priority : values()) {
+            streamKeys.add(priority.buildStreamKey(streamKey));
+        }
+        return streamKeys;
+    }
+
+}
@@ -0,0 +1,147 @@
+package cn.iocoder.yudao.framework.mq.core.stream;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.thread.ThreadUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.Lifecycle;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * 开启优先级的 Redis Stream 消费容器，按照权重轮询 {@link StreamMessagePriorityEnum} 的各个通道
+ *
+ * 每个消费者一个线程，每一轮按照优先级从高到低，非阻塞地从每个通道最多拉取「权重」条消息并处理。
+ * 这样，高优先级通道每一轮都会被检查，即使低优先级通道积压了大量消息，高优先级的消息最多等待一轮；
+ * 同时，低优先级通道每一轮也能分到一定的份额，不会被饿死
+ *
+ * 所有通道都没有消息时，才通过一次 XREADGROUP 阻塞等待任一通道的消息，避免空转
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class StreamMessagePriorityListenerContainer implements Lifecycle {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    /**
+     * 消息的 Stream Key，用于打印日志
+     */
+    private final String streamKey;
+    /**
+     * 各个通道每一轮的读取配置，key 为通道的 Stream Key，按照优先级从高到低
+     */
+    private final Map<String, StreamReadOptions> laneReadOptions;
+    private final List<Consumer> consumers;
+    private final Executor executor;
+    /**
+     * 消息的处理器。每次传入的消息，一定来自同一个通道
+     */
+    private final java.util.function.Consumer<List<ObjectRecord<String, String>>> handler;
+    private final StreamReadOptions blockReadOptions;
+    private final Duration pollTimeout;
+
+    private volatile boolean running;
+
+    /**
+     * @param laneWeights 各个通道的权重，即每一轮最多拉取的消息数量，key 为通道的 Stream Key，需要按照优先级从高到低
+     */
+    public StreamMessagePriorityListenerContainer(StringRedisTemplate stringRedisTemplate, String streamKey,
+                                                  Map<String, Integer> laneWeights, List<Consumer> consumers,
+                                                  Executor executor,
+                                                  java.util.function.Consumer<List<ObjectRecord<String, String>>> handler,
+                                                  Duration pollTimeout) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.streamKey = streamKey;
+        this.laneReadOptions = new LinkedHashMap<>();
+        laneWeights.forEach((laneKey, weight) -> laneReadOptions.put(laneKey, StreamReadOptions.empty().count(weight)));
+        this.consumers = consumers;
+        this.executor = executor;
+        this.handler = handler;
+        this.blockReadOptions = StreamReadOptions.empty().count(1).block(pollTimeout);
+        this.pollTimeout = pollTimeout;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        consumers.forEach(consumer -> executor.execute(() -> poll(consumer)));
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void poll(Consumer consumer) {
+        // 设置 Consumer 消费进度，以最小消费进度为准
+        Map<String, StreamOffset<String>> laneOffsets = new LinkedHashMap<>();
+        laneReadOptions.keySet().forEach(laneKey -> laneOffsets.put(laneKey, StreamOffset.create(laneKey, ReadOffset.lastConsumed())));
+        StreamOffset<String>[] allOffsets = laneOffsets.values().toArray(new StreamOffset[0]);
+        while (running) {
+            try {
+                // 按照优先级从高到低，每个通道最多拉取「权重」条消息
+                boolean found = false;
+                for (Map.Entry<String, StreamReadOptions> entry : laneReadOptions.entrySet()) {
+                    List<ObjectRecord<String, String>> records = stringRedisTemplate.opsForStream()
+                            .read(String.class, consumer, entry.getValue(), laneOffsets.get(entry.getKey()));
+                    if (CollUtil.isNotEmpty(records)) {
+                        found = true;
+                        dispatch(consumer, records);
+                    }
+                }
+                if (found) {
+                    continue;
+                }
+                // 所有通道都没有消息时，阻塞等待任一通道的消息
+                List<ObjectRecord<String, String>> records = stringRedisTemplate.opsForStream()
+                        .read(String.class, consumer, blockReadOptions, allOffsets);
+                if (CollUtil.isEmpty(records)) {
+                    continue;
+                }
+                // 按照通道拆分，保证每次处理的消息来自同一个通道
+                for (String laneKey : laneOffsets.keySet()) {
+                    List<ObjectRecord<String, String>> laneRecords = new ArrayList<>(records.size());
+                    records.forEach(record -> {
+                        if (laneKey.equals(record.getStream())) {
+                            laneRecords.add(record);
+                        }
+                    });
+                    if (!laneRecords.isEmpty()) {
+                        dispatch(consumer, laneRecords);
+                    }
+                }
+            } catch (Throwable ex) {
+                log.error("[poll][Stream({}) 消费者({}) 拉取消息发生异常]", streamKey, consumer.getName(), ex);
+                // 避免 Redis 不可用等情况下，空转打满 CPU
+                ThreadUtil.sleep(pollTimeout.toMillis());
+            }
+        }
+    }
+
+    private void dispatch(Consumer consumer, List<ObjectRecord<String, String>> records) {
+        try {
+            handler.accept(records);
+        } catch (Throwable ex) {
+            // 处理失败的消息不会 ack，由 StreamMessagePendingReclaimer 重新投递
+            log.error("[dispatch][Stream({}) 消费者({}) 消费 {} 条消息发生异常]", records.get(0).getStream(),
+                    consumer.getName(), records.size(), ex);
+        }
+    }
+
+}
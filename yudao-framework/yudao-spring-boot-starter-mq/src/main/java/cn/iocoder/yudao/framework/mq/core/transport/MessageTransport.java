@@ -0,0 +1,79 @@
+package cn.iocoder.yudao.framework.mq.core.transport;
+
+import cn.iocoder.yudao.framework.mq.core.pubsub.ChannelMessage;
+import cn.iocoder.yudao.framework.mq.core.stream.StreamMessage;
+import cn.iocoder.yudao.framework.mq.core.util.MessageCodec;
+import cn.iocoder.yudao.framework.mq.core.stream.StreamMessagePriorityEnum;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 消息传输层 SPI 接口
+ *
+ * 负责将消息投递到广播消费的 Channel、集群消费的 Stream，屏蔽底层的实现。目前有两种实现：
+ * 1. {@link cn.iocoder.yudao.framework.mq.core.transport.redis.RedisMessageTransport}：基于 Redis Pub/Sub、Stream 实现，默认
+ * 2. {@link cn.iocoder.yudao.framework.mq.core.transport.local.LocalMessageTransport}：基于 JVM 内的环形队列实现，适合单机部署、单元测试
+ *
+ * 通过 yudao.mq.transport 配置项选择
+ *
+ * @author 芋道源码
+ */
+public interface MessageTransport {
+
+    /**
+     * 批量发送消息
+     *
+     * @param messages 消息数组
+     */
+    void send(List<TransportMessage> messages);
+
+    /**
+     * 是否持久化消息，即发送成功后，进程重启也不会丢失还未消费的消息
+     *
+     * 发送后立即响应调用方、由消费者异步处理的场景，需要传输层持久化，例如说支付渠道的回调
+     *
+     * @return 是否持久化
+     */
+    default boolean isDurable() {
+        return true;
+    }
+
+    /**
+     * 发送广播消费的消息
+     *
+     * @param message 消息
+     */
+    default <T extends ChannelMessage> void sendChannelMessage(T message) {
+        send(Collections.singletonList(TransportMessage.ofChannel(message.getChannel(),
+                MessageCodec.forMessage(message).toJsonString(message))));
+    }
+
+    /**
+     * 发送集群消费的消息
+     *
+     * @param message 消息
+     */
+    default <T extends StreamMessage> void sendStreamMessage(T message) {
+        sendStreamMessages(Collections.singletonList(message));
+    }
+
+    /**
+     * 批量发送集群消费的消息
+     *
+     * @param messages 消息数组
+     */
+    default <T extends StreamMessage> void sendStreamMessages(Collection<T> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        List<TransportMessage> transportMessages = new ArrayList<>(messages.size());
+        messages.forEach(message -> transportMessages.add(TransportMessage.ofStream(
+                StreamMessagePriorityEnum.buildStreamKey(message),
+                MessageCodec.forMessage(message).toJsonString(message), message.getStreamMaxLength())));
+        send(transportMessages);
+    }
+
+}
@@ -0,0 +1,46 @@
+package cn.iocoder.yudao.framework.mq.core.transport;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 传输层的消息，即已经序列化的消息内容，以及它的目的地
+ *
+ * {@link #channel} 和 {@link #streamKey} 有且只有一个不为空
+ *
+ * @author 芋道源码
+ */
+@Getter
+@AllArgsConstructor
+public class TransportMessage {
+
+    /**
+     * Channel，广播消费
+     */
+    private final String channel;
+    /**
+     * Stream Key，集群消费
+     */
+    private final String streamKey;
+    /**
+     * 消息内容，即 JSON 格式的消息
+     */
+    private final String content;
+    /**
+     * Stream 的最大长度，为 null 时不裁剪
+     */
+    private final Long streamMaxLength;
+
+    public static TransportMessage ofChannel(String channel, String content) {
+        return new TransportMessage(channel, null, content, null);
+    }
+
+    public static TransportMessage ofStream(String streamKey, String content, Long streamMaxLength) {
+        return new TransportMessage(null, streamKey, content, streamMaxLength);
+    }
+
+    public boolean isChannel() {
+        return channel != null;
+    }
+
+}
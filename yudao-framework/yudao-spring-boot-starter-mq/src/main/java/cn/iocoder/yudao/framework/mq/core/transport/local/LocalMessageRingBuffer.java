@@ -0,0 +1,131 @@
+package cn.iocoder.yudao.framework.mq.core.transport.local;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * JVM 内的环形队列，多生产者、单消费者
+ *
+ * 参考 LMAX Disruptor 的 MultiProducerSequencer 实现：
+ * 1. 预先分配固定大小的数组，生产者通过 CAS 递增序号认领槽位，不加锁
+ * 2. 每个槽位通过 availableBuffer 记录写入时的「圈数」，消费者据此判断槽位是否已经发布，避免读到未写完的数据
+ * 3. 消费者一次性取出所有已经发布的连续消息，批量处理，减少调度开销
+ * 4. 队列已满时，生产者自旋等待消费者，形成背压
+ *
+ * @author 芋道源码
+ */
+public class LocalMessageRingBuffer {
+
+    /**
+     * 空闲时，消费者先让出 CPU 的次数
+     */
+    private static final int SPIN_TRIES = 100;
+    /**
+     * 之后，消费者每次休眠的时间，单位：纳秒
+     */
+    private static final long PARK_NANOS = 100_000L;
+
+    private final String[] entries;
+    private final int mask;
+    private final int indexShift;
+    /**
+     * 每个槽位发布时的圈数，未发布时为 -1
+     */
+    private final AtomicIntegerArray availableBuffer;
+    /**
+     * 生产者已经认领的最大序号
+     */
+    private final AtomicLong claimSequence = new AtomicLong(-1);
+    /**
+     * 消费者已经处理的最大序号
+     */
+    private volatile long consumerSequence = -1;
+
+    /**
+     * @param bufferSize 队列大小，会向上取整到 2 的幂次
+     */
+    public LocalMessageRingBuffer(int bufferSize) {
+        int size = Integer.highestOneBit(Math.max(bufferSize, 2) - 1) << 1;
+        this.entries = new String[size];
+        this.mask = size - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(size);
+        this.availableBuffer = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            availableBuffer.set(i, -1);
+        }
+    }
+
+    /**
+     * 发布消息。队列已满时，等待消费者腾出槽位
+     *
+     * @param content 消息内容
+     */
+    public void publish(String content) {
+        long sequence = claimSequence.incrementAndGet();
+        // 等待槽位被消费，即 sequence - size 已经被消费
+        long wrapPoint = sequence - entries.length;
+        while (wrapPoint > consumerSequence) {
+            LockSupport.parkNanos(1L);
+        }
+        int index = (int) (sequence & mask);
+        entries[index] = content;
+        // 写入圈数，发布槽位。lazySet 保证 entries 的写入对消费者可见
+        availableBuffer.lazySet(index, (int) (sequence >>> indexShift));
+    }
+
+    /**
+     * 取出已经发布的连续消息，最多 maxCount 条。没有消息时，按照「让出 CPU -> 休眠」的策略等待，参考 Disruptor 的 SleepingWaitStrategy
+     *
+     * @param contents 取出的消息，添加到该数组
+     * @param maxCount 最多取出的数量
+     * @param running 是否仍在运行，用于退出等待
+     * @return 取出的数量
+     */
+    public int drainTo(List<String> contents, int maxCount, BooleanSupplier running) {
+        int tries = 0;
+        while (running.getAsBoolean()) {
+            int count = drainAvailable(contents, maxCount);
+            if (count > 0) {
+                return count;
+            }
+            if (tries++ < SPIN_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+        return drainAvailable(contents, maxCount);
+    }
+
+    private int drainAvailable(List<String> contents, int maxCount) {
+        long next = consumerSequence + 1;
+        int count = 0;
+        while (count < maxCount && isAvailable(next + count)) {
+            int index = (int) ((next + count) & mask);
+            contents.add(entries[index]);
+            entries[index] = null; // 帮助 GC
+            count++;
+        }
+        if (count > 0) {
+            consumerSequence = next + count - 1;
+        }
+        return count;
+    }
+
+    private boolean isAvailable(long sequence) {
+        return availableBuffer.get((int) (sequence & mask)) == (int) (sequence >>> indexShift);
+    }
+
+    /**
+     * 获得积压的消息数量
+     *
+     * @return 数量
+     */
+    public long getBacklog() {
+        return Math.max(claimSequence.get() - consumerSequence, 0);
+    }
+
+}
@@ -0,0 +1,263 @@
+package cn.iocoder.yudao.framework.mq.core.transport.local;
+
+import cn.iocoder.yudao.framework.mq.core.pubsub.AbstractChannelMessageListener;
+import cn.iocoder.yudao.framework.mq.core.stream.AbstractStreamMessageBatchListener;
+import cn.iocoder.yudao.framework.mq.core.stream.AbstractStreamMessageListener;
+import cn.iocoder.yudao.framework.mq.core.transport.MessageTransport;
+import cn.iocoder.yudao.framework.mq.core.transport.TransportMessage;
+import cn.iocoder.yudao.framework.mq.core.stream.StreamMessagePriorityEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.Lifecycle;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 基于 JVM 内环形队列的消息传输层，适合单机部署、单元测试，无需 Redis 的网络往返
+ *
+ * 每个订阅拥有 consumerCount 个 {@link LocalMessageRingBuffer}，每个队列由一个独立的线程消费：
+ * 1. Channel 消息：每个 Channel 一个订阅，投递给该 Channel 的所有监听器
+ * 2. Stream 消息：每个监听器（即消费者分组）一个订阅，轮询写入各个队列，实现分组内的并发消费
+ *
+ * 注意，消息只保存在内存中，进程重启会丢失；消费失败时，只打印日志，不会重新投递
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class LocalMessageTransport implements MessageTransport, Lifecycle {
+
+    /**
+     * 停止时，等待消费线程处理完积压消息的最大时长，单位：毫秒
+     */
+    private static final long STOP_TIMEOUT_MILLIS = 10_000L;
+
+    /**
+     * 每个队列的大小
+     */
+    private final int bufferSize;
+
+    /**
+     * Channel 的订阅，key 为 Channel
+     */
+    private final Map<String, Subscription> channelSubscriptions = new HashMap<>();
+    /**
+     * Channel 的监听器，key 为 Channel
+     */
+    private final Map<String, List<AbstractChannelMessageListener<?>>> channelListeners = new HashMap<>();
+    /**
+     * Stream 的订阅，key 为 Stream Key
+     */
+    private final Map<String, List<Subscription>> streamSubscriptions = new HashMap<>();
+
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    public LocalMessageTransport(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * 注册广播消费的监听器
+     *
+     * @param listener 监听器
+     */
+    public void registerChannelListener(AbstractChannelMessageListener<?> listener) {
+        String channel = listener.getChannel();
+        List<AbstractChannelMessageListener<?>> listeners = channelListeners.computeIfAbsent(channel, key -> new ArrayList<>());
+        listeners.add(listener);
+        byte[] channelBytes = channel.getBytes(StandardCharsets.UTF_8);
+        channelSubscriptions.computeIfAbsent(channel, key -> new Subscription("local-mq-" + channel, 1, 1,
+                contents -> contents.forEach(content -> {
+                    DefaultMessage message = new DefaultMessage(channelBytes, content.getBytes(StandardCharsets.UTF_8));
+                    listeners.forEach(channelListener -> {
+                        try {
+                            channelListener.onMessage(message, null);
+                        } catch (Throwable ex) {
+                            log.error("[onMessage][Channel({}) 监听器({}) 消费发生异常]", channel,
+                                    channelListener.getClass().getName(), ex);
+                        }
+                    });
+                })));
+    }
+
+    /**
+     * 注册集群消费的监听器
+     *
+     * @param listener 监听器
+     * @param consumerCount 消费者数量
+     */
+    public void registerStreamListener(AbstractStreamMessageListener<?> listener, int consumerCount) {
+        String streamKey = listener.getStreamKey();
+        AtomicLong sequence = new AtomicLong();
+        addStreamSubscription(streamKey, listener.isPriorityEnabled(), new Subscription("local-mq-" + streamKey, consumerCount, 1,
+                contents -> contents.forEach(content -> {
+                    try {
+                        listener.consume(buildRecord(streamKey, sequence, content), false);
+                    } catch (Throwable ex) {
+                        log.error("[onMessage][Stream({}) 监听器({}) 消费发生异常]", streamKey,
+                                listener.getClass().getName(), ex);
+                    }
+                })));
+    }
+
+    /**
+     * 注册集群消费的批量监听器
+     *
+     * @param listener 监听器
+     * @param consumerCount 消费者数量
+     * @param batchSize 每批的最大消息数量
+     */
+    public void registerStreamBatchListener(AbstractStreamMessageBatchListener<?> listener, int consumerCount,
+                                           int batchSize) {
+        String streamKey = listener.getStreamKey();
+        AtomicLong sequence = new AtomicLong();
+        addStreamSubscription(streamKey, listener.isPriorityEnabled(), new Subscription("local-mq-" + streamKey, consumerCount, batchSize,
+                contents -> {
+                    List<ObjectRecord<String, String>> records = new ArrayList<>(contents.size());
+                    contents.forEach(content -> records.add(buildRecord(streamKey, sequence, content)));
+                    try {
+                        listener.consume(records);
+                    } catch (Throwable ex) {
+                        log.error("[onMessage][Stream({}) 批量监听器({}) 消费 {} 条消息发生异常]", streamKey,
+                                listener.getClass().getName(), records.size(), ex);
+                    }
+                }));
+    }
+
+    /**
+     * 添加 Stream 的订阅。开启优先级时，各个通道共用同一个订阅，即本地传输不区分优先级
+     */
+    private void addStreamSubscription(String streamKey, boolean priorityEnabled, Subscription subscription) {
+        StreamMessagePriorityEnum.buildStreamKeys(streamKey, priorityEnabled).forEach(laneKey ->
+                streamSubscriptions.computeIfAbsent(laneKey, key -> new ArrayList<>()).add(subscription));
+    }
+
+    @Override
+    public void send(List<TransportMessage> messages) {
+        messages.forEach(message -> {
+            if (message.isChannel()) {
+                Subscription subscription = channelSubscriptions.get(message.getChannel());
+                if (subscription != null) {
+                    subscription.publish(message.getContent());
+                }
+                return;
+            }
+            List<Subscription> subscriptions = streamSubscriptions.get(message.getStreamKey());
+            if (subscriptions == null) {
+                log.warn("[send][Stream({}) 不存在监听器，丢弃消息]", message.getStreamKey());
+                return;
+            }
+            subscriptions.forEach(subscription -> subscription.publish(message.getContent()));
+        });
+    }
+
+    /**
+     * 消息只保存在内存中，进程重启会丢失
+     */
+    @Override
+    public boolean isDurable() {
+        return false;
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        channelSubscriptions.values().forEach(this::startSubscription);
+        streamSubscriptions.values().forEach(subscriptions -> subscriptions.forEach(this::startSubscription));
+    }
+
+    private void startSubscription(Subscription subscription) {
+        for (int i = 0; i < subscription.buffers.length; i++) {
+            LocalMessageRingBuffer buffer = subscription.buffers[i];
+            Thread thread = new Thread(() -> {
+                List<String> contents = new ArrayList<>(subscription.batchSize);
+                while (running || buffer.getBacklog() > 0) {
+                    if (buffer.drainTo(contents, subscription.batchSize, () -> running) > 0) {
+                        subscription.handler.accept(contents);
+                        contents.clear();
+                    }
+                }
+            }, subscription.name + "-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+    }
+
+    /**
+     * 停止消费。消费线程处理完队列中积压的消息后退出，最多等待 {@link #STOP_TIMEOUT_MILLIS}
+     *
+     * 超时仍未退出的线程，是守护线程，不阻塞进程退出，但它们未处理的消息会丢失
+     */
+    @Override
+    public void stop() {
+        running = false;
+        long deadline = System.currentTimeMillis() + STOP_TIMEOUT_MILLIS;
+        for (Thread thread : threads) {
+            try {
+                thread.join(Math.max(deadline - System.currentTimeMillis(), 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (thread.isAlive()) {
+                log.warn("[stop][消费线程({}) 未在 {} ms 内处理完积压的消息]", thread.getName(), STOP_TIMEOUT_MILLIS);
+            }
+        }
+        threads.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private static ObjectRecord<String, String> buildRecord(String streamKey, AtomicLong sequence, String content) {
+        return StreamRecords.newRecord().in(streamKey)
+                .withId(RecordId.of(System.currentTimeMillis(), sequence.incrementAndGet())).ofObject(content);
+    }
+
+    /**
+     * 订阅，即一组队列，以及它们的消费逻辑
+     */
+    private class Subscription {
+
+        private final String name;
+        private final LocalMessageRingBuffer[] buffers;
+        private final int batchSize;
+        private final Consumer<List<String>> handler;
+        /**
+         * 轮询写入队列的计数器
+         */
+        private final AtomicLong counter = new AtomicLong();
+
+        private Subscription(String name, int consumerCount, int batchSize, Consumer<List<String>> handler) {
+            this.name = name;
+            this.buffers = new LocalMessageRingBuffer[consumerCount];
+            for (int i = 0; i < consumerCount; i++) {
+                buffers[i] = new LocalMessageRingBuffer(bufferSize);
+            }
+            this.batchSize = batchSize;
+            this.handler = handler;
+        }
+
+        private void publish(String content) {
+            int index = buffers.length == 1 ? 0 : (int) (counter.getAndIncrement() % buffers.length);
+            buffers[index].publish(content);
+        }
+
+    }
+
+}
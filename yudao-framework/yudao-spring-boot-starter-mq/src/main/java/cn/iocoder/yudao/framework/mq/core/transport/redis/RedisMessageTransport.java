@@ -0,0 +1,71 @@
+package cn.iocoder.yudao.framework.mq.core.transport.redis;
+
+import cn.iocoder.yudao.framework.mq.core.transport.MessageTransport;
+import cn.iocoder.yudao.framework.mq.core.transport.TransportMessage;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于 Redis 的消息传输层：Channel 消息使用 Pub/Sub，Stream 消息使用 Stream
+ *
+ * @author 芋道源码
+ */
+public class RedisMessageTransport implements MessageTransport {
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    public RedisMessageTransport(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    /**
+     * 批量发送消息。所有的 XADD、XTRIM、PUBLISH 命令，通过 pipeline 一次往返完成
+     *
+     * @param messages 消息数组
+     */
+    @Override
+    public void send(List<TransportMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        // 单条 Channel 消息，无需 pipeline
+        if (messages.size() == 1 && messages.get(0).isChannel()) {
+            stringRedisTemplate.convertAndSend(messages.get(0).getChannel(), messages.get(0).getContent());
+            return;
+        }
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> stringOperations = (RedisOperations<String, String>) operations;
+                Map<String, Long> streamMaxLengths = new LinkedHashMap<>();
+                messages.forEach(message -> {
+                    if (message.isChannel()) {
+                        stringOperations.convertAndSend(message.getChannel(), message.getContent());
+                        return;
+                    }
+                    stringOperations.opsForStream().add(StreamRecords.newRecord()
+                            .ofObject(message.getContent()) // 设置内容
+                            .withStreamKey(message.getStreamKey())); // 设置 stream key
+                    if (message.getStreamMaxLength() != null) {
+                        streamMaxLengths.put(message.getStreamKey(), message.getStreamMaxLength());
+                    }
+                });
+                // 近似裁剪，每个 Stream 只需要一次
+                streamMaxLengths.forEach((streamKey, maxLength) ->
+                        stringOperations.opsForStream().trim(streamKey, maxLength, true));
+                return null;
+            }
+
+        });
+    }
+
+}
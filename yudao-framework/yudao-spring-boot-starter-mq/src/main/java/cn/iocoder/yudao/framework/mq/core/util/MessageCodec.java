@@ -0,0 +1,238 @@
+package cn.iocoder.yudao.framework.mq.core.util;
+
+import cn.hutool.core.util.ArrayUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.deser.DeserializationProblemHandler;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 消息的编解码器，每个消息类一个实例
+ *
+ * 和直接使用 {@link JsonUtils} 相比：
+ * 1. 缓存消息类对应的 {@link ObjectReader}、{@link ObjectWriter}，无需每次解析类型
+ * 2. 支持直接读写 byte[]，例如说 Pub/Sub 的消息体，避免中间的 String
+ * 3. 消息编号 {@link MessageIdUtils#MESSAGE_ID_FIELD} 在反序列化的过程中一次读出，无需先解析成 JsonNode 再移除
+ *
+ * {@link JsonUtils#init(ObjectMapper)} 替换 ObjectMapper 后，会自动重新创建 ObjectReader、ObjectWriter
+ *
+ * @param <T> 消息类型
+ *
+ * @author 芋道源码
+ */
+public class MessageCodec<T> {
+
+    private static final ConcurrentMap<Class<?>, MessageCodec<?>> CODECS = new ConcurrentHashMap<>();
+
+    /**
+     * 反序列化时，存放消息编号的 {@link DeserializationContext} 属性
+     */
+    private static final String MESSAGE_ID_ATTRIBUTE = MessageCodec.class.getName() + ".messageId";
+
+    /**
+     * 处理消息编号字段：消息类中不存在该字段，反序列化时读出并跳过
+     */
+    private static final DeserializationProblemHandler MESSAGE_ID_HANDLER = new DeserializationProblemHandler() {
+
+        @Override
+        public boolean handleUnknownProperty(DeserializationContext ctxt, JsonParser p, JsonDeserializer<?> deserializer,
+                                             Object beanOrClass, String propertyName) throws IOException {
+            if (!MessageIdUtils.MESSAGE_ID_FIELD.equals(propertyName)) {
+                return false;
+            }
+            MessageIdHolder holder = (MessageIdHolder) ctxt.getAttribute(MESSAGE_ID_ATTRIBUTE);
+            if (holder != null) {
+                holder.messageId = p.getValueAsString();
+            }
+            p.skipChildren();
+            return true;
+        }
+
+    };
+
+    private final Class<T> messageType;
+
+    /**
+     * 创建 {@link #reader}、{@link #writer} 时使用的 ObjectMapper
+     */
+    private volatile ObjectMapper objectMapper;
+    private volatile ObjectReader reader;
+    private volatile ObjectWriter writer;
+
+    private MessageCodec(Class<T> messageType) {
+        this.messageType = messageType;
+    }
+
+    /**
+     * 获得消息类对应的编解码器
+     *
+     * @param messageType 消息类型
+     * @return 编解码器
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> MessageCodec<T> of(Class<T> messageType) {
+        return (MessageCodec<T>) CODECS.computeIfAbsent(messageType, MessageCodec::new);
+    }
+
+    /**
+     * 获得消息对象的类对应的编解码器
+     *
+     * @param message 消息
+     * @return 编解码器
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> MessageCodec<T> forMessage(T message) {
+        return (MessageCodec<T>) of(message.getClass());
+    }
+
+    /**
+     * 序列化消息
+     *
+     * @param message 消息
+     * @return 消息内容
+     */
+    public String toJsonString(T message) {
+        try {
+            return getWriter().writeValueAsString(message);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 序列化消息为 byte[]
+     *
+     * @param message 消息
+     * @return 消息内容
+     */
+    public byte[] toBytes(T message) {
+        try {
+            return getWriter().writeValueAsBytes(message);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 序列化消息，并设置消息编号
+     *
+     * 消息一定是 JSON 对象，所以直接在 { 之后插入消息编号字段，无需构建 JsonNode
+     *
+     * @param message 消息
+     * @param messageId 消息编号
+     * @return 消息内容
+     */
+    public String toJsonString(T message, String messageId) {
+        String json = toJsonString(message);
+        int start = json.indexOf('{');
+        if (start < 0) {
+            throw new IllegalArgumentException(String.format("消息(%s) 不是 JSON 对象", messageType.getName()));
+        }
+        StringBuilder builder = new StringBuilder(json.length() + messageId.length() + 20)
+                .append(json, 0, start + 1)
+                .append('"').append(MessageIdUtils.MESSAGE_ID_FIELD).append("\":\"")
+                .append(JsonStringEncoder.getInstance().quoteAsString(messageId)).append('"');
+        // 非空对象时，需要逗号分隔后续的字段
+        if (!StrUtil.startWith(StrUtil.trimStart(json.substring(start + 1)), '}')) {
+            builder.append(',');
+        }
+        return builder.append(json, start + 1, json.length()).toString();
+    }
+
+    /**
+     * 反序列化消息，忽略消息编号
+     *
+     * @param content 消息内容
+     * @return 消息
+     */
+    public T parseObject(byte[] content) {
+        if (ArrayUtil.isEmpty(content)) {
+            return null;
+        }
+        try {
+            return getReader().readValue(content);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 反序列化消息，忽略消息编号
+     *
+     * @param content 消息内容
+     * @return 消息
+     */
+    public T parseObject(String content) {
+        if (StrUtil.isEmpty(content)) {
+            return null;
+        }
+        try {
+            return getReader().readValue(content);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 反序列化消息，并读出消息编号
+     *
+     * @param content 消息内容
+     * @return 消息，以及消息编号。不存在消息编号时，为 null
+     */
+    public MessageIdUtils.ParsedMessage<T> parse(String content) {
+        MessageIdHolder holder = new MessageIdHolder();
+        T message;
+        try {
+            message = getReader().withAttribute(MESSAGE_ID_ATTRIBUTE, holder).readValue(content);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return new MessageIdUtils.ParsedMessage<>(message, holder.messageId);
+    }
+
+    private ObjectReader getReader() {
+        refreshIfNecessary();
+        return reader;
+    }
+
+    private ObjectWriter getWriter() {
+        refreshIfNecessary();
+        return writer;
+    }
+
+    private void refreshIfNecessary() {
+        ObjectMapper current = JsonUtils.getObjectMapper();
+        if (objectMapper == current) {
+            return;
+        }
+        synchronized (this) {
+            if (objectMapper == current) {
+                return;
+            }
+            reader = current.readerFor(messageType).withHandler(MESSAGE_ID_HANDLER);
+            writer = current.writerFor(messageType);
+            objectMapper = current;
+        }
+    }
+
+    /**
+     * 反序列化时，存放读出的消息编号
+     */
+    private static class MessageIdHolder {
+
+        private String messageId;
+
+    }
+
+}
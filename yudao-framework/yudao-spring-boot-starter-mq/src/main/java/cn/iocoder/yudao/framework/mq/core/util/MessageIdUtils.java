@@ -0,0 +1,76 @@
+package cn.iocoder.yudao.framework.mq.core.util;
+
+import cn.hutool.core.util.IdUtil;
+import lombok.Getter;
+
+/**
+ * 消息编号工具类
+ *
+ * 消息编号保存在消息内容的 {@link #MESSAGE_ID_FIELD} 字段中，和具体的消息类无关，用于消费者的幂等判断。
+ * 例如说，通过 Outbox 发送的消息，重复投递时，消息编号保持不变
+ *
+ * @author 芋道源码
+ */
+public class MessageIdUtils {
+
+    /**
+     * 消息编号的字段
+     */
+    public static final String MESSAGE_ID_FIELD = "_messageId";
+
+    /**
+     * 生成消息编号
+     *
+     * @return 消息编号
+     */
+    public static String generateMessageId() {
+        return IdUtil.fastSimpleUUID();
+    }
+
+    /**
+     * 序列化消息，并设置消息编号
+     *
+     * @param message 消息
+     * @param messageId 消息编号
+     * @return 消息内容
+     */
+    public static String toJsonString(Object message, String messageId) {
+        return MessageCodec.forMessage(message).toJsonString(message, messageId);
+    }
+
+    /**
+     * 反序列化消息，并移除消息编号
+     *
+     * @param content 消息内容
+     * @param messageType 消息类型
+     * @return 消息，以及消息编号。不存在消息编号时，为 null
+     */
+    public static <T> ParsedMessage<T> parseObject(String content, Class<T> messageType) {
+        return MessageCodec.of(messageType).parse(content);
+    }
+
+    /**
+     * 反序列化后的消息
+     *
+     * @param <T> 消息类型
+     */
+    @Getter
+    public static class ParsedMessage<T> {
+
+        /**
+         * 消息
+         */
+        private final T message;
+        /**
+         * 消息编号
+         */
+        private final String messageId;
+
+        ParsedMessage(T message, String messageId) {
+            this.message = message;
+            this.messageId = messageId;
+        }
+
+    }
+
+}
@@ -2,10 +2,22 @@ package cn.iocoder.yudao.framework.mq.core.util;
 
 import cn.iocoder.yudao.framework.mq.core.pubsub.ChannelMessage;
 import cn.iocoder.yudao.framework.mq.core.stream.StreamMessage;
-import cn.iocoder.yudao.framework.common.util.json.JsonUtils;
+import cn.iocoder.yudao.framework.mq.core.stream.StreamMessagePriorityEnum;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Redis 消息工具类
@@ -17,24 +29,80 @@ public class RedisMessageUtils {
     /**
      * 发送 Redis 消息，基于 Redis pub/sub 实现
      *
+     * 消息直接序列化为 byte[] 发布，不经过 redisTemplate 的序列化器
+     *
      * @param redisTemplate Redis 操作模板
      * @param message 消息
      */
     public static <T extends ChannelMessage> void sendChannelMessage(RedisTemplate<?, ?> redisTemplate, T message) {
-        redisTemplate.convertAndSend(message.getChannel(), JsonUtils.toJsonString(message));
+        byte[] channel = message.getChannel().getBytes(StandardCharsets.UTF_8);
+        byte[] body = MessageCodec.forMessage(message).toBytes(message);
+        redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(channel, body));
     }
 
     /**
      * 发送 Redis 消息，基于 Redis Stream 实现
      *
+     * 如果设置了 {@link StreamMessage#getStreamMaxLength()}，XADD 和 XTRIM 通过 pipeline 一次往返完成
+     *
      * @param redisTemplate Redis 操作模板
      * @param message 消息
      * @return 消息记录的编号对象
      */
     public static <T extends StreamMessage> RecordId sendStreamMessage(RedisTemplate<String, ?> redisTemplate, T message) {
-        return redisTemplate.opsForStream().add(StreamRecords.newRecord()
-                .ofObject(JsonUtils.toJsonString(message)) // 设置内容
-                .withStreamKey(message.getStreamKey())); // 设置 stream key
+        if (message.getStreamMaxLength() == null) {
+            return redisTemplate.opsForStream().add(StreamRecords.newRecord()
+                    .ofObject(MessageCodec.forMessage(message).toJsonString(message)) // 设置内容
+                    .withStreamKey(StreamMessagePriorityEnum.buildStreamKey(message))); // 设置 stream key，即优先级对应的通道
+        }
+        return sendStreamMessages(redisTemplate, Collections.singletonList(message)).get(0);
+    }
+
+    /**
+     * 批量发送 Redis 消息，基于 Redis Stream 实现
+     *
+     * 所有的 XADD 命令，以及按照 {@link StreamMessage#getStreamMaxLength()} 裁剪的 XTRIM 命令，通过 pipeline 一次往返完成。
+     * 适合群发通知等，短时间内大量发送消息的场景
+     *
+     * @param redisTemplate Redis 操作模板
+     * @param messages 消息列表
+     * @return 消息记录的编号对象列表，和 messages 一一对应
+     */
+    public static <T extends StreamMessage> List<RecordId> sendStreamMessages(RedisTemplate<String, ?> redisTemplate,
+                                                                              Collection<T> messages) {
+        if (messages.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, ?> streamOperations = (RedisOperations<String, ?>) operations;
+                // 发送消息，并记录每个 Stream 的最大长度
+                Map<String, Long> streamMaxLengths = new LinkedHashMap<>();
+                messages.forEach(message -> {
+                    String streamKey = StreamMessagePriorityEnum.buildStreamKey(message);
+                    streamOperations.opsForStream().add(StreamRecords.newRecord()
+                            .ofObject(MessageCodec.forMessage(message).toJsonString(message)) // 设置内容
+                            .withStreamKey(streamKey)); // 设置 stream key，即优先级对应的通道
+                    if (message.getStreamMaxLength() != null) {
+                        streamMaxLengths.put(streamKey, message.getStreamMaxLength());
+                    }
+                });
+                // 近似裁剪，每个 Stream 只需要一次
+                streamMaxLengths.forEach((streamKey, maxLength) ->
+                        streamOperations.opsForStream().trim(streamKey, maxLength, true));
+                return null;
+            }
+
+        });
+        // 前 messages.size() 个结果，即 XADD 返回的消息编号
+        List<RecordId> recordIds = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            recordIds.add((RecordId) results.get(i));
+        }
+        return recordIds;
     }
 
 }
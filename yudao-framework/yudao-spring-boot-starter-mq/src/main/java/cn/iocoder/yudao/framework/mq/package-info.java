@@ -2,5 +2,6 @@
  * 消息队列，基于 Redis 提供：
  * 1. 基于 Pub/Sub 实现广播消费
  * 2. 基于 Stream 实现集群消费
+ * 3. 基于 ZSET 实现 Stream 的延迟消息
  */
 package cn.iocoder.yudao.framework.mq;
@@ -0,0 +1,165 @@
+package cn.iocoder.yudao.framework.mq.core.stream;
+
+import cn.hutool.core.util.ReflectUtil;
+import cn.iocoder.yudao.framework.mq.core.util.MessageCodec;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.stream.ObjectRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StreamOperations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link AbstractStreamMessageBatchListener} 的单元测试，校验批量消费时的去重、ack
+ */
+public class AbstractStreamMessageBatchListenerTest {
+
+    private static final String STREAM_KEY = "test-batch-stream";
+    private static final String GROUP = "test-group";
+
+    private final StreamMessageDeduplicator deduplicator = mock(StreamMessageDeduplicator.class);
+    @SuppressWarnings("unchecked")
+    private final StreamOperations<String, Object, Object> streamOperations = mock(StreamOperations.class);
+
+    private TestBatchListener listener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        when(redisTemplate.opsForStream()).thenReturn(streamOperations);
+        listener = new TestBatchListener();
+        ReflectUtil.setFieldValue(listener, "group", GROUP);
+        listener.setRedisTemplate(redisTemplate);
+        listener.setDeduplicator(deduplicator);
+    }
+
+    @Test
+    public void testConsume_filterDuplicates() {
+        // 准备参数：m1 已经消费过，m2 在同一批中出现两次，4-0 没有消息编号
+        ObjectRecord<String, String> record1 = buildRecord("1-0", "m1", "a");
+        ObjectRecord<String, String> record2 = buildRecord("2-0", "m2", "b");
+        ObjectRecord<String, String> record3 = buildRecord("3-0", "m2", "b");
+        ObjectRecord<String, String> record4 = buildRecord("4-0", null, "c");
+        // mock 方法
+        when(deduplicator.isDuplicate(eq(STREAM_KEY), eq(GROUP), anyString(), eq(true))).thenAnswer(
+                invocation -> "m1".equals(invocation.getArgument(2)));
+
+        // 调用
+        listener.consume(Arrays.asList(record1, record2, record3, record4));
+        // 断言：只处理未消费过的消息
+        assertEquals(Arrays.asList("b", "c"), listener.contents);
+        // 断言：重复的消息直接 ack；处理完成后，先记录再 ack
+        verify(streamOperations).acknowledge(STREAM_KEY, GROUP, record1.getId(), record3.getId());
+        verify(deduplicator).record(STREAM_KEY, GROUP, "m2");
+        verify(deduplicator).record(STREAM_KEY, GROUP, STREAM_KEY + "/4-0");
+        verify(streamOperations).acknowledge(STREAM_KEY, GROUP, record2.getId(), record4.getId());
+        // 断言：没有消息编号的首次投递，本地未命中时无需查询 Redis
+        verify(deduplicator).isDuplicate(STREAM_KEY, GROUP, STREAM_KEY + "/4-0", false);
+    }
+
+    @Test
+    public void testConsume_redelivered() {
+        // 准备参数
+        ObjectRecord<String, String> record = buildRecord("1-0", null, "a");
+
+        // 调用：重新投递时，没有消息编号也需要查询 Redis
+        listener.consume(Collections.singletonList(record), true);
+        // 断言
+        verify(deduplicator).isDuplicate(STREAM_KEY, GROUP, STREAM_KEY + "/1-0", true);
+        assertEquals(Collections.singletonList("a"), listener.contents);
+        verify(streamOperations).acknowledge(STREAM_KEY, GROUP, record.getId());
+    }
+
+    @Test
+    public void testConsume_allDuplicates() {
+        // 准备参数
+        ObjectRecord<String, String> record = buildRecord("1-0", "m1", "a");
+        // mock 方法
+        when(deduplicator.isDuplicate(STREAM_KEY, GROUP, "m1", true)).thenReturn(true);
+
+        // 调用
+        listener.consume(Collections.singletonList(record));
+        // 断言：不调用 onMessage，直接 ack
+        assertEquals(Collections.emptyList(), listener.contents);
+        verify(streamOperations).acknowledge(STREAM_KEY, GROUP, record.getId());
+    }
+
+    @Test
+    public void testConsume_failure() {
+        // 准备参数
+        ObjectRecord<String, String> record1 = buildRecord("1-0", "m1", "a");
+        ObjectRecord<String, String> record2 = buildRecord("2-0", "m2", "b");
+        // mock 方法：m1 已经消费过，处理 m2 失败
+        when(deduplicator.isDuplicate(STREAM_KEY, GROUP, "m1", true)).thenReturn(true);
+        listener.failure = new IllegalStateException("模拟处理失败");
+
+        // 调用
+        assertThrows(IllegalStateException.class, () -> listener.consume(Arrays.asList(record1, record2)));
+        // 断言：重复的消息已经 ack；处理失败的消息不记录、不 ack，保留在 Pending 列表中重新投递
+        verify(streamOperations).acknowledge(STREAM_KEY, GROUP, record1.getId());
+        verify(streamOperations, never()).acknowledge(STREAM_KEY, GROUP, record2.getId());
+        verify(deduplicator, never()).record(STREAM_KEY, GROUP, "m2");
+    }
+
+    private static ObjectRecord<String, String> buildRecord(String id, String messageId, String content) {
+        MessageCodec<TestMessage> codec = MessageCodec.of(TestMessage.class);
+        TestMessage message = new TestMessage(content);
+        String value = messageId != null ? codec.toJsonString(message, messageId) : codec.toJsonString(message);
+        return StreamRecords.newRecord().in(STREAM_KEY).withId(RecordId.of(id)).ofObject(value);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TestMessage implements StreamMessage {
+
+        private String content;
+
+        @Override
+        public String getStreamKey() {
+            return STREAM_KEY;
+        }
+
+    }
+
+    private static class TestBatchListener extends AbstractStreamMessageBatchListener<TestMessage> {
+
+        /**
+         * 处理过的消息内容
+         */
+        private final List<String> contents = new ArrayList<>();
+        /**
+         * 处理时抛出的异常。为 null 时，处理成功
+         */
+        private RuntimeException failure;
+
+        @Override
+        public void onMessage(List<TestMessage> messages) {
+            if (failure != null) {
+                throw failure;
+            }
+            messages.forEach(message -> contents.add(message.getContent()));
+        }
+
+    }
+
+}
@@ -0,0 +1,56 @@
+package cn.iocoder.yudao.framework.mq.core.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link SlidingWindowBloomFilter} 的单元测试
+ */
+public class SlidingWindowBloomFilterTest {
+
+    @Test
+    public void testMightContain() {
+        // 准备参数
+        SlidingWindowBloomFilter bloomFilter = new SlidingWindowBloomFilter(10_000, 0.01, Duration.ofMinutes(10));
+        for (int i = 0; i < 10_000; i++) {
+            bloomFilter.put("added-" + i);
+        }
+
+        // 断言：添加过的元素，一定判断存在
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(bloomFilter.mightContain("added-" + i));
+        }
+        // 断言：未添加过的元素，误判率接近期望值
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (bloomFilter.mightContain("absent-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "误判次数过多：" + falsePositives);
+    }
+
+    @Test
+    public void testWindowRotation() throws InterruptedException {
+        // 准备参数
+        SlidingWindowBloomFilter bloomFilter = new SlidingWindowBloomFilter(1000, 0.001, Duration.ofMillis(200));
+        bloomFilter.put("value");
+
+        // 断言：超过一个窗口后，轮换到「上一个」，仍然存在
+        Thread.sleep(300);
+        assertTrue(bloomFilter.mightContain("value"));
+        // 断言：窗口内新添加的元素，存在
+        bloomFilter.put("newer");
+        assertTrue(bloomFilter.mightContain("newer"));
+
+        // 断言：再超过一个窗口后，最老的一代被丢弃
+        Thread.sleep(300);
+        assertFalse(bloomFilter.mightContain("value"));
+        assertTrue(bloomFilter.mightContain("newer"));
+    }
+
+}
@@ -0,0 +1,190 @@
+package cn.iocoder.yudao.framework.mq.core.stream;
+
+import cn.iocoder.yudao.framework.mq.config.MQProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.verification.VerificationMode;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link StreamMessageDeduplicator} 的单元测试
+ *
+ * 使用 mock 的 {@link StringRedisTemplate}，校验本地布隆过滤器、缓冲、Redis 三层的判断，以及批量写入 Redis
+ */
+public class StreamMessageDeduplicatorTest {
+
+    private static final String STREAM_KEY = "test-stream";
+    private static final String GROUP = "test-group";
+    private static final String DEDUP_KEY_PREFIX = "mq_stream_dedup:{" + STREAM_KEY + ":" + GROUP + "}:";
+
+    private final StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+    private final MQProperties.StreamDedup properties = new MQProperties.StreamDedup();
+
+    @BeforeEach
+    public void setUp() {
+        properties.setTtl(Duration.ofHours(1));
+        properties.setLocalWindow(Duration.ofMinutes(10));
+    }
+
+    @Test
+    public void testIsDuplicate_firstDelivery() {
+        StreamMessageDeduplicator deduplicator = new StreamMessageDeduplicator(stringRedisTemplate, properties);
+
+        // 调用：首次投递、没有消息编号的消息，本地未命中时无需查询 Redis
+        assertFalse(deduplicator.isDuplicate(STREAM_KEY, GROUP, "m1", false));
+        // 断言
+        verifyContainsScript(never());
+        StreamMessageDeduplicator.Metrics metrics = deduplicator.getMetrics().get(STREAM_KEY);
+        assertEquals(1, metrics.getCheckCount());
+        assertEquals(0, metrics.getRemoteCheckCount());
+    }
+
+    @Test
+    public void testIsDuplicate_pending() {
+        StreamMessageDeduplicator deduplicator = new StreamMessageDeduplicator(stringRedisTemplate, properties);
+        deduplicator.record(STREAM_KEY, GROUP, "m1");
+
+        // 调用：还未写入 Redis 的消息编号，通过本地缓冲判断重复
+        assertTrue(deduplicator.isDuplicate(STREAM_KEY, GROUP, "m1", false));
+        // 断言
+        verifyContainsScript(never());
+        assertEquals(1, deduplicator.getMetrics().get(STREAM_KEY).getDuplicateCount());
+        // 断言：其它分组不受影响
+        assertFalse(deduplicator.isDuplicate(STREAM_KEY, "other-group", "m1", false));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testIsDuplicate_redelivered() {
+        StreamMessageDeduplicator deduplicator = new StreamMessageDeduplicator(stringRedisTemplate, properties);
+        // mock 方法：其它节点已经消费过
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), ArgumentMatchers.<Object>any())).thenReturn(1L);
+
+        // 调用：重新投递的消息，本地未命中时仍然查询 Redis
+        assertTrue(deduplicator.isDuplicate(STREAM_KEY, GROUP, "m1", true));
+        // 断言：查询 ttl 范围内的所有时间桶
+        ArgumentCaptor<List<String>> keysCaptor = ArgumentCaptor.forClass(List.class);
+        verify(stringRedisTemplate).execute(any(RedisScript.class), keysCaptor.capture(), eq("m1"));
+        assertEquals(25, keysCaptor.getValue().size());
+        keysCaptor.getValue().forEach(key -> assertTrue(key.startsWith(DEDUP_KEY_PREFIX), key));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testIsDuplicate_falsePositiveFallbackToRedis() {
+        // 准备参数：容量很小的布隆过滤器，写满后，未添加过的消息编号也会命中
+        properties.setLocalExpectedInsertions(1);
+        properties.setLocalFpp(0.5);
+        StreamMessageDeduplicator deduplicator = new StreamMessageDeduplicator(stringRedisTemplate, properties);
+        for (int i = 0; i < 500; i++) {
+            deduplicator.record(STREAM_KEY, GROUP, "recorded-" + i);
+        }
+        mockPipelined();
+        deduplicator.flush();
+        // mock 方法：Redis 中不存在
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), ArgumentMatchers.<Object>any())).thenReturn(0L);
+
+        // 调用：本地误判，查询 Redis 确认后，按照不重复处理
+        assertFalse(deduplicator.isDuplicate(STREAM_KEY, GROUP, "absent", false));
+        // 断言
+        verifyContainsScript(times(1));
+        StreamMessageDeduplicator.Metrics metrics = deduplicator.getMetrics().get(STREAM_KEY);
+        assertEquals(1, metrics.getLocalHitCount());
+        assertEquals(1, metrics.getRemoteCheckCount());
+        assertEquals(0, metrics.getDuplicateCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testIsDuplicate_redisFailure() {
+        StreamMessageDeduplicator deduplicator = new StreamMessageDeduplicator(stringRedisTemplate, properties);
+        // mock 方法：Redis 不可用
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), ArgumentMatchers.<Object>any()))
+                .thenThrow(new RedisConnectionFailureException("Redis 不可用"));
+
+        // 调用：按照不重复处理，保证消息至少消费一次
+        assertFalse(deduplicator.isDuplicate(STREAM_KEY, GROUP, "m1", true));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFlush() {
+        StreamMessageDeduplicator deduplicator = new StreamMessageDeduplicator(stringRedisTemplate, properties);
+        deduplicator.record(STREAM_KEY, GROUP, "m1");
+        deduplicator.record(STREAM_KEY, GROUP, "m2");
+        RedisOperations<String, String> operations = mockPipelined();
+        SetOperations<String, String> setOperations = operations.opsForSet();
+
+        // 调用
+        deduplicator.flush();
+        // 断言：写入当前的时间桶，并设置过期时间为 ttl + 一个桶
+        ArgumentCaptor<String> keyCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> idsCaptor = ArgumentCaptor.forClass(String.class);
+        verify(setOperations).add(keyCaptor.capture(), idsCaptor.capture());
+        assertTrue(keyCaptor.getValue().startsWith(DEDUP_KEY_PREFIX), keyCaptor.getValue());
+        assertEquals(2, idsCaptor.getAllValues().size());
+        assertTrue(idsCaptor.getAllValues().contains("m1"));
+        assertTrue(idsCaptor.getAllValues().contains("m2"));
+        long bucketMillis = properties.getTtl().toMillis() / 24;
+        verify(operations).expire(keyCaptor.getValue(), properties.getTtl().toMillis() + bucketMillis,
+                TimeUnit.MILLISECONDS);
+
+        // 调用：缓冲已经清空，再次 flush 不会写入
+        deduplicator.flush();
+        verify(stringRedisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        // 断言：写入后，通过 Redis 判断重复
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), ArgumentMatchers.<Object>any())).thenReturn(1L);
+        assertTrue(deduplicator.isDuplicate(STREAM_KEY, GROUP, "m1", false));
+        verify(stringRedisTemplate).execute(any(RedisScript.class), anyList(), eq("m1"));
+    }
+
+    /**
+     * mock pipeline 的执行：直接使用 mock 的 {@link RedisOperations} 执行回调
+     *
+     * @return mock 的 RedisOperations
+     */
+    @SuppressWarnings("unchecked")
+    private RedisOperations<String, String> mockPipelined() {
+        RedisOperations<String, String> operations = mock(RedisOperations.class);
+        SetOperations<String, String> setOperations = mock(SetOperations.class);
+        when(operations.opsForSet()).thenReturn(setOperations);
+        when(operations.expire(startsWith(DEDUP_KEY_PREFIX), anyLong(), eq(TimeUnit.MILLISECONDS))).thenReturn(true);
+        when(stringRedisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            SessionCallback<Object> callback = invocation.getArgument(0);
+            callback.execute(operations);
+            return null;
+        });
+        return operations;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void verifyContainsScript(VerificationMode mode) {
+        verify(stringRedisTemplate, mode).execute(any(RedisScript.class), anyList(), ArgumentMatchers.<Object>any());
+    }
+
+}
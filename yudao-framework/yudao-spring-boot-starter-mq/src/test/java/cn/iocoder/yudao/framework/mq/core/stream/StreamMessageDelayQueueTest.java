@@ -0,0 +1,265 @@
+package cn.iocoder.yudao.framework.mq.core.stream;
+
+import cn.iocoder.yudao.framework.mq.config.MQProperties;
+import cn.iocoder.yudao.framework.mq.core.transport.MessageTransport;
+import cn.iocoder.yudao.framework.mq.core.transport.TransportMessage;
+import cn.iocoder.yudao.framework.mq.core.util.MessageIdUtils;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link StreamMessageDelayQueue} 的单元测试
+ *
+ * 使用内存中模拟的 ZSET、HASH 替代 Redis，按照 Lua 脚本的语义执行，校验搬运线程的到期投递、批量搬运、租约重投、取消
+ */
+public class StreamMessageDelayQueueTest {
+
+    private static final String STREAM_KEY = "test-stream";
+
+    private final FakeRedis redis = new FakeRedis();
+    /**
+     * 投递到传输层的消息
+     */
+    private final List<TransportMessage> sentMessages = new CopyOnWriteArrayList<>();
+    /**
+     * 传输层需要失败的次数
+     */
+    private final AtomicInteger sendFailures = new AtomicInteger();
+
+    private final MQProperties.StreamDelay properties = new MQProperties.StreamDelay();
+    private StreamMessageDelayQueue delayQueue;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), ArgumentMatchers.<Object>any()))
+                .thenAnswer(invocation -> {
+                    Object[] arguments = invocation.getArguments();
+                    RedisScript<?> script = (RedisScript<?>) arguments[0];
+                    List<String> args = Arrays.stream(arguments, 2, arguments.length)
+                            .flatMap(arg -> arg instanceof Object[] ? Arrays.stream((Object[]) arg) : Stream.of(arg))
+                            .map(String::valueOf).collect(Collectors.toList());
+                    return redis.execute(script.getScriptAsString(), args);
+                });
+        ZSetOperations<String, String> zSetOperations = mock(ZSetOperations.class);
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.rangeWithScores(anyString(), anyLong(), anyLong())).thenAnswer(invocation -> redis.first());
+
+        MessageTransport messageTransport = messages -> {
+            if (sendFailures.getAndUpdate(count -> Math.max(count - 1, 0)) > 0) {
+                throw new IllegalStateException("模拟投递失败");
+            }
+            sentMessages.addAll(messages);
+        };
+        properties.setInterval(Duration.ofMillis(50));
+        properties.setBatchSize(10);
+        properties.setLease(Duration.ofMillis(300));
+        delayQueue = new StreamMessageDelayQueue(stringRedisTemplate, messageTransport, properties);
+        delayQueue.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        delayQueue.stop();
+    }
+
+    @Test
+    public void testSendStreamMessage_deliverWhenDue() throws InterruptedException {
+        // 调用
+        long deliverTime = System.currentTimeMillis() + 200;
+        String messageId = delayQueue.sendStreamMessage(new TestMessage("hello"), Duration.ofMillis(200));
+
+        // 断言：到期前不投递
+        Thread.sleep(100);
+        assertTrue(sentMessages.isEmpty());
+        // 断言：到期后投递到目标 Stream，并且从队列中删除
+        waitUntil(() -> !sentMessages.isEmpty(), 3000);
+        assertTrue(System.currentTimeMillis() >= deliverTime);
+        assertEquals(1, sentMessages.size());
+        TransportMessage sentMessage = sentMessages.get(0);
+        assertEquals(STREAM_KEY, sentMessage.getStreamKey());
+        MessageIdUtils.ParsedMessage<TestMessage> parsed = MessageIdUtils.parseObject(sentMessage.getContent(), TestMessage.class);
+        assertEquals("hello", parsed.getMessage().getContent());
+        assertEquals(messageId, parsed.getMessageId());
+        waitUntil(redis::isEmpty, 1000);
+        assertTrue(redis.isEmpty());
+    }
+
+    @Test
+    public void testSendStreamMessages_moveInBatches() throws InterruptedException {
+        // 调用：超过 batchSize 的到期消息
+        List<TestMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 35; i++) {
+            messages.add(new TestMessage(String.valueOf(i)));
+        }
+        delayQueue.sendStreamMessages(messages, new Date());
+
+        // 断言：分多批全部投递，无需等待 interval
+        waitUntil(() -> sentMessages.size() >= messages.size(), 3000);
+        assertEquals(messages.size(), sentMessages.size());
+        assertEquals(4, redis.claimCount.get());
+        assertEquals(messages.size(), delayQueue.getMetrics().getMovedCount());
+        waitUntil(redis::isEmpty, 1000);
+        assertTrue(redis.isEmpty());
+    }
+
+    @Test
+    public void testSendStreamMessage_redeliverAfterLease() throws InterruptedException {
+        // mock 方法：第一次投递失败
+        sendFailures.set(1);
+
+        // 调用
+        long startTime = System.currentTimeMillis();
+        delayQueue.sendStreamMessage(new TestMessage("retry"), Duration.ZERO);
+
+        // 断言：租约到期后，被重新认领投递
+        waitUntil(() -> !sentMessages.isEmpty(), 3000);
+        assertEquals(1, sentMessages.size());
+        assertTrue(System.currentTimeMillis() - startTime >= properties.getLease().toMillis());
+        assertTrue(redis.claimCount.get() >= 2);
+        waitUntil(redis::isEmpty, 1000);
+        assertTrue(redis.isEmpty());
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        // 准备参数
+        String messageId = delayQueue.sendStreamMessage(new TestMessage("cancel"), Duration.ofMillis(200));
+
+        // 调用
+        assertTrue(delayQueue.cancel(messageId));
+        // 断言：不再投递，重复取消返回 false
+        Thread.sleep(400);
+        assertTrue(sentMessages.isEmpty());
+        assertFalse(delayQueue.cancel(messageId));
+        assertTrue(redis.isEmpty());
+    }
+
+    private static void waitUntil(BooleanSupplier condition, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TestMessage implements StreamMessage {
+
+        private String content;
+
+        @Override
+        public String getStreamKey() {
+            return STREAM_KEY;
+        }
+
+    }
+
+    /**
+     * 内存中模拟的 Redis，按照 {@link StreamMessageDelayQueue} 中 Lua 脚本的语义执行
+     */
+    private static class FakeRedis {
+
+        /**
+         * 延迟消息的 ZSET，key 为消息编号，value 为 score
+         */
+        private final Map<String, Long> delay = new HashMap<>();
+        /**
+         * 延迟消息内容的 HASH
+         */
+        private final Map<String, String> content = new HashMap<>();
+        /**
+         * 认领到消息的次数
+         */
+        private final AtomicInteger claimCount = new AtomicInteger();
+
+        synchronized Object execute(String script, List<String> args) {
+            if (script.contains("ZRANGEBYSCORE")) { // 认领
+                long now = Long.parseLong(args.get(0));
+                int limit = Integer.parseInt(args.get(1));
+                long leaseTime = Long.parseLong(args.get(2));
+                List<String> ids = delay.entrySet().stream().filter(entry -> entry.getValue() <= now)
+                        .sorted(Map.Entry.comparingByValue()).limit(limit)
+                        .map(Map.Entry::getKey).collect(Collectors.toList());
+                List<String> result = new ArrayList<>(ids.size() * 2);
+                for (String id : ids) {
+                    delay.put(id, leaseTime);
+                    result.add(id);
+                    result.add(content.get(id));
+                }
+                if (!ids.isEmpty()) {
+                    claimCount.incrementAndGet();
+                }
+                return result;
+            }
+            if (script.contains("HSET")) { // 添加
+                for (int i = 0; i < args.size(); i += 3) {
+                    content.put(args.get(i + 1), args.get(i + 2));
+                    delay.put(args.get(i + 1), Long.parseLong(args.get(i)));
+                }
+                return (long) args.size() / 3;
+            }
+            if (script.contains("ZREM")) { // 删除
+                long count = 0;
+                for (String id : args) {
+                    if (delay.remove(id) != null) {
+                        count++;
+                    }
+                    content.remove(id);
+                }
+                return count;
+            }
+            throw new IllegalArgumentException("未知的脚本：" + script);
+        }
+
+        synchronized Set<ZSetOperations.TypedTuple<String>> first() {
+            return delay.entrySet().stream().min(Map.Entry.comparingByValue())
+                    .map(entry -> Collections.<ZSetOperations.TypedTuple<String>>singleton(
+                            new DefaultTypedTuple<>(entry.getKey(), entry.getValue().doubleValue())))
+                    .orElse(Collections.emptySet());
+        }
+
+        synchronized boolean isEmpty() {
+            return delay.isEmpty() && content.isEmpty();
+        }
+
+    }
+
+}
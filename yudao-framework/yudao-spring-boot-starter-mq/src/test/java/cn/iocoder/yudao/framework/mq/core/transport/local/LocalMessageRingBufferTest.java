@@ -0,0 +1,141 @@
+package cn.iocoder.yudao.framework.mq.core.transport.local;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link LocalMessageRingBuffer} 的单元测试
+ */
+public class LocalMessageRingBufferTest {
+
+    @Test
+    public void testPublishAndDrain_multiProducer() throws InterruptedException {
+        // 准备参数：4 个生产者并发发布，队列远小于消息总数，多次绕圈
+        int producerCount = 4;
+        int countPerProducer = 20_000;
+        LocalMessageRingBuffer buffer = new LocalMessageRingBuffer(1024);
+        List<Thread> producers = startProducers(buffer, producerCount, countPerProducer);
+
+        // 调用：单个消费者批量取出
+        List<String> contents = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (contents.size() < producerCount * countPerProducer && System.currentTimeMillis() < deadline) {
+            buffer.drainTo(contents, 100, () -> System.currentTimeMillis() < deadline);
+        }
+        for (Thread producer : producers) {
+            producer.join(1000);
+        }
+        // 断言：全部取出，并且每个生产者的消息保持发布顺序
+        assertEquals(producerCount * countPerProducer, contents.size());
+        assertProducerOrder(contents, producerCount, countPerProducer);
+        assertEquals(0, buffer.getBacklog());
+    }
+
+    @Test
+    public void testPublish_backPressure() throws InterruptedException {
+        // 准备参数：队列大小 3，向上取整为 4
+        LocalMessageRingBuffer buffer = new LocalMessageRingBuffer(3);
+        for (int i = 0; i < 4; i++) {
+            buffer.publish("m-" + i);
+        }
+
+        // 调用：队列已满，生产者等待
+        Thread producer = new Thread(() -> {
+            buffer.publish("m-4");
+            buffer.publish("m-5");
+        });
+        producer.start();
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertTrue(producer.isAlive(), "队列已满时，生产者需要等待");
+        // 调用：取出 2 条，腾出的槽位被绕圈写入
+        List<String> contents = new ArrayList<>();
+        assertEquals(2, buffer.drainTo(contents, 2, () -> true));
+        producer.join(5000);
+        assertFalse(producer.isAlive(), "腾出槽位后，生产者需要继续发布");
+        // 断言：绕圈后的消息，在之前的消息之后取出
+        buffer.drainTo(contents, 10, () -> false);
+        assertEquals(6, contents.size());
+        for (int i = 0; i < 6; i++) {
+            assertEquals("m-" + i, contents.get(i));
+        }
+    }
+
+    @Test
+    public void testPublish_wrapAroundUnderBackPressure() throws InterruptedException {
+        // 准备参数：很小的队列，生产者频繁被阻塞，等待消费者腾出槽位
+        int producerCount = 3;
+        int countPerProducer = 2_000;
+        LocalMessageRingBuffer buffer = new LocalMessageRingBuffer(4);
+        List<Thread> producers = startProducers(buffer, producerCount, countPerProducer);
+
+        // 调用：每次只取出 1 条
+        List<String> contents = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (contents.size() < producerCount * countPerProducer && System.currentTimeMillis() < deadline) {
+            buffer.drainTo(contents, 1, () -> System.currentTimeMillis() < deadline);
+        }
+        for (Thread producer : producers) {
+            producer.join(1000);
+        }
+        // 断言：没有丢失、没有覆盖未消费的消息
+        assertEquals(producerCount * countPerProducer, contents.size());
+        assertProducerOrder(contents, producerCount, countPerProducer);
+    }
+
+    @Test
+    public void testDrainTo_notRunning() {
+        // 准备参数
+        LocalMessageRingBuffer buffer = new LocalMessageRingBuffer(8);
+        buffer.publish("m-0");
+
+        // 调用：停止运行后，不再等待，但仍取出已经发布的消息
+        List<String> contents = new ArrayList<>();
+        assertEquals(1, buffer.drainTo(contents, 10, () -> false));
+        assertEquals(0, buffer.drainTo(contents, 10, () -> false));
+        assertEquals(1, contents.size());
+    }
+
+    private static List<Thread> startProducers(LocalMessageRingBuffer buffer, int producerCount, int countPerProducer) {
+        List<Thread> producers = new ArrayList<>(producerCount);
+        for (int i = 0; i < producerCount; i++) {
+            int producerIndex = i;
+            Thread producer = new Thread(() -> {
+                for (int j = 0; j < countPerProducer; j++) {
+                    buffer.publish(producerIndex + "-" + j);
+                }
+            }, "producer-" + i);
+            producer.setDaemon(true);
+            producer.start();
+            producers.add(producer);
+        }
+        return producers;
+    }
+
+    /**
+     * 断言每个生产者的消息，按照发布的顺序取出，没有重复、没有丢失
+     *
+     * @param contents 取出的消息
+     * @param producerCount 生产者数量
+     * @param countPerProducer 每个生产者发布的消息数量
+     */
+    private static void assertProducerOrder(List<String> contents, int producerCount, int countPerProducer) {
+        int[] nextIndexes = new int[producerCount];
+        for (String content : contents) {
+            String[] parts = content.split("-");
+            int producerIndex = Integer.parseInt(parts[0]);
+            assertEquals(nextIndexes[producerIndex]++, Integer.parseInt(parts[1]),
+                    "生产者(" + producerIndex + ") 的消息乱序");
+        }
+        for (int nextIndex : nextIndexes) {
+            assertEquals(countPerProducer, nextIndex);
+        }
+    }
+
+}
@@ -0,0 +1,166 @@
+package cn.iocoder.yudao.framework.mq.core.transport.local;
+
+import cn.iocoder.yudao.framework.mq.core.stream.AbstractStreamMessageBatchListener;
+import cn.iocoder.yudao.framework.mq.core.stream.StreamMessage;
+import cn.iocoder.yudao.framework.mq.core.transport.TransportMessage;
+import cn.iocoder.yudao.framework.mq.core.util.MessageCodec;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * {@link LocalMessageTransport} 的单元测试
+ */
+public class LocalMessageTransportTest {
+
+    private static final String STREAM_KEY = "test-local-stream";
+
+    private static final MessageCodec<TestMessage> CODEC = MessageCodec.of(TestMessage.class);
+
+    private LocalMessageTransport transport;
+
+    @AfterEach
+    public void tearDown() {
+        if (transport != null) {
+            transport.stop();
+        }
+    }
+
+    @Test
+    public void testSend_multiProducer() throws InterruptedException {
+        // 准备参数：很小的队列，生产者会被阻塞，等待消费者腾出槽位
+        transport = new LocalMessageTransport(8);
+        TestBatchListener listener = new TestBatchListener(0);
+        transport.registerStreamBatchListener(listener, 1, 16);
+        transport.start();
+
+        // 调用：4 个生产者并发发送
+        int producerCount = 4;
+        int countPerProducer = 2_000;
+        List<Thread> producers = new ArrayList<>(producerCount);
+        for (int i = 0; i < producerCount; i++) {
+            int producerIndex = i;
+            Thread producer = new Thread(() -> {
+                for (int j = 0; j < countPerProducer; j++) {
+                    transport.send(Collections.singletonList(buildMessage(producerIndex + "-" + j)));
+                }
+            }, "producer-" + i);
+            producer.start();
+            producers.add(producer);
+        }
+        for (Thread producer : producers) {
+            producer.join(30_000);
+        }
+        waitUntil(() -> listener.contents.size() >= producerCount * countPerProducer, 30_000);
+
+        // 断言：单个消费者时，每个生产者的消息保持发送顺序
+        assertEquals(producerCount * countPerProducer, listener.contents.size());
+        int[] nextIndexes = new int[producerCount];
+        for (String content : listener.contents) {
+            String[] parts = content.split("-");
+            int producerIndex = Integer.parseInt(parts[0]);
+            assertEquals(nextIndexes[producerIndex]++, Integer.parseInt(parts[1]),
+                    "生产者(" + producerIndex + ") 的消息乱序");
+        }
+    }
+
+    @Test
+    public void testStop_drainBacklog() {
+        // 准备参数：消费较慢，停止时仍有积压
+        transport = new LocalMessageTransport(1024);
+        TestBatchListener listener = new TestBatchListener(1);
+        transport.registerStreamBatchListener(listener, 2, 10);
+        transport.start();
+        List<TransportMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            messages.add(buildMessage(String.valueOf(i)));
+        }
+        transport.send(messages);
+
+        // 调用
+        transport.stop();
+        // 断言：stop 返回时，积压的消息已经全部处理，消费线程已经退出
+        assertFalse(transport.isRunning());
+        assertEquals(500, listener.contents.size());
+        assertEquals(0, listener.threads.stream().filter(Thread::isAlive).count());
+    }
+
+    @Test
+    public void testIsDurable() {
+        assertFalse(new LocalMessageTransport(8).isDurable());
+    }
+
+    private static TransportMessage buildMessage(String content) {
+        return TransportMessage.ofStream(STREAM_KEY, CODEC.toJsonString(new TestMessage(content)), null);
+    }
+
+    private static void waitUntil(BooleanSupplier condition, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TestMessage implements StreamMessage {
+
+        private String content;
+
+        @Override
+        public String getStreamKey() {
+            return STREAM_KEY;
+        }
+
+    }
+
+    private static class TestBatchListener extends AbstractStreamMessageBatchListener<TestMessage> {
+
+        /**
+         * 处理每批消息的耗时，单位：毫秒
+         */
+        private final long delayMillis;
+        /**
+         * 处理过的消息内容
+         */
+        private final List<String> contents = new CopyOnWriteArrayList<>();
+        /**
+         * 处理消息的线程
+         */
+        private final List<Thread> threads = new CopyOnWriteArrayList<>();
+
+        private TestBatchListener(long delayMillis) {
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public void onMessage(List<TestMessage> messages) {
+            if (!threads.contains(Thread.currentThread())) {
+                threads.add(Thread.currentThread());
+            }
+            if (delayMillis > 0) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            messages.forEach(message -> contents.add(message.getContent()));
+        }
+
+    }
+
+}
@@ -1,5 +1,6 @@
 package cn.iocoder.yudao.framework.mybatis.core.mapper;
 
+import cn.hutool.core.util.StrUtil;
 import cn.iocoder.yudao.framework.common.pojo.PageParam;
 import cn.iocoder.yudao.framework.common.pojo.PageResult;
 import cn.iocoder.yudao.framework.mybatis.core.util.MyBatisUtils;
@@ -9,7 +10,12 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * 在 MyBatis Plus 的 BaseMapper 的基础上拓展，提供更多的能力
@@ -21,7 +27,93 @@ public interface BaseMapperX<T> extends BaseMapper<T> {
         IPage<T> mpPage = MyBatisUtils.buildPage(pageParam);
         selectPage(mpPage, queryWrapper);
         // 转换返回
-        return new PageResult<>(mpPage.getRecords(), mpPage.getTotal());
+        return new PageResult<>(mpPage.getRecords(),
+                !Boolean.FALSE.equals(pageParam.getSearchCount()) ? mpPage.getTotal() : null);
+    }
+
+    /**
+     * 游标分页查询，按照 (timeColumn, id) 倒序
+     *
+     * 1. 传递 {@link PageParam#getCursor()} 游标时，通过 (timeColumn, id) 小于游标定位，不使用 OFFSET，深度翻页也不会变慢
+     * 2. 未传递游标时，仍然按照 {@link PageParam#getPageNo()} 页码查询，兼容页码翻页
+     * 3. {@link PageParam#getSearchCount()} 为 false 时，不查询总量，避免大表的 COUNT(*) 开销
+     *
+     * 注意，需要为 (timeColumn, id) 创建索引
+     *
+     * @param pageParam 分页参数
+     * @param queryWrapper 查询条件，不能包含排序
+     * @param timeColumn 时间字段
+     * @param timeGetter 时间字段的读取方法
+     * @param idGetter 编号字段的读取方法
+     * @return 分页结果，包含下一页的游标
+     */
+    default PageResult<T> selectCursorPage(PageParam pageParam, QueryWrapper<T> queryWrapper, String timeColumn,
+                                           Function<T, Date> timeGetter, Function<T, ? extends Number> idGetter) {
+        // 查询总量
+        Long total = null;
+        if (!Boolean.FALSE.equals(pageParam.getSearchCount())) {
+            total = selectCount(queryWrapper).longValue();
+            if (total == 0) {
+                return new PageResult<>(total);
+            }
+        }
+        // 拼接游标条件
+        String cursor = pageParam.getCursor();
+        if (StrUtil.isNotEmpty(cursor)) {
+            MyBatisUtils.addCursorCondition(queryWrapper, timeColumn,
+                    MyBatisUtils.parseCursorTime(cursor), MyBatisUtils.parseCursorId(cursor));
+        }
+        // 多查询一条，用于判断是否有下一页
+        int offset = StrUtil.isEmpty(cursor) ? (pageParam.getPageNo() - 1) * pageParam.getPageSize() : 0;
+        queryWrapper.orderByDesc(timeColumn).orderByDesc("id")
+                .last("LIMIT " + (pageParam.getPageSize() + 1) + " OFFSET " + offset);
+        List<T> list = selectList(queryWrapper);
+        if (list.size() <= pageParam.getPageSize()) {
+            return new PageResult<>(list, total, null);
+        }
+        // 计算下一页的游标
+        list = new ArrayList<>(list.subList(0, pageParam.getPageSize()));
+        T last = list.get(list.size() - 1);
+        return new PageResult<>(list, total, MyBatisUtils.buildCursor(timeGetter.apply(last),
+                idGetter.apply(last).longValue()));
+    }
+
+    /**
+     * 游标分批查询，按照 (timeColumn, id) 倒序，每批交给 consumer 处理
+     *
+     * 适合导出等需要遍历大量数据的场景：每次只在内存中保留一批数据，并且不使用 OFFSET，越往后也不会变慢
+     *
+     * @param queryWrapperSupplier 查询条件的构建器。每一批都会构建新的查询条件，不能包含排序
+     * @param timeColumn 时间字段
+     * @param timeGetter 时间字段的读取方法
+     * @param idGetter 编号字段的读取方法
+     * @param consumer 每一批数据的处理器
+     */
+    default void selectCursorBatch(Supplier<QueryWrapper<T>> queryWrapperSupplier, String timeColumn,
+                                   Function<T, Date> timeGetter, Function<T, ? extends Number> idGetter,
+                                   Consumer<List<T>> consumer) {
+        Date cursorTime = null;
+        Long cursorId = null;
+        while (true) {
+            QueryWrapper<T> queryWrapper = queryWrapperSupplier.get();
+            if (cursorTime != null) {
+                MyBatisUtils.addCursorCondition(queryWrapper, timeColumn, cursorTime, cursorId);
+            }
+            queryWrapper.orderByDesc(timeColumn).orderByDesc("id")
+                    .last("LIMIT " + MyBatisUtils.CURSOR_BATCH_SIZE);
+            List<T> list = selectList(queryWrapper);
+            if (list.isEmpty()) {
+                return;
+            }
+            consumer.accept(list);
+            // 不足一批，说明已经是最后一批
+            if (list.size() < MyBatisUtils.CURSOR_BATCH_SIZE) {
+                return;
+            }
+            T last = list.get(list.size() - 1);
+            cursorTime = timeGetter.apply(last);
+            cursorId = idGetter.apply(last).longValue();
+        }
     }
 
     default T selectOne(String field, Object value) {
@@ -1,12 +1,15 @@
 package cn.iocoder.yudao.framework.mybatis.core.util;
 
 import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.util.StrUtil;
 import cn.iocoder.yudao.framework.common.pojo.PageParam;
 import cn.iocoder.yudao.framework.common.pojo.SortingField;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.OrderItem;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 
 import java.util.Collection;
+import java.util.Date;
 import java.util.stream.Collectors;
 
 /**
@@ -14,13 +17,23 @@ import java.util.stream.Collectors;
  */
 public class MyBatisUtils {
 
+    /**
+     * 游标的分隔符
+     */
+    private static final String CURSOR_SEPARATOR = "_";
+    /**
+     * 游标分批查询时，每批的数量
+     */
+    public static final int CURSOR_BATCH_SIZE = 1000;
+
     public static <T> Page<T> buildPage(PageParam pageParam) {
         return buildPage(pageParam, null);
     }
 
     public static <T> Page<T> buildPage(PageParam pageParam, Collection<SortingField> sortingFields) {
         // 页码 + 数量
-        Page<T> page = new Page<>(pageParam.getPageNo(), pageParam.getPageSize());
+        Page<T> page = new Page<>(pageParam.getPageNo(), pageParam.getPageSize(),
+                !Boolean.FALSE.equals(pageParam.getSearchCount()));
         // 排序字段
         if (!CollectionUtil.isEmpty(sortingFields)) {
             page.addOrder(sortingFields.stream().map(sortingField -> SortingField.ORDER_ASC.equals(sortingField.getOrder()) ?
@@ -30,4 +43,48 @@ public class MyBatisUtils {
         return page;
     }
 
+    /**
+     * 构建游标，格式为 时间戳_编号
+     *
+     * @param time 时间
+     * @param id 编号
+     * @return 游标
+     */
+    public static String buildCursor(Date time, Long id) {
+        return time.getTime() + CURSOR_SEPARATOR + id;
+    }
+
+    /**
+     * 解析游标中的时间
+     *
+     * @param cursor 游标
+     * @return 时间
+     */
+    public static Date parseCursorTime(String cursor) {
+        return new Date(Long.parseLong(StrUtil.subBefore(cursor, CURSOR_SEPARATOR, false)));
+    }
+
+    /**
+     * 解析游标中的编号
+     *
+     * @param cursor 游标
+     * @return 编号
+     */
+    public static Long parseCursorId(String cursor) {
+        return Long.parseLong(StrUtil.subAfter(cursor, CURSOR_SEPARATOR, false));
+    }
+
+    /**
+     * 拼接游标条件，即 (timeColumn, id) 小于 (time, id)
+     *
+     * @param queryWrapper 查询条件
+     * @param timeColumn 时间字段
+     * @param time 游标中的时间
+     * @param id 游标中的编号
+     */
+    public static <T> void addCursorCondition(QueryWrapper<T> queryWrapper, String timeColumn, Date time, Long id) {
+        queryWrapper.and(w -> w.lt(timeColumn, time)
+                .or(w2 -> w2.eq(timeColumn, time).lt("id", id)));
+    }
+
 }
@@ -0,0 +1,45 @@
+package cn.iocoder.yudao.framework.apilog.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+
+/**
+ * API 错误日志配置属性
+ *
+ * @author 芋道源码
+ */
+@ConfigurationProperties(prefix = "yudao.api-error-log")
+@Validated
+@Data
+public class ApiErrorLogProperties {
+
+    /**
+     * 是否开启错误日志的聚合，默认为 true
+     *
+     * 开启后，相同指纹的异常在一个时间窗口内只记录一条，并累加次数
+     */
+    private boolean aggregateEnable = true;
+    /**
+     * 聚合的时间窗口，默认为 30 秒
+     */
+    @NotNull(message = "聚合的时间窗口不能为空")
+    private Duration aggregateWindow = Duration.ofSeconds(30);
+    /**
+     * 计算指纹时，使用的栈帧数量，默认为 5
+     */
+    @Min(value = 1, message = "指纹的栈帧数量不能小于 1")
+    private Integer fingerprintFrameCount = 5;
+    /**
+     * 一个时间窗口内，最多聚合的指纹数量，默认为 1000
+     *
+     * 超过时，新的指纹不再记录，避免内存无限增长
+     */
+    @Min(value = 1, message = "最多聚合的指纹数量不能小于 1")
+    private Integer maxFingerprintCount = 1000;
+
+}
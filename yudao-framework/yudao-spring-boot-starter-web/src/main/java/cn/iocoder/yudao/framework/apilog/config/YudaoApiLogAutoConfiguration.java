@@ -1,12 +1,16 @@
 package cn.iocoder.yudao.framework.apilog.config;
 
+import cn.iocoder.yudao.framework.apilog.core.aggregator.ApiErrorLogAggregator;
 import cn.iocoder.yudao.framework.apilog.core.filter.ApiAccessLogFilter;
 import cn.iocoder.yudao.framework.apilog.core.service.ApiAccessLogFrameworkService;
+import cn.iocoder.yudao.framework.apilog.core.service.ApiErrorLogFrameworkService;
 import cn.iocoder.yudao.framework.web.config.WebProperties;
 import cn.iocoder.yudao.framework.web.config.YudaoWebAutoConfiguration;
 import cn.iocoder.yudao.framework.common.enums.WebFilterOrderEnum;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -15,6 +19,7 @@ import javax.servlet.Filter;
 
 @Configuration
 @AutoConfigureAfter(YudaoWebAutoConfiguration.class)
+@EnableConfigurationProperties(ApiErrorLogProperties.class)
 public class YudaoApiLogAutoConfiguration {
 
     /**
@@ -28,6 +33,16 @@ public class YudaoApiLogAutoConfiguration {
         return createFilterBean(filter, WebFilterOrderEnum.API_ACCESS_LOG_FILTER);
     }
 
+    /**
+     * 创建 ApiErrorLogAggregator Bean，聚合 API 错误日志
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "yudao.api-error-log", value = "aggregate-enable", matchIfMissing = true)
+    public ApiErrorLogAggregator apiErrorLogAggregator(ApiErrorLogProperties properties,
+                                                       ApiErrorLogFrameworkService apiErrorLogFrameworkService) {
+        return new ApiErrorLogAggregator(properties, apiErrorLogFrameworkService);
+    }
+
     private static <T extends Filter> FilterRegistrationBean<T> createFilterBean(T filter, Integer order) {
         FilterRegistrationBean<T> bean = new FilterRegistrationBean<>(filter);
         bean.setOrder(order);
@@ -0,0 +1,208 @@
+package cn.iocoder.yudao.framework.apilog.core.aggregator;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.crypto.digest.DigestUtil;
+import cn.iocoder.yudao.framework.apilog.config.ApiErrorLogProperties;
+import cn.iocoder.yudao.framework.apilog.core.service.ApiErrorLogFrameworkService;
+import cn.iocoder.yudao.framework.apilog.core.service.dto.ApiErrorLogCreateReqDTO;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * API 错误日志的聚合器
+ *
+ * 在下游故障时，同一个异常可能每秒出现成千上万次，如果每次都记录完整的栈轨迹并插入一条记录，会拖垮数据库。
+ * 所以，按照「异常类 + 栈顶的若干帧」计算指纹，在一个时间窗口内，相同指纹只保留第一条作为代表，并累加次数。
+ * 窗口结束时，批量 upsert 到数据库
+ *
+ * 时间窗口按照 {@link ApiErrorLogProperties#getAggregateWindow()} 对齐，这样多个节点的同一指纹，会 upsert 到同一条记录
+ *
+ * @author 芋道源码
+ */
+@Slf4j
+public class ApiErrorLogAggregator {
+
+    private final ApiErrorLogProperties properties;
+    private final ApiErrorLogFrameworkService apiErrorLogFrameworkService;
+
+    private final ScheduledExecutorService scheduler;
+    /**
+     * 时间窗口，单位：毫秒
+     */
+    private final long windowMillis;
+    /**
+     * 当前的时间窗口
+     */
+    private volatile Window window;
+
+    public ApiErrorLogAggregator(ApiErrorLogProperties properties, ApiErrorLogFrameworkService apiErrorLogFrameworkService) {
+        this.properties = properties;
+        this.apiErrorLogFrameworkService = apiErrorLogFrameworkService;
+        this.windowMillis = properties.getAggregateWindow().toMillis();
+        this.window = new Window(alignWindowTime(System.currentTimeMillis()));
+        // 在窗口的边界处，定时刷新
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                new NamedThreadFactory("api-error-log-aggregator-", true));
+        long now = System.currentTimeMillis();
+        this.scheduler.scheduleAtFixedRate(this::flush, alignWindowTime(now) + windowMillis - now,
+                windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 添加异常，进行聚合
+     *
+     * @param ex 异常
+     * @param errorLogSupplier 错误日志的构建器。只有在当前窗口第一次出现该指纹时，才会调用，避免重复获取栈轨迹等开销
+     */
+    public void add(Throwable ex, Supplier<ApiErrorLogCreateReqDTO> errorLogSupplier) {
+        String fingerprint = buildFingerprint(ex);
+        while (true) {
+            Window window = this.window;
+            // 先登记写入，再检查窗口是否已经关闭。和 flush 的「先关闭，再等待写入完成」配合，保证不会丢失写入
+            window.writers.incrementAndGet();
+            try {
+                if (!window.closed) {
+                    add0(window, fingerprint, errorLogSupplier);
+                    return;
+                }
+            } finally {
+                window.writers.decrementAndGet();
+            }
+            // 窗口已经关闭，重试写入新的窗口
+        }
+    }
+
+    private void add0(Window window, String fingerprint, Supplier<ApiErrorLogCreateReqDTO> errorLogSupplier) {
+        Entry entry = window.entries.get(fingerprint);
+        if (entry == null) {
+            // 超过最大指纹数量，不再记录新的指纹
+            if (window.entries.size() >= properties.getMaxFingerprintCount()) {
+                window.droppedCount.increment();
+                return;
+            }
+            entry = window.entries.computeIfAbsent(fingerprint,
+                    key -> new Entry(errorLogSupplier.get().setExceptionFingerprint(key)));
+        }
+        entry.count.increment();
+    }
+
+    /**
+     * 刷新当前窗口，批量 upsert 到数据库
+     */
+    public void flush() {
+        // 切换窗口
+        Window oldWindow = this.window;
+        this.window = new Window(alignWindowTime(System.currentTimeMillis()));
+        // 关闭旧窗口，并等待进行中的写入完成。之后的写入，会发现窗口已经关闭，重试写入新的窗口
+        oldWindow.closed = true;
+        while (oldWindow.writers.get() > 0) {
+            Thread.yield();
+        }
+        if (oldWindow.droppedCount.sum() > 0) {
+            log.warn("[flush][窗口({}) 超过最大指纹数量({})，丢弃 {} 条错误日志]", new Date(oldWindow.time),
+                    properties.getMaxFingerprintCount(), oldWindow.droppedCount.sum());
+        }
+        if (oldWindow.entries.isEmpty()) {
+            return;
+        }
+        // 构建错误日志。此时旧窗口已经没有写入，次数是准确的
+        Date windowTime = new Date(oldWindow.time);
+        List<ApiErrorLogCreateReqDTO> errorLogs = new ArrayList<>(oldWindow.entries.size());
+        oldWindow.entries.values().forEach(entry -> errorLogs.add(entry.errorLog
+                .setExceptionCount(entry.count.intValue()).setExceptionWindowTime(windowTime)));
+        // 批量 upsert
+        try {
+            apiErrorLogFrameworkService.createApiErrorLogList(errorLogs);
+        } catch (Throwable th) {
+            log.error("[flush][窗口({}) 批量记录 {} 条错误日志发生异常]", windowTime, errorLogs.size(), th);
+        }
+    }
+
+    /**
+     * 关闭聚合器，刷新剩余的错误日志
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+        flush();
+    }
+
+    private String buildFingerprint(Throwable ex) {
+        StringBuilder sb = new StringBuilder(ex.getClass().getName());
+        StackTraceElement[] stackTraceElements = ex.getStackTrace();
+        int frameCount = Math.min(stackTraceElements.length, properties.getFingerprintFrameCount());
+        for (int i = 0; i < frameCount; i++) {
+            StackTraceElement element = stackTraceElements[i];
+            sb.append('|').append(element.getClassName()).append('#').append(element.getMethodName())
+                    .append(':').append(element.getLineNumber());
+        }
+        return DigestUtil.md5Hex(sb.toString());
+    }
+
+    private long alignWindowTime(long time) {
+        return time - time % windowMillis;
+    }
+
+    /**
+     * 时间窗口
+     */
+    private static class Window {
+
+        /**
+         * 窗口的开始时间
+         */
+        private final long time;
+        /**
+         * 指纹与聚合项的映射
+         */
+        private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+        /**
+         * 超过最大指纹数量，被丢弃的次数
+         */
+        private final LongAdder droppedCount = new LongAdder();
+        /**
+         * 是否已经关闭。关闭后，不再接受写入
+         */
+        private volatile boolean closed;
+        /**
+         * 进行中的写入数量
+         */
+        private final AtomicInteger writers = new AtomicInteger();
+
+        private Window(long time) {
+            this.time = time;
+        }
+
+    }
+
+    /**
+     * 聚合项
+     */
+    private static class Entry {
+
+        /**
+         * 代表的错误日志，即窗口内第一次出现的
+         */
+        private final ApiErrorLogCreateReqDTO errorLog;
+        /**
+         * 出现次数
+         */
+        private final LongAdder count = new LongAdder();
+
+        private Entry(ApiErrorLogCreateReqDTO errorLog) {
+            this.errorLog = errorLog;
+        }
+
+    }
+
+}
@@ -3,6 +3,7 @@ package cn.iocoder.yudao.framework.apilog.core.service;
 import cn.iocoder.yudao.framework.apilog.core.service.dto.ApiErrorLogCreateReqDTO;
 
 import javax.validation.Valid;
+import java.util.List;
 
 /**
  * API 错误日志 Framework Service 接口
@@ -18,4 +19,13 @@ public interface ApiErrorLogFrameworkService {
      */
     void createApiErrorLogAsync(@Valid ApiErrorLogCreateReqDTO createDTO);
 
+    /**
+     * 批量创建 API 错误日志
+     *
+     * 相同指纹、相同聚合窗口的错误日志已经存在时，累加次数
+     *
+     * @param createDTOs 创建信息数组
+     */
+    void createApiErrorLogList(@Valid List<ApiErrorLogCreateReqDTO> createDTOs);
+
 }
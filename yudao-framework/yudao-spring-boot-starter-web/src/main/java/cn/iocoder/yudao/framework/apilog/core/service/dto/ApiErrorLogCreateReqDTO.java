@@ -105,4 +105,23 @@ public class ApiErrorLogCreateReqDTO {
     @NotNull(message = "异常导致的消息不能为空")
     private String exceptionMessage;
 
+    /**
+     * 异常指纹
+     *
+     * 未开启聚合时，为空
+     */
+    private String exceptionFingerprint;
+    /**
+     * 异常次数，即聚合窗口内相同指纹出现的次数
+     *
+     * 未开启聚合时，为空
+     */
+    private Integer exceptionCount;
+    /**
+     * 聚合窗口的开始时间
+     *
+     * 未开启聚合时，为空
+     */
+    private Date exceptionWindowTime;
+
 }
@@ -5,6 +5,7 @@ import cn.hutool.core.map.MapUtil;
 import cn.hutool.extra.servlet.ServletUtil;
 import cn.iocoder.yudao.framework.common.exception.ServiceException;
 import cn.iocoder.yudao.framework.common.pojo.CommonResult;
+import cn.iocoder.yudao.framework.apilog.core.aggregator.ApiErrorLogAggregator;
 import cn.iocoder.yudao.framework.apilog.core.service.ApiErrorLogFrameworkService;
 import cn.iocoder.yudao.framework.apilog.core.service.dto.ApiErrorLogCreateReqDTO;
 import cn.iocoder.yudao.framework.common.util.monitor.TracerUtils;
@@ -50,6 +51,11 @@ public class GlobalExceptionHandler {
 
     private final ApiErrorLogFrameworkService apiErrorLogFrameworkService;
 
+    /**
+     * API 错误日志的聚合器，为空时表示不开启聚合
+     */
+    private final ApiErrorLogAggregator apiErrorLogAggregator;
+
     /**
      * 处理所有异常，主要是提供给 Filter 使用
      * 因为 Filter 不走 SpringMVC 的流程，但是我们又需要兜底处理异常，所以这里提供一个全量的异常处理过程，保持逻辑统一。
@@ -228,6 +234,19 @@ public class GlobalExceptionHandler {
     }
 
     private void createExceptionLog(HttpServletRequest req, Throwable e) {
+        // 开启聚合时，交给聚合器按照指纹聚合后，再批量插入
+        if (apiErrorLogAggregator != null) {
+            try {
+                apiErrorLogAggregator.add(e, () -> {
+                    ApiErrorLogCreateReqDTO errorLog = new ApiErrorLogCreateReqDTO();
+                    initExceptionLog(errorLog, req, e);
+                    return errorLog;
+                });
+            } catch (Throwable th) {
+                log.error("[createExceptionLog][url({}) 聚合错误日志发生异常]", req.getRequestURI(), th);
+            }
+            return;
+        }
         // 插入错误日志
         ApiErrorLogCreateReqDTO errorLog = new ApiErrorLogCreateReqDTO();
         try {
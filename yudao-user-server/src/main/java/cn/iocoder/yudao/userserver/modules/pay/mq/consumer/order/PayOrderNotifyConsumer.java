@@ -0,0 +1,32 @@
+package cn.iocoder.yudao.userserver.modules.pay.mq.consumer.order;
+
+import cn.iocoder.yudao.coreservice.modules.pay.mq.message.order.PayOrderNotifyMessage;
+import cn.iocoder.yudao.coreservice.modules.pay.service.order.PayOrderCoreService;
+import cn.iocoder.yudao.framework.mq.core.stream.AbstractStreamMessageBatchListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.List;
+
+/**
+ * 针对 {@link PayOrderNotifyMessage} 的消费者
+ *
+ * 批量消费，由 {@link PayOrderCoreService#processPayOrderNotifyMessages(List)} 按照支付订单分区并行处理，全部完成后再 ack
+ *
+ * @author 芋道源码
+ */
+@Component
+@Slf4j
+public class PayOrderNotifyConsumer extends AbstractStreamMessageBatchListener<PayOrderNotifyMessage> {
+
+    @Resource
+    private PayOrderCoreService payOrderCoreService;
+
+    @Override
+    public void onMessage(List<PayOrderNotifyMessage> messages) {
+        log.info("[onMessage][消息数量({})]", messages.size());
+        payOrderCoreService.processPayOrderNotifyMessages(messages);
+    }
+
+}